@@ -0,0 +1,81 @@
+package citadels;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the decks: creating, shuffling and drawing the district deck, and creating the characters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    /**
+     * A full district deck
+     */
+    private Deck<DistrictCard> deck;
+
+    /**
+     * The random number generator of the shuffles
+     */
+    private Random random;
+
+    /**
+     * Loads a full district deck
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        deck = DistrictCatalog.newDeck();
+        random = new GameRandom(42L);
+    }
+
+    /**
+     * Creates a shuffled full deck from the catalog, as every new game does
+     * @return the deck
+     */
+    @Benchmark
+    public Deck<DistrictCard> newDeck()
+    {
+        return DistrictCatalog.newDeck(random);
+    }
+
+    /**
+     * Shuffles the full deck
+     * @return the deck
+     */
+    @Benchmark
+    public Deck<DistrictCard> shuffle()
+    {
+        deck.shuffle(random);
+        return deck;
+    }
+
+    /**
+     * Draws the top card and puts it back at the bottom, so the deck stays full
+     * @return the drawn card
+     */
+    @Benchmark
+    public DistrictCard drawAndReturn()
+    {
+        DistrictCard card = deck.draw();
+        deck.add(card);
+        return card;
+    }
+
+    /**
+     * Creates the list of the eight characters, as every selection phase does
+     * @return the characters
+     */
+    @Benchmark
+    public List<CharacterCard> getCharacters()
+    {
+        return CharacterCard.getCharacters();
+    }
+}
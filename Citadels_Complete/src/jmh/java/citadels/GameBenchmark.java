@@ -0,0 +1,98 @@
+package citadels;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks of the game engine: a full headless AI game, one AI turn and the final scoring.
+ * <p>
+ * Every benchmark starts from the same seeded game, played to the middle of the game,
+ * so results are comparable between runs and releases.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+
+    /**
+     * The number of AI players at the table
+     */
+    @Param({"4", "7"})
+    public int players;
+
+    /**
+     * A seeded game after a few rounds, never changed by the benchmarks
+     */
+    private Game midGame;
+
+    /**
+     * The next seed of the full game benchmark
+     */
+    private long seed;
+
+    /**
+     * Plays the game every benchmark starts from
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        midGame = new Game(42L);
+        midGame.setUpHeadless(players);
+        for(int i=0; i<3; i++)
+        {
+            midGame.nextRound();
+        }
+    }
+
+    /**
+     * Plays a complete headless AI game with a new seed each time
+     * @return the winner of the game
+     */
+    @Benchmark
+    public Player playHeadless()
+    {
+        return new Game(seed++).playHeadless(players);
+    }
+
+    /**
+     * Copies the mid-game state, the baseline of takeTurn
+     * @return the copy
+     */
+    @Benchmark
+    public Game copy()
+    {
+        return midGame.copy();
+    }
+
+    /**
+     * Copies the mid-game state and plays the turn of the first player on it.
+     * Subtract the copy benchmark to get the cost of the turn.
+     * @return the game after the turn
+     */
+    @Benchmark
+    public Game copyAndTakeTurn()
+    {
+        Game game = midGame.copy();
+        ((AIPlayer) game.getPlayers().get(0)).takeTurn(game);
+        return game;
+    }
+
+    /**
+     * Scores the mid-game state as if the game ended
+     * @param blackhole consumes the scores
+     */
+    @Benchmark
+    public void gameScore(Blackhole blackhole)
+    {
+        blackhole.consume(midGame.gameScore());
+        for(Player p : midGame.getPlayers())
+        {
+            blackhole.consume(p.getScore());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package citadels;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmark of the searching AI: rollouts per second of the choice between gold and cards
+ * as the number of search threads grows, for both kinds of parallelism.
+ * <p>
+ * Each operation is one rollout, so the score is the number of playouts per second.
+ * The game is a seeded game at the start of the turn phase of its third round, never
+ * changed by the searches.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ISMCTSBenchmark {
+
+    /**
+     * The number of rollouts of each decision
+     */
+    private static final int ITERATIONS = 256;
+
+    /**
+     * The number of threads of the search
+     */
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    /**
+     * How the threads share the work
+     */
+    @Param({"ROOT", "TREE"})
+    public ISMCTSPlayer.Parallelism parallelism;
+
+    /**
+     * The game searched
+     */
+    private Game game;
+
+    /**
+     * The searching player, in the first seat
+     */
+    private ISMCTSPlayer player;
+
+    /**
+     * Plays the game the searches start from
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        game = new Game(42L);
+        game.setUpHeadless(5);
+        game.nextRound();
+        game.nextRound();
+        player = new ISMCTSPlayer(1, "Player 1", ITERATIONS, 0, ISMCTSPlayer.DEFAULT_ROLLOUT_ROUNDS);
+        player.setThreads(threads, parallelism);
+        game.replacePlayer(0, player);
+        game.resetRoundEffect();
+        game.selectionPhase();
+    }
+
+    /**
+     * Stops the threads of the searching player
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        player.close();
+    }
+
+    /**
+     * Searches the choice between gold and cards
+     * @return the choice
+     */
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public boolean chooseGold()
+    {
+        return player.chooseGold(game);
+    }
+}
@@ -0,0 +1,119 @@
+package citadels;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of saving and loading a game in the middle of play.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SaveBenchmark {
+
+    /**
+     * A seeded game after a few rounds
+     */
+    private Game game;
+
+    /**
+     * The file written and read by the benchmarks
+     */
+    private File file;
+
+    /**
+     * The game saved as JSON, decoded by the benchmarks without reading a file
+     */
+    private byte[] json;
+
+    /**
+     * The console output of the game, silenced while benchmarking
+     */
+    private PrintStream out;
+
+    /**
+     * Plays the game to save and writes it once, so loading has a file to read
+     * @throws IOException if the temporary file cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException
+    {
+        out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        game = new Game(42L);
+        game.setUpHeadless(7);
+        for(int i=0; i<4; i++)
+        {
+            game.nextRound();
+        }
+        file = File.createTempFile("citadels-bench", ".save");
+        game.saveToFile(file.getPath());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        game.writeJson(bytes);
+        json = bytes.toByteArray();
+    }
+
+    /**
+     * Deletes the file and restores the console output
+     */
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        file.delete();
+        System.setOut(out);
+    }
+
+    /**
+     * Saves the game
+     * @return the saved file
+     */
+    @Benchmark
+    public File saveToFile()
+    {
+        game.saveToFile(file.getPath());
+        return file;
+    }
+
+    /**
+     * Loads the saved game
+     * @return the loaded game
+     */
+    @Benchmark
+    public Game loadFromFile()
+    {
+        return Game.loadFromFile(file.getPath());
+    }
+
+    /**
+     * Decodes the JSON save straight into a game as it is read
+     * @return the decoded game
+     * @throws IOException if the JSON is not a saved game
+     */
+    @Benchmark
+    public Game readJson() throws IOException
+    {
+        return Game.readJson(new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the JSON save through a parsed JSONObject tree, as loading did before
+     * @return the decoded game
+     * @throws IOException if the JSON cannot be read
+     * @throws ParseException if the JSON is not valid
+     */
+    @Benchmark
+    public Game parseJsonTree() throws IOException, ParseException
+    {
+        Reader reader = new InputStreamReader(new ByteArrayInputStream(json), StandardCharsets.UTF_8);
+        return Game.fromJson((JSONObject) new JSONParser().parse(reader));
+    }
+}
@@ -0,0 +1,90 @@
+package citadels;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Benchmarks of the building blocks of tree search: generating moves, applying and
+ * undoing them in place.
+ * <p>
+ * The states are taken from the same seeded game after a few rounds. Compare applyAndUndo
+ * with GameBenchmark.copy, the cost of a search node that copies the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+    /**
+     * The number of AI players at the table
+     */
+    @Param({"4", "7"})
+    public int players;
+
+    /**
+     * A state in the turn phase of a seeded game
+     */
+    private GameState state;
+
+    /**
+     * The legal moves of the state
+     */
+    private final List<Move> moves = new ArrayList<>();
+
+    /**
+     * The move played next by applyAndUndo
+     */
+    private int next;
+
+    /**
+     * Plays the game to a turn with several legal moves
+     */
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        Game game = new Game(42L);
+        game.setUpHeadless(players);
+        for(int i=0; i<3; i++)
+        {
+            game.nextRound();
+        }
+        state = GameState.atRoundStart(game);
+        Random choice = new Random(42L);
+        while(state.getPhase() != GameState.Phase.BUILD || state.legalMoves().size() < 3)
+        {
+            List<Move> legal = state.legalMoves();
+            state.apply(legal.get(choice.nextInt(legal.size())));
+        }
+        state.legalMoves(moves);
+    }
+
+    /**
+     * Generates the legal moves of the state
+     * @return the moves
+     */
+    @Benchmark
+    public List<Move> legalMoves()
+    {
+        state.legalMoves(moves);
+        return moves;
+    }
+
+    /**
+     * Applies one of the legal moves and takes it back
+     * @return the seat of the player to decide after the move
+     */
+    @Benchmark
+    public int applyAndUndo()
+    {
+        state.apply(moves.get(next));
+        int actor = state.getActor();
+        state.undo();
+        next = (next + 1) % moves.size();
+        return actor;
+    }
+}
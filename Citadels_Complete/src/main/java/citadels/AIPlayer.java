@@ -2,16 +2,30 @@ package citadels;
 
 import static org.junit.Assert.assertNull;
 
+import java.io.IOException;
 import java.util.*;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import com.google.gson.stream.JsonWriter;
+
 /**
  * Model for a AI player
  */
 public class AIPlayer extends Player{
 
+    /**
+     * The thresholds of the rules the player plays by
+     */
+    private AIWeights weights = AIWeights.DEFAULT;
+
+    /**
+     * The random number generator of the choices made without a game, seeded by the id
+     * so that they repeat from run to run
+     */
+    private GameRandom random = new GameRandom(id);
+
     /**
      * Constructor for an AI Player, requires the id and name of player
      * call the super constructor
@@ -23,6 +37,48 @@ public class AIPlayer extends Player{
         super(id, name);
     }
 
+    /**
+     * Creates a copy of the AI player, with its own hand and city
+     * 
+     * @return a copy of the player
+     */
+    public AIPlayer copy()
+    {
+        AIPlayer p = new AIPlayer(id, name);
+        p.weights = weights;
+        p.random = random.copy();
+        copyStateTo(p);
+        return p;
+    }
+
+    /**
+     * Get the thresholds of the rules the player plays by
+     * @return the weights
+     */
+    public AIWeights getWeights()
+    {
+        return weights;
+    }
+
+    /**
+     * Sets the thresholds of the rules the player plays by
+     * @param weights the weights
+     */
+    public void setWeights(AIWeights weights)
+    {
+        this.weights = weights;
+    }
+
+    /**
+     * Sets the random number generator of the choices made without a game,
+     * for example a split of the game's generator
+     * @param random the generator
+     */
+    public void setRandom(GameRandom random)
+    {
+        this.random = random;
+    }
+
     /**
      * Converts the AI player to a JSONObject for saving.
      * 
@@ -43,39 +99,46 @@ public class AIPlayer extends Player{
         return obj;
     }
 
+    /**
+     * Writes the AI player as a JSON object straight to a stream, in the same form as toJson().
+     *
+     * @param out the JSON writer
+     * @throws IOException if writing fails
+     */
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("type").value("AIPlayer");
+        out.name("id").value(getId());
+        out.name("name").value(getName());
+        out.name("gold").value(getGold());
+        out.name("hand");
+        Player.writeCardList(out, hand);
+        out.name("city");
+        Player.writeCardList(out, city);
+        if (character != null) {
+            out.name("character");
+            character.writeJson(out);
+        }
+        out.endObject();
+    }
+
     /**
      * Converts JSONObject to a player for loading
      * @param obj JSONObject saved
      * @return AIPlayer object
      */
     public static AIPlayer fromJson(JSONObject obj) {
-        Object o = obj.get("id");
-        int id = 0;
-        if(o instanceof Long)
-        {
-            id = ((Long) o).intValue();
-        }
-        else
-        {
-            id = ((Integer) o).intValue();
-        }
+        int id = ((Number) obj.get("id")).intValue();
             
         String name = (String) obj.get("name");
         AIPlayer p = new AIPlayer(id, name);
 
-        Object o1 = obj.get("gold");
-        int g = 0;
-        if(o1 instanceof Long)
-        {
-            g = ((Long) o1).intValue();
-        }
-        else
-        {
-            g = ((Integer) o1).intValue();
-        }
-        p.setGold(g);
+        p.setGold(((Number) obj.get("gold")).intValue());
         p.hand = Player.cardListFromJson((JSONArray) obj.get("hand"));
-        p.city = Player.cardListFromJson((JSONArray) obj.get("city"));
+        p.city = new City(Player.cardListFromJson((JSONArray) obj.get("city")));
+        if (obj.containsKey("character")) {
+            p.setCharacter(CharacterCard.fromJson((JSONObject) obj.get("character")));
+        }
         return p;
     }
 
@@ -84,13 +147,39 @@ public class AIPlayer extends Player{
      * If the player has less gold, would choose thief or merchant
      * If the player has less card, would choose magician or architect
      * If the player's city has 7 or more district, would choose assassin or bishop
+     * (thresholds from the player's AIWeights)
+     * Any random choice draws from the player's generator, see setRandom.
      * 
      * @param availableCharacters list of available characters to choose from
      * @return the chosen character
      */
     public CharacterCard chooseCharacter(List<CharacterCard> availableCharacters)
     {
-        if(getGold() < 2)
+        return chooseCharacter(availableCharacters, random);
+    }
+
+    /**
+     * AIPlayer chooses a character from a list, drawing any random choice from the game.
+     * 
+     * @param game the current game instance
+     * @param availableCharacters list of available characters to choose from
+     * @return the chosen character
+     */
+    public CharacterCard chooseCharacter(Game game, List<CharacterCard> availableCharacters)
+    {
+        return chooseCharacter(availableCharacters, game.getRandom());
+    }
+
+    /**
+     * Picks a character by the gold, hand and city rules, falling back to a random one.
+     * 
+     * @param availableCharacters list of available characters to choose from
+     * @param random the random number generator used for the fallback
+     * @return the chosen character
+     */
+    private CharacterCard chooseCharacter(List<CharacterCard> availableCharacters, Random random)
+    {
+        if(getGold() < weights.get(AIWeights.POOR_GOLD))
         {
             for(CharacterCard c : availableCharacters)
             {
@@ -103,7 +192,7 @@ public class AIPlayer extends Player{
                     return c;
             }
         }
-        else if(getHand().size() < 2)
+        else if(getHand().size() < weights.get(AIWeights.SHORT_HAND))
         {
             for(CharacterCard c : availableCharacters)
             {
@@ -116,7 +205,7 @@ public class AIPlayer extends Player{
                     return c;
             }
         }
-        else if(getCity().size() >= 7)
+        else if(getCity().size() >= weights.get(AIWeights.ENDGAME_CITY))
         {
             for(CharacterCard c : availableCharacters)
             {
@@ -129,8 +218,7 @@ public class AIPlayer extends Player{
                     return c;
             }
         }
-        Random rand = new Random();
-        return availableCharacters.get(rand.nextInt(availableCharacters.size()));
+        return availableCharacters.get(random.nextInt(availableCharacters.size()));
     }
 
     /**
@@ -141,10 +229,10 @@ public class AIPlayer extends Player{
      */
     public void takeTurnLimited(Game game)
     {
-        if(getGold() < 2)
+        if(getGold() < weights.get(AIWeights.GOLD_BELOW))
         {
             addGold(2);
-            System.out.println(name + " collected 2 gold");
+            game.log(() -> name + " collected 2 gold");
         }
         else
         {
@@ -163,19 +251,19 @@ public class AIPlayer extends Player{
             if(choice==0)
             {
                 addGold(2);
-                System.out.println(name + " collected 2 gold");
+                game.log(() -> name + " collected 2 gold");
             }
             else
             {
-                System.out.println(name + " chooses card.");
+                game.log(() -> name + " chooses card.");
                 if (game.getDistrictDeck().size() == 0) 
                 {
-                    System.out.println("Not enough cards in the deck. Proceed to add Gold");
+                    game.log("Not enough cards in the deck. Proceed to add Gold");
                     addGold(2);
                 }
                 else if(game.getDistrictDeck().size() == 1)
                 {
-                    System.out.println("Only one card in the deck. Proceed to add card in hand");
+                    game.log("Only one card in the deck. Proceed to add card in hand");
                     DistrictCard c = game.getDistrictDeck().draw();
                     drawCard(c);
                 }
@@ -207,6 +295,27 @@ public class AIPlayer extends Player{
      * @param game the current game instance
      */
     public void takeTurn(Game game)
+    {
+        beginTurn(game);
+        if(chooseGold(game))
+        {
+            addGold(2);
+            game.log(() -> name + " collected 2 gold");
+        }
+        else
+        {
+            takeCards(game);
+        }
+        finishTurn(game);
+    }
+
+    /**
+     * First part of the turn: performs the character action and the purple district abilities
+     * used before collecting resources (Laboratory, Smithy, Armory, Museum).
+     * 
+     * @param game the current game instance
+     */
+    protected void beginTurn(Game game)
     {
         resetTurnFlags();
         CharacterCard character = getCharacter();
@@ -217,7 +326,7 @@ public class AIPlayer extends Player{
         }
             
         // Laboratory action
-        DistrictCard lab = getBuiltDistrict("Laboratory");
+        DistrictCard lab = getBuiltDistrict(DistrictCatalog.LABORATORY);
         if(lab != null && !hand.isEmpty())
         {
             int minIndex = 0;
@@ -228,18 +337,18 @@ public class AIPlayer extends Player{
                     minIndex = i;
                 }
             }
-            if(hand.get(minIndex).getCost() <= 2)
+            if(hand.get(minIndex).getCost() <= weights.get(AIWeights.LABORATORY_MAX_COST))
             {  
                 DistrictCard discard = hand.remove(minIndex);
                 addGold(1);
-                System.out.println(name + " used Laboratory to discard 1 card and gained 1 gold.");
+                game.log(() -> name + " used Laboratory to discard 1 card and gained 1 gold.");
             }
             
         }
 
         // Smithy action
-        DistrictCard smithy = getBuiltDistrict("Smithy");
-        if(smithy != null && gold>=2 && hand.size()<2)
+        DistrictCard smithy = getBuiltDistrict(DistrictCatalog.SMITHY);
+        if(smithy != null && gold>=2 && hand.size() < weights.get(AIWeights.SMITHY_HAND_BELOW))
         {
             gold -= 2;
             for(int i=0; i<3; i++)
@@ -250,11 +359,11 @@ public class AIPlayer extends Player{
                     hand.add(drawn);
                 }
             }
-            System.out.println(name + " used Smithy to draw 3 cards for 2 golds.");
+            game.log(() -> name + " used Smithy to draw 3 cards for 2 golds.");
         }
 
         // Armory action
-        DistrictCard armory = getBuiltDistrict("Armory");
+        DistrictCard armory = getBuiltDistrict(DistrictCatalog.ARMORY);
         if(armory != null)
         {
             Player targetPlayer = null;
@@ -275,7 +384,7 @@ public class AIPlayer extends Player{
                 }
             }
 
-            if(targetPlayer != null && targetDistrict.getCost() > 3)
+            if(targetPlayer != null && targetDistrict.getCost() > weights.get(AIWeights.ARMORY_MIN_COST))
             {
                 targetPlayer.getCity().remove(targetDistrict);
                 city.remove(armory);
@@ -283,12 +392,12 @@ public class AIPlayer extends Player{
                 {
                     game.deactivateBellTower();
                 }
-                System.out.println(name + " used Armory to destroy " + targetDistrict + " from " + targetPlayer.getName() + "'s city.");
+                game.log(name + " used Armory to destroy " + targetDistrict + " from " + targetPlayer.getName() + "'s city.");
             }
         }
 
         // Museum action
-        DistrictCard museum = getBuiltDistrict("Museum");
+        DistrictCard museum = getBuiltDistrict(DistrictCatalog.MUSEUM);
         if(museum != null && !hand.isEmpty())
         {
             DistrictCard toStore = hand.get(0);
@@ -300,148 +409,158 @@ public class AIPlayer extends Player{
                 }
             }
 
-            if(toStore.getCost() < 3)
+            if(toStore.getCost() < weights.get(AIWeights.MUSEUM_MAX_COST))
             {
                 hand.remove(toStore);
                 museum.storeCard(toStore);
-                System.out.println(name + " placed a card under Museum.");
+                game.log(() -> name + " placed a card under Museum.");
             }
         }
+    }
 
-        //Choice: Gold / Card
-        if(getGold() < 2)
+    /**
+     * Decides whether to collect 2 gold rather than draw cards this turn.
+     * Takes gold when short of gold or unable to afford the most expensive card in hand.
+     * 
+     * @param game the current game instance
+     * @return true to collect gold, false to draw cards
+     */
+    protected boolean chooseGold(Game game)
+    {
+        if(getGold() < weights.get(AIWeights.GOLD_BELOW))
+            return true;
+        int maxCost = 0;
+        for(DistrictCard d : hand)
         {
+            if(d.getCost()>maxCost)
+                maxCost = d.getCost();
+        }
+        return getGold() < maxCost;
+    }
+
+    /**
+     * Draws cards instead of collecting gold, keeping the most valuable card drawn
+     * unless the Library lets the player keep them all.
+     * 
+     * @param game the current game instance
+     */
+    protected void takeCards(Game game)
+    {
+        game.log(() -> name + " chooses card.");
+        if (game.getDistrictDeck().size() == 0) 
+        {
+            game.log("Not enough cards in the deck. Proceed to add Gold");
             addGold(2);
-            System.out.println(name + " collected 2 gold");
+        }
+        else if(game.getDistrictDeck().size() == 1)
+        {
+            game.log("Only one card in the deck. Proceed to add card in hand");
+            DistrictCard c = game.getDistrictDeck().draw();
+            drawCard(c);
         }
         else
         {
-            int maxCost = 0;
-            int choice;
-            for(DistrictCard d : hand)
+            DistrictCard observatory = getBuiltDistrict(DistrictCatalog.OBSERVATORY);
+            if(game.getDistrictDeck().size() < 3)
+                observatory = null;     //the Observatory draws a third card only if the deck has one
+            DistrictCard library = getBuiltDistrict(DistrictCatalog.LIBRARY);
+            DistrictCard selectedCard = null;
+
+            if(observatory != null && library != null)
             {
-                if(d.getCost()>maxCost)
-                    maxCost = d.getCost();
+                game.log(() -> "Observatory Action activated: " + name + " would draw 3 cards.");
+                game.log(() -> "Library Action activated: " + name + " would keep all 3 cards.");
+                DistrictCard card1 = game.getDistrictDeck().draw();
+                DistrictCard card2 = game.getDistrictDeck().draw();
+                DistrictCard card3 = game.getDistrictDeck().draw();
+                drawCard(card1);
+                drawCard(card2);
+                drawCard(card3);
             }
-            if(getGold() < maxCost)
-                choice = 0;
-            else
-                choice = 1;
-            if(choice==0)
+            else if(library != null)
             {
-                addGold(2);
-                System.out.println(name + " collected 2 gold");
+                game.log(() -> "Library Action activated: " + name + " would keep all 2 cards.");
+                DistrictCard card1 = game.getDistrictDeck().draw();
+                DistrictCard card2 = game.getDistrictDeck().draw();
+                drawCard(card1);
+                drawCard(card2);
             }
             else
             {
-                System.out.println(name + " chooses card.");
-                if (game.getDistrictDeck().size() == 0) 
-                {
-                    System.out.println("Not enough cards in the deck. Proceed to add Gold");
-                    addGold(2);
-                }
-                else if(game.getDistrictDeck().size() == 1)
+                if(observatory != null)
                 {
-                    System.out.println("Only one card in the deck. Proceed to add card in hand");
-                    DistrictCard c = game.getDistrictDeck().draw();
-                    drawCard(c);
+                    game.log(() -> "Observatory Action activated: " + name + " would draw 3 cards.");
+                    DistrictCard card1 = game.getDistrictDeck().draw();
+                    DistrictCard card2 = game.getDistrictDeck().draw();
+                    DistrictCard card3 = game.getDistrictDeck().draw();
+                    if(card1.isGreater(card2) && card1.isGreater(card3))
+                    {
+                        selectedCard = card1;
+                        game.getDistrictDeck().add(card2);
+                        game.getDistrictDeck().add(card3);
+                    }
+                    else if(card2.isGreater(card1) && card2.isGreater(card3))
+                    {
+                        selectedCard = card2;
+                        game.getDistrictDeck().add(card1);
+                        game.getDistrictDeck().add(card3);
+                    }
+                    else
+                    {
+                        selectedCard = card3;
+                        game.getDistrictDeck().add(card1);
+                        game.getDistrictDeck().add(card2);
+                    }
+                    drawCard(selectedCard);
                 }
                 else
                 {
-                    DistrictCard observatory = getBuiltDistrict("Observatory");
-                    DistrictCard library = getBuiltDistrict("Library");
-                    DistrictCard selectedCard = null;
-
-                    if(observatory != null && library != null)
-                    {
-                        System.out.println("Observatory Action activated: " + name + " would draw 3 cards.");
-                        System.out.println("Library Action activated: " + name + " would keep all 3 cards.");
-                        DistrictCard card1 = game.getDistrictDeck().draw();
-                        DistrictCard card2 = game.getDistrictDeck().draw();
-                        DistrictCard card3 = game.getDistrictDeck().draw();
-                        drawCard(card1);
-                        drawCard(card2);
-                        drawCard(card3);
-                    }
-                    else if(library != null)
+                    DistrictCard card1 = game.getDistrictDeck().draw();
+                    DistrictCard card2 = game.getDistrictDeck().draw();
+                    if(card1.isGreater(card2))
                     {
-                        System.out.println("Library Action activated: " + name + " would keep all 2 cards.");
-                        DistrictCard card1 = game.getDistrictDeck().draw();
-                        DistrictCard card2 = game.getDistrictDeck().draw();
-                        drawCard(card1);
-                        drawCard(card2);
+                        selectedCard = card1;
+                        game.getDistrictDeck().add(card2);
                     }
                     else
                     {
-                        if(observatory != null)
-                        {
-                            System.out.println("Observatory Action activated: " + name + " would draw 3 cards.");
-                            DistrictCard card1 = game.getDistrictDeck().draw();
-                            DistrictCard card2 = game.getDistrictDeck().draw();
-                            DistrictCard card3 = game.getDistrictDeck().draw();
-                            if(card1.isGreater(card2) && card1.isGreater(card3))
-                            {
-                                selectedCard = card1;
-                                game.getDistrictDeck().add(card2);
-                                game.getDistrictDeck().add(card3);
-                            }
-                            else if(card2.isGreater(card1) && card2.isGreater(card3))
-                            {
-                                selectedCard = card2;
-                                game.getDistrictDeck().add(card1);
-                                game.getDistrictDeck().add(card3);
-                            }
-                            else
-                            {
-                                selectedCard = card3;
-                                game.getDistrictDeck().add(card1);
-                                game.getDistrictDeck().add(card2);
-                            }
-                            drawCard(selectedCard);
-                        }
-                        else
-                        {
-                            DistrictCard card1 = game.getDistrictDeck().draw();
-                            DistrictCard card2 = game.getDistrictDeck().draw();
-                            if(card1.isGreater(card2))
-                            {
-                                selectedCard = card1;
-                                game.getDistrictDeck().add(card2);
-                            }
-                            else
-                            {
-                                selectedCard = card2;
-                                game.getDistrictDeck().add(card1);
-                            }
-                            drawCard(selectedCard);
-                        }
+                        selectedCard = card2;
+                        game.getDistrictDeck().add(card1);
                     }
+                    drawCard(selectedCard);
                 }
-                
-                
             }
         }
-        
+    }
+
+    /**
+     * Last part of the turn: builds the most expensive districts affordable,
+     * then applies the end of turn abilities (Poor House, Park).
+     * 
+     * @param game the current game instance
+     */
+    protected void finishTurn(Game game)
+    {
         if(game.isDebugMode())
         {
-            System.out.print("Debug: ");
+            game.getOut().print("Debug: ");
             List<DistrictCard> hand = getHand();
             if (hand.isEmpty()) 
             {
-                System.out.println("(no cards in hand)");
+                game.getOut().println("(no cards in hand)");
             } 
             else 
             {
                 for (int i = 0; i < hand.size(); i++) 
                 {
                     DistrictCard c = hand.get(i);
-                    System.out.print(c);
+                    game.getOut().print(c);
                     if (i != hand.size() - 1)
                     {
-                        System.out.print(", ");
+                        game.getOut().print(", ");
                     }
                 }
-                System.out.println();
+                game.getOut().println();
             }
         }
 
@@ -471,7 +590,7 @@ public class AIPlayer extends Player{
                 int buildCost = c.getCost();
                 if(c.getColor().equalsIgnoreCase("purple") && !c.getName().equalsIgnoreCase("Factory"))
                 {
-                    DistrictCard factory = getBuiltDistrict("Factory");
+                    DistrictCard factory = getBuiltDistrict(DistrictCatalog.FACTORY);
                     if(factory!=null)
                     {
                         buildCost -= 1;
@@ -485,23 +604,22 @@ public class AIPlayer extends Player{
                     city.add(c);
                     hand.remove(c);
                     c.setBuiltRound(game.getRound());
-                    System.out.println(name + " built " + c + " in their city.");
+                    game.log(() -> name + " built " + c + " in their city.");
                     increaseBuildCount();
                     isBuilt = true;
 
-                    if(c.getName().equalsIgnoreCase("Lighthouse"))
+                    if(c.getName().equalsIgnoreCase("Lighthouse") && !game.getDistrictDeck().isEmpty())
                     {
-                        List<DistrictCard> all = game.getDistrictDeck().getAllCards();
-                        DistrictCard best = all.get(0);
-                        for(DistrictCard d : all)
+                        Deck<DistrictCard> deck = game.getDistrictDeck();
+                        int best = 0;
+                        for(int i=1; i<deck.size(); i++)
                         {
-                            if(d.isGreater(best))
-                                best = d;
+                            if(deck.get(i).isGreater(deck.get(best)))
+                                best = i;
                         }
-                        drawCard(best);
-                        System.out.println(name + " used Lighthouse to add one card to hand.");
-                        game.getDistrictDeck().getAllCards().remove(best);
-                        game.getDistrictDeck().shuffle();
+                        drawCard(deck.remove(best));
+                        game.log(() -> name + " used Lighthouse to add one card to hand.");
+                        deck.shuffle(game.getRandom());
                     }
 
                     if (c.getName().equalsIgnoreCase("Bell Tower") && city.size() <= 7)
@@ -523,17 +641,17 @@ public class AIPlayer extends Player{
         }
 
         // End turn, poor house and park action
-        DistrictCard poorHouse = getBuiltDistrict("Poor House");
+        DistrictCard poorHouse = getBuiltDistrict(DistrictCatalog.POOR_HOUSE);
         if(poorHouse != null && gold == 0)
         {
             addGold(1);
-            System.out.println(name + " activated Poor House and received 1 gold.");
+            game.log(() -> name + " activated Poor House and received 1 gold.");
         }
 
-        DistrictCard park = getBuiltDistrict("Park");
+        DistrictCard park = getBuiltDistrict(DistrictCatalog.PARK);
         if(park != null && hand.isEmpty())
         {
-            System.out.println(name + " activated Park and draw 2 cards from the district deck.");
+            game.log(() -> name + " activated Park and draw 2 cards from the district deck.");
             drawCard(game.getDistrictDeck().draw());
             drawCard(game.getDistrictDeck().draw());
         }
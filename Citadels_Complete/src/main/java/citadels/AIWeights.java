@@ -0,0 +1,265 @@
+package citadels;
+
+import java.util.*;
+
+/**
+ * The thresholds of the AIPlayer rules and of the AI character actions, as a vector of
+ * parameters that can be tuned.
+ * <p>
+ * Each parameter has a name, the value the rules were written with and a range. Values
+ * are real numbers, so an optimizer can move them by small steps; the rules compare with
+ * the nearest whole number. A set of weights is immutable.
+ */
+public final class AIWeights {
+
+    /**
+     * Choose the Thief or the Merchant with less gold than this
+     */
+    public static final int POOR_GOLD = 0;
+
+    /**
+     * Choose the Magician or the Architect with fewer cards in hand than this
+     */
+    public static final int SHORT_HAND = 1;
+
+    /**
+     * Choose the Assassin or the Bishop with at least this many districts
+     */
+    public static final int ENDGAME_CITY = 2;
+
+    /**
+     * Collect gold rather than draw cards with less gold than this
+     */
+    public static final int GOLD_BELOW = 3;
+
+    /**
+     * Discard the cheapest card with the Laboratory if it costs at most this
+     */
+    public static final int LABORATORY_MAX_COST = 4;
+
+    /**
+     * Use the Smithy with fewer cards in hand than this
+     */
+    public static final int SMITHY_HAND_BELOW = 5;
+
+    /**
+     * Destroy a district with the Armory if it costs more than this
+     */
+    public static final int ARMORY_MIN_COST = 6;
+
+    /**
+     * Place the cheapest card under the Museum if it costs less than this
+     */
+    public static final int MUSEUM_MAX_COST = 7;
+
+    /**
+     * The Magician swaps a hand of at most this many cards with no purple district
+     */
+    public static final int MAGICIAN_BAD_HAND = 8;
+
+    /**
+     * The Magician keeps the cards costing at least this and discards the others
+     */
+    public static final int MAGICIAN_KEEP_COST = 9;
+
+    /**
+     * Take back a district destroyed by the Warlord with the Graveyard if it costs at least this
+     */
+    public static final int GRAVEYARD_MIN_COST = 10;
+
+    /**
+     * The names of the parameters, by index
+     */
+    private static final String[] NAMES = {"poorGold", "shortHand", "endgameCity", "goldBelow",
+            "laboratoryMaxCost", "smithyHandBelow", "armoryMinCost", "museumMaxCost",
+            "magicianBadHand", "magicianKeepCost", "graveyardMinCost"};
+
+    /**
+     * The values the rules were written with
+     */
+    private static final double[] DEFAULTS = {2, 2, 7, 2, 2, 2, 3, 3, 2, 3, 3};
+
+    /**
+     * The smallest value of each parameter
+     */
+    private static final double[] MIN = {0, 0, 3, 0, 0, 0, 0, 0, 0, 1, 1};
+
+    /**
+     * The largest value of each parameter
+     */
+    private static final double[] MAX = {8, 6, 8, 8, 6, 6, 6, 6, 6, 6, 6};
+
+    /**
+     * The number of parameters
+     */
+    public static final int SIZE = NAMES.length;
+
+    /**
+     * The weights the rules were written with
+     */
+    public static final AIWeights DEFAULT = new AIWeights(DEFAULTS);
+
+    /**
+     * The value of each parameter
+     */
+    private final double[] values;
+
+    /**
+     * The value of each parameter rounded to the nearest whole number
+     */
+    private final int[] thresholds;
+
+    /**
+     * Constructor for a set of weights, each value clamped to the range of its parameter
+     * @param values the value of each parameter, SIZE values
+     */
+    public AIWeights(double[] values)
+    {
+        if(values.length != SIZE)
+        {
+            throw new IllegalArgumentException("Expected " + SIZE + " weights: " + values.length);
+        }
+        this.values = new double[SIZE];
+        this.thresholds = new int[SIZE];
+        for(int i=0; i<SIZE; i++)
+        {
+            this.values[i] = Math.max(MIN[i], Math.min(MAX[i], values[i]));
+            this.thresholds[i] = (int) Math.round(this.values[i]);
+        }
+    }
+
+    /**
+     * Get the weights an AI player plays with
+     * @param player the player
+     * @return the weights of an AIPlayer, the default weights for any other player
+     */
+    public static AIWeights of(Player player)
+    {
+        return player instanceof AIPlayer ? ((AIPlayer) player).getWeights() : DEFAULT;
+    }
+
+    /**
+     * Get the threshold a rule compares with
+     * @param index index of the parameter
+     * @return the value rounded to the nearest whole number
+     */
+    public int get(int index)
+    {
+        return thresholds[index];
+    }
+
+    /**
+     * Get the value of a parameter
+     * @param index index of the parameter
+     * @return the value
+     */
+    public double getValue(int index)
+    {
+        return values[index];
+    }
+
+    /**
+     * Get the value of every parameter
+     * @return a copy of the values
+     */
+    public double[] getValues()
+    {
+        return values.clone();
+    }
+
+    /**
+     * Returns these weights with one parameter changed
+     * @param index index of the parameter
+     * @param value the new value, clamped to the range of the parameter
+     * @return the new weights
+     */
+    public AIWeights with(int index, double value)
+    {
+        double[] v = values.clone();
+        v[index] = value;
+        return new AIWeights(v);
+    }
+
+    /**
+     * Get the name of a parameter
+     * @param index index of the parameter
+     * @return the name
+     */
+    public static String getName(int index)
+    {
+        return NAMES[index];
+    }
+
+    /**
+     * Get the smallest value of a parameter
+     * @param index index of the parameter
+     * @return the lower end of its range
+     */
+    public static double getMin(int index)
+    {
+        return MIN[index];
+    }
+
+    /**
+     * Get the largest value of a parameter
+     * @param index index of the parameter
+     * @return the upper end of its range
+     */
+    public static double getMax(int index)
+    {
+        return MAX[index];
+    }
+
+    /**
+     * Reads weights written by toString(), parameters not given keep their default
+     * @param text the weights, such as "poorGold=3.0, endgameCity=6.5"
+     * @return the weights
+     * @throws IllegalArgumentException if a parameter is unknown or a value is not a number
+     */
+    public static AIWeights parse(String text)
+    {
+        double[] v = DEFAULTS.clone();
+        for(String part : text.split(","))
+        {
+            if(part.isBlank())
+                continue;
+            String[] pair = part.split("=");
+            int index = Arrays.asList(NAMES).indexOf(pair[0].trim());
+            if(index < 0 || pair.length != 2)
+            {
+                throw new IllegalArgumentException("Unknown AI weight: " + part.trim());
+            }
+            v[index] = Double.parseDouble(pair[1].trim());
+        }
+        return new AIWeights(v);
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        return o instanceof AIWeights && Arrays.equals(values, ((AIWeights) o).values);
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Arrays.hashCode(values);
+    }
+
+    /**
+     * Return every parameter as name=value, separated by commas
+     * @return the weights
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        for(int i=0; i<SIZE; i++)
+        {
+            if(i > 0)
+                sb.append(", ");
+            sb.append(NAMES[i]).append('=').append(values[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -1,8 +1,5 @@
 package citadels;
 
-import java.net.URLDecoder;
-import java.nio.charset.StandardCharsets;
-
 import java.io.*;
 import java.util.*;
 
@@ -10,85 +7,24 @@ import java.util.*;
  * Entry point and utility class for running the Citadels game.
  */
 public class App {
-	
-    /**
-     * File object representing the "cards.tsv" resource used to load district cards.
-     */
-	private File cardsFile;
-
-    
 
     /**
-     * Constructor for a new App instance and initializes the cards file.
-     * 
-     * Attempts to locate and decode the path to the "cards.tsv" resource file
-     * located in the same package as this class. If decoding fails, a RuntimeException is thrown.
-     */
-	public App() {
-		try 
-        {
-            cardsFile = new File(URLDecoder.decode(this.getClass().getResource("cards.tsv").getPath(), StandardCharsets.UTF_8.name()));
-        } 
-        catch (UnsupportedEncodingException e) 
-        {
-            throw new RuntimeException(e);
-        }
-	}
-
-     /**
-     * Loads the district deck from the "cards.tsv" file located in the project directory.
-     * Error message is printed if the file is not found.
+     * Loads the district deck with every copy of every district type in the catalog,
+     * read once from the "cards.tsv" file. All copies of a type share its DistrictType.
      *
-     * @return a deck of DistrictCard objects
+     * @return a deck of DistrictCard objects, see DistrictCatalog.newDeck()
      */
     public Deck<DistrictCard> loadDistrictDeck() 
     {
-        Deck<DistrictCard> deck = new Deck<>();
-        //BufferedReader read full line at one time, easier to
-        try
-        {
-            InputStream input = this.getClass().getResourceAsStream("/citadels/cards.tsv");
-            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
-            String line;
-            boolean is_header = true;
-            while ((line = reader.readLine()) != null) 
-            {
-                if(is_header)
-                {
-                    is_header = false;
-                    continue;
-                }
-                String[] parts = line.split("\t");
-    
-                String name = parts[0];
-                String color = parts[2];
-                int cost = Integer.parseInt(parts[3]);
-                int quantity = Integer.parseInt(parts[1]);
-                String ability = "";
-                if(parts.length > 4)
-                {
-                    ability = parts[4];
-                }
-    
-                for (int i = 0; i < quantity; i++) 
-                {
-                    deck.add(new DistrictCard(name, cost, color, ability));
-                }
-            }
-            reader.close();
-        } 
-        catch (IOException e) 
-        {
-            System.err.println("Error reading district cards: " + e.getMessage());
-        }
-        return deck;
+        return DistrictCatalog.newDeck();
     }
     
 
     /**
      * Main method that launches the Citadels game.
+     * With --record, a new game is recorded to GameRecording.DEFAULT_FILE in the save directory.
      *
-     * @param args command-line arguments (not used)
+     * @param args command-line arguments: --record to record a new game
      */
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
@@ -98,11 +34,37 @@ public class App {
         String choice = scanner.nextLine().trim().toLowerCase();
 
         if (choice.equals("yes")) {
-            System.out.println("Enter filename (e.g., save1.json):");
+            List<SaveEntry> saves = new ArrayList<>();
+            SaveLibrary library = null;
+            try {
+                library = new SaveLibrary(new File(SaveLibrary.DEFAULT_DIRECTORY));
+                saves = library.list();
+            } catch (IOException e) {
+                System.out.println("Error opening saved games: " + e.getMessage());
+            }
+            for (int i = 0; i < saves.size(); i++) {
+                System.out.println((i + 1) + ". " + saves.get(i));
+            }
+            if (saves.isEmpty()) {
+                System.out.println("Enter filename (e.g., save1.json):");
+            } else {
+                System.out.println("Enter the number of a saved game, or a filename (e.g., save1.json):");
+            }
             System.out.print("> ");
             String filename = scanner.nextLine().trim();
 
-            Game loaded = Game.loadFromFile(filename);
+            Game loaded;
+            int index = -1;
+            try {
+                index = Integer.parseInt(filename) - 1;
+            } catch (NumberFormatException e) {
+                // a filename
+            }
+            if (index >= 0 && index < saves.size()) {
+                loaded = library.resume(saves.get(index).getName());
+            } else {
+                loaded = Game.loadFromFile(filename);
+            }
             if (loaded != null) {
                 loaded.start(true); // continue the loaded game
                 return;
@@ -111,8 +73,18 @@ public class App {
             }
         }
         
-        App app = new App();
         Game game = new Game();
+        if (Arrays.asList(args).contains("--record")) {
+            try {
+                File directory = new File(SaveLibrary.DEFAULT_DIRECTORY);
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Cannot create save directory: " + directory);
+                }
+                new GameRecording(game.getSeed(), 0, new File(directory, GameRecording.DEFAULT_FILE)).attach(game);
+            } catch (IOException e) {
+                System.out.println("Error recording the game: " + e.getMessage());
+            }
+        }
         game.start(false);
     }
 
@@ -24,10 +24,10 @@ public class ArchitectAction implements Actionable{
             }
         }
 
-        System.out.println(player.getName() + " drew 2 extra cards.");
+        game.log(() -> player.getName() + " drew 2 extra cards.");
 
         player.setBuildLimit(3);
-        System.out.println(player.getName() + " can build up to 3 districts this turn.");
+        game.log(() -> player.getName() + " can build up to 3 districts this turn.");
     }
     
 }
@@ -37,14 +37,13 @@ public class AssassinAction implements Actionable{
      */
     public void humanChoose(Game game)
     {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("Who do you want to kill? Choose a character from 2-8:");
+        game.getOut().println("Who do you want to kill? Choose a character from 2-8:");
 
         for(CharacterCard c : CharacterCard.getCharacters())
         {
             if(c.getOrder() != 1)
             {
-                System.out.println(c.getOrder() + ": " + c.getName());
+                game.getOut().println(c.getOrder() + ": " + c.getName());
             }
         }
 
@@ -52,13 +51,13 @@ public class AssassinAction implements Actionable{
         CharacterCard killedCard = CharacterCard.getCharacters().get(0);
         while(targetOrder<2 || targetOrder > 8)
         {
-            System.out.print("> ");
+            game.getOut().print("> ");
             try
             {
-                targetOrder = Integer.parseInt(scanner.nextLine().trim());
+                targetOrder = Integer.parseInt(game.readLine().trim());
                 if(targetOrder==1)
                 {
-                    System.out.println("You cannot chooe yourself. Choose another character.");
+                    game.getOut().println("You cannot chooe yourself. Choose another character.");
                     targetOrder = -1;
                 }
                 else
@@ -74,17 +73,19 @@ public class AssassinAction implements Actionable{
             }
             catch(NumberFormatException e)
             {
-                System.out.println("Invalid input. Enter a number between 2 and 8.");
+                game.getOut().println("Invalid input. Enter a number between 2 and 8.");
             }
         }
 
         game.setKilledCharacterOrder(targetOrder);
-        System.out.println("You chose to kill " + targetOrder + " " + killedCard.getName());
+        game.getOut().println("You chose to kill " + targetOrder + " " + killedCard.getName());
     }
 
     /**
      * Executes the Assassin's stealing ability for a AI player.
-     * AI would pick a non faced-up removed character to kill 
+     * AI would kill the character most likely held by the players with the largest cities,
+     * from what it was offered in the selection phase, or a random non faced-up character
+     * when CharacterInference has no entry for its situation
      *
      * @param game   the current game state
      * @param player the AI player performing the action
@@ -108,23 +109,17 @@ public class AssassinAction implements Actionable{
                 possibleOrders.add(i);
             }
         }
-        List<CharacterCard> characters = CharacterCard.getCharacters();
 
-        int targetOrder = possibleOrders.get(new Random().nextInt(possibleOrders.size()));
-
-        game.setKilledCharacterOrder(targetOrder);
-
-        String killedName = "";
-        for(CharacterCard c : characters)
+        int targetOrder = CharacterInference.getDefault().target(game, player, possibleOrders, p -> p.getCity().size());
+        if(targetOrder < 0)
         {
-            if(c.getOrder() == targetOrder)
-            {
-                killedName = c.getName();
-                break;
-            }
+            targetOrder = possibleOrders.get(game.getRandom().nextInt(possibleOrders.size()));
         }
 
-        System.out.println(player.getName() + " chose to kill the " + killedName + ".");
+        game.setKilledCharacterOrder(targetOrder);
+
+        CharacterCard target = CharacterCard.getCharacter(targetOrder);
+        game.log(() -> player.getName() + " chose to kill the " + target.getName() + ".");
     }
 
     
@@ -0,0 +1,227 @@
+package citadels;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Saves a game at the end of every round without making the game wait for the disk.
+ * <p>
+ * The game thread only takes a copy of the game, which nothing else ever changes.
+ * The copy is written in the binary save format on a background thread, to a temporary
+ * file that is forced to the disk and then renamed over the save, so the save on disk is
+ * always complete. When rounds end faster than saves are written, the snapshots waiting
+ * to be written are replaced by the newest one, so only the newest is written.
+ * A saver writes one save at a time, even with an executor running many threads, so two
+ * writes never share the temporary file and an older snapshot never lands over a newer one.
+ */
+public class AutoSaver implements Closeable {
+
+    /**
+     * The save file
+     */
+    private final File file;
+
+    /**
+     * The executor writing the saves
+     */
+    private final Executor executor;
+
+    /**
+     * Whether the executor was created by this saver and must be shut down with it
+     */
+    private final boolean ownsExecutor;
+
+    /**
+     * The newest snapshot not written yet, or null
+     */
+    private final AtomicReference<Game> pending = new AtomicReference<>();
+
+    /**
+     * Whether a task of this saver is writing the snapshots, so no other is started
+     */
+    private final AtomicBoolean writing = new AtomicBoolean();
+
+    /**
+     * The number of snapshots taken, and written to the disk
+     */
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong saves = new AtomicLong();
+
+    /**
+     * The number of tasks writing snapshots, 0 or 1
+     */
+    private final Phaser inFlight = new Phaser(1);
+
+    /**
+     * The last error writing a save, or null
+     */
+    private volatile IOException lastError;
+
+    /**
+     * Constructor for a saver writing on its own background thread
+     * @param file the save file
+     */
+    public AutoSaver(File file)
+    {
+        this(file, Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "citadels-autosave");
+            t.setDaemon(true);
+            return t;
+        }), true);
+    }
+
+    /**
+     * Constructor for a saver writing with the given executor, which may be shared by many savers
+     * @param file the save file
+     * @param executor the executor writing the saves
+     */
+    public AutoSaver(File file, Executor executor)
+    {
+        this(file, executor, false);
+    }
+
+    /**
+     * Constructor for a saver
+     * @param file the save file
+     * @param executor the executor writing the saves
+     * @param ownsExecutor whether to shut down the executor with the saver
+     */
+    private AutoSaver(File file, Executor executor, boolean ownsExecutor)
+    {
+        this.file = file;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Starts saving a game at the end of every round
+     * @param game the game
+     */
+    public void attach(Game game)
+    {
+        game.setAutoSaver(this);
+    }
+
+    /**
+     * Takes a snapshot of the game and hands it to the background thread. Returns at once;
+     * a snapshot still waiting to be written is replaced by this one.
+     * @param game the game, only read on the calling thread
+     */
+    public void save(Game game)
+    {
+        Game snapshot = game.copy();
+        snapshots.incrementAndGet();
+        pending.set(snapshot);
+        if(writing.compareAndSet(false, true))
+        {
+            inFlight.register();
+            executor.execute(this::writePending);
+        }
+    }
+
+    /**
+     * Writes the newest snapshot until none is waiting, on the background thread.
+     * A snapshot taken while the task stops is written by the task, or by the one that
+     * snapshot started.
+     */
+    private void writePending()
+    {
+        try
+        {
+            while(true)
+            {
+                Game snapshot = pending.getAndSet(null);
+                if(snapshot != null)
+                {
+                    write(snapshot);
+                    continue;
+                }
+                writing.set(false);
+                if(pending.get() == null || !writing.compareAndSet(false, true))
+                    break;
+            }
+        }
+        finally
+        {
+            inFlight.arriveAndDeregister();
+        }
+    }
+
+    /**
+     * Writes a snapshot to a temporary file forced to the disk, then renames it over the save
+     * @param snapshot the snapshot
+     */
+    private void write(Game snapshot)
+    {
+        File temp = new File(file.getPath() + ".tmp");
+        try
+        {
+            try (FileOutputStream out = new FileOutputStream(temp)) {
+                snapshot.writeBinary(out);
+                out.getChannel().force(true);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            saves.incrementAndGet();
+        }
+        catch (IOException e)
+        {
+            lastError = e;
+        }
+    }
+
+    /**
+     * Waits until every snapshot taken so far is written or replaced by a newer one
+     */
+    public void flush()
+    {
+        inFlight.arriveAndAwaitAdvance();
+    }
+
+    /**
+     * Get the save file
+     * @return the save file
+     */
+    public File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Get the number of snapshots taken
+     * @return number of snapshots
+     */
+    public long getSnapshots()
+    {
+        return snapshots.get();
+    }
+
+    /**
+     * Get the number of saves written to the disk, lower than the number of snapshots when some were coalesced
+     * @return number of saves
+     */
+    public long getSaves()
+    {
+        return saves.get();
+    }
+
+    /**
+     * Get the last error writing a save
+     * @return the error, or null if every save was written
+     */
+    public IOException getLastError()
+    {
+        return lastError;
+    }
+
+    /**
+     * Writes the snapshot waiting, if any, and stops the background thread if the saver created it
+     */
+    public void close()
+    {
+        flush();
+        if(ownsExecutor)
+            ((ExecutorService) executor).shutdown();
+    }
+}
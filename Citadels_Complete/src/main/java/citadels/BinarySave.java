@@ -0,0 +1,336 @@
+package citadels;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Compact binary encoding of saved games, an alternative to the JSON save.
+ * <p>
+ * A file starts with the 4 bytes "CITB" and a format version, so loading can tell it
+ * from JSON and reject versions it does not know. Numbers are written as varints, and a
+ * district card as the id of its type in the DistrictCatalog, followed by its built round
+ * and the cards stored under it. A card whose type is not the catalog's one is written
+ * in full after an escape id of 0. Characters are written by order the same way.
+ */
+public final class BinarySave {
+
+    /**
+     * The first bytes of every binary save, "CITB"
+     */
+    public static final int MAGIC = 0x43495442;
+
+    /**
+     * The version of the format written by this class.
+     * Version 2 added the seed and state of the game's random number generator.
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The type tags of the players
+     */
+    private static final int AI_PLAYER = 0;
+    private static final int HUMAN_PLAYER = 1;
+
+    private BinarySave()
+    {
+    }
+
+    /**
+     * Checks whether a stream starts with a binary save, without consuming it
+     * @param in the stream, which must support mark and reset
+     * @return whether the stream starts with the binary header
+     * @throws IOException if reading fails
+     */
+    public static boolean isBinary(InputStream in) throws IOException
+    {
+        in.mark(4);
+        int magic = 0;
+        for(int i=0; i<4; i++)
+        {
+            int b = in.read();
+            if(b < 0)
+            {
+                in.reset();
+                return false;
+            }
+            magic = (magic << 8) | b;
+        }
+        in.reset();
+        return magic == MAGIC;
+    }
+
+    /**
+     * Writes the header of a binary save
+     * @param out the output
+     * @throws IOException if writing fails
+     */
+    public static void writeHeader(DataOutput out) throws IOException
+    {
+        out.writeInt(MAGIC);
+        writeVarInt(out, VERSION);
+    }
+
+    /**
+     * Reads and checks the header of a binary save
+     * @param in the input
+     * @throws IOException if the header is not a binary save of a known version
+     */
+    public static void readHeader(DataInput in) throws IOException
+    {
+        if(in.readInt() != MAGIC)
+            throw new IOException("Not a binary save");
+        int version = readVarInt(in);
+        if(version != VERSION)
+            throw new IOException("Unsupported save version: " + version);
+    }
+
+    /**
+     * Writes a non-negative number in 1 to 5 bytes, 7 bits per byte
+     * @param out the output
+     * @param value the number
+     * @throws IOException if writing fails
+     */
+    public static void writeVarInt(DataOutput out, int value) throws IOException
+    {
+        while((value & ~0x7F) != 0)
+        {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads a number written by writeVarInt
+     * @param in the input
+     * @return the number
+     * @throws IOException if reading fails or the number is malformed
+     */
+    public static int readVarInt(DataInput in) throws IOException
+    {
+        int value = 0;
+        for(int shift=0; shift<35; shift+=7)
+        {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Writes a number that may be negative, small numbers of either sign in one byte
+     * @param out the output
+     * @param value the number
+     * @throws IOException if writing fails
+     */
+    public static void writeSignedVarInt(DataOutput out, int value) throws IOException
+    {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Reads a number written by writeSignedVarInt
+     * @param in the input
+     * @return the number
+     * @throws IOException if reading fails
+     */
+    public static int readSignedVarInt(DataInput in) throws IOException
+    {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Writes a district card with the cards stored under it
+     * @param out the output
+     * @param card the district card
+     * @throws IOException if writing fails
+     */
+    public static void writeCard(DataOutput out, DistrictCard card) throws IOException
+    {
+        DistrictType type = card.getType();
+        int id = type.getId();
+        if(id >= 0 && DistrictCatalog.get(id) == type)
+        {
+            writeVarInt(out, id + 1);
+        }
+        else
+        {
+            writeVarInt(out, 0);
+            out.writeUTF(type.getName());
+            writeSignedVarInt(out, type.getCost());
+            out.writeUTF(type.getColor());
+            out.writeUTF(type.getAbility());
+        }
+        writeSignedVarInt(out, card.getBuiltRound());
+        writeCards(out, card.getStoredCards());
+    }
+
+    /**
+     * Reads a district card written by writeCard
+     * @param in the input
+     * @return the district card
+     * @throws IOException if reading fails or the type id is unknown
+     */
+    public static DistrictCard readCard(DataInput in) throws IOException
+    {
+        int id = readVarInt(in) - 1;
+        DistrictCard card;
+        if(id < 0)
+        {
+            String name = in.readUTF();
+            int cost = readSignedVarInt(in);
+            String color = in.readUTF();
+            String ability = in.readUTF();
+            card = new DistrictCard(DistrictCatalog.typeOf(name, cost, color, ability));
+        }
+        else if(id < DistrictCatalog.size())
+        {
+            card = new DistrictCard(DistrictCatalog.get(id));
+        }
+        else
+        {
+            throw new IOException("Unknown district type: " + id);
+        }
+        card.setBuiltRound(readSignedVarInt(in));
+        int stored = readCount(in);
+        for(int i=0; i<stored; i++)
+        {
+            card.storeCard(readCard(in));
+        }
+        return card;
+    }
+
+    /**
+     * Reads a number of district cards, no more than the cards of a full deck
+     * @param in the input
+     * @return the number
+     * @throws IOException if reading fails or the number is out of range
+     */
+    private static int readCount(DataInput in) throws IOException
+    {
+        int count = readVarInt(in);
+        if(count < 0 || count > DistrictCatalog.getDeckSize())
+        {
+            throw new IOException("Card count out of range: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Writes a list of district cards, preceded by their number
+     * @param out the output
+     * @param cards the district cards
+     * @throws IOException if writing fails
+     */
+    public static void writeCards(DataOutput out, List<DistrictCard> cards) throws IOException
+    {
+        writeVarInt(out, cards.size());
+        for(DistrictCard card : cards)
+        {
+            writeCard(out, card);
+        }
+    }
+
+    /**
+     * Reads a list of district cards written by writeCards
+     * @param in the input
+     * @return the district cards
+     * @throws IOException if reading fails
+     */
+    public static List<DistrictCard> readCards(DataInput in) throws IOException
+    {
+        int size = readCount(in);
+        List<DistrictCard> cards = new ArrayList<>(size);
+        for(int i=0; i<size; i++)
+        {
+            cards.add(readCard(in));
+        }
+        return cards;
+    }
+
+    /**
+     * Writes a character, or none
+     * @param out the output
+     * @param character the character, or null
+     * @throws IOException if writing fails
+     */
+    public static void writeCharacter(DataOutput out, CharacterCard character) throws IOException
+    {
+        if(character == null)
+        {
+            writeVarInt(out, 0);
+            return;
+        }
+        CharacterCard shared = CharacterCard.getCharacter(character.getOrder());
+        if(shared != null && shared.getName().equals(character.getName()) && shared.getAbility().equals(character.getAbility()))
+        {
+            writeVarInt(out, character.getOrder());
+        }
+        else
+        {
+            writeVarInt(out, CharacterCard.getCharacters().size() + 1);
+            out.writeUTF(character.getName());
+            writeSignedVarInt(out, character.getOrder());
+            out.writeUTF(character.getAbility());
+        }
+    }
+
+    /**
+     * Reads a character written by writeCharacter
+     * @param in the input
+     * @return the character, the shared one when it is one of the eight, or null
+     * @throws IOException if reading fails
+     */
+    public static CharacterCard readCharacter(DataInput in) throws IOException
+    {
+        int order = readVarInt(in);
+        if(order == 0)
+            return null;
+        CharacterCard shared = CharacterCard.getCharacter(order);
+        if(shared != null)
+            return shared;
+        String name = in.readUTF();
+        int realOrder = readSignedVarInt(in);
+        String ability = in.readUTF();
+        return new CharacterCard(name, realOrder, ability);
+    }
+
+    /**
+     * Writes a player with its gold, hand, city and character
+     * @param out the output
+     * @param p the player
+     * @throws IOException if writing fails
+     */
+    public static void writePlayer(DataOutput out, Player p) throws IOException
+    {
+        writeVarInt(out, p instanceof HumanPlayer ? HUMAN_PLAYER : AI_PLAYER);
+        writeSignedVarInt(out, p.getId());
+        out.writeUTF(p.getName());
+        writeSignedVarInt(out, p.getGold());
+        writeCards(out, p.getHand());
+        writeCards(out, p.getCity());
+        writeCharacter(out, p.getCharacter());
+    }
+
+    /**
+     * Reads a player written by writePlayer
+     * @param in the input
+     * @return the player
+     * @throws IOException if reading fails
+     */
+    public static Player readPlayer(DataInput in) throws IOException
+    {
+        int type = readVarInt(in);
+        int id = readSignedVarInt(in);
+        String name = in.readUTF();
+        Player p = type == HUMAN_PLAYER ? new HumanPlayer(id, name) : new AIPlayer(id, name);
+        p.setGold(readSignedVarInt(in));
+        p.getHand().addAll(readCards(in));
+        p.getCity().addAll(readCards(in));
+        p.setCharacter(readCharacter(in));
+        return p;
+    }
+}
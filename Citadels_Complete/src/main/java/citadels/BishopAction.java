@@ -14,19 +14,12 @@ public class BishopAction implements Actionable{
      */
     public void performAction(Game game, Player player)
     {
-        int blueCount = 0;
-        for(DistrictCard c : player.getCity())
-        {
-            if(c.getColor().equalsIgnoreCase("blue") || c.getName().equalsIgnoreCase("School of Magic"))
-            {
-                blueCount++;
-            }
-        }
+        int blueCount = player.getIncomeDistricts(DistrictType.BLUE);
 
         if(blueCount>0)
         {
             player.addGold(blueCount);
-            System.out.println(player.getName() + " gains " + blueCount + " gold from blue districts.");
+            game.log(() -> player.getName() + " gains " + blueCount + " gold from blue districts.");
         }
     }
     
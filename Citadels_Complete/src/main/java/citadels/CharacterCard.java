@@ -7,6 +7,9 @@ import java.nio.charset.StandardCharsets;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONArray;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
 import java.io.*;
 import java.util.*;
 
@@ -54,6 +57,20 @@ public class CharacterCard extends Card{
         return obj;
     }
 
+    /**
+     * Writes the character card as a JSON object straight to a stream, in the same form as toJson().
+     *
+     * @param out the JSON writer
+     * @throws IOException if writing fails
+     */
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("name").value(name);
+        out.name("order").value(order);
+        out.name("ability").value(ability);
+        out.endObject();
+    }
+
     /**
      * Converts JSONObject to a character card for loading
      * @param obj JSONObject saved
@@ -61,17 +78,36 @@ public class CharacterCard extends Card{
      */
     public static CharacterCard fromJson(JSONObject obj) {
         String name = (String) obj.get("name");
-        Object o1 = obj.get("order");
+        int order = ((Number) obj.get("order")).intValue();
+        String ability = (String) obj.getOrDefault("ability", "");
+        return new CharacterCard(name, order, ability);
+    }
+
+    /**
+     * Reads a character card written by writeJson() straight from a stream.
+     * A saved character of the game is read as the shared character, with its action.
+     * @param in the JSON reader, before the card's object
+     * @return CharacterCard object
+     * @throws IOException if reading fails or the JSON is not a character card
+     */
+    public static CharacterCard readJson(JsonReader in) throws IOException {
+        String name = null;
         int order = 0;
-        if(o1 instanceof Long)
-        {
-            order = ((Long) o1).intValue();
+        String ability = "";
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name": name = in.nextString(); break;
+                case "order": order = in.nextInt(); break;
+                case "ability": ability = in.nextString(); break;
+                default: in.skipValue();
+            }
         }
-        else
-        {
-            order = ((Integer) o1).intValue();
+        in.endObject();
+        CharacterCard shared = getCharacter(order);
+        if (shared != null && shared.getName().equals(name)) {
+            return shared;
         }
-        String ability = (String) obj.getOrDefault("ability", "");
         return new CharacterCard(name, order, ability);
     }
 
@@ -111,11 +147,47 @@ public class CharacterCard extends Card{
         return action;
     }
 
+    /**
+     * The eight characters of the game in order, created once and shared, as they never change
+     */
+    private static final List<CharacterCard> CHARACTERS = Collections.unmodifiableList(createCharacters());
+
     /**
      * Get the all characters in the game
-     * @return list of all characters
+     * @return a new list of all characters, in order
      */
     public static List<CharacterCard> getCharacters() {
+        return new ArrayList<>(CHARACTERS);
+    }
+
+    /**
+     * Get the shared character of an order
+     * @param order order of the character [1-8]
+     * @return the character, or null if no character has that order
+     */
+    public static CharacterCard getCharacter(int order) {
+        if(order < 1 || order > CHARACTERS.size())
+            return null;
+        return CHARACTERS.get(order - 1);
+    }
+
+    /**
+     * Get the characters of a list as a set of bits, bit order-1 for each character
+     * @param characters the characters
+     * @return the bit mask of their orders
+     */
+    public static int mask(Collection<CharacterCard> characters) {
+        int mask = 0;
+        for(CharacterCard c : characters)
+            mask |= 1 << (c.getOrder() - 1);
+        return mask;
+    }
+
+    /**
+     * Creates the eight characters with their actions
+     * @return list of all characters
+     */
+    private static List<CharacterCard> createCharacters() {
         List<CharacterCard> characters = new ArrayList<>();
         CharacterCard assassin = new CharacterCard("Assassin", 1, "Kill a character");
         assassin.setAction(new AssassinAction());
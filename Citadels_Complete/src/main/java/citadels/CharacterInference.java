@@ -0,0 +1,266 @@
+package citadels;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.ToIntFunction;
+import java.util.zip.*;
+
+/**
+ * Precomputed posterior of who holds each character, for the AI to reason about the
+ * characters it cannot see.
+ * <p>
+ * A player knows how many players there are, its position in the selection order, the
+ * character it took, the characters removed face up and the characters it was offered.
+ * For each such situation the table gives, for every character, the chance it is held by
+ * the player at each position of the selection order or is the face-down card. The
+ * chances are measured offline by CharacterInferenceBuilder, from the AI players' own
+ * picks, and read from a resource, so a lookup is a binary search over sorted keys.
+ * <p>
+ * Only the situations of the characters whose AI targets other characters are kept, and
+ * only those seen often enough; anything else is not in the table.
+ */
+public final class CharacterInference {
+
+    /**
+     * The resource the table of the game is read from
+     */
+    public static final String RESOURCE = "/citadels/character-inference.bin";
+
+    /**
+     * The slot of the face-down card, after the seven selection positions
+     */
+    public static final int FACE_DOWN = 7;
+
+    /**
+     * The number of slots a character can be in
+     */
+    static final int SLOTS = 8;
+
+    /**
+     * The number of bytes of an entry: one chance per character and slot
+     */
+    static final int ENTRY_SIZE = 8 * SLOTS;
+
+    /**
+     * The first bytes of a table file, "CINF"
+     */
+    private static final int MAGIC = 0x43494E46;
+
+    /**
+     * The keys of the situations, sorted
+     */
+    private final int[] keys;
+
+    /**
+     * The chances of each entry, in units of 1/255, character by character
+     */
+    private final byte[] chances;
+
+    /**
+     * The table read from the resource, loaded the first time it is used
+     */
+    private static class Default {
+        static final CharacterInference TABLE = load();
+    }
+
+    /**
+     * Constructor for a table, requires the sorted keys and the chances of their entries
+     * @param keys the keys of the situations, sorted
+     * @param chances ENTRY_SIZE chances per key, in units of 1/255
+     */
+    CharacterInference(int[] keys, byte[] chances)
+    {
+        if(chances.length != keys.length * ENTRY_SIZE)
+        {
+            throw new IllegalArgumentException("Expected " + keys.length * ENTRY_SIZE + " chances: " + chances.length);
+        }
+        this.keys = keys;
+        this.chances = chances;
+    }
+
+    /**
+     * Get the table read from the resource of the game
+     * @return the table, empty if the resource is missing
+     */
+    public static CharacterInference getDefault()
+    {
+        return Default.TABLE;
+    }
+
+    /**
+     * Reads the table of the resource
+     * @return the table, empty if it cannot be read
+     */
+    private static CharacterInference load()
+    {
+        try (InputStream input = CharacterInference.class.getResourceAsStream(RESOURCE))
+        {
+            if(input != null)
+                return read(input);
+        }
+        catch (IOException e)
+        {
+            System.err.println("Error reading character inference table: " + e.getMessage());
+        }
+        return new CharacterInference(new int[0], new byte[0]);
+    }
+
+    /**
+     * Reads a table written by write()
+     * @param in the stream to read from
+     * @return the table
+     * @throws IOException if the stream cannot be read or is not a table
+     */
+    public static CharacterInference read(InputStream in) throws IOException
+    {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+        if(data.readInt() != MAGIC)
+        {
+            throw new IOException("Not a character inference table");
+        }
+        int[] keys = new int[data.readInt()];
+        for(int i=0; i<keys.length; i++)
+        {
+            keys[i] = data.readInt();
+        }
+        byte[] chances = new byte[keys.length * ENTRY_SIZE];
+        data.readFully(chances);
+        return new CharacterInference(keys, chances);
+    }
+
+    /**
+     * Writes the table, compressed
+     * @param out the stream to write to, finished but not closed
+     * @throws IOException if the stream cannot be written
+     */
+    public void write(OutputStream out) throws IOException
+    {
+        GZIPOutputStream zip = new GZIPOutputStream(out);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(zip));
+        data.writeInt(MAGIC);
+        data.writeInt(keys.length);
+        for(int key : keys)
+        {
+            data.writeInt(key);
+        }
+        data.write(chances);
+        data.flush();
+        zip.finish();
+    }
+
+    /**
+     * Get the number of situations in the table
+     * @return the number of entries
+     */
+    public int size()
+    {
+        return keys.length;
+    }
+
+    /**
+     * Packs a situation into a key
+     * @param players number of players [4-7]
+     * @param position position of the player in the selection order [0-6]
+     * @param own order of the character the player took [1-8]
+     * @param faceUp the characters removed face up, as CharacterCard.mask()
+     * @param seen the characters offered to the player, as CharacterCard.mask()
+     * @return the key
+     */
+    static int key(int players, int position, int own, int faceUp, int seen)
+    {
+        return ((((players - 4) << 3 | position) << 3 | (own - 1)) << 8 | faceUp) << 8 | seen;
+    }
+
+    /**
+     * Finds the entry of a situation
+     * @param players number of players [4-7]
+     * @param position position of the player in the selection order [0-6]
+     * @param own order of the character the player took [1-8]
+     * @param faceUp the characters removed face up, as CharacterCard.mask()
+     * @param seen the characters offered to the player, as CharacterCard.mask()
+     * @return the entry, or -1 if the situation is not in the table
+     */
+    public int find(int players, int position, int own, int faceUp, int seen)
+    {
+        int entry = Arrays.binarySearch(keys, key(players, position, own, faceUp, seen));
+        return entry >= 0 ? entry : -1;
+    }
+
+    /**
+     * Finds the entry of the situation of a player in the current round of a game
+     * @param game the game
+     * @param player the player, holding a character
+     * @return the entry, or -1 if the situation is not in the table or the game did not
+     * record what the player was offered
+     */
+    public int find(Game game, Player player)
+    {
+        List<Player> players = game.getPlayers();
+        int[] order = game.getSelectionOrder();
+        int[] seen = game.getSeenCharacters();
+        int seat = players.indexOf(player);
+        if(seat < 0 || order.length != players.size() || seen.length != players.size() || player.getCharacter() == null)
+            return -1;
+        int position = 0;
+        while(order[position] != seat)
+            position++;
+        return find(players.size(), position, player.getCharacter().getOrder(), CharacterCard.mask(game.facedUp), seen[seat]);
+    }
+
+    /**
+     * Get the chance a character is in a slot in the situation of an entry
+     * @param entry the entry
+     * @param order order of the character [1-8]
+     * @param slot position in the selection order of the player holding it, or FACE_DOWN
+     * @return the chance [0-1]
+     */
+    public double chance(int entry, int order, int slot)
+    {
+        return (chances[entry * ENTRY_SIZE + (order - 1) * SLOTS + slot] & 0xFF) / 255.0;
+    }
+
+    /**
+     * Chooses the character to target with an ability: the one worth the most to the
+     * players likely to hold it. Each other player is worth its value plus one, so a
+     * character likely in play is preferred to one likely face down when values are even.
+     *
+     * @param game the game
+     * @param player the player using the ability
+     * @param orders the orders of the characters that can be targeted, earlier ones
+     * winning ties
+     * @param value the value of hitting each player
+     * @return the order of the target, or -1 if the situation of the player is not in the table
+     */
+    public int target(Game game, Player player, List<Integer> orders, ToIntFunction<Player> value)
+    {
+        int entry = find(game, player);
+        if(entry < 0)
+            return -1;
+        List<Player> players = game.getPlayers();
+        int[] selection = game.getSelectionOrder();
+        double[] worth = new double[selection.length];
+        for(int position=0; position<selection.length; position++)
+        {
+            Player holder = players.get(selection[position]);
+            if(holder != player)
+                worth[position] = value.applyAsInt(holder) + 1;
+        }
+
+        int best = -1;
+        double bestScore = -1;
+        for(int order : orders)
+        {
+            double score = 0;
+            for(int position=0; position<selection.length; position++)
+            {
+                score += chance(entry, order, position) * worth[position];
+            }
+            if(score > bestScore)
+            {
+                best = order;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+}
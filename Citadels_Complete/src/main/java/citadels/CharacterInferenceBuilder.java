@@ -0,0 +1,223 @@
+package citadels;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Builds the CharacterInference table offline by simulation.
+ * <p>
+ * Headless AI games are played across all cores at every table size, game i at 4 + i % 4
+ * players. Before each round, the characters are dealt again several times in forks of the
+ * game, each with its own seed, and every selection phase is played by the AI players.
+ * For each pick of a tabulated character, the builder counts where every other character
+ * ended up. Situations seen fewer than MIN_SAMPLES times are left out of the table.
+ * The same seed builds the same table whatever the number of threads.
+ */
+public class CharacterInferenceBuilder {
+
+    /**
+     * The characters whose situations are tabulated: the Assassin and the Thief
+     */
+    public static final int[] TABULATED = {1, 2};
+
+    /**
+     * The fewest picks a situation needs to be kept
+     */
+    public static final int MIN_SAMPLES = 16;
+
+    /**
+     * The number of worker threads
+     */
+    private int threads;
+
+    /**
+     * The seed every game seed is derived from
+     */
+    private long seed;
+
+    /**
+     * Constructor for a builder, requires the number of worker threads and the seed
+     * @param threads number of worker threads
+     * @param seed seed every game seed is derived from
+     */
+    public CharacterInferenceBuilder(int threads, long seed)
+    {
+        if(threads < 1)
+        {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the games and builds the table from their selection phases.
+     *
+     * @param games number of games to play
+     * @param deals number of selection phases dealt before each round
+     * @return the table
+     */
+    public CharacterInference build(long games, int deals)
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<Map<Integer, int[]>>> parts = new ArrayList<>();
+            long first = 0;
+            for(int t=0; t<threads; t++)
+            {
+                long share = games / threads + (t < games % threads ? 1 : 0);
+                long from = first;
+                parts.add(pool.submit(() -> {
+                    Map<Integer, int[]> counts = new HashMap<>();
+                    for(long i=from; i<from+share; i++)
+                    {
+                        playOne(4 + (int) (i % 4), GameRandom.seedAt(seed, i), deals, counts);
+                    }
+                    return counts;
+                }));
+                first += share;
+            }
+
+            Map<Integer, int[]> counts = new TreeMap<>();
+            for(Future<Map<Integer, int[]>> part : parts)
+            {
+                for(Map.Entry<Integer, int[]> e : part.get().entrySet())
+                {
+                    int[] total = counts.computeIfAbsent(e.getKey(), k -> new int[1 + CharacterInference.ENTRY_SIZE]);
+                    for(int j=0; j<total.length; j++)
+                    {
+                        total[j] += e.getValue()[j];
+                    }
+                }
+            }
+            return toTable(counts);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Simulation interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new RuntimeException("Simulated game failed", e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays one headless game, dealing the characters again before each round
+     *
+     * @param playerCount number of AI players [4-7]
+     * @param gameSeed seed of the game
+     * @param deals number of selection phases dealt before each round
+     * @param counts the counts to add to, by key: the number of picks, then where each
+     * character was, character by character
+     */
+    static void playOne(int playerCount, long gameSeed, int deals, Map<Integer, int[]> counts)
+    {
+        Game game = new Game(gameSeed);
+        game.setUpHeadless(playerCount);
+        long dealt = 0;
+        while(!game.shouldEndGame())
+        {
+            for(int d=0; d<deals; d++)
+            {
+                Game deal = game.fork(GameRandom.seedAt(gameSeed, dealt++));
+                deal.selectionPhase();
+                count(deal, counts);
+            }
+            game.nextRound();
+        }
+    }
+
+    /**
+     * Counts where every character is for each tabulated pick of a selection phase
+     * @param game the game, after its selection phase
+     * @param counts the counts to add to
+     */
+    static void count(Game game, Map<Integer, int[]> counts)
+    {
+        List<Player> players = game.getPlayers();
+        int[] order = game.getSelectionOrder();
+        int[] seen = game.getSeenCharacters();
+        int faceUp = CharacterCard.mask(game.facedUp);
+        int[] slot = new int[9];
+        Arrays.fill(slot, CharacterInference.FACE_DOWN);
+        for(int position=0; position<order.length; position++)
+        {
+            slot[players.get(order[position]).getCharacter().getOrder()] = position;
+        }
+
+        for(int position=0; position<order.length; position++)
+        {
+            int own = players.get(order[position]).getCharacter().getOrder();
+            if(Arrays.stream(TABULATED).noneMatch(o -> o == own))
+                continue;
+            int key = CharacterInference.key(players.size(), position, own, faceUp, seen[order[position]]);
+            int[] c = counts.computeIfAbsent(key, k -> new int[1 + CharacterInference.ENTRY_SIZE]);
+            c[0]++;
+            for(int o=1; o<=8; o++)
+            {
+                if((faceUp & 1 << (o - 1)) == 0 && o != own)
+                    c[1 + (o - 1) * CharacterInference.SLOTS + slot[o]]++;
+            }
+        }
+    }
+
+    /**
+     * Turns counts into chances, leaving out the situations seen too rarely
+     * @param counts the counts, by key in ascending order
+     * @return the table
+     */
+    private static CharacterInference toTable(Map<Integer, int[]> counts)
+    {
+        int[] keys = new int[counts.size()];
+        byte[] chances = new byte[counts.size() * CharacterInference.ENTRY_SIZE];
+        int size = 0;
+        for(Map.Entry<Integer, int[]> e : counts.entrySet())
+        {
+            int[] c = e.getValue();
+            if(c[0] < MIN_SAMPLES)
+                continue;
+            for(int j=0; j<CharacterInference.ENTRY_SIZE; j++)
+            {
+                chances[size * CharacterInference.ENTRY_SIZE + j] = (byte) Math.round(255.0 * c[1 + j] / c[0]);
+            }
+            keys[size++] = e.getKey();
+        }
+        return new CharacterInference(Arrays.copyOf(keys, size), Arrays.copyOf(chances, size * CharacterInference.ENTRY_SIZE));
+    }
+
+    /**
+     * Builds the table from the command line and writes it.
+     * <p>
+     * Arguments, all optional: [games] [deals] [threads] [seed] [file].
+     * By default 100000 games of 16 deals a round on every core, written to the resource of
+     * the game in src/main/resources.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the table cannot be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 100000;
+        int deals = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        File file = new File(args.length > 4 ? args[4] : "src/main/resources" + CharacterInference.RESOURCE);
+
+        System.out.println("Building from " + games + " games, " + deals + " deals a round, on " + threads + " threads (seed " + seed + ")...");
+        long start = System.nanoTime();
+        CharacterInference table = new CharacterInferenceBuilder(threads, seed).build(games, deals);
+        try (OutputStream out = new FileOutputStream(file))
+        {
+            table.write(out);
+        }
+        System.out.printf("%d situations written to %s (%d bytes) in %.1f s%n", table.size(), file, file.length(), (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,357 @@
+package citadels;
+
+import java.util.*;
+
+/**
+ * The districts built in a player's city.
+ * <p>
+ * Behaves as a normal list of district cards, but also keeps, for every district
+ * type in the catalog, how many copies are built and the first one in the city,
+ * how many districts of each color are built and the points they are worth.
+ * All are updated by every add and remove, including the ones made directly on
+ * the list, so checking whether a district is built or counting colors needs no
+ * scan of the city.
+ */
+public class City extends AbstractList<DistrictCard> implements RandomAccess {
+
+    /**
+     * The built districts, in build order
+     */
+    private DistrictCard[] cards;
+
+    /**
+     * The number of built districts
+     */
+    private int size;
+
+    /**
+     * The number of built copies of each type, indexed by type id
+     */
+    private int[] counts = new int[DistrictCatalog.size()];
+
+    /**
+     * The first built copy of each type in the city, indexed by type id
+     */
+    private DistrictCard[] first = new DistrictCard[DistrictCatalog.size()];
+
+    /**
+     * The number of built districts of each color, indexed by color index
+     */
+    private int[] colorCounts = new int[DistrictType.COLORS.length];
+
+    /**
+     * The number of built districts paying income for each color, that is of that color or a School of Magic
+     */
+    private int[] incomeCounts = new int[DistrictType.COLORS.length];
+
+    /**
+     * The number of built districts of any other color, keyed by lower case color, created on first use
+     */
+    private Map<String, Integer> otherColors;
+
+    /**
+     * The sum of the score values of the built districts
+     */
+    private int scoreValue;
+
+    /**
+     * The number of built districts whose type is not the shared one from the catalog
+     */
+    private int unlisted;
+
+    /**
+     * Constructor for an empty city
+     */
+    public City()
+    {
+        cards = new DistrictCard[8];
+    }
+
+    /**
+     * Constructor for a city holding the given districts, in order
+     * @param districts the districts built in the city
+     */
+    public City(Collection<DistrictCard> districts)
+    {
+        cards = new DistrictCard[Math.max(8, districts.size())];
+        addAll(districts);
+    }
+
+    /**
+     * Creates a copy of the city holding a copy of each district, in the same order
+     * @return a copy of the city
+     */
+    public City copy()
+    {
+        City city = new City();
+        city.cards = new DistrictCard[cards.length];
+        for(int i=0; i<size; i++)
+        {
+            city.cards[i] = cards[i].copy();
+            int id = city.cards[i].getTypeId();
+            if(id >= 0 && city.first[id] == null)
+                city.first[id] = city.cards[i];
+        }
+        city.size = size;
+        System.arraycopy(counts, 0, city.counts, 0, counts.length);
+        System.arraycopy(colorCounts, 0, city.colorCounts, 0, colorCounts.length);
+        System.arraycopy(incomeCounts, 0, city.incomeCounts, 0, incomeCounts.length);
+        if(otherColors != null)
+            city.otherColors = new HashMap<>(otherColors);
+        city.scoreValue = scoreValue;
+        city.unlisted = unlisted;
+        return city;
+    }
+
+    /**
+     * Get the district at a position in the city
+     * @param index position of the district
+     * @return the district card
+     */
+    @Override
+    public DistrictCard get(int index)
+    {
+        Objects.checkIndex(index, size);
+        return cards[index];
+    }
+
+    /**
+     * Get the number of built districts
+     * @return number of districts
+     */
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    /**
+     * Adds a district at a position in the city
+     * @param index position of the district
+     * @param card the district card
+     */
+    @Override
+    public void add(int index, DistrictCard card)
+    {
+        if(index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        if(size == cards.length)
+            cards = Arrays.copyOf(cards, size * 2);
+        System.arraycopy(cards, index, cards, index + 1, size - index);
+        cards[index] = card;
+        size++;
+        modCount++;
+
+        countColor(card, 1);
+        scoreValue += card.getScoreValue();
+        int id = card.getTypeId();
+        if(id >= 0)
+        {
+            counts[id]++;
+            if(counts[id] == 1)
+                first[id] = card;
+            else if(index < size - 1)
+                first[id] = findFirst(id);
+        }
+    }
+
+    /**
+     * Removes the district at a position in the city
+     * @param index position of the district
+     * @return the removed district card
+     */
+    @Override
+    public DistrictCard remove(int index)
+    {
+        Objects.checkIndex(index, size);
+        DistrictCard card = cards[index];
+        System.arraycopy(cards, index + 1, cards, index, size - index - 1);
+        cards[--size] = null;
+        modCount++;
+
+        countColor(card, -1);
+        scoreValue -= card.getScoreValue();
+        int id = card.getTypeId();
+        if(id >= 0)
+        {
+            counts[id]--;
+            if(first[id] == card)
+                first[id] = counts[id] == 0 ? null : findFirst(id);
+        }
+        return card;
+    }
+
+    /**
+     * Replaces the district at a position in the city
+     * @param index position of the district
+     * @param card the new district card
+     * @return the replaced district card
+     */
+    @Override
+    public DistrictCard set(int index, DistrictCard card)
+    {
+        DistrictCard old = remove(index);
+        add(index, card);
+        return old;
+    }
+
+    /**
+     * Removes every district from the city
+     */
+    @Override
+    public void clear()
+    {
+        Arrays.fill(cards, 0, size, null);
+        size = 0;
+        modCount++;
+        Arrays.fill(counts, 0);
+        Arrays.fill(first, null);
+        Arrays.fill(colorCounts, 0);
+        Arrays.fill(incomeCounts, 0);
+        otherColors = null;
+        scoreValue = 0;
+        unlisted = 0;
+    }
+
+    /**
+     * Get the number of built copies of a district type
+     * @param typeId id of the type in the catalog
+     * @return number of copies, 0 for an unknown id
+     */
+    public int count(int typeId)
+    {
+        if(typeId < 0 || typeId >= counts.length)
+            return 0;
+        return counts[typeId];
+    }
+
+    /**
+     * Get the number of built copies of a district type that have a given color.
+     * Only differs from count(typeId) when a copy was made with other attributes than the catalog.
+     * @param typeId id of the type in the catalog
+     * @param colorIndex index of the color in DistrictType.COLORS
+     * @return number of copies of that color
+     */
+    public int count(int typeId, int colorIndex)
+    {
+        if(count(typeId) == 0)
+            return 0;
+        if(unlisted == 0)
+            return DistrictCatalog.get(typeId).getColorIndex() == colorIndex ? counts[typeId] : 0;
+        int count = 0;
+        for(int i=0; i<size; i++)
+        {
+            if(cards[i].getTypeId() == typeId && cards[i].getType().getColorIndex() == colorIndex)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * Get the first built copy of a district type in the city
+     * @param typeId id of the type in the catalog
+     * @return the district card, or null if none is built
+     */
+    public DistrictCard getBuilt(int typeId)
+    {
+        if(typeId < 0 || typeId >= first.length)
+            return null;
+        return first[typeId];
+    }
+
+    /**
+     * Get the number of built districts of a color
+     * @param colorIndex index of the color in DistrictType.COLORS
+     * @return number of districts
+     */
+    public int getColorCount(int colorIndex)
+    {
+        return colorCounts[colorIndex];
+    }
+
+    /**
+     * Get the number of built districts paying income for a color,
+     * the districts of that color plus any School of Magic
+     * @param colorIndex index of the color in DistrictType.COLORS
+     * @return number of districts
+     */
+    public int getIncomeCount(int colorIndex)
+    {
+        return incomeCounts[colorIndex];
+    }
+
+    /**
+     * Get the sum of the points the built districts are worth at the end of the game
+     * @return score value of the city
+     */
+    public int getScoreValue()
+    {
+        return scoreValue;
+    }
+
+    /**
+     * Get the number of different colors among the built districts, ignoring case
+     * @return number of colors
+     */
+    public int getDistinctColors()
+    {
+        int colors = otherColors == null ? 0 : otherColors.size();
+        for(int count : colorCounts)
+        {
+            if(count > 0)
+                colors++;
+        }
+        return colors;
+    }
+
+    /**
+     * Updates the color counts for a district added to or removed from the city
+     * @param card the district card
+     * @param delta 1 when added, -1 when removed
+     */
+    private void countColor(DistrictCard card, int delta)
+    {
+        if(card.getTypeId() < 0 || card.getType() != DistrictCatalog.get(card.getTypeId()))
+            unlisted += delta;
+
+        int colorIndex = card.getType().getColorIndex();
+        if(colorIndex >= 0)
+        {
+            colorCounts[colorIndex] += delta;
+        }
+        else if(card.getColor() != null)
+        {
+            if(otherColors == null)
+                otherColors = new HashMap<>();
+            otherColors.merge(card.getColor().toLowerCase(), delta, Integer::sum);
+            otherColors.remove(card.getColor().toLowerCase(), 0);
+        }
+
+        if(card.getTypeId() >= 0 && card.getTypeId() == DistrictCatalog.SCHOOL_OF_MAGIC)
+        {
+            for(int i=0; i<incomeCounts.length; i++)
+            {
+                incomeCounts[i] += delta;
+            }
+        }
+        else if(colorIndex >= 0)
+        {
+            incomeCounts[colorIndex] += delta;
+        }
+    }
+
+    /**
+     * Finds the first district of a type in build order
+     * @param typeId id of the type
+     * @return the district card, or null if none is built
+     */
+    private DistrictCard findFirst(int typeId)
+    {
+        for(int i=0; i<size; i++)
+        {
+            if(cards[i].getTypeId() == typeId)
+                return cards[i];
+        }
+        return null;
+    }
+}
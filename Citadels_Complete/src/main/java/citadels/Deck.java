@@ -7,28 +7,76 @@ import java.nio.charset.StandardCharsets;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONArray;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
 import java.io.*;
 import java.util.*;
 
 /**
  * A generic deck of cards for use in the Citadels game.
  * Supports shuffling, drawing, and JSON serialization.
+ * <p>
+ * The cards are held in a ring buffer, top card first, so drawing from the top and
+ * putting cards at the bottom move no other card. Shuffling is done in place, and
+ * view() reads the deck without copying it, so none of the usual deck operations
+ * allocate once the buffer has grown to the size of the deck.
  *
  * @param <T> the type of card in the deck
  */
 public class Deck<T> {
 
     /**
-     * Internal deck storage using a double-ended queue for efficient top and bottom operations.
+     * Reads one card from a JSON stream, such as DistrictCard::readJson
+     * @param <C> the type of card read
+     */
+    public interface CardReader<C> {
+        C read(JsonReader in) throws IOException;
+    }
+
+    /**
+     * The initial capacity of the ring buffer, a power of two
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Ring buffer of the cards, its length a power of two
+     */
+    private Object[] cards;
+
+    /**
+     * Index in the buffer of the top card
      */
-    private Deque<T> cards;
+    private int head;
+
+    /**
+     * Number of cards in the deck
+     */
+    private int size;
+
+    /**
+     * Read-only view of the deck, in draw order
+     */
+    private final List<T> view = new AbstractList<T>() {
+        @Override
+        public T get(int index)
+        {
+            return Deck.this.get(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+    };
 
     /**
      * Constructs an empty deck.
      */
     public Deck()
     {
-        cards = new ArrayDeque<>();
+        cards = new Object[INITIAL_CAPACITY];
     }
 
     /**
@@ -38,7 +86,7 @@ public class Deck<T> {
      */
     public JSONArray toJson() {
         JSONArray array = new JSONArray();
-        for (T card : cards) {
+        for (T card : view) {
             if (card instanceof DistrictCard) {
                 array.add(((DistrictCard) card).toJson());
             } else if (card instanceof CharacterCard) {
@@ -48,6 +96,24 @@ public class Deck<T> {
         return array;
     }
 
+    /**
+     * Writes the deck as a JSON array straight to a stream, in the same form as toJson().
+     *
+     * @param out the JSON writer
+     * @throws IOException if writing fails
+     */
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginArray();
+        for (T card : view) {
+            if (card instanceof DistrictCard) {
+                ((DistrictCard) card).writeJson(out);
+            } else if (card instanceof CharacterCard) {
+                ((CharacterCard) card).writeJson(out);
+            } else {}
+        }
+        out.endArray();
+    }
+
     /**
      * Deserializes a deck from a JSON array.
      *
@@ -55,36 +121,180 @@ public class Deck<T> {
      * @param cardType "district" or "character" to determine which card class to use
      */
     public void fromJson(JSONArray array, String cardType) {
-        cards.clear();
+        clear();
         for (Object o : array) {
             JSONObject obj = (JSONObject) o;
             if ("district".equals(cardType)) {
-                cards.add((T) DistrictCard.fromJson(obj));
+                add((T) DistrictCard.fromJson(obj));
             } else if ("character".equals(cardType)) {
-                cards.add((T) CharacterCard.fromJson(obj));
+                add((T) CharacterCard.fromJson(obj));
             } else {}
         }
     }
 
+    /**
+     * Reads a deck written by writeJson() straight from a stream, replacing the cards of this deck.
+     *
+     * @param in the JSON reader, before the deck's array
+     * @param reader reads each card, such as DistrictCard::readJson
+     * @throws IOException if reading fails or the JSON is not a deck
+     */
+    public void readJson(JsonReader in, CardReader<? extends T> reader) throws IOException {
+        clear();
+        in.beginArray();
+        while (in.hasNext()) {
+            add(reader.read(in));
+        }
+        in.endArray();
+    }
+
     /**
      * Returns a list of all cards currently in the deck, in draw order.
+     * The list is a copy, see view() to read the deck without copying it.
      *
      * @return a new list containing all cards in the deck
      */
     public List<T> getAllCards()
     {
-        return new ArrayList<>(cards);
+        return new ArrayList<>(view);
     }
 
     /**
-     * Shuffles the deck randomly.
+     * Returns a read-only view of the deck, in draw order.
+     * The view follows the changes of the deck; it is the same object on every call.
+     *
+     * @return an unmodifiable list backed by the deck
      */
-    public void shuffle()
+    public List<T> view()
     {
-        List<T> list = new ArrayList<>(cards);
-        Collections.shuffle(list);     //Collections.shuffle rearranges the order of items in list randomly
-        cards.clear();
-        cards.addAll(list);
+        return view;
+    }
+
+    /**
+     * Returns a card of the deck without removing it.
+     *
+     * @param index position of the card from the top, 0 for the top card
+     * @return the card
+     * @throws IndexOutOfBoundsException if there is no card at that position
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index)
+    {
+        Objects.checkIndex(index, size);
+        return (T) cards[(head + index) & (cards.length - 1)];
+    }
+
+    /**
+     * Removes a card from anywhere in the deck, keeping the order of the others.
+     *
+     * @param index position of the card from the top, 0 for the top card
+     * @return the removed card
+     * @throws IndexOutOfBoundsException if there is no card at that position
+     */
+    public T remove(int index)
+    {
+        T card = get(index);
+        int mask = cards.length - 1;
+        if(index < size / 2)
+        {
+            // move the cards above it down by one
+            for(int i=index; i>0; i--)
+            {
+                cards[(head + i) & mask] = cards[(head + i - 1) & mask];
+            }
+            cards[head] = null;
+            head = (head + 1) & mask;
+        }
+        else
+        {
+            // move the cards below it up by one
+            for(int i=index; i<size-1; i++)
+            {
+                cards[(head + i) & mask] = cards[(head + i + 1) & mask];
+            }
+            cards[(head + size - 1) & mask] = null;
+        }
+        size--;
+        return card;
+    }
+
+    /**
+     * Inserts a card anywhere in the deck, keeping the order of the others, undoing remove().
+     *
+     * @param index position of the card from the top once inserted, size() for the bottom
+     * @param card the card to insert
+     * @throws IndexOutOfBoundsException if the position is past the bottom of the deck
+     */
+    public void insert(int index, T card)
+    {
+        Objects.checkIndex(index, size + 1);
+        if(size == cards.length)
+            grow();
+        int mask = cards.length - 1;
+        if(index < size / 2)
+        {
+            // move the cards above it up by one
+            head = (head - 1) & mask;
+            for(int i=0; i<index; i++)
+            {
+                cards[(head + i) & mask] = cards[(head + i + 1) & mask];
+            }
+        }
+        else
+        {
+            // move the cards below it down by one
+            for(int i=size; i>index; i--)
+            {
+                cards[(head + i) & mask] = cards[(head + i - 1) & mask];
+            }
+        }
+        cards[(head + index) & mask] = card;
+        size++;
+    }
+
+    /**
+     * Shuffles the deck in place using the given random number generator,
+     * so a seeded generator always gives the same order.
+     * Draws the same numbers as Collections.shuffle and gives the same order.
+     *
+     * @param random the random number generator to draw from
+     */
+    public void shuffle(Random random)
+    {
+        int mask = cards.length - 1;
+        for(int i=size; i>1; i--)
+        {
+            int a = (head + i - 1) & mask;
+            int b = (head + random.nextInt(i)) & mask;
+            Object card = cards[a];
+            cards[a] = cards[b];
+            cards[b] = card;
+        }
+    }
+
+    /**
+     * Takes back shuffle(Random), giving the order the deck had before it.
+     * The generator must be in the state it was in before the shuffle: the same numbers are
+     * drawn again, then the swaps are made in reverse.
+     *
+     * @param random the random number generator, in its state before the shuffle
+     * @param draws room for the numbers drawn, at least size() long, so nothing is allocated
+     */
+    public void unshuffle(Random random, int[] draws)
+    {
+        for(int i=size; i>1; i--)
+        {
+            draws[i - 1] = random.nextInt(i);
+        }
+        int mask = cards.length - 1;
+        for(int i=2; i<=size; i++)
+        {
+            int a = (head + i - 1) & mask;
+            int b = (head + draws[i - 1]) & mask;
+            Object card = cards[a];
+            cards[a] = cards[b];
+            cards[b] = card;
+        }
     }
 
     /**
@@ -92,31 +302,70 @@ public class Deck<T> {
      *
      * @return the top card, or null if the deck is empty
      */
+    @SuppressWarnings("unchecked")
     public T draw()
     {
-        if(cards.isEmpty())
+        if(size == 0)
             return null;
-        return cards.pollFirst();
+        T card = (T) cards[head];
+        cards[head] = null;
+        head = (head + 1) & (cards.length - 1);
+        size--;
+        return card;
     }
 
     /**
-     * Adds a card to the top of the deck.
+     * Adds a card to the bottom of the deck.
      *
      * @param card the card to add
+     * @throws NullPointerException if the card is null
      */
     public void add(T card)
     {
-        cards.addLast(card);
+        Objects.requireNonNull(card, "card");
+        if(size == cards.length)
+            grow();
+        cards[(head + size) & (cards.length - 1)] = card;
+        size++;
+    }
+
+    /**
+     * Puts a card back on top of the deck, undoing draw().
+     *
+     * @param card the card to put back
+     * @throws NullPointerException if the card is null
+     */
+    public void putBack(T card)
+    {
+        Objects.requireNonNull(card, "card");
+        if(size == cards.length)
+            grow();
+        head = (head - 1) & (cards.length - 1);
+        cards[head] = card;
+        size++;
     }
 
     /**
-     * Adds all cards from the given list to the deck, in order.
+     * Adds all cards from the given list to the bottom of the deck, in order.
      *
      * @param cards the list of cards to add
      */
     public void addAll(List<T> cards)
     {
-        this.cards.addAll(cards);
+        for(T card : cards)
+        {
+            add(card);
+        }
+    }
+
+    /**
+     * Removes every card from the deck.
+     */
+    public void clear()
+    {
+        Arrays.fill(cards, null);
+        head = 0;
+        size = 0;
     }
 
     /**
@@ -126,7 +375,7 @@ public class Deck<T> {
      */
     public boolean isEmpty()
     {
-        return cards.isEmpty();
+        return size == 0;
     }
 
     /**
@@ -136,9 +385,19 @@ public class Deck<T> {
      */
     public int size()
     {
-        return cards.size();
+        return size;
     }
 
-    
-    
+    /**
+     * Doubles the capacity of the ring buffer, moving the top card to the start
+     */
+    private void grow()
+    {
+        Object[] grown = new Object[cards.length * 2];
+        int first = cards.length - head;
+        System.arraycopy(cards, head, grown, 0, first);
+        System.arraycopy(cards, 0, grown, first, head);
+        cards = grown;
+        head = 0;
+    }
 }
@@ -7,28 +7,24 @@ import java.nio.charset.StandardCharsets;
 import org.json.simple.JSONObject;
 import org.json.simple.JSONArray;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
 import java.io.*;
 import java.util.*;
 
 /**
  * Model for a District Card
+ * <p>
+ * The name, cost, color and ability are held by a DistrictType shared by every copy
+ * of the card; the card itself only keeps the state of this copy.
  */
 public class DistrictCard extends Card{
 
     /**
-     * The cost of the district card
+     * The shared type of the district card
      */
-    private int cost;
-
-    /**
-     * The color of the district card
-     */
-    private String color;
-
-    /**
-     * The ability of the district card (purple)
-     */
-    private String ability;
+    private final DistrictType type;
 
     /**
      * The round when the district card is built
@@ -36,9 +32,9 @@ public class DistrictCard extends Card{
     private int builtRound = -1;
 
     /**
-     * The list of district card that is stored under the district card (Museum)
+     * The list of district card that is stored under the district card (Museum), created on first use
      */
-    private List<DistrictCard> storedCards = new ArrayList<>();
+    private List<DistrictCard> storedCards;
 
     /**
      * The constructor of a district card, requires name, cost, color and ability
@@ -49,10 +45,58 @@ public class DistrictCard extends Card{
      */
     public DistrictCard(String name, int cost, String color, String ability)
     {
-        super(name);
-        this.cost = cost;
-        this.color = color;
-        this.ability = ability;
+        this(DistrictCatalog.typeOf(name, cost, color, ability));
+    }
+
+    /**
+     * The constructor of a district card, requires its type
+     * @param type shared type of the district card
+     */
+    public DistrictCard(DistrictType type)
+    {
+        super(type.getName());
+        this.type = type;
+    }
+
+    /**
+     * Creates a copy of this district card with its own built round and stored cards,
+     * sharing the same type.
+     * 
+     * @return a copy of the district card
+     */
+    public DistrictCard copy()
+    {
+        DistrictCard card = new DistrictCard(type);
+        card.builtRound = builtRound;
+        if(storedCards != null)
+        {
+            for(DistrictCard c : storedCards)
+            {
+                card.storeCard(c.copy());
+            }
+        }
+        return card;
+    }
+
+    /**
+     * Copies the built round and stored cards of this district card to its copy in a fork
+     * being reset, see Game.resetTo()
+     *
+     * @param card the copy of this card in the fork
+     * @param fork the fork being reset
+     */
+    void copyStateTo(DistrictCard card, Game fork)
+    {
+        card.builtRound = builtRound;
+        if(card.storedCards != null)
+            card.storedCards.clear();
+        if(storedCards != null)
+        {
+            for(int i=0; i<storedCards.size(); i++)
+            {
+                card.storeCard(fork.twin(storedCards.get(i)));
+            }
+        }
     }
 
     /**
@@ -63,9 +107,9 @@ public class DistrictCard extends Card{
     public JSONObject toJson() {
         JSONObject obj = new JSONObject();
         obj.put("name", name);
-        obj.put("color", color);
-        obj.put("cost", cost);
-        obj.put("ability", ability);
+        obj.put("color", type.getColor());
+        obj.put("cost", type.getCost());
+        obj.put("ability", type.getAbility());
         obj.put("builtRound", builtRound); // if used
 
         if (storedCards != null && !storedCards.isEmpty()) {
@@ -78,6 +122,30 @@ public class DistrictCard extends Card{
         return obj;
     }
 
+    /**
+     * Writes the district card as a JSON object straight to a stream, in the same form as toJson().
+     *
+     * @param out the JSON writer
+     * @throws IOException if writing fails
+     */
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("name").value(name);
+        out.name("color").value(type.getColor());
+        out.name("cost").value(type.getCost());
+        out.name("ability").value(type.getAbility());
+        out.name("builtRound").value(builtRound);
+
+        if (storedCards != null && !storedCards.isEmpty()) {
+            out.name("storedCards").beginArray();
+            for (DistrictCard c : storedCards) {
+                c.writeJson(out);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
     /**
      * Converts JSONObject to a district card for loading
      * @param obj JSONObject saved
@@ -86,32 +154,13 @@ public class DistrictCard extends Card{
     public static DistrictCard fromJson(JSONObject obj) {
         String name = (String) obj.get("name");
         String color = (String) obj.get("color");
-        Object o1 = obj.get("cost");
-        int cost = 0;
-        if(o1 instanceof Long)
-        {
-            cost = ((Long) o1).intValue();
-        }
-        else
-        {
-            cost = ((Integer) o1).intValue();
-        }
+        int cost = ((Number) obj.get("cost")).intValue();
         String ability = (String) obj.getOrDefault("ability", "");
 
         DistrictCard card = new DistrictCard(name, cost, color, ability);
 
         if (obj.containsKey("builtRound")) {
-            Object o = obj.get("builtRound");
-            int r = 0;
-            if(o instanceof Long)
-            {
-                r = ((Long) o).intValue();
-            }
-            else
-            {
-                r = ((Integer) o).intValue();
-            }
-            card.setBuiltRound(r);
+            card.setBuiltRound(((Number) obj.get("builtRound")).intValue());
         }
 
         if (obj.containsKey("storedCards")) {
@@ -124,13 +173,64 @@ public class DistrictCard extends Card{
         return card;
     }
 
+    /**
+     * Reads a district card written by writeJson() straight from a stream
+     * @param in the JSON reader, before the card's object
+     * @return DistrictCard object
+     * @throws IOException if reading fails or the JSON is not a district card
+     */
+    public static DistrictCard readJson(JsonReader in) throws IOException {
+        String name = null;
+        String color = null;
+        int cost = 0;
+        String ability = "";
+        int builtRound = -1;
+        List<DistrictCard> stored = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "name": name = in.nextString(); break;
+                case "color": color = in.nextString(); break;
+                case "cost": cost = in.nextInt(); break;
+                case "ability": ability = in.nextString(); break;
+                case "builtRound": builtRound = in.nextInt(); break;
+                case "storedCards": stored = Player.readCardList(in); break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+
+        DistrictCard card = new DistrictCard(DistrictCatalog.typeOf(name, cost, color, ability));
+        card.builtRound = builtRound;
+        card.storedCards = stored;
+        return card;
+    }
+
+    /**
+     * Get the shared type of the district card
+     * @return type of the district card
+     */
+    public DistrictType getType()
+    {
+        return type;
+    }
+
+    /**
+     * Get the id of the district card type in the catalog
+     * @return id of the type, or -1 if it is not in the catalog
+     */
+    public int getTypeId()
+    {
+        return type.getId();
+    }
+
     /**
      * Get the cost of the district card
      * @return cost of the district card
      */
     public int getCost()
     {
-        return cost;
+        return type.getCost();
     }
 
     /**
@@ -139,7 +239,7 @@ public class DistrictCard extends Card{
      */
     public String getColor()
     {
-        return color;
+        return type.getColor();
     }
 
     /**
@@ -147,7 +247,7 @@ public class DistrictCard extends Card{
      */
     public String toString()
     {
-        return name + " [" + color + cost + "]";
+        return type.toString();
     }
 
     /**
@@ -156,7 +256,7 @@ public class DistrictCard extends Card{
      */
     public String getAbility()
     {
-        return ability;
+        return type.getAbility();
     }
 
     /**
@@ -179,12 +279,12 @@ public class DistrictCard extends Card{
     /**
      * Compare the district card with another district card to see whether which is more valuable
      * return True if the district card is more valuable, False if vice versa
-     * @param c another district card
+     * @param c another district card, or null (no card) which any card is more valuable than
      * @return whether the district card is more valuable
      */
     public boolean isGreater(DistrictCard c)
     {
-        return (this.cost > c.cost) || (this.cost == c.cost && this.color.equalsIgnoreCase("purple"));
+        return c == null || (getCost() > c.getCost()) || (getCost() == c.getCost() && getColor().equalsIgnoreCase("purple"));
     }
 
     /**
@@ -193,9 +293,7 @@ public class DistrictCard extends Card{
      */
     public int getScoreValue()
     {
-        if(name.equalsIgnoreCase("Dragon Gate") || name.equalsIgnoreCase("University"))
-            return 8;
-        return cost;
+        return type.getScoreValue();
     }
 
     /**
@@ -204,6 +302,8 @@ public class DistrictCard extends Card{
      */
     public void storeCard(DistrictCard card)
     {
+        if(storedCards == null)
+            storedCards = new ArrayList<>();
         storedCards.add(card);
     }
 
@@ -213,6 +313,8 @@ public class DistrictCard extends Card{
      */
     public List<DistrictCard> getStoredCards()
     {
+        if(storedCards == null)
+            return Collections.emptyList();
         return storedCards;
     }
 
@@ -221,7 +323,7 @@ public class DistrictCard extends Card{
      */
     public void clearStoredCards()
     {
-        storedCards.clear();
+        storedCards = null;
     }
     
 }
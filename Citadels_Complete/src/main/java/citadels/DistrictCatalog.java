@@ -0,0 +1,237 @@
+package citadels;
+
+import java.nio.charset.StandardCharsets;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Immutable catalog of every district type in cards.tsv, shared by all games.
+ * <p>
+ * The file is read once, the first time the catalog is used. Each row becomes one
+ * DistrictType whose id is its position in the file (the header excluded), so ids
+ * are small integers that can index arrays and bitmasks.
+ * <p>
+ * The full deck is kept as a prototype, the type of every copy of every card, so a game
+ * makes its deck from it without reading or parsing the file again.
+ */
+public final class DistrictCatalog {
+
+    /**
+     * The types in file order, indexed by id
+     */
+    private static final DistrictType[] TYPES;
+
+    /**
+     * The number of copies of each type in a full deck, indexed by id
+     */
+    private static final int[] QUANTITIES;
+
+    /**
+     * The type of every card of a full deck, in file order
+     */
+    private static final DistrictType[] DECK;
+
+    /**
+     * The ids of the types, keyed by lower case name
+     */
+    private static final Map<String, Integer> IDS = new HashMap<>();
+
+    static
+    {
+        List<DistrictType> types = new ArrayList<>();
+        List<Integer> quantities = new ArrayList<>();
+        try
+        {
+            InputStream input = DistrictCatalog.class.getResourceAsStream("/citadels/cards.tsv");
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            boolean is_header = true;
+            while ((line = reader.readLine()) != null)
+            {
+                if(is_header)
+                {
+                    is_header = false;
+                    continue;
+                }
+                String[] parts = line.split("\t");
+
+                String name = parts[0].trim();
+                String color = parts[2].trim();
+                int cost = Integer.parseInt(parts[3].trim());
+                int quantity = Integer.parseInt(parts[1].trim());
+                String ability = "";
+                if(parts.length > 4)
+                {
+                    ability = parts[4].trim();
+                }
+
+                IDS.put(name.toLowerCase(), types.size());
+                types.add(new DistrictType(types.size(), name, cost, color, ability));
+                quantities.add(quantity);
+            }
+            reader.close();
+        }
+        catch (IOException e)
+        {
+            System.err.println("Error reading district cards: " + e.getMessage());
+        }
+        TYPES = types.toArray(new DistrictType[0]);
+        QUANTITIES = new int[TYPES.length];
+        for(int i=0; i<QUANTITIES.length; i++)
+        {
+            QUANTITIES[i] = quantities.get(i);
+        }
+        List<DistrictType> deck = new ArrayList<>();
+        for(int id=0; id<TYPES.length; id++)
+        {
+            for(int i=0; i<QUANTITIES[id]; i++)
+            {
+                deck.add(TYPES[id]);
+            }
+        }
+        DECK = deck.toArray(new DistrictType[0]);
+    }
+
+    /**
+     * The ids of the purple districts the rules refer to by name, -1 if missing from the file
+     */
+    public static final int HAUNTED_CITY = idOf("Haunted City");
+    public static final int KEEP = idOf("Keep");
+    public static final int LABORATORY = idOf("Laboratory");
+    public static final int SMITHY = idOf("Smithy");
+    public static final int OBSERVATORY = idOf("Observatory");
+    public static final int GRAVEYARD = idOf("Graveyard");
+    public static final int DRAGON_GATE = idOf("Dragon Gate");
+    public static final int UNIVERSITY = idOf("University");
+    public static final int LIBRARY = idOf("Library");
+    public static final int GREAT_WALL = idOf("Great Wall");
+    public static final int SCHOOL_OF_MAGIC = idOf("School of Magic");
+    public static final int LIGHTHOUSE = idOf("Lighthouse");
+    public static final int ARMORY = idOf("Armory");
+    public static final int MUSEUM = idOf("Museum");
+    public static final int IMPERIAL_TREASURY = idOf("Imperial Treasury");
+    public static final int MAP_ROOM = idOf("Map Room");
+    public static final int WISHING_WELL = idOf("Wishing Well");
+    public static final int QUARRY = idOf("Quarry");
+    public static final int POOR_HOUSE = idOf("Poor House");
+    public static final int BELL_TOWER = idOf("Bell Tower");
+    public static final int FACTORY = idOf("Factory");
+    public static final int PARK = idOf("Park");
+    public static final int HOSPITAL = idOf("Hospital");
+    public static final int THRONE_ROOM = idOf("Throne Room");
+
+    private DistrictCatalog()
+    {
+    }
+
+    /**
+     * Get the number of district types in the catalog
+     * @return number of types
+     */
+    public static int size()
+    {
+        return TYPES.length;
+    }
+
+    /**
+     * Get a district type by id
+     * @param id id of the type
+     * @return the shared type
+     */
+    public static DistrictType get(int id)
+    {
+        return TYPES[id];
+    }
+
+    /**
+     * Get the number of copies of a type in a full deck
+     * @param id id of the type
+     * @return number of copies
+     */
+    public static int getQuantity(int id)
+    {
+        return QUANTITIES[id];
+    }
+
+    /**
+     * Get the number of cards in a full deck
+     * @return number of cards
+     */
+    public static int getDeckSize()
+    {
+        return DECK.length;
+    }
+
+    /**
+     * Creates a full district deck in file order, with a new card for every copy of every type
+     * @return a new deck, not shuffled
+     */
+    public static Deck<DistrictCard> newDeck()
+    {
+        Deck<DistrictCard> deck = new Deck<>();
+        deck.addAll(newCards());
+        return deck;
+    }
+
+    /**
+     * Creates a full district deck shuffled with the given random number generator,
+     * in the same order as newDeck() followed by Deck.shuffle(random)
+     * @param random the random number generator to draw from
+     * @return a new shuffled deck
+     */
+    public static Deck<DistrictCard> newDeck(Random random)
+    {
+        List<DistrictCard> cards = newCards();
+        Collections.shuffle(cards, random);
+        Deck<DistrictCard> deck = new Deck<>();
+        deck.addAll(cards);
+        return deck;
+    }
+
+    /**
+     * Creates a new card for every card of the prototype deck
+     * @return the cards, in file order
+     */
+    private static List<DistrictCard> newCards()
+    {
+        DistrictCard[] cards = new DistrictCard[DECK.length];
+        for(int i=0; i<DECK.length; i++)
+        {
+            cards[i] = new DistrictCard(DECK[i]);
+        }
+        return Arrays.asList(cards);
+    }
+
+    /**
+     * Get the id of a district type by name, ignoring case
+     * @param name name of the district
+     * @return id of the type, or -1 if no district has that name
+     */
+    public static int idOf(String name)
+    {
+        if(name == null)
+            return -1;
+        Integer id = IDS.get(name.toLowerCase());
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Finds the shared type with the given attributes. If the catalog has no such
+     * type (a card edited by hand or saved by an older version), a new type is created
+     * that keeps the catalog id of its name, so it is still recognised by name.
+     *
+     * @param name name of the district
+     * @param cost cost of the district
+     * @param color color of the district
+     * @param ability ability of the district
+     * @return the shared type, or a new one if none matches
+     */
+    public static DistrictType typeOf(String name, int cost, String color, String ability)
+    {
+        int id = idOf(name);
+        if(id >= 0 && TYPES[id].matches(name, cost, color, ability))
+            return TYPES[id];
+        return new DistrictType(id, name, cost, color, ability);
+    }
+}
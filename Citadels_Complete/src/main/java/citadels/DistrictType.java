@@ -0,0 +1,180 @@
+package citadels;
+
+/**
+ * Immutable data shared by every copy of one kind of district card.
+ * <p>
+ * Types loaded from cards.tsv are held by the DistrictCatalog and shared by all
+ * games, so a district card only carries its own per-copy state.
+ */
+public final class DistrictType {
+
+    /**
+     * The indexes of the five district colors
+     */
+    public static final int YELLOW = 0;
+    public static final int BLUE = 1;
+    public static final int GREEN = 2;
+    public static final int RED = 3;
+    public static final int PURPLE = 4;
+
+    /**
+     * The names of the district colors, indexed by color index
+     */
+    public static final String[] COLORS = {"yellow", "blue", "green", "red", "purple"};
+
+    /**
+     * The id of the type, its row in cards.tsv, or -1 if it is not in the catalog
+     */
+    private final int id;
+
+    /**
+     * The name of the district
+     */
+    private final String name;
+
+    /**
+     * The cost of the district
+     */
+    private final int cost;
+
+    /**
+     * The color of the district
+     */
+    private final String color;
+
+    /**
+     * The index of the color in COLORS, or -1 for any other color
+     */
+    private final int colorIndex;
+
+    /**
+     * The ability of the district (purple)
+     */
+    private final String ability;
+
+    /**
+     * The points the district is worth at the end of the game
+     */
+    private final int scoreValue;
+
+    /**
+     * Constructor for a district type, requires an id, name, cost, color and ability
+     * @param id id of the type in the catalog, or -1
+     * @param name name of the district
+     * @param cost cost of the district
+     * @param color color of the district
+     * @param ability special ability of the district
+     */
+    public DistrictType(int id, String name, int cost, String color, String ability)
+    {
+        this.id = id;
+        this.name = name;
+        this.cost = cost;
+        this.color = color;
+        this.colorIndex = colorIndex(color);
+        this.ability = ability;
+        if(name != null && (name.equalsIgnoreCase("Dragon Gate") || name.equalsIgnoreCase("University")))
+            this.scoreValue = 8;
+        else
+            this.scoreValue = cost;
+    }
+
+    /**
+     * Get the id of the type in the catalog
+     * @return id of the type, or -1 if it is not in the catalog
+     */
+    public int getId()
+    {
+        return id;
+    }
+
+    /**
+     * Get the name of the district
+     * @return name of the district
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Get the cost of the district
+     * @return cost of the district
+     */
+    public int getCost()
+    {
+        return cost;
+    }
+
+    /**
+     * Get the color of the district
+     * @return color of the district
+     */
+    public String getColor()
+    {
+        return color;
+    }
+
+    /**
+     * Get the index of the color of the district
+     * @return index in COLORS, or -1 for any other color
+     */
+    public int getColorIndex()
+    {
+        return colorIndex;
+    }
+
+    /**
+     * Get the index of a color, ignoring case
+     * @param color name of the color
+     * @return index in COLORS, or -1 for any other color
+     */
+    public static int colorIndex(String color)
+    {
+        for(int i=0; i<COLORS.length; i++)
+        {
+            if(COLORS[i].equalsIgnoreCase(color))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Get the special ability of the district (purple)
+     * @return ability of the district
+     */
+    public String getAbility()
+    {
+        return ability;
+    }
+
+    /**
+     * Get the points the district is worth at the end of the game
+     * @return score value of the district
+     */
+    public int getScoreValue()
+    {
+        return scoreValue;
+    }
+
+    /**
+     * Check whether this type has the given attributes
+     * @param name name of the district
+     * @param cost cost of the district
+     * @param color color of the district
+     * @param ability ability of the district
+     * @return whether all attributes are equal
+     */
+    public boolean matches(String name, int cost, String color, String ability)
+    {
+        return this.cost == cost && this.name.equals(name) && this.color.equals(color) && this.ability.equals(ability);
+    }
+
+    /**
+     * Override the toString() method to show the type like a district card
+     */
+    public String toString()
+    {
+        return name + " [" + color + cost + "]";
+    }
+}
@@ -5,10 +5,14 @@ import java.nio.charset.StandardCharsets;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
 
 /**
  * Main gameplay logic of citadels game
@@ -27,6 +31,9 @@ public class Game {
     private boolean bellTowerActive = false;
     private int endThreshold = 8;
     private boolean debugMode = false;
+    private boolean headless = false;
+    private long seed;
+    private GameRandom random;
 
     /**
      * Mark if the crown player has changed or not (Throne Room purpose)
@@ -43,20 +50,294 @@ public class Game {
      */
     public List<CharacterCard> facedUp = new ArrayList<>();
 
-    public Scanner scanner = new Scanner(System.in);
+    /**
+     * Character order picked by each seat, one entry per selection phase played
+     */
+    private List<int[]> characterHistory = new ArrayList<>();
+
+    /**
+     * Seats in the order they choose characters in the current selection phase
+     */
+    private int[] selectionOrder = new int[0];
+
+    /**
+     * Characters each seat was offered in the current selection phase, as CharacterCard.mask()
+     */
+    private int[] seenCharacters = new int[0];
+
+    /**
+     * Journal recording every step of the game, or null
+     */
+    private GameJournal journal;
+
+    /**
+     * Saver writing the game at the end of every round, or null
+     */
+    private AutoSaver autoSaver;
+
+    /**
+     * Order of the next character to play in a round recovered in its turn phase, 0 at the start of a round
+     */
+    private int resumeOrder = 0;
+
+    /**
+     * Recording of the lines read from the console, or null
+     */
+    private GameRecording recording;
+
+    /**
+     * Recorded lines read instead of the console while the game is replayed, or null
+     */
+    private Iterator<String> replayInput;
+
+    /**
+     * The copy of each district card of the game this fork was last reset to, or null
+     */
+    private IdentityHashMap<DistrictCard, DistrictCard> twins;
+
+    public Scanner scanner;
+
+    /**
+     * The console input the scanner reads
+     */
+    private InputStream scannerInput;
+
+    /**
+     * The stream the game prints its prompts and narration to, or null for the console
+     */
+    private PrintStream out;
 
     /**
      * Constructor for the game
      * sets the initial player list, district card deck and character card deck be empty
-     * and the number of round be one
-     * @param id of the player
-     * @param name of the player
+     * and the number of round be one, with a randomly chosen seed
      */
     public Game()
+    {
+        this(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Constructor for a game whose random decisions all derive from a seed.
+     * Two games with the same seed and the same player decisions play out identically.
+     * @param seed the seed of the game's random number generator
+     */
+    public Game(long seed)
     {
         this.players = new ArrayList<>();
         this.districtDeck = new Deck<>();
         this.round = 1;
+        this.seed = seed;
+        this.random = new GameRandom(seed);
+        this.scanner = new Scanner(System.in);
+        this.scannerInput = System.in;
+    }
+
+    /**
+     * Constructor for a copy of a game, see copy() and fork()
+     * @param other the game to copy
+     * @param allAI true to play every seat of the copy with a plain AIPlayer
+     */
+    private Game(Game other, boolean allAI)
+    {
+        this.players = new ArrayList<>(other.players.size());
+        for(Player p : other.players)
+        {
+            if(allAI)
+            {
+                AIPlayer ai = new AIPlayer(p.getId(), p.getName());
+                ai.setWeights(AIWeights.of(p));
+                p.copyStateTo(ai);
+                this.players.add(ai);
+            }
+            else
+            {
+                this.players.add(p.copy());
+            }
+        }
+        this.districtDeck = new Deck<>();
+        for(DistrictCard c : other.districtDeck.view())
+        {
+            this.districtDeck.add(c.copy());
+        }
+        copyRoundState(other);
+        this.random = other.random.copy();
+        this.scanner = other.scanner;
+        this.scannerInput = other.scannerInput;
+    }
+
+    /**
+     * Copies the crown, the round and the state of its selection and turn phases from a game
+     * with the same seats to this one, reusing the lists of this game
+     * @param other the game to copy
+     */
+    private void copyRoundState(Game other)
+    {
+        this.crownedPlayer = other.copyOf(other.crownedPlayer, this);
+        this.firstToFinish = other.copyOf(other.firstToFinish, this);
+        this.throneRoomHolder = other.copyOf(other.throneRoomHolder, this);
+        this.round = other.round;
+        this.playerCount = other.playerCount;
+        this.killedCharacterOrder = other.killedCharacterOrder;
+        this.stolenCharacterOrder = other.stolenCharacterOrder;
+        this.gameShouldEnd = other.gameShouldEnd;
+        this.bellTowerActive = other.bellTowerActive;
+        this.endThreshold = other.endThreshold;
+        this.debugMode = other.debugMode;
+        this.headless = other.headless;
+        this.crownedChange = other.crownedChange;
+        this.facedUp.clear();
+        for(int i=0; i<other.facedUp.size(); i++)
+        {
+            this.facedUp.add(other.facedUp.get(i));
+        }
+        this.characterHistory.clear();
+        for(int i=0; i<other.characterHistory.size(); i++)
+        {
+            this.characterHistory.add(other.characterHistory.get(i));
+        }
+        this.selectionOrder = other.selectionOrder;
+        if(this.seenCharacters.length == other.seenCharacters.length)
+            System.arraycopy(other.seenCharacters, 0, this.seenCharacters, 0, this.seenCharacters.length);
+        else
+            this.seenCharacters = other.seenCharacters.clone();
+        this.resumeOrder = other.resumeOrder;
+        this.seed = other.seed;
+    }
+
+    /**
+     * Creates an independent copy of the game for look-ahead search: players with their
+     * hands, cities and characters, the deck order, the killed and stolen characters,
+     * the crown, the Bell Tower state and the random number generator.
+     * Playing the copy never changes this game, and a copy of a copy plays out the same
+     * as the first copy.
+     *
+     * @return a copy of the game
+     */
+    public Game copy()
+    {
+        return new Game(this, false);
+    }
+
+    /**
+     * Creates a headless copy of the game whose random decisions follow a new seed,
+     * so different forks of the same position play out different futures.
+     * Every seat of the fork is played by a plain AIPlayer with the same gold, hand,
+     * city and character, so a fork never waits for input or searches itself.
+     *
+     * @param seed the seed of the copy's random number generator
+     * @return a copy of the game
+     */
+    public Game fork(long seed)
+    {
+        Game game = new Game(this, true);
+        game.seed = seed;
+        game.random = new GameRandom(seed);
+        game.headless = true;
+        return game;
+    }
+
+    /**
+     * Resets a fork of a game to the current state of that game, the same as
+     * fork(seed) would create it, but reusing the players, lists and district cards of
+     * this fork. A search plays out many futures of one position in a single fork this
+     * way, without copying the whole game for each.
+     * <p>
+     * This fork keeps its own copy of each district card of the other game for the
+     * next resets, so it should only be reset to the game it was forked from.
+     *
+     * @param other the game this fork was created from, with the same seats
+     * @param seed the seed of the fork's random number generator
+     */
+    void resetTo(Game other, long seed)
+    {
+        if(twins == null)
+            twins = new IdentityHashMap<>();
+        for(int i=0; i<players.size(); i++)
+        {
+            other.players.get(i).copyStateTo(players.get(i), this);
+        }
+        districtDeck.clear();
+        for(int i=0; i<other.districtDeck.size(); i++)
+        {
+            districtDeck.add(twin(other.districtDeck.get(i)));
+        }
+        copyRoundState(other);
+        this.seed = seed;
+        this.random.setSeed(seed);
+        this.headless = true;
+    }
+
+    /**
+     * Get the copy of a district card of the game this fork is reset to, in the same state
+     * @param card a district card of the other game
+     * @return the copy of the card in this fork
+     */
+    DistrictCard twin(DistrictCard card)
+    {
+        DistrictCard copy = twins.get(card);
+        if(copy == null)
+        {
+            copy = new DistrictCard(card.getType());
+            twins.put(card, copy);
+        }
+        card.copyStateTo(copy, this);
+        return copy;
+    }
+
+    /**
+     * Seats a new player in place of another, keeping the gold, hand, city and character
+     * of the seat, for example to put a searching AI at a table set up by setUpHeadless.
+     *
+     * @param seat index of the seat in the player list
+     * @param player the player taking the seat
+     */
+    public void replacePlayer(int seat, Player player)
+    {
+        Player old = players.get(seat);
+        old.copyStateTo(player);
+        players.set(seat, player);
+        if(crownedPlayer == old)
+            crownedPlayer = player;
+        if(firstToFinish == old)
+            firstToFinish = player;
+        if(throneRoomHolder == old)
+            throneRoomHolder = player;
+    }
+
+    /**
+     * Finds the player of a copied game sitting in the same seat as a player of this game
+     * @param p a player of this game, or null
+     * @param copy a copy of this game
+     * @return the player of the copy, or null
+     */
+    private Player copyOf(Player p, Game copy)
+    {
+        if(p == null)
+            return null;
+        int seat = players.indexOf(p);
+        return seat < 0 ? null : copy.players.get(seat);
+    }
+
+    /**
+     * Returns the seed the game's random number generator started from.
+     *
+     * @return the seed
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Returns the random number generator of the game.
+     * Every random decision in the game (shuffles, crown, AI choices) draws from it.
+     *
+     * @return the game's random number generator
+     */
+    public GameRandom getRandom()
+    {
+        return random;
     }
 
     /**
@@ -163,7 +444,7 @@ public class Game {
         {
             for(Player p : players)
             {
-                DistrictCard throneRoom = p.getBuiltDistrict("Throne Room");
+                DistrictCard throneRoom = p.getBuiltDistrict(DistrictCatalog.THRONE_ROOM);
                 if(throneRoom != null)
                 {
                     p.addGold(1);
@@ -175,6 +456,16 @@ public class Game {
         this.crownedPlayer = newcrownedPlayer;
     }
 
+    /**
+     * Sets the player who holds the crown without the Throne Room effect, to undo a change of the crown
+     *
+     * @param crownedPlayer the crowned player
+     */
+    void restoreCrownedPlayer(Player crownedPlayer)
+    {
+        this.crownedPlayer = crownedPlayer;
+    }
+
     /**
      * Returns the player who first completed a full city.
      *
@@ -225,6 +516,16 @@ public class Game {
         return this.round;
     }
 
+    /**
+     * Sets the current game round number, to undo the end of a round
+     *
+     * @param round the round number
+     */
+    void setRound(int round)
+    {
+        this.round = round;
+    }
+
     /**
      * Returns whether the Bell Tower effect is active (i.e. game ends at 7 districts).
      *
@@ -252,7 +553,7 @@ public class Game {
     {
         bellTowerActive = true;
         endThreshold = 7;
-        System.out.println("Bell Tower Activated: Game will now end when a player builds 7 districts.");
+        log("Bell Tower Activated: Game will now end when a player builds 7 districts.");
     }
 
     /**
@@ -263,10 +564,21 @@ public class Game {
     {
         bellTowerActive = false;
         endThreshold = 8;
-        System.out.println("Bell Tower destroyed: Game will now end when a player builds 8 districts.");
+        log("Bell Tower destroyed: Game will now end when a player builds 8 districts.");
         reCheckGameShouldEnd();
     }
 
+    /**
+     * Sets whether the Bell Tower effect is active without any narration or other effect
+     *
+     * @param active true for a game ending at 7 districts, false for 8
+     */
+    void setBellTowerActive(boolean active)
+    {
+        bellTowerActive = active;
+        endThreshold = active ? 7 : 8;
+    }
+
     /**
      * Resets round-specific effects like assassination and theft.
      * Set both order of character killed and stolen be -1 (initial value)
@@ -311,6 +623,54 @@ public class Game {
         return this.debugMode;
     }
 
+    /**
+     * Returns whether the game runs headless.
+     * A headless game never reads from the console and prints nothing.
+     *
+     * @return true if the game is headless
+     */
+    public boolean isHeadless()
+    {
+        return this.headless;
+    }
+
+    /**
+     * Sets whether the game runs headless (no prompts and no console output).
+     *
+     * @param headless true to run without console input or output
+     */
+    public void setHeadless(boolean headless)
+    {
+        this.headless = headless;
+    }
+
+    /**
+     * Prints a line of game narration, unless the game is headless.
+     *
+     * @param message the line to print
+     */
+    public void log(String message)
+    {
+        if(!headless)
+        {
+            getOut().println(message);
+        }
+    }
+
+    /**
+     * Prints a line of game narration built only if the game is not headless, so a headless
+     * game never formats narration. Used for every line built by concatenation.
+     *
+     * @param message builds the line to print
+     */
+    public void log(Supplier<String> message)
+    {
+        if(!headless)
+        {
+            getOut().println(message.get());
+        }
+    }
+
     /**
      * Toggles debug mode on or off.
      */
@@ -319,110 +679,163 @@ public class Game {
         debugMode = !debugMode;
         if(debugMode)
         {
-            System.out.println("Enabled debug mode. You can now see all player's hands.");
+            log("Enabled debug mode. You can now see all player's hands.");
         }
         else
         {
-            System.out.println("Disabled debug mode. You will no longer see all player's hands.");
+            log("Disabled debug mode. You will no longer see all player's hands.");
         }
     }
 
     /**
      * Saves the current game state to a JSON file.
+     * The JSON is streamed to the file as it is written, without building it in memory first.
      *
      * @param filename the file to save to
      */
     public void saveToFile(String filename) {
-        try (FileWriter writer = new FileWriter(filename)) {
-                JSONObject gameObj = new JSONObject();
-
-                gameObj.put("round", round);
-                gameObj.put("debugMode", debugMode);
-                gameObj.put("gameShouldEnd", gameShouldEnd);
-                gameObj.put("bellTowerActive", bellTowerActive);
-                gameObj.put("endThreshold", endThreshold);
-                gameObj.put("crownedPlayerId", players.indexOf(crownedPlayer));
-                gameObj.put("districtDeck", districtDeck.toJson());
-
-                // Example: save players
-                JSONArray playerArray = new JSONArray();
-                for (Player p : players) {
-                    playerArray.add(p.toJson());
-                }
-                gameObj.put("players", playerArray);
-
-
-                // Save to file
-                writer.write(gameObj.toJSONString());
-                System.out.println("Game saved to " + filename);
+        try (OutputStream stream = new FileOutputStream(filename)) {
+                writeJson(stream);
+                getOut().println("Game saved to " + filename);
             } catch (IOException e) {
-                System.out.println("Error saving game: " + e.getMessage());
+                getOut().println("Error saving game: " + e.getMessage());
             }
         }
 
     /**
-     * Loads a previously saved game state from a JSON file.
+     * Writes the current game state as UTF-8 JSON to a stream, token by token.
+     * The stream is flushed but not closed.
      *
-     * @param filename the file to load from
-     * @return a reconstructed Game object, or null if loading fails
+     * @param stream the stream to write to
+     * @throws IOException if writing fails
      */
-    public static Game loadFromFile(String filename) {
-        try (FileReader reader = new FileReader(filename)) {
-            JSONParser parser = new JSONParser();
-            JSONObject obj = (JSONObject) parser.parse(reader);
+    public void writeJson(OutputStream stream) throws IOException {
+        JsonWriter out = new JsonWriter(new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 16384));
+        out.beginObject();
+        out.name("round").value(round);
+        out.name("debugMode").value(debugMode);
+        out.name("gameShouldEnd").value(gameShouldEnd);
+        out.name("bellTowerActive").value(bellTowerActive);
+        out.name("endThreshold").value(endThreshold);
+        out.name("crownedPlayerId").value(players.indexOf(crownedPlayer));
+        out.name("seed").value(seed);
+        out.name("randomState").value(random.getState());
+        out.name("districtDeck");
+        districtDeck.writeJson(out);
+
+        out.name("players").beginArray();
+        for (Player p : players) {
+            p.writeJson(out);
+        }
+        out.endArray();
+        out.endObject();
+        out.flush();
+    }
 
-            Game game = new Game();
+    /**
+     * Saves the current game from the console: a name ending in .json or holding a path
+     * is saved as JSON to that file, any other name to the save library of the console game.
+     *
+     * @param name the name of the save or the file
+     */
+    private void saveToLibrary(String name) {
+        if (name.endsWith(".json") || name.contains("/") || name.contains("\\") || name.isEmpty()) {
+            saveToFile(name);
+            return;
+        }
+        try {
+            SaveLibrary library = new SaveLibrary(new File(SaveLibrary.DEFAULT_DIRECTORY));
+            SaveEntry entry = library.save(name, this);
+            getOut().println("Game saved to " + new File(library.getDirectory(), entry.getName()).getPath());
+        } catch (IOException e) {
+            getOut().println("Error saving game: " + e.getMessage());
+        }
+    }
 
-            Object o = obj.get("round");
-            int r = 0;
-            if(o instanceof Long)
-            {
-                r = ((Long) o).intValue();
-            }
-            else
-            {
-                r = ((Integer) o).intValue();
-            }
-            game.round = r;
-            game.debugMode = (Boolean) obj.get("debugMode");
-            game.gameShouldEnd = (Boolean) obj.get("gameShouldEnd");
-            game.bellTowerActive = (Boolean) obj.get("bellTowerActive");
-
-            Object o1 = obj.get("endThreshold");
-            int e = 0;
-            if(o1 instanceof Long)
-            {
-                e = ((Long) o1).intValue();
-            }
-            else
-            {
-                e = ((Integer) o1).intValue();
+    /**
+     * Saves the current game state to a file in the compact binary format of BinarySave.
+     *
+     * @param filename the file to save to
+     */
+    public void saveBinaryToFile(String filename) {
+        try (OutputStream stream = new FileOutputStream(filename)) {
+                writeBinary(stream);
+                getOut().println("Game saved to " + filename);
+            } catch (IOException e) {
+                getOut().println("Error saving game: " + e.getMessage());
             }
-            game.endThreshold = e;
-            game.districtDeck.fromJson((JSONArray) obj.get("districtDeck"), "district");
-
+        }
 
-            // Load players
-            JSONArray playerArray = (JSONArray) obj.get("players");
-            for (Object oo : playerArray) {
-                JSONObject playerObj = (JSONObject) oo;
-                Player player = Player.fromJson(playerObj); // you'll write this
-                game.players.add(player);
-            }
+    /**
+     * Writes the current game state in the binary format to a stream.
+     * The stream is flushed but not closed.
+     *
+     * @param stream the stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeBinary(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, 4096));
+        BinarySave.writeHeader(out);
+        BinarySave.writeVarInt(out, round);
+        out.writeBoolean(debugMode);
+        out.writeBoolean(gameShouldEnd);
+        out.writeBoolean(bellTowerActive);
+        BinarySave.writeVarInt(out, endThreshold);
+        BinarySave.writeSignedVarInt(out, players.indexOf(crownedPlayer));
+        out.writeLong(seed);
+        out.writeLong(random.getState());
+        BinarySave.writeCards(out, districtDeck.view());
+
+        BinarySave.writeVarInt(out, players.size());
+        for (Player p : players) {
+            BinarySave.writePlayer(out, p);
+        }
+        out.flush();
+    }
 
-            Object o2 = obj.get("crownedPlayerId");
-            int crownedId = 0;
-            if(o2 instanceof Long)
-            {
-                crownedId = ((Long) o2).intValue();
-            }
-            else
-            {
-                crownedId = ((Integer) o2).intValue();
-            }
-            game.crownedPlayer = game.players.get(crownedId);
+    /**
+     * Reads a game state written by writeBinary.
+     * The game's random number generator carries on from where it was when saved.
+     *
+     * @param stream the stream to read from
+     * @return the reconstructed game
+     * @throws IOException if reading fails or the stream is not a binary save
+     */
+    public static Game readBinary(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream instanceof BufferedInputStream ? stream : new BufferedInputStream(stream));
+        BinarySave.readHeader(in);
+        Game game = new Game();
+        game.round = BinarySave.readVarInt(in);
+        game.debugMode = in.readBoolean();
+        game.gameShouldEnd = in.readBoolean();
+        game.bellTowerActive = in.readBoolean();
+        game.endThreshold = BinarySave.readVarInt(in);
+        int crownedId = BinarySave.readSignedVarInt(in);
+        game.seed = in.readLong();
+        game.random = new GameRandom(in.readLong());
+        game.districtDeck.addAll(BinarySave.readCards(in));
+
+        int playerCount = BinarySave.readVarInt(in);
+        for (int i = 0; i < playerCount; i++) {
+            game.players.add(BinarySave.readPlayer(in));
+        }
+        if (crownedId < 0 || crownedId >= game.players.size()) {
+            throw new IOException("Saved game has no crowned player: " + crownedId);
+        }
+        game.crownedPlayer = game.players.get(crownedId);
+        return game;
+    }
 
-            game.scanner = new Scanner(System.in);
+    /**
+     * Loads a previously saved game state from a file, in JSON or in the binary format,
+     * told apart by the first bytes of the file.
+     *
+     * @param filename the file to load from
+     * @return a reconstructed Game object, or null if loading fails
+     */
+    public static Game loadFromFile(String filename) {
+        try {
+            Game game = readFile(filename);
             System.out.println("Game loaded from " + filename);
             System.out.println();
             return game;
@@ -432,40 +845,144 @@ public class Game {
         }
     }
 
+    /**
+     * Reads a saved game from a file in JSON or in the binary format, without any console output.
+     *
+     * @param filename the file to read
+     * @return the reconstructed game
+     * @throws Exception if the file cannot be read or parsed
+     */
+    public static Game readFile(String filename) throws Exception {
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(filename))) {
+            if (BinarySave.isBinary(stream)) {
+                return readBinary(stream);
+            }
+            return readJson(new InputStreamReader(stream, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Reads a game state saved as JSON, decoding it straight into the game as it is read.
+     * The game's random number generator carries on from where it was when saved,
+     * or starts from a random seed for a save that does not hold one.
+     *
+     * @param reader the reader of the JSON
+     * @return the reconstructed game
+     * @throws IOException if reading fails or the JSON is not a saved game
+     */
+    static Game readJson(Reader reader) throws IOException {
+        JsonReader in = new JsonReader(reader);
+        Game game = new Game();
+        int crownedId = -1;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "round": game.round = in.nextInt(); break;
+                case "debugMode": game.debugMode = in.nextBoolean(); break;
+                case "gameShouldEnd": game.gameShouldEnd = in.nextBoolean(); break;
+                case "bellTowerActive": game.bellTowerActive = in.nextBoolean(); break;
+                case "endThreshold": game.endThreshold = in.nextInt(); break;
+                case "crownedPlayerId": crownedId = in.nextInt(); break;
+                case "seed": game.seed = in.nextLong(); break;
+                case "randomState": game.random = new GameRandom(in.nextLong()); break;
+                case "districtDeck": game.districtDeck.readJson(in, DistrictCard::readJson); break;
+                case "players":
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        game.players.add(Player.readJson(in));
+                    }
+                    in.endArray();
+                    break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+        if (crownedId < 0 || crownedId >= game.players.size()) {
+            throw new IOException("Saved game has no crowned player: " + crownedId);
+        }
+        game.crownedPlayer = game.players.get(crownedId);
+        return game;
+    }
+
+    /**
+     * Converts a game state saved as JSON and parsed to a JSONObject.
+     * Loading reads the JSON with readJson() instead, without building the object first.
+     *
+     * @param obj the parsed JSON
+     * @return the reconstructed game
+     */
+    static Game fromJson(JSONObject obj) {
+        Game game = new Game();
+        game.round = ((Number) obj.get("round")).intValue();
+        game.debugMode = (Boolean) obj.get("debugMode");
+        game.gameShouldEnd = (Boolean) obj.get("gameShouldEnd");
+        game.bellTowerActive = (Boolean) obj.get("bellTowerActive");
+        game.endThreshold = ((Number) obj.get("endThreshold")).intValue();
+        if (obj.containsKey("seed")) {
+            game.seed = ((Number) obj.get("seed")).longValue();
+            game.random = new GameRandom(((Number) obj.get("randomState")).longValue());
+        }
+        game.districtDeck.fromJson((JSONArray) obj.get("districtDeck"), "district");
+
+        // Load players
+        JSONArray playerArray = (JSONArray) obj.get("players");
+        for (Object oo : playerArray) {
+            game.players.add(Player.fromJson((JSONObject) oo));
+        }
+
+        game.crownedPlayer = game.players.get(((Number) obj.get("crownedPlayerId")).intValue());
+        return game;
+    }
+
     /**
      * Set up the game.
      * Initialize player, shuffle district card deck, deal 4 cards and 2 goal to each player
      */
     public void initialization()
     {
-        System.out.println("Enter how many players [4-7]:");
+        getOut().println("Enter how many players [4-7]:");
         while(playerCount < 4 || playerCount > 7)
         {
-            System.out.print("> ");
-            String input = scanner.nextLine().trim();
+            getOut().print("> ");
+            String input = readLine().trim();
             try
             {
                 playerCount = Integer.parseInt(input);
             }
             catch(NumberFormatException e)
             {
-                System.out.println("Error: Please enter a number between 4 to 7");
+                getOut().println("Error: Please enter a number between 4 to 7");
             }
             if(playerCount < 4 || playerCount > 7)
             {
-                System.out.println("Please enter a number between 4 to 7");
+                getOut().println("Please enter a number between 4 to 7");
             }
         }
 
-        System.out.println("Shuffling deck...");
-        App app = new App();
-        districtDeck = app.loadDistrictDeck();
-        districtDeck.shuffle();
+        getOut().println("Shuffling deck...");
+        getOut().println("Adding characters...");
+        getOut().println("Dealing cards...");
+        setUpTable(true);
+
+        getOut().println("Starting Citadels with " + playerCount + " players...");
+        getOut().println("You are player 1");
+        getOut().println();
+    }
+
+    /**
+     * Shuffles a fresh district deck, seats the players, deals 4 cards and 2 gold
+     * to each of them and hands the crown to a random player.
+     * Uses the player count already stored in the game.
+     *
+     * @param withHuman true to seat a human as player 1, false for an all-AI table
+     */
+    private void setUpTable(boolean withHuman)
+    {
+        districtDeck = DistrictCatalog.newDeck(random);
 
-        System.out.println("Adding characters...");
         for (int i = 0; i < playerCount; i++) 
         {
-            if (i == 0) 
+            if (i == 0 && withHuman) 
             {
                 players.add(new HumanPlayer(i + 1, "Player 1"));
             } 
@@ -475,7 +992,6 @@ public class Game {
             }
         }
 
-        System.out.println("Dealing cards...");
         for(Player player : players)
         {
             player.addGold(2);
@@ -486,12 +1002,52 @@ public class Game {
         }
 
         //Assign crown randomly
-        Random rand = new Random();
-        crownedPlayer = players.get(rand.nextInt(players.size()));
+        crownedPlayer = players.get(random.nextInt(players.size()));
+    }
 
-        System.out.println("Starting Citadels with " + playerCount + " players...");
-        System.out.println("You are player 1");
-        System.out.println();
+    /**
+     * Plays a complete game between AI players without any console input or output.
+     * Runs the set up, every round of selection and turns, and the final scoring.
+     *
+     * @param playerCount the number of AI players at the table [4-7]
+     * @return the winner of the game
+     */
+    public Player playHeadless(int playerCount)
+    {
+        setUpHeadless(playerCount);
+        return playToEnd();
+    }
+
+    /**
+     * Sets up a table of AI players without any console input or output,
+     * ready for the first round.
+     *
+     * @param playerCount the number of AI players at the table [4-7]
+     */
+    public void setUpHeadless(int playerCount)
+    {
+        if(playerCount < 4 || playerCount > 7)
+        {
+            throw new IllegalArgumentException("Player count must be between 4 and 7: " + playerCount);
+        }
+        this.headless = true;
+        this.playerCount = playerCount;
+        setUpTable(false);
+    }
+
+    /**
+     * Plays rounds until the game ends, then scores it.
+     *
+     * @return the winner of the game
+     */
+    public Player playToEnd()
+    {
+        finishRecoveredRound();
+        while(!shouldEndGame())
+        {
+            nextRound();
+        }
+        return gameScore();
     }
 
     /**
@@ -506,54 +1062,336 @@ public class Game {
         {
             initialization();
         }
-        
+        finishRecoveredRound();
+
         while (!shouldEndGame()) 
         {
-            if(round>1)
-            {
-                System.out.println();
-                System.out.println("Everyone is done, Round " + round + " begins !");  
-            }
-            System.out.println("(Enter t to continue, save to save game):");
-            String a = "";
-            while(!a.equals("t") && !a.equals("save"))
-            {
-                System.out.print("> ");
-                a = scanner.nextLine().trim();
-                if(!a.equals("t") && !a.equals("save"))
-                    System.out.println("Invalid input. Please enter t or save");
-            }
-            if(a.equals("t"))
-                nextRound();
-            else
-            {
-                System.out.println("Enter filename: ");
-                System.out.print("> ");
-                String f = scanner.nextLine().trim();
-                saveToFile(f);
+            if(!promptNextRound())
                 return;
-            }
+            nextRound();
         }
 
-        System.out.println("The game ends - at least one player has completed his city.");
+        getOut().println("The game ends - at least one player has completed his city.");
         gameScore();
     }
 
+    /**
+     * Asks the player between two rounds whether to play the next round or to save the game.
+     * A replayed game does not save again.
+     *
+     * @return true to play the next round, false if the game was saved
+     */
+    boolean promptNextRound()
+    {
+        if(round>1)
+        {
+            getOut().println();
+            getOut().println("Everyone is done, Round " + round + " begins !");  
+        }
+        getOut().println("(Enter t to continue, save to save game):");
+        String a = "";
+        while(!a.equals("t") && !a.equals("save"))
+        {
+            getOut().print("> ");
+            a = readLine().trim();
+            if(!a.equals("t") && !a.equals("save"))
+                getOut().println("Invalid input. Please enter t or save");
+        }
+        if(a.equals("t"))
+            return true;
+        getOut().println("Enter save name (or a filename ending in .json): ");
+        getOut().print("> ");
+        String f = readLine().trim();
+        if(replayInput == null)
+            saveToLibrary(f);
+        return false;
+    }
+
     /**
      * Runs the logic for a full game round including character selection
      * and player turns, then increments the round counter.
      */
     public void nextRound()
+    {
+        playRoundUntil(9);
+        endRound();
+    }
+
+    /**
+     * Plays the current round up to the turn of a character: the selection phase, then the
+     * turns of the characters before it. The rest of the round is played like a round
+     * recovered from a journal, by playToEnd() or start().
+     *
+     * @param order order of the character whose turn is not played [1-9], 9 to play every turn
+     */
+    void playRoundUntil(int order)
     {
         resetRoundEffect();
-        System.out.println(crownedPlayer.getName() + " is the crowned player and goes first.");
-        System.out.println("Press t to process turns");
-        System.out.println("================================\nSELECTION PHASE\n================================");
+        log(() -> crownedPlayer.getName() + " is the crowned player and goes first.");
+        log("Press t to process turns");
+        log("================================\nSELECTION PHASE\n================================");
         selectionPhase();
-        System.out.println("Character choosing is over, action round will now begin.");
-        System.out.println("================================\nTURN PHASE\n================================");
-        turnPhase();
+        log("Character choosing is over, action round will now begin.");
+        log("================================\nTURN PHASE\n================================");
+        turnPhase(1, order);
+        resumeOrder = order < 9 ? order : 0;
+    }
+
+    /**
+     * Plays the rest of the round when the game was recovered from a journal in the middle of its turn phase
+     */
+    private void finishRecoveredRound()
+    {
+        if(resumeOrder > 0)
+        {
+            int firstOrder = resumeOrder;
+            resumeOrder = 0;
+            turnPhase(firstOrder);
+            endRound();
+        }
+    }
+
+    /**
+     * Get the journal recording the game
+     * @return the journal, or null
+     */
+    public GameJournal getJournal()
+    {
+        return journal;
+    }
+
+    /**
+     * Set the journal recording the game, see GameJournal.attach()
+     * @param journal the journal, or null to stop recording
+     */
+    public void setJournal(GameJournal journal)
+    {
+        this.journal = journal;
+    }
+
+    /**
+     * Get the saver writing the game at the end of every round
+     * @return the saver, or null
+     */
+    public AutoSaver getAutoSaver()
+    {
+        return autoSaver;
+    }
+
+    /**
+     * Set the saver writing the game at the end of every round
+     * @param autoSaver the saver, or null to stop saving
+     */
+    public void setAutoSaver(AutoSaver autoSaver)
+    {
+        this.autoSaver = autoSaver;
+    }
+
+    /**
+     * Get the recording of the lines read from the console
+     * @return the recording, or null
+     */
+    public GameRecording getRecording()
+    {
+        return recording;
+    }
+
+    /**
+     * Set the recording of the lines read from the console
+     * @param recording the recording, or null to stop recording
+     */
+    public void setRecording(GameRecording recording)
+    {
+        this.recording = recording;
+    }
+
+    /**
+     * Set the recorded lines to read instead of the console, see GameRecording.replay()
+     * @param replayInput the recorded lines, or null to read the console again
+     */
+    void setReplayInput(Iterator<String> replayInput)
+    {
+        this.replayInput = replayInput;
+    }
+
+    /**
+     * Set the stream the game prints to instead of the console, see GameRecording.replay()
+     * @param out the stream, or null to print to the console again
+     */
+    void setOut(PrintStream out)
+    {
+        this.out = out;
+    }
+
+    /**
+     * Get the stream the game prints its prompts and narration to. Every line the game
+     * prints goes through here, so a replayed game prints nowhere without touching System.out.
+     * @return the game's stream, or the console if none was set
+     */
+    public PrintStream getOut()
+    {
+        return out != null ? out : System.out;
+    }
+
+    /**
+     * Reads the next line typed by the player. Every prompt of the game reads through here,
+     * so that a recording holds every decision of the human player. The console is read
+     * through one scanner, replaced when System.in is.
+     *
+     * @return the line, without its line terminator
+     * @throws IllegalStateException if the game is replayed past the end of its recording
+     */
+    public String readLine()
+    {
+        if(replayInput != null)
+        {
+            if(!replayInput.hasNext())
+            {
+                throw new IllegalStateException("The recording ends before round " + round + " does");
+            }
+            return replayInput.next();
+        }
+        if(scannerInput != System.in)
+        {
+            scanner = new Scanner(System.in);
+            scannerInput = System.in;
+        }
+        String line = scanner.nextLine();
+        if(recording != null)
+            recording.add(line);
+        return line;
+    }
+
+    /**
+     * Writes the state of the game not held by the players' hands, cities and characters
+     * or by the deck: round, end condition, crown, killed and stolen characters, faced up
+     * characters, selection order and characters offered to each seat, and random number generator.
+     * @param out the output
+     * @param nextOrder order of the next character to play, 0 at the start of a round
+     * @throws IOException if writing fails
+     */
+    void writeState(DataOutput out, int nextOrder) throws IOException
+    {
+        BinarySave.writeVarInt(out, round);
+        BinarySave.writeVarInt(out, nextOrder);
+        out.writeByte((debugMode ? 1 : 0) | (gameShouldEnd ? 2 : 0) | (bellTowerActive ? 4 : 0) | (crownedChange ? 8 : 0) | (headless ? 16 : 0));
+        BinarySave.writeVarInt(out, endThreshold);
+        BinarySave.writeSignedVarInt(out, players.indexOf(crownedPlayer));
+        BinarySave.writeSignedVarInt(out, players.indexOf(firstToFinish));
+        BinarySave.writeSignedVarInt(out, players.indexOf(throneRoomHolder));
+        BinarySave.writeSignedVarInt(out, killedCharacterOrder);
+        BinarySave.writeSignedVarInt(out, stolenCharacterOrder);
+        BinarySave.writeVarInt(out, facedUp.size());
+        for(CharacterCard c : facedUp)
+        {
+            BinarySave.writeCharacter(out, c);
+        }
+        int killed = 0;
+        for(int i=0; i<players.size(); i++)
+        {
+            if(players.get(i).killed)
+                killed |= 1 << i;
+        }
+        BinarySave.writeVarInt(out, killed);
+        BinarySave.writeVarInt(out, selectionOrder.length);
+        for(int seat : selectionOrder)
+        {
+            BinarySave.writeVarInt(out, seat);
+        }
+        BinarySave.writeVarInt(out, seenCharacters.length);
+        for(int seen : seenCharacters)
+        {
+            BinarySave.writeVarInt(out, seen);
+        }
+        out.writeLong(seed);
+        out.writeLong(random.getState());
+    }
+
+    /**
+     * Reads a state written by writeState, for a game holding the same players
+     * @param in the input
+     * @throws IOException if reading fails
+     */
+    void readState(DataInput in) throws IOException
+    {
+        round = BinarySave.readVarInt(in);
+        resumeOrder = BinarySave.readVarInt(in);
+        int flags = in.readUnsignedByte();
+        debugMode = (flags & 1) != 0;
+        gameShouldEnd = (flags & 2) != 0;
+        bellTowerActive = (flags & 4) != 0;
+        crownedChange = (flags & 8) != 0;
+        headless = (flags & 16) != 0;
+        endThreshold = BinarySave.readVarInt(in);
+        crownedPlayer = playerAt(BinarySave.readSignedVarInt(in));
+        firstToFinish = playerAt(BinarySave.readSignedVarInt(in));
+        throneRoomHolder = playerAt(BinarySave.readSignedVarInt(in));
+        killedCharacterOrder = BinarySave.readSignedVarInt(in);
+        stolenCharacterOrder = BinarySave.readSignedVarInt(in);
+        int faced = BinarySave.readVarInt(in);
+        facedUp = new ArrayList<>(faced);
+        for(int i=0; i<faced; i++)
+        {
+            facedUp.add(BinarySave.readCharacter(in));
+        }
+        int killed = BinarySave.readVarInt(in);
+        for(int i=0; i<players.size(); i++)
+        {
+            players.get(i).killed = (killed & (1 << i)) != 0;
+        }
+        selectionOrder = new int[BinarySave.readVarInt(in)];
+        for(int i=0; i<selectionOrder.length; i++)
+        {
+            selectionOrder[i] = BinarySave.readVarInt(in);
+        }
+        seenCharacters = new int[BinarySave.readVarInt(in)];
+        for(int i=0; i<seenCharacters.length; i++)
+        {
+            seenCharacters[i] = BinarySave.readVarInt(in);
+        }
+        playerCount = players.size();
+        seed = in.readLong();
+        random = new GameRandom(in.readLong());
+    }
+
+    /**
+     * Finds the player who picked the character of the given order this round.
+     *
+     * @param order the character's order
+     * @return the player, or null if the character is face down or face up
+     */
+    private Player playerWithOrder(int order)
+    {
+        for(Player player : players)
+        {
+            if(player.getCharacter().getOrder() == order)
+            {
+                return player;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the player at a seat
+     * @param seat the seat, or -1
+     * @return the player, or null for -1
+     */
+    private Player playerAt(int seat)
+    {
+        return seat < 0 ? null : players.get(seat);
+    }
+
+    /**
+     * Ends the current round once every character has played
+     */
+    public void endRound()
+    {
         round ++;
+        if(journal != null)
+            journal.record(this, 0);
+        if(autoSaver != null)
+            autoSaver.save(this);
     }
 
     /**
@@ -563,12 +1401,11 @@ public class Game {
      */
     public void selectionPhase()
     {
-        Scanner scanner = new Scanner(System.in);
         List <CharacterCard> allCharacters = CharacterCard.getCharacters();
-        Collections.shuffle(allCharacters);
+        Collections.shuffle(allCharacters, random);
 
         //Remove card
-        System.out.println("A mystery character was removed.");
+        log("A mystery character was removed.");
         CharacterCard facedDown = allCharacters.remove(0);
         facedUp = new ArrayList<>();
         int facedUpRemoved = 7 - getPlayers().size();
@@ -576,49 +1413,117 @@ public class Game {
         for(int i=0; i<facedUpRemoved; i++)
         {
             CharacterCard card = allCharacters.remove(0);
-            System.out.println(card.getName() + " was removed.");
+            log(() -> card.getName() + " was removed.");
             if(card.getName().equals("King"))
             {
-                System.out.println("The King cannot be visibly removed, trying again..");
+                log("The King cannot be visibly removed, trying again..");
                 allCharacters.add(card);
-                card = allCharacters.remove(0);
-                System.out.println(card.getName() + " was removed.");
+                CharacterCard redrawn = allCharacters.remove(0);
+                log(() -> redrawn.getName() + " was removed.");
+                facedUp.add(redrawn);
+            }
+            else
+            {
+                facedUp.add(card);
             }
-            facedUp.add(card);
         }
 
         int startIndex = players.indexOf(crownedPlayer);
-        List<Player> selectionOrder = new ArrayList<>();
+        selectionOrder = new int[players.size()];
         for(int i=0; i<getPlayers().size(); i++)
         {
-            selectionOrder.add(players.get((startIndex + i) % getPlayers().size()));
+            selectionOrder[i] = (startIndex + i) % getPlayers().size();
         }
 
+        seenCharacters = new int[players.size()];
         int count = 0;
-        for(Player player : selectionOrder)
+        for(int seat : selectionOrder)
         {
-            CharacterCard chosen = player.chooseCharacter(new ArrayList<>(allCharacters));
+            Player player = players.get(seat);
+            seenCharacters[seat] = CharacterCard.mask(allCharacters);
+            CharacterCard chosen = player.chooseCharacter(this, new ArrayList<>(allCharacters));
             allCharacters.remove(chosen);
             player.setCharacter(chosen);
-            System.out.println(player.getName() + " chose a character.");
+            log(() -> player.getName() + " chose a character.");
             if(chosen.getName().equalsIgnoreCase("King"))
             {
                 setCrownedPlayer(player);
             }
             
-            if(count != getPlayers().size()-1)
+            if(count != getPlayers().size()-1 && !headless)
             {
                 String input = "";
                 while(!input.equals("t"))
                 {
-                    System.out.print("> ");
-                    input = scanner.nextLine().trim();
+                    getOut().print("> ");
+                    input = readLine().trim();
                     if(!input.equals("t"))
-                        System.out.println("Please enter t to continue.");
+                        getOut().println("Please enter t to continue.");
                 }
                 count ++;
             }
         }
+
+        int[] picks = new int[players.size()];
+        for(int i=0; i<players.size(); i++)
+        {
+            picks[i] = players.get(i).getCharacter().getOrder();
+        }
+        characterHistory.add(picks);
+    }
+
+    /**
+     * Returns the character order picked by each seat (index in the player list),
+     * one array per selection phase played so far.
+     *
+     * @return the character picks of every round
+     */
+    public List<int[]> getCharacterHistory()
+    {
+        return characterHistory;
+    }
+
+    /**
+     * Returns the seats (indexes in the player list) in the order they choose
+     * characters in the current or last selection phase.
+     *
+     * @return the seats in selection order
+     */
+    public int[] getSelectionOrder()
+    {
+        return selectionOrder;
+    }
+
+    /**
+     * Returns the characters each seat (index in the player list) was offered in the
+     * current or last selection phase, bit order-1 set for each character.
+     * Empty when the selection phase was not played by this game, as in a loaded save.
+     *
+     * @return the characters offered to each seat
+     */
+    public int[] getSeenCharacters()
+    {
+        return seenCharacters;
+    }
+
+    /**
+     * Sets the characters each seat was offered, for a selection phase not played by selectionPhase()
+     *
+     * @param seenCharacters the characters offered to each seat, as CharacterCard.mask()
+     */
+    void setSeenCharacters(int[] seenCharacters)
+    {
+        this.seenCharacters = seenCharacters;
+    }
+
+    /**
+     * Sets the seats in the order they choose characters, for a selection phase not played by selectionPhase()
+     *
+     * @param selectionOrder the seats in selection order
+     */
+    void setSelectionOrder(int[] selectionOrder)
+    {
+        this.selectionOrder = selectionOrder;
     }
 
     /**
@@ -627,21 +1532,48 @@ public class Game {
      * assassination and theft.
      */
     public void turnPhase()
+    {
+        turnPhase(1);
+    }
+
+    /**
+     * Executes the turn phase from a given character on, skipping the characters before it.
+     * Used to finish a round in a copy of the game taken during a turn.
+     *
+     * @param firstOrder the order of the first character to call [1-9]
+     */
+    public void turnPhase(int firstOrder)
+    {
+        turnPhase(firstOrder, 9);
+    }
+
+    /**
+     * Executes the turn phase from a given character on, up to but not including another.
+     *
+     * @param firstOrder the order of the first character to call [1-9]
+     * @param stopOrder the order of the first character not to call [1-9]
+     */
+    private void turnPhase(int firstOrder, int stopOrder)
     {
         List<CharacterCard> characterOrder = CharacterCard.getCharacters();
-        Scanner scanner = new Scanner(System.in);
         for(CharacterCard c : characterOrder)
         {
             int order = c.getOrder();
+            if(order < firstOrder)
+                continue;
+            if(order >= stopOrder)
+                break;
+            if(journal != null)
+                journal.record(this, order);
             String name = c.getName();
             boolean isNext = false;
-            if(order!=1)            //Except Assassin, every other character user needs to press t to proceed
+            if(order!=1 && !headless)            //Except Assassin, every other character user needs to press t to proceed
             {
                 String input = "";
                 while(!isNext) 
                 {
-                    System.out.print("> ");
-                    input = scanner.nextLine().trim();
+                    getOut().print("> ");
+                    input = readLine().trim();
                     String[] parts = input.split(" ");
                     String command = parts[0].toLowerCase();
                     switch(command)
@@ -655,11 +1587,11 @@ public class Game {
                             {
                                 if(player instanceof HumanPlayer)
                                 {
-                                    System.out.println("You have " + player.getGold() + " gold. Cards in hand:");
+                                    getOut().println("You have " + player.getGold() + " gold. Cards in hand:");
                                     for(int i=0; i<player.getHand().size(); i++)
                                     {
                                         DistrictCard card = player.getHand().get(i);
-                                        System.out.println((i+1) + ". " + card.getName() + " (" + card.getColor() + "), cost: " + card.getCost());
+                                        getOut().println((i+1) + ". " + card.getName() + " (" + card.getColor() + "), cost: " + card.getCost());
                                     }
                                     break;
                                 }
@@ -671,7 +1603,7 @@ public class Game {
                             {
                                 if(player instanceof HumanPlayer)
                                 {
-                                    System.out.println("You have " + player.getGold() + " gold.");
+                                    getOut().println("You have " + player.getGold() + " gold.");
                                     break;
                                 }
                             }
@@ -688,7 +1620,7 @@ public class Game {
                                     playerID = Integer.parseInt(parts[1]);
                                 }
                                 catch(NumberFormatException e) {
-                                    System.out.println("Invalid input. Please enter a number at the back.");
+                                    getOut().println("Invalid input. Please enter a number at the back.");
                                 }
                             }
                             Player target = null;
@@ -702,15 +1634,15 @@ public class Game {
                             }
                             if(target != null)
                             {
-                                System.out.println("Player " + playerID + " has built:");
+                                getOut().println("Player " + playerID + " has built:");
                                 for(DistrictCard card : target.getCity())
                                 {
-                                    System.out.println(card.getName() + " (" + card.getColor() + "), points: " + card.getCost());
+                                    getOut().println(card.getName() + " (" + card.getColor() + "), points: " + card.getCost());
                                 }
                             }
                             else
                             {
-                                System.out.println("Player not found.");
+                                getOut().println("Player not found.");
                             }
                             break;
 
@@ -720,7 +1652,7 @@ public class Game {
                                 String you = "";
                                 if(p.getId()==1)
                                     you = " (you)";
-                                System.out.println(p.getName() + you + ": cards=" + p.getHand().size() + " gold=" + p.getGold() + " city=" + Player.citySummary(p.getCity()) + "\n");
+                                getOut().println(p.getName() + you + ": cards=" + p.getHand().size() + " gold=" + p.getGold() + " city=" + Player.citySummary(p.getCity()) + "\n");
                             }
                             break;
 
@@ -729,23 +1661,23 @@ public class Game {
                             {
                                 if(player instanceof HumanPlayer)
                                 {
-                                    System.out.print("Ability: " + player.getCharacter().getAbility() + ". ");
+                                    getOut().print("Ability: " + player.getCharacter().getAbility() + ". ");
                                     if(player.getCharacter().getName().equalsIgnoreCase("Assassin"))
-                                        System.out.println("(Choose to kill one character by entering character order at the start of turn)");
+                                        getOut().println("(Choose to kill one character by entering character order at the start of turn)");
                                     else if(player.getCharacter().getName().equalsIgnoreCase("Thief"))
-                                        System.out.println("(Choose to steal from available characters by entering character order at the start of turn)");
+                                        getOut().println("(Choose to steal from available characters by entering character order at the start of turn)");
                                     else if(player.getCharacter().getName().equalsIgnoreCase("Magician"))
-                                        System.out.println("(Choose to discard and draw cards or swap hand with another player at the start of turn)");
+                                        getOut().println("(Choose to discard and draw cards or swap hand with another player at the start of turn)");
                                     else if(player.getCharacter().getName().equalsIgnoreCase("King"))
-                                        System.out.println("(Gain gold from yellow districts and take crown automatically)");
+                                        getOut().println("(Gain gold from yellow districts and take crown automatically)");
                                     else if(player.getCharacter().getName().equalsIgnoreCase("Bishop"))
-                                        System.out.println("(Gain gold from blue districts and protect city automatically)");
+                                        getOut().println("(Gain gold from blue districts and protect city automatically)");
                                     else if(player.getCharacter().getName().equalsIgnoreCase("Merchant"))
-                                        System.out.println("(Gain gold from green districts and one extra gold at the start of turn)");
+                                        getOut().println("(Gain gold from green districts and one extra gold at the start of turn)");
                                     else if(player.getCharacter().getName().equalsIgnoreCase("Architect"))
-                                        System.out.println("(Draw 2 extra district cards and build up to 3 districts in the same turn)");
+                                        getOut().println("(Draw 2 extra district cards and build up to 3 districts in the same turn)");
                                     else if(player.getCharacter().getName().equalsIgnoreCase("Warlord"))
-                                        System.out.println("(Gain gold from red districts and destroy a district by entering player id and district order at the start of turn)");
+                                        getOut().println("(Gain gold from red districts and destroy a district by entering player id and district order at the start of turn)");
                                     break;
                                 }
                             }
@@ -771,16 +1703,16 @@ public class Game {
                                         DistrictCard card = hand.get(idx);
                                         if(card.getColor().equals("purple"))
                                         {
-                                            System.out.println("Ability of " + card.getName() + ": " + card.getAbility());
+                                            getOut().println("Ability of " + card.getName() + ": " + card.getAbility());
                                         }
                                         else
                                         {
-                                            System.out.println(card.getName() + " has no special ability.");
+                                            getOut().println(card.getName() + " has no special ability.");
                                         }
                                     }
                                     else
                                     {
-                                        System.out.println("Invalid card position.");
+                                        getOut().println("Invalid card position.");
                                     }
                                 }
                                 catch(NumberFormatException e)
@@ -797,11 +1729,11 @@ public class Game {
                                     }
                                     if(found!=null)
                                     {
-                                        System.out.println(found.getName() + ": " + found.getAbility());
+                                        getOut().println(found.getName() + ": " + found.getAbility());
                                     }
                                     else
                                     {
-                                        System.out.println("Character not found.");
+                                        getOut().println("Character not found.");
                                     }
                                 }
                             }
@@ -812,57 +1744,47 @@ public class Game {
                             break;
 
                         case "help":
-                            System.out.println("Available commands:\n");
-                            System.out.println("t: Process turns");
-                            System.out.println("info: show information about a character or building");
-                            System.out.println("all : shows all current game info");
-                            System.out.println("citadel/list/city : shows districts built by a player");
-                            System.out.println("hand : shows cards in hand");
-                            System.out.println("gold [p] : shows gold of a player");
-                            System.out.println("build <place in hand> : Builds a building into your city");
-                            System.out.println("action : Gives info about your special action and how to perform it");
-                            System.out.println("debug : Toggle debug mode");
-                            System.out.println("end : Ends your turn");
+                            getOut().println("Available commands:\n");
+                            getOut().println("t: Process turns");
+                            getOut().println("info: show information about a character or building");
+                            getOut().println("all : shows all current game info");
+                            getOut().println("citadel/list/city : shows districts built by a player");
+                            getOut().println("hand : shows cards in hand");
+                            getOut().println("gold [p] : shows gold of a player");
+                            getOut().println("build <place in hand> : Builds a building into your city");
+                            getOut().println("action : Gives info about your special action and how to perform it");
+                            getOut().println("debug : Toggle debug mode");
+                            getOut().println("end : Ends your turn");
                             break;
 
                         default:
-                            System.out.println("Invalid input. Enter help to find all commands.");
+                            getOut().println("Invalid input. Enter help to find all commands.");
                         
                     }
                 }
             }
-            System.out.println(order + ": " + name);
-
-            Player currentPlayer = null;
+            log(() -> order + ": " + name);
 
-            for(Player player : players)
-            {
-                CharacterCard playerCard = player.getCharacter();
-                if(playerCard.getOrder() == order)
-                {
-                    currentPlayer = player;
-                    break;
-                }
-            }
+            Player currentPlayer = playerWithOrder(order);
 
             if(currentPlayer == null)
             {
-                System.out.println("No one is the " + name);
+                log(() -> "No one is the " + name);
             }
             else
             {
-                System.out.println(currentPlayer.getName() + " is the " + name);
+                log(() -> currentPlayer.getName() + " is the " + name);
                 if(isCharacterKilled(order))
                 {
-                    DistrictCard hospital = currentPlayer.getBuiltDistrict("Hospital");
+                    DistrictCard hospital = currentPlayer.getBuiltDistrict(DistrictCatalog.HOSPITAL);
                     if(hospital == null)
                     {
-                        System.out.println(currentPlayer.getName() + " loses their turn because they were assassinated.");
+                        log(() -> currentPlayer.getName() + " loses their turn because they were assassinated.");
                         continue;
                     }
                     else
                     {
-                        System.out.println(currentPlayer.getName() + " was assassinated but has Hospital — limited turn allowed.");
+                        log(() -> currentPlayer.getName() + " was assassinated but has Hospital — limited turn allowed.");
                         currentPlayer.takeTurnLimited(this);
                         continue;
                     }
@@ -871,7 +1793,7 @@ public class Game {
                 else if(isCharacterStolen(order))
                 {
                     Player thief = getThief();
-                    System.out.println("The Thief steals " + currentPlayer.getGold() + " gold from " + currentPlayer.getName());
+                    log(() -> "The Thief steals " + currentPlayer.getGold() + " gold from " + currentPlayer.getName());
                     thief.addGold(currentPlayer.getGold());
                     currentPlayer.setGold(0);
                     currentPlayer.takeTurn(this);
@@ -905,116 +1827,51 @@ public class Game {
      * Computes and displays final game scores, including bonuses for color
      * diversity, Museum, Wishing Well, Imperial Treasury, Map Room, and more.
      * Declares a winner, resolving ties by character rank.
+     *
+     * @return the winner of the game
      */
-    public void gameScore()
+    public Player gameScore()
     {
-        System.out.println("\n====== FINAL SCORES ======");
+        log("\n====== FINAL SCORES ======");
 
-        Map<Player, Integer> scores = new HashMap<>();
         int maxScore = 0;
 
         for(Player p : players)
         {
-            int basePoints = 0;
-            for(DistrictCard c : p.getCity())
-            {
-                basePoints += c.getScoreValue();
-            }
-
-            int museumBonus = 0;
-            for(DistrictCard c : p.getCity())
-            {
-                if(c.getName().equalsIgnoreCase("Museum"))
-                {
-                    museumBonus = c.getStoredCards().size();
-                    break;
-                }
-            }
-
-            Set<String> colorSet = new HashSet<>();
-            DistrictCard haunted = null;
-
-            for(DistrictCard c : p.getCity())
-            {
-                String color = c.getColor().toLowerCase();
-                if(color.equalsIgnoreCase("purple") && c.getName().equalsIgnoreCase("Haunted City"))
-                {
-                    haunted = c;
-                }
-                else
-                {
-                    colorSet.add(color);
-                }
-            }
-
-            if(colorSet.size() == 4 && haunted != null)
-            {
-                if(haunted.getBuiltRound() != round)
-                {
-                    colorSet.add("fifth");
-                }
-            }
-
-            int colorBonus = (colorSet.size() >= 5) ? 3 : 0;
-
-            int completionBonus = (p.getCity().size()>=endThreshold) ? (isFirstToFinish(p) ? 4 : 2) : 0;
-
-            int treasuryBonus = 0;
-            if(p.getBuiltDistrict("Imperial Treasury") != null)
-                treasuryBonus = p.getGold();
-
-            int mapRoomBonus = 0;
-            if(p.getBuiltDistrict("Map Room") != null)
-                mapRoomBonus = p.getHand().size();
-
-            int wishingWellBonus = 0;
-            if(p.getBuiltDistrict("Wishing Well") != null)
-            {
-                for(DistrictCard c : p.getCity())
-                {
-                    if(!c.getName().equalsIgnoreCase("Wishing Well") && c.getColor().equalsIgnoreCase("purple"))
-                    {
-                        wishingWellBonus ++;
-                    }
-                }
-            }
-
-            int total = basePoints + colorBonus + completionBonus + museumBonus + treasuryBonus + mapRoomBonus + wishingWellBonus;
-            scores.put(p, total);
+            ScoreBreakdown score = getScoreBreakdown(p);
+            int total = score.getTotal();
             maxScore = Math.max(maxScore, total);
 
-            System.out.println(p.getName() + ":");
-            System.out.println("  Base points from districts: " + basePoints);
-            for(DistrictCard c : p.getCity())
+            if(!headless)
             {
-                if(c.getName().equalsIgnoreCase("Dragon Gate"))
-                    System.out.println("    (Dragon Gate bonus: scored 8 instead of 6)");
-                if(c.getName().equalsIgnoreCase("University"))
-                    System.out.println("    (University bonus: scored 8 instead of 6)");
+                log(p.getName() + ":");
+                log("  Base points from districts: " + score.getBasePoints());
+                for(int i=0; i<p.getCity().count(DistrictCatalog.DRAGON_GATE); i++)
+                    log("    (Dragon Gate bonus: scored 8 instead of 6)");
+                for(int i=0; i<p.getCity().count(DistrictCatalog.UNIVERSITY); i++)
+                    log("    (University bonus: scored 8 instead of 6)");
+                log("  Bonus for color diversity: " + score.getColorBonus());
+                log("  Completion bonus: " + score.getCompletionBonus());
+                if(p.getBuiltDistrict(DistrictCatalog.MUSEUM) != null)
+                    log("  Bonus from Museum: " + score.getMuseumBonus());
+                if(p.getBuiltDistrict(DistrictCatalog.IMPERIAL_TREASURY) != null)
+                    log("  Bonus from Imperial Treasury: " + score.getTreasuryBonus());
+                if(p.getBuiltDistrict(DistrictCatalog.MAP_ROOM) != null)
+                    log("  Bonus from Map Room: " + score.getMapRoomBonus());
+                if(p.getBuiltDistrict(DistrictCatalog.WISHING_WELL) != null)
+                    log("  Bonus from Wishing Well: " + score.getWishingWellBonus());
+                log("  Total score: " + total + "\n");
             }
-            System.out.println("  Bonus for color diversity: " + colorBonus);
-            System.out.println("  Completion bonus: " + completionBonus);
-            if(p.getBuiltDistrict("Museum") != null)
-                System.out.println("  Bonus from Museum: " + museumBonus);
-            if(p.getBuiltDistrict("Imperial Treasury") != null)
-                System.out.println("  Bonus from Imperial Treasury: " + treasuryBonus);
-            if(p.getBuiltDistrict("Map Room") != null)
-                System.out.println("  Bonus from Map Room: " + mapRoomBonus);
-            if(p.getBuiltDistrict("Wishing Well") != null)
-                System.out.println("  Bonus from Wishing Well: " + wishingWellBonus);
-            System.out.println("  Total score: " + total + "\n");
 
             p.setScore(total);
         }
         
         List<Player> topPlayers = new ArrayList<>();
-        List<Map.Entry<Player, Integer>> sortedScores = new ArrayList<>(scores.entrySet());
-        sortedScores.sort((a, b) -> a.getValue() - b.getValue());
-        for(Map.Entry<Player, Integer> entry : sortedScores)
+        for(Player p : players)
         {
-            if(entry.getValue() == maxScore)
+            if(p.getScore() == maxScore)
             {
-                topPlayers.add(entry.getKey());
+                topPlayers.add(p);
             }
         }
 
@@ -1034,10 +1891,34 @@ public class Game {
                     bestRank = order;
                 }
             }
-            System.out.println("Tie detected. Resolved by highest character rank in final round.");
+            log("Tie detected. Resolved by highest character rank in final round.");
         }
 
-        System.out.println(winner.getName() + " is the winner.");
+        log(winner.getName() + " is the winner.");
+        return winner;
+    }
+
+    /**
+     * Get the score a player would have if the game ended now, split by source.
+     * Built from counters kept up to date during the game, so it is cheap to call every turn.
+     *
+     * @param p the player to score
+     * @return the current score of the player
+     */
+    public ScoreBreakdown getScoreBreakdown(Player p)
+    {
+        return ScoreBreakdown.of(this, p);
+    }
+
+    /**
+     * Get the score a player would have if the game ended now.
+     *
+     * @param p the player to score
+     * @return the current total score of the player
+     */
+    public int getLiveScore(Player p)
+    {
+        return getScoreBreakdown(p).getTotal();
     }
 
     /**
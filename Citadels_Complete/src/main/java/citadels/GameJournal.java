@@ -0,0 +1,526 @@
+package citadels;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of a game, from which the game can be recovered after a crash.
+ * <p>
+ * The game records a step at the start of every character's turn and at the end of every
+ * round. Each step appends one frame holding only what changed since the previous step:
+ * gold, hands, cities and characters of the players that changed, cards drawn from the
+ * top of the deck and put at the bottom, and the round state (crown, killed and stolen
+ * characters, end condition, random number generator). A frame is written with a single
+ * write and ends with a CRC32, so a frame torn by a crash is detected and ignored.
+ * <p>
+ * The journal starts with a checkpoint: a full binary save followed by every part of the
+ * state. Every few rounds the journal is rewritten as a new checkpoint, to a temporary file
+ * renamed over the old one, so it never grows beyond a few rounds of steps.
+ */
+public class GameJournal implements Closeable {
+
+    /**
+     * The first bytes of every journal, "CITJ"
+     */
+    public static final int MAGIC = 0x4349544A;
+
+    /**
+     * The version of the format written by this class
+     */
+    public static final int VERSION = 2;
+
+    /**
+     * The default number of rounds between two checkpoints
+     */
+    public static final int DEFAULT_CHECKPOINT_ROUNDS = 5;
+
+    /**
+     * The types of the records in a frame
+     */
+    private static final int SNAPSHOT = 1;
+    private static final int STATE = 2;
+    private static final int GOLD = 3;
+    private static final int HAND = 4;
+    private static final int CITY = 5;
+    private static final int CHARACTER = 6;
+    private static final int DECK = 7;
+    private static final int DECK_DRAW = 8;
+    private static final int DECK_PUT = 9;
+
+    /**
+     * The journal file
+     */
+    private final File file;
+
+    /**
+     * The number of rounds between two checkpoints, or 0 for none after the first
+     */
+    private final int checkpointRounds;
+
+    /**
+     * Whether every frame is forced to the disk, not only handed to the operating system
+     */
+    private final boolean sync;
+
+    /**
+     * The stream appending to the journal file
+     */
+    private FileOutputStream stream;
+
+    /**
+     * The round of the last checkpoint
+     */
+    private int checkpointRound;
+
+    /**
+     * The encoded round state, gold, hands, cities and characters of the last step
+     */
+    private byte[] lastState;
+    private byte[][] lastGold;
+    private byte[][] lastHand;
+    private byte[][] lastCity;
+    private byte[][] lastCharacter;
+
+    /**
+     * The catalog types of the deck at the last step, or null if a card of the deck is not a plain catalog card
+     */
+    private DistrictType[] lastDeck;
+
+    /**
+     * The records of the frame being written
+     */
+    private final ByteArrayOutputStream frame = new ByteArrayOutputStream(256);
+    private final DataOutputStream frameOut = new DataOutputStream(frame);
+
+    /**
+     * The encoding of one part of the state
+     */
+    private final ByteArrayOutputStream part = new ByteArrayOutputStream(256);
+    private final DataOutputStream partOut = new DataOutputStream(part);
+
+    /**
+     * The number of steps written since the journal was created
+     */
+    private long steps;
+
+    /**
+     * Constructor for a journal with a checkpoint every few rounds, not forced to the disk
+     * @param file the journal file, replaced when the journal is attached to a game
+     */
+    public GameJournal(File file)
+    {
+        this(file, DEFAULT_CHECKPOINT_ROUNDS, false);
+    }
+
+    /**
+     * Constructor for a journal
+     * @param file the journal file, replaced when the journal is attached to a game
+     * @param checkpointRounds number of rounds between two checkpoints, or 0 for none after the first
+     * @param sync true to force every step to the disk, which survives a power loss and not only a crash of the JVM
+     */
+    public GameJournal(File file, int checkpointRounds, boolean sync)
+    {
+        if(checkpointRounds < 0)
+        {
+            throw new IllegalArgumentException("Checkpoint rounds cannot be negative: " + checkpointRounds);
+        }
+        this.file = file;
+        this.checkpointRounds = checkpointRounds;
+        this.sync = sync;
+    }
+
+    /**
+     * Starts recording a game: writes a first checkpoint, then records every step of the game.
+     * @param game the game, at the start of a round
+     * @throws IOException if the checkpoint cannot be written
+     */
+    public void attach(Game game) throws IOException
+    {
+        checkpoint(game, 0);
+        game.setJournal(this);
+    }
+
+    /**
+     * Get the journal file
+     * @return the journal file
+     */
+    public File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * Get the number of steps written since the journal was created
+     * @return number of steps
+     */
+    public long getSteps()
+    {
+        return steps;
+    }
+
+    /**
+     * Records one step of the game, called by the game at the start of every character's turn
+     * and at the end of every round. An error stops the journal, the game goes on without it.
+     * @param game the game
+     * @param nextOrder order of the next character to play, 0 at the start of a round
+     */
+    public void record(Game game, int nextOrder)
+    {
+        try
+        {
+            if(nextOrder == 0 && checkpointRounds > 0 && game.getRound() - checkpointRound >= checkpointRounds)
+            {
+                checkpoint(game, nextOrder);
+            }
+            else
+            {
+                frame.reset();
+                writeChanges(game, nextOrder);
+                writeFrame(stream);
+            }
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error writing journal: " + e.getMessage());
+            game.setJournal(null);
+            close();
+        }
+    }
+
+    /**
+     * Rewrites the journal as a single checkpoint of the game
+     * @param game the game
+     * @param nextOrder order of the next character to play, 0 at the start of a round
+     * @throws IOException if writing fails
+     */
+    private void checkpoint(Game game, int nextOrder) throws IOException
+    {
+        close();
+        int seats = game.getPlayers().size();
+        lastState = null;
+        lastGold = new byte[seats][];
+        lastHand = new byte[seats][];
+        lastCity = new byte[seats][];
+        lastCharacter = new byte[seats][];
+        lastDeck = null;
+
+        frame.reset();
+        part.reset();
+        game.writeBinary(part);
+        writeRecord(SNAPSHOT, 0);
+        writeChanges(game, nextOrder);
+
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(MAGIC);
+            BinarySave.writeVarInt(header, VERSION);
+            writeFrame(out);
+            out.getChannel().force(true);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpointRound = game.getRound();
+        stream = new FileOutputStream(file, true);
+    }
+
+    /**
+     * Writes a record for every part of the state that changed since the last step
+     * @param game the game
+     * @param nextOrder order of the next character to play
+     * @throws IOException if writing fails
+     */
+    private void writeChanges(Game game, int nextOrder) throws IOException
+    {
+        part.reset();
+        game.writeState(partOut, nextOrder);
+        lastState = writeIfChanged(STATE, 0, lastState);
+
+        List<Player> players = game.getPlayers();
+        for(int seat=0; seat<players.size(); seat++)
+        {
+            Player p = players.get(seat);
+            part.reset();
+            BinarySave.writeSignedVarInt(partOut, p.getGold());
+            lastGold[seat] = writeIfChanged(GOLD, seat, lastGold[seat]);
+            part.reset();
+            BinarySave.writeCards(partOut, p.getHand());
+            lastHand[seat] = writeIfChanged(HAND, seat, lastHand[seat]);
+            part.reset();
+            BinarySave.writeCards(partOut, p.getCity());
+            lastCity[seat] = writeIfChanged(CITY, seat, lastCity[seat]);
+            part.reset();
+            BinarySave.writeCharacter(partOut, p.getCharacter());
+            lastCharacter[seat] = writeIfChanged(CHARACTER, seat, lastCharacter[seat]);
+        }
+        writeDeck(game.getDistrictDeck().view());
+    }
+
+    /**
+     * Writes the part encoded in part as a record, if it differs from the last one
+     * @param type type of the record
+     * @param seat seat of the player, 0 for the game
+     * @param last the last encoding of the part, or null
+     * @return the encoding of the part now
+     * @throws IOException if writing fails
+     */
+    private byte[] writeIfChanged(int type, int seat, byte[] last) throws IOException
+    {
+        if(last != null && last.length == part.size() && Arrays.equals(last, part.toByteArray()))
+            return last;
+        writeRecord(type, seat);
+        return part.toByteArray();
+    }
+
+    /**
+     * Writes the part encoded in part as a record
+     * @param type type of the record
+     * @param seat seat of the player, 0 for the game
+     * @throws IOException if writing fails
+     */
+    private void writeRecord(int type, int seat) throws IOException
+    {
+        frameOut.writeByte(type);
+        BinarySave.writeVarInt(frameOut, seat);
+        BinarySave.writeVarInt(frameOut, part.size());
+        part.writeTo(frameOut);
+    }
+
+    /**
+     * Writes the changes of the deck: the number of cards drawn from the top and the cards
+     * put at the bottom, or the whole deck when it cannot be told that way
+     * @param deck the cards of the deck, in draw order
+     * @throws IOException if writing fails
+     */
+    private void writeDeck(List<DistrictCard> deck) throws IOException
+    {
+        DistrictType[] types = new DistrictType[deck.size()];
+        for(int i=0; i<types.length; i++)
+        {
+            DistrictCard c = deck.get(i);
+            boolean plain = c.getTypeId() >= 0 && DistrictCatalog.get(c.getTypeId()) == c.getType()
+                    && c.getBuiltRound() < 0 && c.getStoredCards().isEmpty();
+            if(!plain)
+            {
+                types = null;
+                break;
+            }
+            types[i] = c.getType();
+        }
+
+        int drawn = types == null || lastDeck == null ? -1 : drawnFrom(lastDeck, types);
+        if(drawn < 0)
+        {
+            part.reset();
+            BinarySave.writeCards(partOut, deck);
+            writeRecord(DECK, 0);
+        }
+        else
+        {
+            int kept = lastDeck.length - drawn;
+            if(drawn > 0)
+            {
+                part.reset();
+                BinarySave.writeVarInt(partOut, drawn);
+                writeRecord(DECK_DRAW, 0);
+            }
+            if(kept < types.length)
+            {
+                part.reset();
+                BinarySave.writeCards(partOut, deck.subList(kept, types.length));
+                writeRecord(DECK_PUT, 0);
+            }
+        }
+        lastDeck = types;
+    }
+
+    /**
+     * Finds how many cards were drawn from the top of a deck to leave the start of another
+     * @param before the deck at the last step
+     * @param now the deck now
+     * @return number of cards drawn, or -1 if the deck changed in another way
+     */
+    private static int drawnFrom(DistrictType[] before, DistrictType[] now)
+    {
+        for(int drawn=0; drawn<=before.length; drawn++)
+        {
+            int kept = before.length - drawn;
+            if(kept > now.length)
+                continue;
+            boolean same = true;
+            for(int i=0; i<kept && same; i++)
+            {
+                same = before[drawn + i] == now[i];
+            }
+            if(same)
+                return drawn;
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the records of the frame with their length and checksum, in a single write
+     * @param out the stream of the journal file
+     * @throws IOException if writing fails
+     */
+    private void writeFrame(FileOutputStream out) throws IOException
+    {
+        CRC32 crc = new CRC32();
+        byte[] records = frame.toByteArray();
+        crc.update(records);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(records.length + 9);
+        DataOutputStream data = new DataOutputStream(bytes);
+        BinarySave.writeVarInt(data, records.length);
+        data.write(records);
+        data.writeInt((int) crc.getValue());
+        out.write(bytes.toByteArray());
+        if(sync)
+            out.getChannel().force(false);
+        steps++;
+    }
+
+    /**
+     * Stops appending to the journal file
+     */
+    public void close()
+    {
+        if(stream == null)
+            return;
+        try
+        {
+            stream.close();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error closing journal: " + e.getMessage());
+        }
+        stream = null;
+    }
+
+    /**
+     * Recovers a game from its journal: loads the last checkpoint and replays every complete
+     * step after it. A step torn by a crash at the end of the file is ignored.
+     * The recovered game continues from the step, in the middle of a round if needed, when
+     * played with playToEnd() or start(true). Attach a new journal to keep recording it.
+     *
+     * @param file the journal file
+     * @return the game at its last complete step
+     * @throws IOException if the file cannot be read or holds no checkpoint
+     */
+    public static Game recover(File file) throws IOException
+    {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if(in.readInt() != MAGIC)
+                throw new IOException("Not a game journal: " + file);
+            int version = BinarySave.readVarInt(in);
+            if(version != VERSION)
+                throw new IOException("Unsupported journal version: " + version);
+
+            Game game = null;
+            byte[] records;
+            while((records = readFrame(in)) != null)
+            {
+                game = apply(game, new DataInputStream(new ByteArrayInputStream(records)));
+            }
+            if(game == null)
+                throw new IOException("Journal holds no checkpoint: " + file);
+            return game;
+        }
+    }
+
+    /**
+     * Reads the records of the next frame
+     * @param in the journal
+     * @return the records, or null at the end of the journal or at a torn frame
+     * @throws IOException if reading fails
+     */
+    private static byte[] readFrame(DataInputStream in) throws IOException
+    {
+        try
+        {
+            int length = BinarySave.readVarInt(in);
+            byte[] records = new byte[length];
+            in.readFully(records);
+            int checksum = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(records);
+            return (int) crc.getValue() == checksum ? records : null;
+        }
+        catch (EOFException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Applies the records of a frame to a game
+     * @param game the game, or null before the checkpoint
+     * @param in the records
+     * @return the game after the frame
+     * @throws IOException if a record is malformed
+     */
+    private static Game apply(Game game, DataInputStream in) throws IOException
+    {
+        while(in.available() > 0)
+        {
+            int type = in.readUnsignedByte();
+            int seat = BinarySave.readVarInt(in);
+            byte[] bytes = new byte[BinarySave.readVarInt(in)];
+            in.readFully(bytes);
+            DataInputStream record = new DataInputStream(new ByteArrayInputStream(bytes));
+            if(type == SNAPSHOT)
+            {
+                game = Game.readBinary(record);
+                continue;
+            }
+            if(game == null)
+                throw new IOException("Journal step before its checkpoint");
+
+            Deck<DistrictCard> deck = game.getDistrictDeck();
+            switch(type)
+            {
+                case STATE:
+                    game.readState(record);
+                    break;
+                case GOLD:
+                    game.getPlayers().get(seat).setGold(BinarySave.readSignedVarInt(record));
+                    break;
+                case HAND:
+                    List<DistrictCard> hand = game.getPlayers().get(seat).getHand();
+                    hand.clear();
+                    hand.addAll(BinarySave.readCards(record));
+                    break;
+                case CITY:
+                    City city = game.getPlayers().get(seat).getCity();
+                    city.clear();
+                    city.addAll(BinarySave.readCards(record));
+                    break;
+                case CHARACTER:
+                    game.getPlayers().get(seat).setCharacter(BinarySave.readCharacter(record));
+                    break;
+                case DECK:
+                    while(!deck.isEmpty())
+                    {
+                        deck.draw();
+                    }
+                    deck.addAll(BinarySave.readCards(record));
+                    break;
+                case DECK_DRAW:
+                    int drawn = BinarySave.readVarInt(record);
+                    for(int i=0; i<drawn; i++)
+                    {
+                        deck.draw();
+                    }
+                    break;
+                case DECK_PUT:
+                    deck.addAll(BinarySave.readCards(record));
+                    break;
+                default:
+                    throw new IOException("Unknown journal record: " + type);
+            }
+        }
+        return game;
+    }
+}
@@ -0,0 +1,187 @@
+package citadels;
+
+import java.util.*;
+
+/**
+ * Seedable, splittable random number generator owned by a single game.
+ * <p>
+ * Uses the SplitMix64 algorithm (the same one behind java.util.SplittableRandom),
+ * but extends java.util.Random so it can be passed to Collections.shuffle and
+ * anywhere else a Random is expected. Unlike java.util.Random it is not
+ * synchronized, so it must only be used by the thread playing its game.
+ * Two generators created with the same seed produce the same sequence.
+ */
+public class GameRandom extends Random {
+
+    /**
+     * The version of the serialized form, inherited from java.util.Random
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The odd increment of the Weyl sequence used when none is derived from a split
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /**
+     * The current state of the generator
+     */
+    private long state;
+
+    /**
+     * The odd increment added to the state on every draw
+     */
+    private long gamma;
+
+    /**
+     * Constructor for a generator, requires a seed
+     * @param seed the initial seed
+     */
+    public GameRandom(long seed)
+    {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    /**
+     * Constructor for a generator with a given state and increment
+     * @param state the initial state
+     * @param gamma the increment, must be odd
+     */
+    private GameRandom(long state, long gamma)
+    {
+        super(0L);
+        this.state = state;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Returns the value at a given position of the sequence produced by a generator
+     * created with a seed, without creating the generator.
+     * Used to hand out independent seeds to many games without sharing state.
+     *
+     * @param seed the seed of the sequence
+     * @param index the position in the sequence, starting at 0
+     * @return the index-th value of the sequence
+     */
+    public static long seedAt(long seed, long index)
+    {
+        return mix64(seed + (index + 1) * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Creates a new generator whose sequence is independent of this one.
+     * This generator advances by two draws.
+     *
+     * @return a new generator
+     */
+    public GameRandom split()
+    {
+        return new GameRandom(nextLong(), mixGamma(nextSeed()));
+    }
+
+    /**
+     * Creates a generator in the same state as this one, which produces the same
+     * sequence from now on without affecting this one.
+     *
+     * @return a copy of the generator
+     */
+    public GameRandom copy()
+    {
+        return new GameRandom(state, gamma);
+    }
+
+    /**
+     * Get the current state of the generator. A generator created with this state
+     * as its seed produces the same sequence as this one from now on, unless this
+     * one was created by split().
+     *
+     * @return the current state
+     */
+    public long getState()
+    {
+        return state;
+    }
+
+    /**
+     * Sets the state of the generator back to one returned by getState(), keeping its gamma,
+     * so it produces again the sequence it produced from that state
+     *
+     * @param state a state of this generator
+     */
+    void setState(long state)
+    {
+        this.state = state;
+    }
+
+    /**
+     * Reseeds the generator.
+     * Called by the java.util.Random constructor before the fields are set.
+     *
+     * @param seed the new seed
+     */
+    @Override
+    public void setSeed(long seed)
+    {
+        this.state = seed;
+        this.gamma = GOLDEN_GAMMA;
+    }
+
+    /**
+     * Returns the next pseudorandom 64-bit value.
+     *
+     * @return the next value
+     */
+    @Override
+    public long nextLong()
+    {
+        return mix64(nextSeed());
+    }
+
+    /**
+     * Returns the next pseudorandom value of the given number of bits.
+     * All other java.util.Random methods are built on this one.
+     *
+     * @param bits the number of random bits [1-32]
+     * @return the next value
+     */
+    @Override
+    protected int next(int bits)
+    {
+        return (int) (mix64(nextSeed()) >>> (64 - bits));
+    }
+
+    /**
+     * Advances the Weyl sequence
+     * @return the new state
+     */
+    private long nextSeed()
+    {
+        return state += gamma;
+    }
+
+    /**
+     * The SplitMix64 output function (Stafford variant 13)
+     * @param z the value to mix
+     * @return the mixed value
+     */
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Derives an odd increment with enough bit transitions for a split generator
+     * @param z the value to derive from
+     * @return the increment
+     */
+    private static long mixGamma(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
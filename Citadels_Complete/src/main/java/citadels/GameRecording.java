@@ -0,0 +1,295 @@
+package citadels;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Recording of a game as its seed and the lines typed by its human player, from which the
+ * game can be played again.
+ * <p>
+ * Every chance event and every AI decision derives from the seed of the game, and every
+ * decision of the human player (character picks, gold or cards, districts built, Assassin,
+ * Thief, Magician and Warlord targets, ...) is a line read by Game.readLine(). A replay
+ * plays a new game with the same seed and feeds it the recorded lines instead of the
+ * console, without printing anything, so it runs at full speed. It can stop at the start
+ * of any round or before any character's turn and hand back the game at that point, to
+ * look at it or to play on from there.
+ * <p>
+ * The file is a UTF-8 text file: a header line "CITR", version, seed and player count
+ * separated by tabs, then one line per line typed. With a file, every line is appended
+ * and flushed as it is typed, so a game that crashes keeps its recording.
+ */
+public class GameRecording implements Closeable {
+
+    /**
+     * The first word of every recording
+     */
+    public static final String MAGIC = "CITR";
+
+    /**
+     * The version of the format written by this class
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The recording file of the last game started from the console with --record, in the save directory
+     */
+    public static final String DEFAULT_FILE = "last-game.rec";
+
+    /**
+     * The seed of the recorded game
+     */
+    private final long seed;
+
+    /**
+     * The number of AI players of a headless game, or 0 for a game set up from the console
+     */
+    private final int playerCount;
+
+    /**
+     * The lines typed, in order
+     */
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * The writer appending to the recording file, or null
+     */
+    private Writer writer;
+
+    /**
+     * Constructor for a recording kept in memory
+     * @param seed the seed of the recorded game
+     * @param playerCount the number of AI players of a headless game, or 0 for a game set up from the console
+     */
+    public GameRecording(long seed, int playerCount)
+    {
+        if(playerCount != 0 && (playerCount < 4 || playerCount > 7))
+        {
+            throw new IllegalArgumentException("Player count must be 0 or between 4 and 7: " + playerCount);
+        }
+        this.seed = seed;
+        this.playerCount = playerCount;
+    }
+
+    /**
+     * Constructor for a recording written to a file as the game goes
+     * @param seed the seed of the recorded game
+     * @param playerCount the number of AI players of a headless game, or 0 for a game set up from the console
+     * @param file the recording file, replaced
+     * @throws IOException if the file cannot be written
+     */
+    public GameRecording(long seed, int playerCount, File file) throws IOException
+    {
+        this(seed, playerCount);
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+        writer.write(header());
+        writer.write('\n');
+        writer.flush();
+    }
+
+    /**
+     * Starts recording a game set up from the console, before its set up
+     * @param game the game
+     */
+    public void attach(Game game)
+    {
+        if(game.getSeed() != seed)
+        {
+            throw new IllegalArgumentException("The game does not have the seed of the recording");
+        }
+        game.setRecording(this);
+    }
+
+    /**
+     * Get the seed of the recorded game
+     * @return the seed
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Get the number of AI players of a headless game
+     * @return the player count, or 0 for a game set up from the console
+     */
+    public int getPlayerCount()
+    {
+        return playerCount;
+    }
+
+    /**
+     * Get the lines typed so far
+     * @return the lines, in order
+     */
+    public List<String> getLines()
+    {
+        return Collections.unmodifiableList(lines);
+    }
+
+    /**
+     * Records a line typed by the player, called by Game.readLine().
+     * An error stops writing the file, the recording goes on in memory.
+     * @param line the line, without its line terminator
+     */
+    public void add(String line)
+    {
+        lines.add(line);
+        if(writer == null)
+            return;
+        try
+        {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error writing recording: " + e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Writes the whole recording to a file
+     * @param file the file, replaced
+     * @throws IOException if writing fails
+     */
+    public void write(File file) throws IOException
+    {
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+        {
+            out.write(header());
+            out.write('\n');
+            for(String line : lines)
+            {
+                out.write(line);
+                out.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Reads a recording from a file
+     * @param file the file
+     * @return the recording
+     * @throws IOException if the file cannot be read or is not a recording
+     */
+    public static GameRecording read(File file) throws IOException
+    {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)))
+        {
+            String header = reader.readLine();
+            String[] fields = header == null ? new String[0] : header.split("\t");
+            if(fields.length != 4 || !fields[0].equals(MAGIC))
+            {
+                throw new IOException("Not a game recording: " + file);
+            }
+            GameRecording recording;
+            try
+            {
+                if(Integer.parseInt(fields[1]) != VERSION)
+                {
+                    throw new IOException("Unsupported recording version: " + fields[1]);
+                }
+                recording = new GameRecording(Long.parseLong(fields[2]), Integer.parseInt(fields[3]));
+            }
+            catch (IllegalArgumentException e)
+            {
+                throw new IOException("Not a game recording: " + file, e);
+            }
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                recording.lines.add(line);
+            }
+            return recording;
+        }
+    }
+
+    /**
+     * Replays the whole recording: up to the end of the game, or up to the point where the
+     * player saved it. Call gameScore() on the game for its result.
+     * @return the game at the end of the recording
+     * @throws IllegalStateException if the recording ends in the middle of a round
+     */
+    public Game replay()
+    {
+        return replay(Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Replays the recording up to a point of the game, printing nothing. The game handed back
+     * reads and prints to the console again: it plays on with start(true), or with playToEnd() if headless.
+     * @param round the round to stop in
+     * @param order 0 to stop at the start of the round, before its selection phase,
+     *              or the order of the character to stop before [1-8], after the selection phase
+     * @return the game at that point, or at the end of the recording if the game ended or was saved before
+     * @throws IllegalStateException if the recording ends before that point, in the middle of a round
+     */
+    public Game replay(int round, int order)
+    {
+        if(order < 0 || order > 8)
+        {
+            throw new IllegalArgumentException("Order must be between 0 and 8: " + order);
+        }
+        Game game = new Game(seed);
+        Iterator<String> input = lines.iterator();
+        game.setReplayInput(input);
+        game.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try
+        {
+            if(playerCount == 0)
+                game.initialization();
+            else
+                game.setUpHeadless(playerCount);
+            while(!game.shouldEndGame())
+            {
+                if(game.getRound() == round && order == 0)
+                    break;
+                if(!game.isHeadless() && (!input.hasNext() || !game.promptNextRound()))
+                    break;
+                if(game.getRound() == round)
+                {
+                    game.playRoundUntil(order);
+                    break;
+                }
+                game.nextRound();
+            }
+        }
+        finally
+        {
+            game.setOut(null);
+            game.setReplayInput(null);
+        }
+        return game;
+    }
+
+    /**
+     * The header line of the recording file
+     * @return the header, without its line terminator
+     */
+    private String header()
+    {
+        return MAGIC + "\t" + VERSION + "\t" + seed + "\t" + playerCount;
+    }
+
+    /**
+     * Stops appending to the recording file
+     */
+    public void close()
+    {
+        if(writer == null)
+            return;
+        try
+        {
+            writer.close();
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error closing recording: " + e.getMessage());
+        }
+        writer = null;
+    }
+}
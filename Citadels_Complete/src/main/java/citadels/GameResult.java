@@ -0,0 +1,164 @@
+package citadels;
+
+import java.util.*;
+
+/**
+ * Outcome of one finished game, as recorded by the batch simulator.
+ * Seats are indexes in the game's player list.
+ */
+public class GameResult {
+
+    /**
+     * The seed the game was played from
+     */
+    private long seed;
+
+    /**
+     * The number of players at the table
+     */
+    private int playerCount;
+
+    /**
+     * The seat of the winning player
+     */
+    private int winnerSeat;
+
+    /**
+     * The final score of each seat
+     */
+    private int[] scores;
+
+    /**
+     * The number of rounds played
+     */
+    private int rounds;
+
+    /**
+     * The character order picked by each seat, one array per round
+     */
+    private int[][] characterPicks;
+
+    /**
+     * The final score of each seat split by source, or null if unknown
+     */
+    private ScoreBreakdown[] scoreBreakdowns;
+
+    /**
+     * Constructor for a game result
+     * @param seed seed the game was played from
+     * @param playerCount number of players at the table
+     * @param winnerSeat seat of the winning player
+     * @param scores final score of each seat
+     * @param rounds number of rounds played
+     * @param characterPicks character order picked by each seat, one array per round
+     */
+    public GameResult(long seed, int playerCount, int winnerSeat, int[] scores, int rounds, int[][] characterPicks)
+    {
+        this.seed = seed;
+        this.playerCount = playerCount;
+        this.winnerSeat = winnerSeat;
+        this.scores = scores;
+        this.rounds = rounds;
+        this.characterPicks = characterPicks;
+    }
+
+    /**
+     * Constructor for a game result with the breakdown of the final scores
+     * @param seed seed the game was played from
+     * @param playerCount number of players at the table
+     * @param winnerSeat seat of the winning player
+     * @param scores final score of each seat
+     * @param rounds number of rounds played
+     * @param characterPicks character order picked by each seat, one array per round
+     * @param scoreBreakdowns final score of each seat split by source
+     */
+    public GameResult(long seed, int playerCount, int winnerSeat, int[] scores, int rounds, int[][] characterPicks, ScoreBreakdown[] scoreBreakdowns)
+    {
+        this(seed, playerCount, winnerSeat, scores, rounds, characterPicks);
+        this.scoreBreakdowns = scoreBreakdowns;
+    }
+
+    /**
+     * Builds the result of a scored game.
+     * @param game a game that has been scored with gameScore()
+     * @param winner the winner returned by gameScore()
+     * @return the result of the game
+     */
+    public static GameResult of(Game game, Player winner)
+    {
+        List<Player> players = game.getPlayers();
+        int[] scores = new int[players.size()];
+        ScoreBreakdown[] breakdowns = new ScoreBreakdown[players.size()];
+        for(int i=0; i<players.size(); i++)
+        {
+            scores[i] = players.get(i).getScore();
+            breakdowns[i] = game.getScoreBreakdown(players.get(i));
+        }
+        List<int[]> history = game.getCharacterHistory();
+        int[][] picks = history.toArray(new int[history.size()][]);
+        return new GameResult(game.getSeed(), players.size(), players.indexOf(winner), scores, game.getRound() - 1, picks, breakdowns);
+    }
+
+    /**
+     * Get the seed the game was played from, replaying it gives the same game
+     * @return the seed of the game
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Get the number of players at the table
+     * @return number of players
+     */
+    public int getPlayerCount()
+    {
+        return playerCount;
+    }
+
+    /**
+     * Get the seat of the winning player
+     * @return winner seat
+     */
+    public int getWinnerSeat()
+    {
+        return winnerSeat;
+    }
+
+    /**
+     * Get the final score of each seat
+     * @return scores indexed by seat
+     */
+    public int[] getScores()
+    {
+        return scores;
+    }
+
+    /**
+     * Get the number of rounds played
+     * @return rounds played
+     */
+    public int getRounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * Get the character order picked by each seat in every round
+     * @return picks indexed by round, then seat
+     */
+    public int[][] getCharacterPicks()
+    {
+        return characterPicks;
+    }
+
+    /**
+     * Get the final score of each seat split by source, as computed by gameScore()
+     * @return breakdowns indexed by seat, or null if unknown
+     */
+    public ScoreBreakdown[] getScoreBreakdowns()
+    {
+        return scoreBreakdowns;
+    }
+}
@@ -0,0 +1,1793 @@
+package citadels;
+
+import java.util.*;
+
+/**
+ * A game played one decision at a time: the legal moves of the player to decide, and
+ * apply() and undo() to play a move and take it back, changing the game in place.
+ * <p>
+ * Every decision of the rules is a Move: the character picks of the selection phase, the
+ * Assassin, Thief, Magician and Warlord targets, gold or cards and the card kept, each
+ * district built, the Laboratory, Smithy, Armory and Museum activations, the card taken with
+ * the Lighthouse and the Graveyard recovery. Everything else follows the rules as played by
+ * Game.turnPhase(): character income, Architect draws, killed and robbed characters, the
+ * Hospital, the Throne Room, the Bell Tower, Poor House and Park, and the end of the game.
+ * The player types at the table are ignored, every seat decides through moves.
+ * <p>
+ * A move records how to take back each change it makes, so undo() restores the game
+ * exactly, including the deck order and the random number generator drawn from for the
+ * deal of a new round and the shuffle after a Lighthouse. Searching a tree of moves needs
+ * no copy of the game: apply a move, search below it, undo it. Each change is recorded as a
+ * kind, a seat or index and the old value in arrays kept from move to move, and the decision
+ * before each move in a frame reused at its depth, so playing and taking back moves does not
+ * allocate once the arrays have grown to the depth of the search. Moves are only valid in the
+ * state they were generated in. The game must not be played by other means while a state
+ * has moves to undo.
+ */
+public class GameState {
+
+    /**
+     * The kinds of decision a state waits for
+     */
+    public enum Phase
+    {
+        /** A player chooses a character */
+        SELECT,
+        /** The Assassin, Thief, Magician or Warlord uses their ability */
+        ABILITY,
+        /** The owner of a district destroyed by the Warlord may take it back with the Graveyard */
+        GRAVEYARD,
+        /** The player collects gold or draws cards, or uses a purple district */
+        RESOURCES,
+        /** The player keeps one of the cards drawn */
+        KEEP,
+        /** The player builds, uses a purple district or ends the turn */
+        BUILD,
+        /** The player takes a card of the deck with the Lighthouse just built */
+        LIGHTHOUSE,
+        /** The game is over */
+        OVER
+    }
+
+    /**
+     * The number of cards of the hand, from the first, the Magician may choose to discard.
+     * Every set of them is a move, so the moves stay few with a large hand.
+     */
+    public static final int MAX_DISCARD_CARDS = 6;
+
+    /**
+     * The purple districts used in the current turn, as bits of used
+     */
+    private static final int USED_LABORATORY = 1;
+    private static final int USED_SMITHY = 2;
+    private static final int USED_ARMORY = 4;
+    private static final int USED_MUSEUM = 8;
+
+    /**
+     * The kinds of change recorded on the trail, each taken back by revert()
+     */
+    private static final int GOLD = 0;
+    private static final int HAND_ADD = 1;
+    private static final int HAND_REMOVE = 2;
+    private static final int CITY_ADD = 3;
+    private static final int CITY_REMOVE = 4;
+    private static final int DRAW = 5;
+    private static final int DECK_ADD = 6;
+    private static final int DECK_REMOVE = 7;
+    private static final int DECK_SHUFFLE = 8;
+    private static final int CHARACTER = 9;
+    private static final int PLAYER_KILLED = 10;
+    private static final int BUILD_LIMIT = 11;
+    private static final int BUILT_THIS_TURN = 12;
+    private static final int BUILT_ROUND = 13;
+    private static final int SWAP_HANDS = 14;
+    private static final int STORED_ADD = 15;
+    private static final int STORED_CLEAR = 16;
+    private static final int KILLED_ORDER = 17;
+    private static final int STOLEN_ORDER = 18;
+    private static final int BELL_TOWER = 19;
+    private static final int GAME_END = 20;
+    private static final int ROUND = 21;
+    private static final int RANDOM = 22;
+    private static final int THRONE_ROOM = 23;
+    private static final int CROWN = 24;
+    private static final int FACED_UP_ADD = 25;
+    private static final int FACED_UP_REMOVE = 26;
+    private static final int SELECTION_ORDER = 27;
+    private static final int SEEN = 28;
+    private static final int SEEN_ARRAY = 29;
+    private static final int PILE_ADD = 30;
+    private static final int PILE_REMOVE = 31;
+    private static final int HISTORY_ADD = 32;
+    private static final int DRAWN_ADD = 33;
+    private static final int DRAWN_REMOVE = 34;
+
+    /**
+     * The initial number of changes the trail holds, and of frames
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The game played
+     */
+    private final Game game;
+
+    /**
+     * The players of the game, by seat
+     */
+    private final List<Player> players;
+
+    /**
+     * The kind of decision waited for
+     */
+    private Phase phase;
+
+    /**
+     * The seat of the player to decide, -1 when the game is over
+     */
+    private int actor;
+
+    /**
+     * The seat of the player whose turn it is
+     */
+    private int turnSeat;
+
+    /**
+     * The order of the character whose turn it is, 0 during the selection phase
+     */
+    private int turnOrder;
+
+    /**
+     * The number of players who chose a character in the selection phase
+     */
+    private int picked;
+
+    /**
+     * The characters left to choose from in the selection phase
+     */
+    private final List<CharacterCard> pile = new ArrayList<>();
+
+    /**
+     * The purple districts used in the current turn
+     */
+    private int used;
+
+    /**
+     * Whether the current turn is the limited turn of a killed character with a Hospital
+     */
+    private boolean limited;
+
+    /**
+     * The district destroyed by the Warlord while its owner decides to take it back, or null
+     */
+    private DistrictCard destroyed;
+
+    /**
+     * The cards drawn, waiting for the player to keep one
+     */
+    private final List<DistrictCard> drawn = new ArrayList<>();
+
+    /**
+     * The kind of each change made by the moves applied, in the order made
+     */
+    private int[] ops = new int[INITIAL_CAPACITY];
+
+    /**
+     * The seat or index of each change
+     */
+    private int[] args = new int[INITIAL_CAPACITY];
+
+    /**
+     * The old value of each change
+     */
+    private long[] olds = new long[INITIAL_CAPACITY];
+
+    /**
+     * The card, player or array of each change
+     */
+    private Object[] refs = new Object[INITIAL_CAPACITY];
+
+    /**
+     * The number of changes on the trail
+     */
+    private int top;
+
+    /**
+     * The state before each move applied, in the order applied, kept to be reused
+     */
+    private Frame[] frames = new Frame[INITIAL_CAPACITY];
+
+    /**
+     * The number of moves applied and not taken back
+     */
+    private int depth;
+
+    /**
+     * Room for the numbers drawn to take back a shuffle of the deck
+     */
+    private int[] draws = new int[0];
+
+    /**
+     * Constructor for a state of a game, see the factory methods
+     * @param game the game
+     */
+    private GameState(Game game)
+    {
+        this.game = game;
+        this.players = game.getPlayers();
+    }
+
+    /**
+     * Starts playing a game between two rounds, as after setUpHeadless() or nextRound().
+     * The characters of the round are dealt: the first move is a character pick.
+     * @param game the game
+     * @return the state of the game
+     */
+    public static GameState atRoundStart(Game game)
+    {
+        GameState state = new GameState(game);
+        if(game.shouldEndGame())
+            state.over();
+        else
+            state.beginRound();
+        state.clearTrail();
+        return state;
+    }
+
+    /**
+     * Starts playing a game in its selection phase, when a player chooses a character,
+     * as in Player.chooseCharacter(Game, List)
+     * @param game the game
+     * @param available the characters left to choose from
+     * @return the state of the game, waiting for the pick of that player
+     */
+    public static GameState atSelection(Game game, List<CharacterCard> available)
+    {
+        GameState state = new GameState(game);
+        state.phase = Phase.SELECT;
+        state.pile.addAll(available);
+        state.picked = state.players.size() - available.size();
+        state.actor = game.getSelectionOrder()[state.picked];
+        return state;
+    }
+
+    /**
+     * Starts playing a game at the start of a player's turn, as in Player.takeTurn(Game)
+     * or, for a killed character, Player.takeTurnLimited(Game): after the Thief took the
+     * player's gold, before the character's ability and income
+     * @param game the game
+     * @param player the player whose turn it is
+     * @return the state of the game, waiting for the first decision of that turn
+     */
+    public static GameState atTurn(Game game, Player player)
+    {
+        GameState state = new GameState(game);
+        state.turnOrder = player.getCharacter().getOrder();
+        state.startTurn(state.players.indexOf(player), game.isCharacterKilled(state.turnOrder));
+        state.clearTrail();
+        return state;
+    }
+
+    /**
+     * Get the game played
+     * @return the game
+     */
+    public Game getGame()
+    {
+        return game;
+    }
+
+    /**
+     * Get the kind of decision waited for
+     * @return the phase
+     */
+    public Phase getPhase()
+    {
+        return phase;
+    }
+
+    /**
+     * Get the seat of the player to decide. It is the player whose turn it is, except for the Graveyard.
+     * @return the index of the player in the player list, or -1 if the game is over
+     */
+    public int getActor()
+    {
+        return actor;
+    }
+
+    /**
+     * Get the order of the character whose turn it is
+     * @return the order [1-8], or 0 in the selection phase
+     */
+    public int getTurnOrder()
+    {
+        return turnOrder;
+    }
+
+    /**
+     * Get the characters left to choose from in the selection phase
+     * @return the characters
+     */
+    public List<CharacterCard> getPile()
+    {
+        return Collections.unmodifiableList(pile);
+    }
+
+    /**
+     * Get the cards drawn, in the KEEP phase
+     * @return the cards drawn
+     */
+    public List<DistrictCard> getDrawn()
+    {
+        return Collections.unmodifiableList(drawn);
+    }
+
+    /**
+     * Get the number of moves applied and not taken back
+     * @return the number of moves that undo() can take back
+     */
+    public int getDepth()
+    {
+        return depth;
+    }
+
+    /**
+     * Check whether the game is over, after the last turn of the round in which a city was completed
+     * @return whether the game is over
+     */
+    public boolean isOver()
+    {
+        return phase == Phase.OVER;
+    }
+
+    /**
+     * Get the legal moves of the player to decide
+     * @return a new list of the moves
+     */
+    public List<Move> legalMoves()
+    {
+        List<Move> moves = new ArrayList<>();
+        legalMoves(moves);
+        return moves;
+    }
+
+    /**
+     * Fills a list with the legal moves of the player to decide, so a search can reuse one list per level.
+     * Of several cards of the same district in the hand, only the first is a move. Every card drawn or in the deck
+     * is a move, as which copy is kept or taken changes the order of the deck.
+     * @param moves the list, cleared first
+     */
+    public void legalMoves(List<Move> moves)
+    {
+        moves.clear();
+        Player p = actor < 0 ? null : players.get(actor);
+        switch(phase)
+        {
+            case SELECT:
+                for(CharacterCard c : pile)
+                {
+                    moves.add(Move.pick(c.getOrder()));
+                }
+                break;
+
+            case ABILITY:
+                abilityMoves(p, moves);
+                break;
+
+            case GRAVEYARD:
+                if(p.getGold() >= 1)
+                    moves.add(Move.recover());
+                moves.add(Move.skip());
+                break;
+
+            case RESOURCES:
+                moves.add(Move.gold());
+                if(!game.getDistrictDeck().isEmpty())
+                    moves.add(Move.cards());
+                if(!limited)
+                    activationMoves(p, moves);
+                break;
+
+            case KEEP:
+                for(int i=0; i<drawn.size(); i++)
+                {
+                    moves.add(Move.keep(i));
+                }
+                break;
+
+            case BUILD:
+                if(p.canBuild())
+                {
+                    List<DistrictCard> hand = p.getHand();
+                    for(int i=0; i<hand.size(); i++)
+                    {
+                        if(isFirstOfType(hand, i) && canBuild(p, hand.get(i)))
+                            moves.add(Move.build(i));
+                    }
+                }
+                activationMoves(p, moves);
+                moves.add(Move.endTurn());
+                break;
+
+            case LIGHTHOUSE:
+                List<DistrictCard> deck = game.getDistrictDeck().view();
+                for(int i=0; i<deck.size(); i++)
+                {
+                    moves.add(Move.lighthouse(i));
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds the targets of the ability of the character whose turn it is
+     * @param p the player whose turn it is
+     * @param moves the list of moves
+     */
+    private void abilityMoves(Player p, List<Move> moves)
+    {
+        switch(turnOrder)
+        {
+            case 1:
+                for(int order=2; order<=8; order++)
+                {
+                    if(!isFacedUp(order))
+                        moves.add(Move.kill(order));
+                }
+                break;
+
+            case 2:
+                for(int order=3; order<=8; order++)
+                {
+                    if(!isFacedUp(order) && !game.isCharacterKilled(order))
+                        moves.add(Move.steal(order));
+                }
+                if(moves.isEmpty())
+                    moves.add(Move.skip());
+                break;
+
+            case 3:
+                moves.add(Move.skip());
+                for(int seat=0; seat<players.size(); seat++)
+                {
+                    if(seat != turnSeat)
+                        moves.add(Move.swapHands(seat));
+                }
+                int cards = Math.min(p.getHand().size(), MAX_DISCARD_CARDS);
+                for(int set=1; set<(1 << cards); set++)
+                {
+                    moves.add(Move.discard(set));
+                }
+                break;
+
+            case 8:
+                moves.add(Move.skip());
+                for(int seat=0; seat<players.size(); seat++)
+                {
+                    Player target = players.get(seat);
+                    if(target.getCity().size() >= 8 || isProtected(target))
+                        continue;
+                    for(int i=0; i<target.getCity().size(); i++)
+                    {
+                        DistrictCard d = target.getCity().get(i);
+                        if(d.getTypeId() != DistrictCatalog.KEEP && p.getGold() >= destroyCost(target, d))
+                            moves.add(Move.destroy(seat, i));
+                    }
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Adds the purple districts the player whose turn it is can use and has not used this turn
+     * @param p the player whose turn it is
+     * @param moves the list of moves
+     */
+    private void activationMoves(Player p, List<Move> moves)
+    {
+        List<DistrictCard> hand = p.getHand();
+        if((used & USED_LABORATORY) == 0 && p.getBuiltDistrict(DistrictCatalog.LABORATORY) != null)
+        {
+            for(int i=0; i<hand.size(); i++)
+            {
+                if(isFirstOfType(hand, i))
+                    moves.add(Move.laboratory(i));
+            }
+        }
+        if((used & USED_SMITHY) == 0 && p.getGold() >= 2 && p.getBuiltDistrict(DistrictCatalog.SMITHY) != null)
+        {
+            moves.add(Move.smithy());
+        }
+        if((used & USED_ARMORY) == 0 && p.getBuiltDistrict(DistrictCatalog.ARMORY) != null)
+        {
+            for(int seat=0; seat<players.size(); seat++)
+            {
+                if(seat == turnSeat)
+                    continue;
+                City city = players.get(seat).getCity();
+                for(int i=0; i<city.size(); i++)
+                {
+                    if(city.get(i).getTypeId() != DistrictCatalog.KEEP)
+                        moves.add(Move.armory(seat, i));
+                }
+            }
+        }
+        if((used & USED_MUSEUM) == 0 && p.getBuiltDistrict(DistrictCatalog.MUSEUM) != null)
+        {
+            for(int i=0; i<hand.size(); i++)
+            {
+                if(isFirstOfType(hand, i))
+                    moves.add(Move.museum(i));
+            }
+        }
+    }
+
+    /**
+     * Plays a move of the player to decide, changing the game in place
+     * @param move a move returned by legalMoves() in this state
+     * @throws IllegalArgumentException if the move cannot be played in this state
+     * @throws IllegalStateException if the game is over
+     */
+    public void apply(Move move)
+    {
+        if(phase == Phase.OVER)
+        {
+            throw new IllegalStateException("The game is over");
+        }
+        if(depth == frames.length)
+            frames = Arrays.copyOf(frames, depth * 2);
+        if(frames[depth] == null)
+            frames[depth] = new Frame();
+        frames[depth++].save(this);
+        try
+        {
+            play(move);
+        }
+        catch (RuntimeException e)
+        {
+            undo();
+            throw e;
+        }
+    }
+
+    /**
+     * Takes back the last move applied, restoring the game as it was before it
+     * @throws IllegalStateException if there is no move to take back
+     */
+    public void undo()
+    {
+        if(depth == 0)
+        {
+            throw new IllegalStateException("No move to undo");
+        }
+        Frame frame = frames[--depth];
+        while(top > frame.trailSize)
+        {
+            revert(--top);
+        }
+        frame.restore(this);
+    }
+
+    /**
+     * Records a change made by a move
+     * @param op the kind of change
+     * @param arg the seat or index changed
+     * @param old the old value
+     * @param ref the card, player or array changed or replaced
+     */
+    private void push(int op, int arg, long old, Object ref)
+    {
+        if(top == ops.length)
+        {
+            ops = Arrays.copyOf(ops, top * 2);
+            args = Arrays.copyOf(args, top * 2);
+            olds = Arrays.copyOf(olds, top * 2);
+            refs = Arrays.copyOf(refs, top * 2);
+        }
+        ops[top] = op;
+        args[top] = arg;
+        olds[top] = old;
+        refs[top] = ref;
+        top++;
+    }
+
+    /**
+     * Forgets the changes made while setting up a state, which are not moves to take back
+     */
+    private void clearTrail()
+    {
+        Arrays.fill(refs, 0, top, null);
+        top = 0;
+    }
+
+    /**
+     * Plays a move
+     * @param move the move
+     */
+    private void play(Move move)
+    {
+        Player p = players.get(actor);
+        switch(move.getType())
+        {
+            case PICK:
+                require(Phase.SELECT, move);
+                pick(p, move.getA());
+                break;
+
+            case KILL:
+                requireAbility(1, move);
+                setKilledOrder(move.getA());
+                phase = Phase.RESOURCES;
+                break;
+
+            case STEAL:
+                requireAbility(2, move);
+                if(move.getA() < 3 || move.getA() > 8 || game.isCharacterKilled(move.getA()))
+                {
+                    throw new IllegalArgumentException("Cannot steal from " + move.getA());
+                }
+                setStolenOrder(move.getA());
+                phase = Phase.RESOURCES;
+                break;
+
+            case SWAP_HANDS:
+                requireAbility(3, move);
+                swapHands(p, players.get(move.getA()));
+                phase = Phase.RESOURCES;
+                break;
+
+            case DISCARD:
+                requireAbility(3, move);
+                discard(p, move.getA());
+                phase = Phase.RESOURCES;
+                break;
+
+            case DESTROY:
+                requireAbility(8, move);
+                warlordDestroy(p, move.getA(), move.getB());
+                break;
+
+            case RECOVER:
+                require(Phase.GRAVEYARD, move);
+                addGold(p, -1);
+                addToHand(p, destroyed);
+                endGraveyard();
+                break;
+
+            case SKIP:
+                if(phase == Phase.GRAVEYARD)
+                    endGraveyard();
+                else if(phase == Phase.ABILITY && turnOrder != 1)
+                    phase = Phase.RESOURCES;
+                else
+                    throw new IllegalArgumentException("Cannot play " + move + " in " + phase);
+                break;
+
+            case GOLD:
+                require(Phase.RESOURCES, move);
+                addGold(p, 2);
+                afterResources(p);
+                break;
+
+            case CARDS:
+                require(Phase.RESOURCES, move);
+                drawCards(p);
+                break;
+
+            case KEEP:
+                require(Phase.KEEP, move);
+                keep(p, move.getA());
+                break;
+
+            case BUILD:
+                require(Phase.BUILD, move);
+                build(p, move.getA());
+                break;
+
+            case LABORATORY:
+                requireActivation(USED_LABORATORY, DistrictCatalog.LABORATORY, p, move);
+                removeFromHand(p, move.getA());
+                addGold(p, 1);
+                break;
+
+            case SMITHY:
+                requireActivation(USED_SMITHY, DistrictCatalog.SMITHY, p, move);
+                if(p.getGold() < 2)
+                {
+                    throw new IllegalArgumentException("Not enough gold for the Smithy");
+                }
+                addGold(p, -2);
+                for(int i=0; i<3; i++)
+                {
+                    addToHand(p, draw());
+                }
+                break;
+
+            case ARMORY:
+                requireActivation(USED_ARMORY, DistrictCatalog.ARMORY, p, move);
+                DistrictCard armory = p.getBuiltDistrict(DistrictCatalog.ARMORY);
+                if(move.getA() == turnSeat || players.get(move.getA()).getCity().get(move.getB()).getTypeId() == DistrictCatalog.KEEP)
+                {
+                    throw new IllegalArgumentException("Cannot destroy with the Armory: " + move);
+                }
+                destroyDistrict(players.get(move.getA()), move.getB());
+                destroyDistrict(p, indexOf(p.getCity(), armory));
+                break;
+
+            case MUSEUM:
+                requireActivation(USED_MUSEUM, DistrictCatalog.MUSEUM, p, move);
+                storeCard(p.getBuiltDistrict(DistrictCatalog.MUSEUM), removeFromHand(p, move.getA()));
+                break;
+
+            case LIGHTHOUSE:
+                require(Phase.LIGHTHOUSE, move);
+                takeFromDeck(p, move.getA());
+                phase = Phase.BUILD;
+                break;
+
+            case END_TURN:
+                require(Phase.BUILD, move);
+                endTurn(p);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown move " + move);
+        }
+    }
+
+    /**
+     * Checks a move is played in its phase
+     * @param phase the phase of the move
+     * @param move the move
+     */
+    private void require(Phase phase, Move move)
+    {
+        if(this.phase != phase)
+        {
+            throw new IllegalArgumentException("Cannot play " + move + " in " + this.phase);
+        }
+    }
+
+    /**
+     * Checks a move is the ability of the character whose turn it is
+     * @param order the order of the character of the move
+     * @param move the move
+     */
+    private void requireAbility(int order, Move move)
+    {
+        require(Phase.ABILITY, move);
+        if(turnOrder != order)
+        {
+            throw new IllegalArgumentException("Cannot play " + move + " in the turn of " + turnOrder);
+        }
+    }
+
+    /**
+     * Checks a purple district can be used, and marks it used for the turn
+     * @param bit the bit of the district in used
+     * @param typeId id of the district type
+     * @param p the player whose turn it is
+     * @param move the move
+     */
+    private void requireActivation(int bit, int typeId, Player p, Move move)
+    {
+        if((phase != Phase.RESOURCES && phase != Phase.BUILD) || limited || (used & bit) != 0 || p.getBuiltDistrict(typeId) == null)
+        {
+            throw new IllegalArgumentException("Cannot play " + move + " in " + phase);
+        }
+        used |= bit;
+    }
+
+    /**
+     * Deals the characters of a new round as Game.selectionPhase() does, drawing from the game's
+     * random number generator: one face down, face up ones by the number of players, never the King
+     */
+    private void beginRound()
+    {
+        GameRandom random = game.getRandom();
+        push(RANDOM, 0, random.getState(), null);
+        setKilledOrder(-1);
+        setStolenOrder(-1);
+
+        // the characters in order, shuffled in the pile itself
+        while(!pile.isEmpty())
+            removeFromPile(pile.size() - 1);
+        for(int order=1; order<=8; order++)
+        {
+            addToPile(CharacterCard.getCharacter(order));
+        }
+        Collections.shuffle(pile, random);
+        removeFromPile(0);
+
+        List<CharacterCard> facedUp = game.facedUp;
+        for(int i=facedUp.size()-1; i>=0; i--)
+        {
+            push(FACED_UP_REMOVE, i, 0, facedUp.remove(i));
+        }
+        for(int i=0; i<7-players.size(); i++)
+        {
+            CharacterCard card = removeFromPile(0);
+            if(card.getOrder() == 4)
+            {
+                addToPile(card);
+                card = removeFromPile(0);
+            }
+            facedUp.add(card);
+            push(FACED_UP_ADD, 0, 0, null);
+        }
+
+        int start = players.indexOf(game.getCrownedPlayer());
+        int[] order = new int[players.size()];
+        for(int i=0; i<order.length; i++)
+        {
+            order[i] = (start + i) % order.length;
+        }
+        push(SELECTION_ORDER, 0, 0, game.getSelectionOrder());
+        game.setSelectionOrder(order);
+        int[] seen = game.getSeenCharacters();
+        if(seen.length == players.size())
+        {
+            for(int seat=0; seat<seen.length; seat++)
+            {
+                push(SEEN, seat, seen[seat], null);
+                seen[seat] = 0;
+            }
+        }
+        else
+        {
+            push(SEEN_ARRAY, 0, 0, seen);
+            game.setSeenCharacters(new int[players.size()]);
+        }
+
+        picked = 0;
+        turnOrder = 0;
+        phase = Phase.SELECT;
+        actor = order[0];
+    }
+
+    /**
+     * Gives a character of the pile to the player to decide, then moves on to the next
+     * player or, once everyone chose, to the first turn
+     * @param p the player to decide
+     * @param order the order of the character
+     */
+    private void pick(Player p, int order)
+    {
+        int index = 0;
+        while(index < pile.size() && pile.get(index).getOrder() != order)
+            index++;
+        if(index == pile.size())
+        {
+            throw new IllegalArgumentException("Character " + order + " cannot be chosen");
+        }
+        int[] seen = game.getSeenCharacters();
+        int seat = game.getSelectionOrder()[picked];
+        if(seen.length == players.size())
+        {
+            push(SEEN, seat, seen[seat], null);
+            seen[seat] = CharacterCard.mask(pile);
+        }
+        CharacterCard c = removeFromPile(index);
+
+        setCharacter(p, c);
+        if(order == 4)
+            setCrown(p);
+
+        picked++;
+        if(picked < players.size())
+        {
+            actor = game.getSelectionOrder()[picked];
+            return;
+        }
+        int[] picks = new int[players.size()];
+        for(int i=0; i<picks.length; i++)
+        {
+            picks[i] = players.get(i).getCharacter().getOrder();
+        }
+        List<int[]> history = game.getCharacterHistory();
+        history.add(picks);
+        push(HISTORY_ADD, 0, 0, null);
+        nextTurn();
+    }
+
+    /**
+     * Calls the next character, as Game.turnPhase() does: a killed character loses the turn
+     * unless its player has a Hospital, a robbed one gives its gold to the Thief. After the
+     * Warlord, the round ends.
+     */
+    private void nextTurn()
+    {
+        while(true)
+        {
+            turnOrder++;
+            if(turnOrder > 8)
+            {
+                endRound();
+                return;
+            }
+            int seat = seatOf(turnOrder);
+            if(seat < 0)
+                continue;
+            Player p = players.get(seat);
+            if(game.isCharacterKilled(turnOrder))
+            {
+                if(p.getBuiltDistrict(DistrictCatalog.HOSPITAL) == null)
+                    continue;
+                startTurn(seat, true);
+                return;
+            }
+            if(game.isCharacterStolen(turnOrder))
+            {
+                Player thief = players.get(seatOf(2));
+                addGold(thief, p.getGold());
+                setGold(p, 0);
+            }
+            startTurn(seat, false);
+            return;
+        }
+    }
+
+    /**
+     * Starts the turn of a player: the income and draws of the character, then the first decision
+     * @param seat the seat of the player
+     * @param limited true for the limited turn of a killed character with a Hospital, gold or cards only
+     */
+    private void startTurn(int seat, boolean limited)
+    {
+        turnSeat = seat;
+        actor = seat;
+        used = 0;
+        this.limited = limited;
+        destroyed = null;
+        phase = Phase.RESOURCES;
+        if(limited)
+            return;
+
+        Player p = players.get(seat);
+        setPlayerKilled(p, false);
+        switch(turnOrder)
+        {
+            case 4:
+                addGold(p, p.getIncomeDistricts(DistrictType.YELLOW));
+                break;
+            case 5:
+                addGold(p, p.getIncomeDistricts(DistrictType.BLUE));
+                break;
+            case 6:
+                addGold(p, p.getIncomeDistricts(DistrictType.GREEN) + 1);
+                break;
+            case 7:
+                addToHand(p, draw());
+                addToHand(p, draw());
+                setBuildLimit(p, 3);
+                break;
+            case 8:
+                addGold(p, p.getIncomeDistricts(DistrictType.RED));
+                break;
+            default:
+                break;
+        }
+        if(turnOrder <= 3 || turnOrder == 8)
+            phase = Phase.ABILITY;
+    }
+
+    /**
+     * Ends the turn with the Poor House and the Park, then calls the next character
+     * @param p the player whose turn it is
+     */
+    private void endTurn(Player p)
+    {
+        if(!limited)
+        {
+            if(p.getGold() == 0 && p.getBuiltDistrict(DistrictCatalog.POOR_HOUSE) != null)
+            {
+                addGold(p, 1);
+            }
+            if(p.getHand().isEmpty() && p.getBuiltDistrict(DistrictCatalog.PARK) != null)
+            {
+                addToHand(p, draw());
+                addToHand(p, draw());
+            }
+            setBuildLimit(p, 1);
+            setBuiltThisTurn(p, 0);
+        }
+        nextTurn();
+    }
+
+    /**
+     * Ends the round, and the game if a city was completed, or deals the next round
+     */
+    private void endRound()
+    {
+        int round = game.getRound();
+        game.setRound(round + 1);
+        push(ROUND, 0, round, null);
+        if(game.shouldEndGame())
+            over();
+        else
+            beginRound();
+    }
+
+    /**
+     * Marks the game over
+     */
+    private void over()
+    {
+        phase = Phase.OVER;
+        actor = -1;
+    }
+
+    /**
+     * Draws the cards of the player, keeping them all with a Library or if only one could be drawn
+     * @param p the player whose turn it is
+     */
+    private void drawCards(Player p)
+    {
+        int count = !limited && p.getBuiltDistrict(DistrictCatalog.OBSERVATORY) != null ? 3 : 2;
+        for(int i=0; i<count; i++)
+        {
+            DistrictCard c = draw();
+            if(c != null)
+            {
+                drawn.add(c);
+                push(DRAWN_ADD, 0, 0, null);
+            }
+        }
+        if(drawn.size() <= 1 || (!limited && p.getBuiltDistrict(DistrictCatalog.LIBRARY) != null))
+        {
+            for(DistrictCard c : drawn)
+            {
+                addToHand(p, c);
+            }
+            clearDrawn();
+            afterResources(p);
+        }
+        else
+        {
+            phase = Phase.KEEP;
+        }
+    }
+
+    /**
+     * Keeps one of the cards drawn and puts the others at the bottom of the deck
+     * @param p the player whose turn it is
+     * @param index the index of the card kept in the cards drawn
+     */
+    private void keep(Player p, int index)
+    {
+        DistrictCard kept = drawn.get(index);
+        for(DistrictCard c : drawn)
+        {
+            if(c != kept)
+                addToDeck(c);
+        }
+        addToHand(p, kept);
+        clearDrawn();
+        afterResources(p);
+    }
+
+    /**
+     * Empties the cards drawn
+     */
+    private void clearDrawn()
+    {
+        for(int i=drawn.size()-1; i>=0; i--)
+        {
+            push(DRAWN_REMOVE, i, 0, drawn.remove(i));
+        }
+    }
+
+    /**
+     * Moves on after gold or cards: to building, or to the next character after a limited turn
+     * @param p the player whose turn it is
+     */
+    private void afterResources(Player p)
+    {
+        if(limited)
+            endTurn(p);
+        else
+            phase = Phase.BUILD;
+    }
+
+    /**
+     * Builds a district of the hand, as AIPlayer.finishTurn() does, with the Bell Tower,
+     * the completion of a city and the Lighthouse
+     * @param p the player whose turn it is
+     * @param index the index of the card in the hand
+     */
+    private void build(Player p, int index)
+    {
+        DistrictCard c = p.getHand().get(index);
+        if(!p.canBuild() || !canBuild(p, c))
+        {
+            throw new IllegalArgumentException("Cannot build " + c);
+        }
+        addGold(p, -buildCost(p, c));
+        removeFromHand(p, index);
+        addToCity(p, c);
+        push(BUILT_ROUND, 0, c.getBuiltRound(), c);
+        c.setBuiltRound(game.getRound());
+        setBuiltThisTurn(p, p.getBuiltThisTurn() + 1);
+
+        if(c.getTypeId() == DistrictCatalog.BELL_TOWER && p.getCity().size() <= 7)
+        {
+            setBellTower(true);
+        }
+        if(p.getCity().size() >= game.getEndThreshold() && !game.shouldEndGame())
+        {
+            setGameEnd(true, game.getFirstToFinish() == null ? p : game.getFirstToFinish());
+        }
+        if(c.getTypeId() == DistrictCatalog.LIGHTHOUSE && !game.getDistrictDeck().isEmpty())
+        {
+            phase = Phase.LIGHTHOUSE;
+        }
+    }
+
+    /**
+     * Checks whether a player can pay for a district and build it beside the districts of their city
+     * @param p the player
+     * @param c the district card
+     * @return whether the district can be built
+     */
+    private boolean canBuild(Player p, DistrictCard c)
+    {
+        return p.getGold() >= buildCost(p, c) && p.canBuildDuplicate(c, game.getRound());
+    }
+
+    /**
+     * Get the cost of building a district, 1 less for a purple district with a Factory
+     * @param p the player
+     * @param c the district card
+     * @return the cost in gold
+     */
+    private static int buildCost(Player p, DistrictCard c)
+    {
+        int cost = c.getCost();
+        if(c.getColor().equalsIgnoreCase("purple") && c.getTypeId() != DistrictCatalog.FACTORY
+                && p.getBuiltDistrict(DistrictCatalog.FACTORY) != null)
+        {
+            cost -= 1;
+        }
+        return Math.max(0, cost);
+    }
+
+    /**
+     * Takes a card of the deck with the Lighthouse and shuffles the deck
+     * @param p the player whose turn it is
+     * @param index the index of the card in the deck
+     */
+    private void takeFromDeck(Player p, int index)
+    {
+        Deck<DistrictCard> deck = game.getDistrictDeck();
+        GameRandom random = game.getRandom();
+        DistrictCard c = deck.remove(index);
+        push(DECK_REMOVE, index, 0, c);
+        push(DECK_SHUFFLE, 0, random.getState(), null);
+        deck.shuffle(random);
+        addToHand(p, c);
+    }
+
+    /**
+     * Swaps the hands of two players
+     * @param a a player
+     * @param b another player
+     */
+    private void swapHands(Player a, Player b)
+    {
+        if(a == b)
+        {
+            throw new IllegalArgumentException("Cannot swap hands with oneself");
+        }
+        int seatA = seat(a);
+        int seatB = seat(b);
+        List<DistrictCard> hand = a.hand;
+        a.hand = b.hand;
+        b.hand = hand;
+        push(SWAP_HANDS, seatA, seatB, null);
+    }
+
+    /**
+     * Discards cards of the hand and draws as many
+     * @param p the player whose turn it is
+     * @param set bit set of the indexes of the cards in the hand
+     */
+    private void discard(Player p, int set)
+    {
+        if(set <= 0 || set >= (1 << Math.min(p.getHand().size(), MAX_DISCARD_CARDS)))
+        {
+            throw new IllegalArgumentException("Cannot discard " + Integer.toBinaryString(set));
+        }
+        int count = Integer.bitCount(set);
+        for(int i=p.getHand().size()-1; i>=0; i--)
+        {
+            if((set & (1 << i)) != 0)
+                removeFromHand(p, i);
+        }
+        for(int i=0; i<count; i++)
+        {
+            addToHand(p, draw());
+        }
+    }
+
+    /**
+     * Destroys a district with the Warlord, then waits for its owner to decide on the Graveyard
+     * @param p the Warlord
+     * @param seat the seat of the owner of the district
+     * @param index the index of the district in the city
+     */
+    private void warlordDestroy(Player p, int seat, int index)
+    {
+        Player target = players.get(seat);
+        DistrictCard d = target.getCity().get(index);
+        int cost = destroyCost(target, d);
+        if(target.getCity().size() >= 8 || isProtected(target) || d.getTypeId() == DistrictCatalog.KEEP || p.getGold() < cost)
+        {
+            throw new IllegalArgumentException("Cannot destroy " + d);
+        }
+        addGold(p, -cost);
+        destroyDistrict(target, index);
+        returnStoredCards(d);
+        if(target.getBuiltDistrict(DistrictCatalog.GRAVEYARD) != null)
+        {
+            destroyed = d;
+            actor = seat;
+            phase = Phase.GRAVEYARD;
+        }
+        else
+        {
+            phase = Phase.RESOURCES;
+        }
+    }
+
+    /**
+     * Gives the turn back to the Warlord after the owner of the destroyed district decided on the Graveyard
+     */
+    private void endGraveyard()
+    {
+        destroyed = null;
+        actor = turnSeat;
+        phase = Phase.RESOURCES;
+    }
+
+    /**
+     * Get the cost of destroying a district with the Warlord, 1 more in a city with a Great Wall
+     * @param owner the owner of the district
+     * @param d the district card
+     * @return the cost in gold
+     */
+    private static int destroyCost(Player owner, DistrictCard d)
+    {
+        int cost = d.getCost() - 1;
+        if(d.getTypeId() != DistrictCatalog.GREAT_WALL && owner.getBuiltDistrict(DistrictCatalog.GREAT_WALL) != null)
+            cost++;
+        return cost;
+    }
+
+    /**
+     * Checks whether the Warlord cannot destroy the districts of a player, the Bishop while alive
+     * @param p the player
+     * @return whether the city is protected
+     */
+    private boolean isProtected(Player p)
+    {
+        return p.getCharacter() != null && p.getCharacter().getOrder() == 5 && !game.isCharacterKilled(5);
+    }
+
+    /**
+     * Returns the cards under a Museum destroyed by the Warlord to the deck. The Armory leaves them with the Museum
+     * @param d the district destroyed
+     */
+    private void returnStoredCards(DistrictCard d)
+    {
+        if(d.getTypeId() == DistrictCatalog.MUSEUM && !d.getStoredCards().isEmpty())
+        {
+            List<DistrictCard> stored = d.getStoredCards();
+            for(int i=0; i<stored.size(); i++)
+            {
+                addToDeck(stored.get(i));
+            }
+            push(STORED_CLEAR, 0, stored.size(), d);
+            d.clearStoredCards();
+        }
+    }
+
+    /**
+     * Removes a district from a city, turning off a Bell Tower
+     * @param owner the owner of the district
+     * @param index the index of the district in the city
+     */
+    private void destroyDistrict(Player owner, int index)
+    {
+        DistrictCard d = removeFromCity(owner, index);
+        if(d.getTypeId() == DistrictCatalog.BELL_TOWER && game.isBellTowerActive())
+        {
+            setBellTower(false);
+            if(game.shouldEndGame())
+            {
+                for(Player q : players)
+                {
+                    if(q.getCity().size() >= game.getEndThreshold())
+                        return;
+                }
+                setGameEnd(false, null);
+            }
+        }
+    }
+
+    /**
+     * Places a card under the Museum
+     * @param museum the Museum
+     * @param c the card
+     */
+    private void storeCard(DistrictCard museum, DistrictCard c)
+    {
+        boolean first = museum.getStoredCards().isEmpty();
+        museum.storeCard(c);
+        push(STORED_ADD, 0, first ? 1 : 0, museum);
+    }
+
+    /**
+     * Changes the crown, with the Throne Room effect as in Game.setCrownedPlayer()
+     * @param p the new crowned player
+     */
+    private void setCrown(Player p)
+    {
+        Player old = game.getCrownedPlayer();
+        if(old != null && old != p)
+        {
+            push(THRONE_ROOM, 0, game.crownedChange ? 1 : 0, game.throneRoomHolder);
+            for(Player q : players)
+            {
+                if(q.getBuiltDistrict(DistrictCatalog.THRONE_ROOM) != null)
+                {
+                    addGold(q, 1);
+                    game.throneRoomHolder = q;
+                    game.crownedChange = true;
+                }
+            }
+        }
+        game.restoreCrownedPlayer(p);
+        push(CROWN, 0, 0, old);
+    }
+
+    /**
+     * Find the seat of the player holding a character
+     * @param order the order of the character
+     * @return the seat, or -1 if no player holds it
+     */
+    private int seatOf(int order)
+    {
+        for(int seat=0; seat<players.size(); seat++)
+        {
+            CharacterCard c = players.get(seat).getCharacter();
+            if(c != null && c.getOrder() == order)
+                return seat;
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a character was removed face up this round
+     * @param order the order of the character
+     * @return whether the character is face up
+     */
+    private boolean isFacedUp(int order)
+    {
+        for(CharacterCard c : game.facedUp)
+        {
+            if(c.getOrder() == order)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a card is the first of its district in a list, so cards of the same district make one move
+     * @param cards the list
+     * @param index the index of the card
+     * @return whether no card before it is the same district
+     */
+    private static boolean isFirstOfType(List<DistrictCard> cards, int index)
+    {
+        DistrictCard c = cards.get(index);
+        for(int i=0; i<index; i++)
+        {
+            DistrictCard d = cards.get(i);
+            if(d.getType() == c.getType())
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Find a card in a city by identity
+     * @param city the city
+     * @param c the card
+     * @return the index of the card
+     */
+    private static int indexOf(City city, DistrictCard c)
+    {
+        for(int i=0; i<city.size(); i++)
+        {
+            if(city.get(i) == c)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Find the seat of a player
+     * @param p the player
+     * @return the index of the player in the player list
+     */
+    private int seat(Player p)
+    {
+        for(int seat=0; seat<players.size(); seat++)
+        {
+            if(players.get(seat) == p)
+                return seat;
+        }
+        return -1;
+    }
+
+    // Changes to the game, each recording how to take it back
+
+    private void setGold(Player p, int gold)
+    {
+        int seat = seat(p);
+        push(GOLD, seat, p.gold, null);
+        p.gold = gold;
+    }
+
+    private void addGold(Player p, int delta)
+    {
+        if(delta != 0)
+            setGold(p, p.gold + delta);
+    }
+
+    private void addToHand(Player p, DistrictCard c)
+    {
+        if(c == null)
+            return;
+        int seat = seat(p);
+        p.hand.add(c);
+        push(HAND_ADD, seat, 0, null);
+    }
+
+    private DistrictCard removeFromHand(Player p, int index)
+    {
+        int seat = seat(p);
+        DistrictCard c = p.hand.remove(index);
+        push(HAND_REMOVE, seat, index, c);
+        return c;
+    }
+
+    private void addToCity(Player p, DistrictCard c)
+    {
+        int seat = seat(p);
+        p.city.add(c);
+        push(CITY_ADD, seat, 0, null);
+    }
+
+    private DistrictCard removeFromCity(Player p, int index)
+    {
+        int seat = seat(p);
+        DistrictCard c = p.city.remove(index);
+        push(CITY_REMOVE, seat, index, c);
+        return c;
+    }
+
+    private DistrictCard draw()
+    {
+        DistrictCard c = game.getDistrictDeck().draw();
+        if(c != null)
+            push(DRAW, 0, 0, c);
+        return c;
+    }
+
+    private void addToDeck(DistrictCard c)
+    {
+        game.getDistrictDeck().add(c);
+        push(DECK_ADD, 0, 0, null);
+    }
+
+    private void addToPile(CharacterCard c)
+    {
+        pile.add(c);
+        push(PILE_ADD, 0, 0, null);
+    }
+
+    private CharacterCard removeFromPile(int index)
+    {
+        CharacterCard c = pile.remove(index);
+        push(PILE_REMOVE, index, 0, c);
+        return c;
+    }
+
+    private void setCharacter(Player p, CharacterCard c)
+    {
+        int seat = seat(p);
+        push(CHARACTER, seat, 0, p.character);
+        p.character = c;
+    }
+
+    private void setPlayerKilled(Player p, boolean killed)
+    {
+        push(PLAYER_KILLED, seat(p), p.killed ? 1 : 0, null);
+        p.killed = killed;
+    }
+
+    private void setBuildLimit(Player p, int limit)
+    {
+        push(BUILD_LIMIT, seat(p), p.buildLimit, null);
+        p.buildLimit = limit;
+    }
+
+    private void setBuiltThisTurn(Player p, int built)
+    {
+        push(BUILT_THIS_TURN, seat(p), p.builtThisTurn, null);
+        p.builtThisTurn = built;
+    }
+
+    private void setKilledOrder(int order)
+    {
+        int old = game.getKilledCharacterOrder();
+        push(KILLED_ORDER, 0, old, null);
+        game.setKilledCharacterOrder(order);
+    }
+
+    private void setStolenOrder(int order)
+    {
+        int old = game.getStolenCharacterOrder();
+        push(STOLEN_ORDER, 0, old, null);
+        game.setStolenCharacterOrder(order);
+    }
+
+    private void setBellTower(boolean active)
+    {
+        push(BELL_TOWER, 0, game.isBellTowerActive() ? 1 : 0, null);
+        game.setBellTowerActive(active);
+    }
+
+    private void setGameEnd(boolean shouldEnd, Player firstToFinish)
+    {
+        push(GAME_END, 0, game.shouldEndGame() ? 1 : 0, game.getFirstToFinish());
+        game.setGameShouldEnd(shouldEnd);
+        game.setFirstToFinish(firstToFinish);
+    }
+
+    /**
+     * Takes back a change recorded on the trail, the last one not taken back
+     * @param i the index of the change
+     */
+    private void revert(int i)
+    {
+        int arg = args[i];
+        long old = olds[i];
+        Object ref = refs[i];
+        refs[i] = null;
+        Deck<DistrictCard> deck = game.getDistrictDeck();
+        switch(ops[i])
+        {
+            case GOLD:
+                players.get(arg).gold = (int) old;
+                break;
+
+            case HAND_ADD:
+                List<DistrictCard> hand = players.get(arg).hand;
+                hand.remove(hand.size() - 1);
+                break;
+
+            case HAND_REMOVE:
+                players.get(arg).hand.add((int) old, (DistrictCard) ref);
+                break;
+
+            case CITY_ADD:
+                City city = players.get(arg).city;
+                city.remove(city.size() - 1);
+                break;
+
+            case CITY_REMOVE:
+                players.get(arg).city.add((int) old, (DistrictCard) ref);
+                break;
+
+            case DRAW:
+                deck.putBack((DistrictCard) ref);
+                break;
+
+            case DECK_ADD:
+                deck.remove(deck.size() - 1);
+                break;
+
+            case DECK_REMOVE:
+                deck.insert(arg, (DistrictCard) ref);
+                break;
+
+            case DECK_SHUFFLE:
+                GameRandom random = game.getRandom();
+                if(draws.length < deck.size())
+                    draws = new int[deck.size()];
+                random.setState(old);
+                deck.unshuffle(random, draws);
+                random.setState(old);
+                break;
+
+            case CHARACTER:
+                players.get(arg).character = (CharacterCard) ref;
+                break;
+
+            case PLAYER_KILLED:
+                players.get(arg).killed = old != 0;
+                break;
+
+            case BUILD_LIMIT:
+                players.get(arg).buildLimit = (int) old;
+                break;
+
+            case BUILT_THIS_TURN:
+                players.get(arg).builtThisTurn = (int) old;
+                break;
+
+            case BUILT_ROUND:
+                ((DistrictCard) ref).setBuiltRound((int) old);
+                break;
+
+            case SWAP_HANDS:
+                Player a = players.get(arg);
+                Player b = players.get((int) old);
+                List<DistrictCard> swapped = a.hand;
+                a.hand = b.hand;
+                b.hand = swapped;
+                break;
+
+            case STORED_ADD:
+                DistrictCard museum = (DistrictCard) ref;
+                if(old != 0)
+                    museum.clearStoredCards();
+                else
+                    museum.getStoredCards().remove(museum.getStoredCards().size() - 1);
+                break;
+
+            case STORED_CLEAR:
+                // the cards are still at the bottom of the deck, in the order they were stored
+                for(int j=deck.size()-(int) old; j<deck.size(); j++)
+                {
+                    ((DistrictCard) ref).storeCard(deck.get(j));
+                }
+                break;
+
+            case KILLED_ORDER:
+                game.setKilledCharacterOrder((int) old);
+                break;
+
+            case STOLEN_ORDER:
+                game.setStolenCharacterOrder((int) old);
+                break;
+
+            case BELL_TOWER:
+                game.setBellTowerActive(old != 0);
+                break;
+
+            case GAME_END:
+                game.setGameShouldEnd(old != 0);
+                game.setFirstToFinish((Player) ref);
+                break;
+
+            case ROUND:
+                game.setRound((int) old);
+                break;
+
+            case RANDOM:
+                game.getRandom().setState(old);
+                break;
+
+            case THRONE_ROOM:
+                game.throneRoomHolder = (Player) ref;
+                game.crownedChange = old != 0;
+                break;
+
+            case CROWN:
+                game.restoreCrownedPlayer((Player) ref);
+                break;
+
+            case FACED_UP_ADD:
+                game.facedUp.remove(game.facedUp.size() - 1);
+                break;
+
+            case FACED_UP_REMOVE:
+                game.facedUp.add(arg, (CharacterCard) ref);
+                break;
+
+            case SELECTION_ORDER:
+                game.setSelectionOrder((int[]) ref);
+                break;
+
+            case SEEN:
+                game.getSeenCharacters()[arg] = (int) old;
+                break;
+
+            case SEEN_ARRAY:
+                game.setSeenCharacters((int[]) ref);
+                break;
+
+            case PILE_ADD:
+                pile.remove(pile.size() - 1);
+                break;
+
+            case PILE_REMOVE:
+                pile.add(arg, (CharacterCard) ref);
+                break;
+
+            case HISTORY_ADD:
+                List<int[]> history = game.getCharacterHistory();
+                history.remove(history.size() - 1);
+                break;
+
+            case DRAWN_ADD:
+                drawn.remove(drawn.size() - 1);
+                break;
+
+            case DRAWN_REMOVE:
+                drawn.add(arg, (DistrictCard) ref);
+                break;
+
+            default:
+                throw new IllegalStateException("Unknown change " + ops[i]);
+        }
+    }
+
+    /**
+     * The decision a state waited for before a move, restored by undo()
+     */
+    private static final class Frame
+    {
+        private int trailSize;
+        private Phase phase;
+        private int actor;
+        private int turnSeat;
+        private int turnOrder;
+        private int picked;
+        private int used;
+        private boolean limited;
+        private DistrictCard destroyed;
+
+        /**
+         * Saves the decision of a state
+         * @param s the state
+         */
+        private void save(GameState s)
+        {
+            trailSize = s.top;
+            phase = s.phase;
+            actor = s.actor;
+            turnSeat = s.turnSeat;
+            turnOrder = s.turnOrder;
+            picked = s.picked;
+            used = s.used;
+            limited = s.limited;
+            destroyed = s.destroyed;
+        }
+
+        /**
+         * Restores the decision of a state
+         * @param s the state
+         */
+        private void restore(GameState s)
+        {
+            s.phase = phase;
+            s.actor = actor;
+            s.turnSeat = turnSeat;
+            s.turnOrder = turnOrder;
+            s.picked = picked;
+            s.used = used;
+            s.limited = limited;
+            s.destroyed = destroyed;
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package citadels;
 
+import java.io.IOException;
 import java.lang.reflect.Array;
 import java.util.*;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import com.google.gson.stream.JsonWriter;
+
 /**
  * Model for a Human player
  */
@@ -24,6 +27,18 @@ public class HumanPlayer extends Player {
         super(id, name);
     }
 
+    /**
+     * Creates a copy of the human player, with its own hand and city
+     * 
+     * @return a copy of the player
+     */
+    public HumanPlayer copy()
+    {
+        HumanPlayer p = new HumanPlayer(id, name);
+        copyStateTo(p);
+        return p;
+    }
+
     /**
      * Converts the Human player to a JSONObject for saving.
      * 
@@ -44,37 +59,41 @@ public class HumanPlayer extends Player {
         return obj;
     }
 
+    /**
+     * Writes the Human player as a JSON object straight to a stream, in the same form as toJson().
+     *
+     * @param out the JSON writer
+     * @throws IOException if writing fails
+     */
+    public void writeJson(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("type").value("HumanPlayer");
+        out.name("id").value(getId());
+        out.name("name").value(getName());
+        out.name("gold").value(getGold());
+        out.name("hand");
+        Player.writeCardList(out, hand);
+        out.name("city");
+        Player.writeCardList(out, city);
+        if (character != null) {
+            out.name("character");
+            character.writeJson(out);
+        }
+        out.endObject();
+    }
+
     /**
      * Converts JSONObject to a player for loading
      * @param obj JSONObject saved
      * @return HumanPlayer object
      */
     public static HumanPlayer fromJson(JSONObject obj) {
-        Object o = obj.get("id");
-        int id = 0;
-        if(o instanceof Long)
-        {
-            id = ((Long) o).intValue();
-        }
-        else
-        {
-            id = ((Integer) o).intValue();
-        }
+        int id = ((Number) obj.get("id")).intValue();
         String name = (String) obj.get("name");
         HumanPlayer p = new HumanPlayer(id, name);
-        Object o1 = obj.get("gold");
-        int g = 0;
-        if(o1 instanceof Long)
-        {
-            g = ((Long) o1).intValue();
-        }
-        else
-        {
-            g = ((Integer) o1).intValue();
-        }
-        p.setGold(g);
+        p.setGold(((Number) obj.get("gold")).intValue());
         p.hand = Player.cardListFromJson((JSONArray) obj.get("hand"));
-        p.city = Player.cardListFromJson((JSONArray) obj.get("city"));
+        p.city = new City(Player.cardListFromJson((JSONArray) obj.get("city")));
         if (obj.containsKey("character")) {
             JSONObject charObj = (JSONObject) obj.get("character");
             p.setCharacter(CharacterCard.fromJson(charObj));
@@ -91,21 +110,33 @@ public class HumanPlayer extends Player {
      */
     public CharacterCard chooseCharacter(List<CharacterCard> availableCharacters)
     {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("Choose your character. Available characters:");
+        return chooseCharacter(game, availableCharacters);
+    }
+
+    /**
+     * HumanPlayer chooses a character from a list, reading the choice from the game's input.
+     * 
+     * @param game the current game instance
+     * @param availableCharacters list of available characters to choose from
+     * @return the chosen character
+     */
+    @Override
+    public CharacterCard chooseCharacter(Game game, List<CharacterCard> availableCharacters)
+    {
+        game.getOut().println("Choose your character. Available characters:");
         for (int i = 0; i < availableCharacters.size(); i++) 
         {
-            System.out.print(availableCharacters.get(i).getName());
+            game.getOut().print(availableCharacters.get(i).getName());
             if(i!=availableCharacters.size()-1)
             {
-                System.out.print(", ");
+                game.getOut().print(", ");
             }
         }
-        System.out.println();
+        game.getOut().println();
         while(true)
         {
-            System.out.print("> ");
-            String input = game.scanner.nextLine().trim();
+            game.getOut().print("> ");
+            String input = game.readLine().trim();
 
             for(CharacterCard card : availableCharacters)
             {
@@ -115,7 +146,7 @@ public class HumanPlayer extends Player {
                 }
             }
 
-            System.out.println("Invalid character name. Please try again.");
+            game.getOut().println("Invalid character name. Please try again.");
         }
     }
 
@@ -127,54 +158,53 @@ public class HumanPlayer extends Player {
      */
     public void takeTurnLimited(Game game)
     {
-        System.out.println("You were assassinated, but have a Hospital.");
-        System.out.println("You may only collect gold or draw cards this turn.");
+        game.getOut().println("You were assassinated, but have a Hospital.");
+        game.getOut().println("You may only collect gold or draw cards this turn.");
 
-        Scanner sc = new Scanner(System.in);
         while (true) 
         {
-            System.out.println("Collect 2 gold or draw two cards and pick one [gold/cards]:");
-            System.out.print("> ");
-            String choice = sc.nextLine().trim().toLowerCase();
+            game.getOut().println("Collect 2 gold or draw two cards and pick one [gold/cards]:");
+            game.getOut().print("> ");
+            String choice = game.readLine().trim().toLowerCase();
 
             if(choice.equals("gold"))
             {
                 addGold(2);
-                System.out.println(name + " received two gold.");
+                game.getOut().println(name + " received two gold.");
                 break;
             }
             else if(choice.equals("cards"))
             {
                 if (game.getDistrictDeck().size() == 0) 
                 {
-                    System.out.println("Not enough cards in the deck. Proceed to add Gold");
+                    game.getOut().println("Not enough cards in the deck. Proceed to add Gold");
                     addGold(2);
                     break;
                 }
                 else if(game.getDistrictDeck().size() == 1)
                 {
-                    System.out.println("Only one card in the deck. Proceed to add card in hand");
+                    game.getOut().println("Only one card in the deck. Proceed to add card in hand");
                     DistrictCard c = game.getDistrictDeck().draw();
                     drawCard(c);
                     break;
                 }
                 DistrictCard card1 = game.getDistrictDeck().draw();
                 DistrictCard card2 = game.getDistrictDeck().draw();
-                System.out.println("Choose one of the following cards: 'collect card <option>'");
-                System.out.println("1. " + card1);
-                System.out.println("2. " + card2);
+                game.getOut().println("Choose one of the following cards: 'collect card <option>'");
+                game.getOut().println("1. " + card1);
+                game.getOut().println("2. " + card2);
 
                 int selected = -1;
                 while (selected != 1 && selected != 2) 
                 {
-                    System.out.print("> ");
+                    game.getOut().print("> ");
                     try 
                     {
-                        selected = Integer.parseInt(sc.nextLine().trim().split(" ")[2]);
+                        selected = Integer.parseInt(game.readLine().trim().split(" ")[2]);
                     } 
                     catch (Exception e) 
                     {
-                        System.out.println("Invalid input.");
+                        game.getOut().println("Invalid input.");
                     }
                 }
                 drawCard(selected == 1 ? card1 : card2);
@@ -183,10 +213,10 @@ public class HumanPlayer extends Player {
             }
             else
             {
-                System.out.println("Invalid input. Please enter 'gold' or 'cards'.");
+                game.getOut().println("Invalid input. Please enter 'gold' or 'cards'.");
             }
         }
-        System.out.println("Limited turn ended.");
+        game.getOut().println("Limited turn ended.");
     }
 
     /**
@@ -197,9 +227,8 @@ public class HumanPlayer extends Player {
      */
     public void takeTurn(Game game)
     {
-        Scanner scanner = new Scanner(System.in);
         resetTurnFlags();
-        System.out.println("Your turn.");
+        game.getOut().println("Your turn.");
         CharacterCard character = getCharacter();
 
         //Perform character special action
@@ -209,47 +238,47 @@ public class HumanPlayer extends Player {
         }
 
         //Check whether has laboratory
-        DistrictCard lab = getBuiltDistrict("Laboratory");
+        DistrictCard lab = getBuiltDistrict(DistrictCatalog.LABORATORY);
         if(lab != null)
         {
             if(hand.isEmpty())
             {
-                System.out.println("No card in hand, unable to use Laboratory ability.");
+                game.getOut().println("No card in hand, unable to use Laboratory ability.");
             }
             else
             {
-                System.out.println("Laboratory Action: You may discard a district from hand to gain 1 gold. Do you want to use it? 1 for Yes, 2 for No");
-                System.out.println("You have " + gold + " gold.");
+                game.getOut().println("Laboratory Action: You may discard a district from hand to gain 1 gold. Do you want to use it? 1 for Yes, 2 for No");
+                game.getOut().println("You have " + gold + " gold.");
                 int labChoice = -1;
                 while(labChoice != 1 && labChoice != 2)
                 {
-                    System.out.print("> ");
+                    game.getOut().print("> ");
                     
                     try
                     {
-                        labChoice = Integer.parseInt(scanner.nextLine().trim());
+                        labChoice = Integer.parseInt(game.readLine().trim());
                         if(labChoice == 1)
                         {
-                            System.out.println("Select a card to discard (0 to cancel): ");
+                            game.getOut().println("Select a card to discard (0 to cancel): ");
                             for(int i=0; i<hand.size(); i++)
                             {
                                 DistrictCard c = hand.get(i);
-                                System.out.println((i+1) + ". " + c);
+                                game.getOut().println((i+1) + ". " + c);
                             }
 
                             int idx = -1;
                             while(idx < 0 || idx > hand.size())
                             {
-                                System.out.print("> ");
+                                game.getOut().print("> ");
                                 try
                                 {
-                                    idx = Integer.parseInt(scanner.nextLine().trim());
+                                    idx = Integer.parseInt(game.readLine().trim());
                                     if(idx < 0 || idx > hand.size())
-                                        System.out.println("Invalid number.");
+                                        game.getOut().println("Invalid number.");
                                 }
                                 catch(NumberFormatException e)
                                 {
-                                    System.out.println("Invalid input. Please enter valid number.");
+                                    game.getOut().println("Invalid input. Please enter valid number.");
                                 }
                             }
 
@@ -258,7 +287,7 @@ public class HumanPlayer extends Player {
                                 DistrictCard discarded = hand.remove(idx - 1);
                                 game.getDistrictDeck().add(discarded);
                                 addGold(1);
-                                System.out.println("You discarded  " + discarded + " and gained 1 gold.");
+                                game.getOut().println("You discarded  " + discarded + " and gained 1 gold.");
                             }
                             else
                             {
@@ -268,30 +297,30 @@ public class HumanPlayer extends Player {
                     }
                     catch(NumberFormatException e)
                     {
-                        System.out.println("Invalid input. Please enter 1 or 2.");
+                        game.getOut().println("Invalid input. Please enter 1 or 2.");
                     }
                 }
             }  
         }
 
         //Check whether has Smithy
-        DistrictCard smithy = getBuiltDistrict("Smithy");
+        DistrictCard smithy = getBuiltDistrict(DistrictCatalog.SMITHY);
         if(smithy != null)
         {
             if(gold < 2)
             {
-                System.out.println("Not enough gold to use Smithy ability.");
+                game.getOut().println("Not enough gold to use Smithy ability.");
             }
             else
             {
-                System.out.println("Smithy Action: You have " + gold + " gold. You may pay 2 gold to draw 3 district cards. Do you want to use it? 1 for Yes, 2 for No");
+                game.getOut().println("Smithy Action: You have " + gold + " gold. You may pay 2 gold to draw 3 district cards. Do you want to use it? 1 for Yes, 2 for No");
                 int smithChoice = -1;
                 while(smithChoice != 1 && smithChoice != 2)
                 {
-                    System.out.print("> ");
+                    game.getOut().print("> ");
                     try
                     {
-                        smithChoice = Integer.parseInt(scanner.nextLine().trim());
+                        smithChoice = Integer.parseInt(game.readLine().trim());
                         if(smithChoice == 1)
                         {
                             gold -= 2;
@@ -301,70 +330,70 @@ public class HumanPlayer extends Player {
                                 if(drawn != null)
                                 {
                                     hand.add(drawn);
-                                    System.out.println("You drew: " + drawn);
+                                    game.getOut().println("You drew: " + drawn);
                                 }
                             }
                         }
                     }
                     catch(NumberFormatException e)
                     {
-                        System.out.println("Invalid input. Please enter 1 or 2.");
+                        game.getOut().println("Invalid input. Please enter 1 or 2.");
                     }
                 }
             }
         }
 
         // Check whether has armory
-        DistrictCard armory = getBuiltDistrict("Armory");
+        DistrictCard armory = getBuiltDistrict(DistrictCatalog.ARMORY);
         if(armory!=null)
         {
-            System.out.println("Armory Action: You may destroy armory to destroy a district in another player's city. Do you want to use it? 1 for Yes, 2 for No");
+            game.getOut().println("Armory Action: You may destroy armory to destroy a district in another player's city. Do you want to use it? 1 for Yes, 2 for No");
             int armoryChoice = -1;
             while(armoryChoice != 1 && armoryChoice != 2)
             {
-                System.out.print("> ");
+                game.getOut().print("> ");
                 try
                 {
-                    armoryChoice = Integer.parseInt(scanner.nextLine().trim());
+                    armoryChoice = Integer.parseInt(game.readLine().trim());
                     if(armoryChoice == 1)
                     {
                         for (Player p : game.getPlayers()) 
                         {
-                            System.out.println(p.getName()+ ": ");
+                            game.getOut().println(p.getName()+ ": ");
                             if (p.getCity().isEmpty()) 
                             {
-                                System.out.println("  (No districts built)");
+                                game.getOut().println("  (No districts built)");
                             } 
                             else 
                             {
                                 for (DistrictCard c : p.getCity()) 
                                 {
-                                    System.out.println("  - " + c);
+                                    game.getOut().println("  - " + c);
                                 }
                             }
-                            System.out.println();
+                            game.getOut().println();
                         }
                         
                         while(true)
                         {
-                            System.out.println("Enter player ID to target (or 0 to skip):");
+                            game.getOut().println("Enter player ID to target (or 0 to skip):");
 
                             int targetChoice = -1;
                             while(targetChoice<0 || targetChoice>game.getPlayers().size())
                             { 
-                                System.out.print("> ");
+                                game.getOut().print("> ");
                                 try
                                 {
-                                    targetChoice = Integer.parseInt(scanner.nextLine().trim());
+                                    targetChoice = Integer.parseInt(game.readLine().trim());
                                 }
                                 catch(NumberFormatException e)
                                 {
-                                    System.out.println("Invalid input.");
+                                    game.getOut().println("Invalid input.");
                                 }
                             }
                             if(targetChoice == 0)
                             {
-                                System.out.println("Armory action cancelled.");
+                                game.getOut().println("Armory action cancelled.");
                                 break;
                             }
                             else
@@ -381,33 +410,33 @@ public class HumanPlayer extends Player {
 
                                 if (target == null || target.getCity().isEmpty()) 
                                 {
-                                    System.out.println("Invalid target or target has no districts.");
+                                    game.getOut().println("Invalid target or target has no districts.");
                                     continue;
                                 }
 
-                                System.out.println("Choose a district to destroy from " + target.getName() + " (or 0 to cancel):");
+                                game.getOut().println("Choose a district to destroy from " + target.getName() + " (or 0 to cancel):");
 
                                 for (int i = 0; i < target.getCity().size(); i++) 
                                 {
                                     DistrictCard c = target.getCity().get(i);
-                                    System.out.println((i + 1) + ". " + c);
+                                    game.getOut().println((i + 1) + ". " + c);
                                 }
 
                                 int index = -1;
                                 while (index < 0 || index > target.getCity().size()) 
                                 {
-                                    System.out.print("> ");
+                                    game.getOut().print("> ");
                                     try 
                                     {
-                                        index = Integer.parseInt(scanner.nextLine().trim());
+                                        index = Integer.parseInt(game.readLine().trim());
                                     } 
                                     catch (NumberFormatException e) {
-                                        System.out.println("Invalid input. Please enter a number.");
+                                        game.getOut().println("Invalid input. Please enter a number.");
                                     }
                                 }
                                 if(index==0)
                                 {
-                                    System.out.println("Armory action cancelled.");
+                                    game.getOut().println("Armory action cancelled.");
                                     break;
                                 }
                                 else
@@ -419,7 +448,7 @@ public class HumanPlayer extends Player {
                                     {
                                         game.deactivateBellTower();
                                     }
-                                    System.out.println("You destroyed " + targetCard + " from " + target.getName() + "'s city.");
+                                    game.getOut().println("You destroyed " + targetCard + " from " + target.getName() + "'s city.");
                                     break;
                                 }
                             }
@@ -427,135 +456,137 @@ public class HumanPlayer extends Player {
                     }
                     else
                     {
-                        System.out.println("Armory action skipped.");
+                        game.getOut().println("Armory action skipped.");
                     }
                 }
                 catch(NumberFormatException e)
                 {
-                    System.out.println("Invalid input. Please enter a number");
+                    game.getOut().println("Invalid input. Please enter a number");
                 }
             }
         }
 
         // Check whether has museum
-        DistrictCard museum = getBuiltDistrict("Museum");
+        DistrictCard museum = getBuiltDistrict(DistrictCatalog.MUSEUM);
         if(museum != null)
         {
             if(hand.isEmpty())
             {
-                System.out.println("Hand is empty. Unable to use Museum action.");
+                game.getOut().println("Hand is empty. Unable to use Museum action.");
             }
             else
             {
-                System.out.println("Museum Action: You may place one card from your hand under the Museum. Do you want to use it? 1 for Yes, 2 for No");
+                game.getOut().println("Museum Action: You may place one card from your hand under the Museum. Do you want to use it? 1 for Yes, 2 for No");
                 int museumChoice = -1;
                 while(museumChoice != 1 && museumChoice != 2)
                 {
-                    System.out.print("> ");
+                    game.getOut().print("> ");
                     try
                     {
-                        museumChoice = Integer.parseInt(scanner.nextLine().trim());
+                        museumChoice = Integer.parseInt(game.readLine().trim());
                     }
                     catch(NumberFormatException e)
                     {
-                        System.out.println("Invalid input.");
+                        game.getOut().println("Invalid input.");
                     }
                 }
 
                 if (museumChoice == 1) 
                 {
-                    System.out.println("Choose a card to place under Museum (or 0 to cancel):");
+                    game.getOut().println("Choose a card to place under Museum (or 0 to cancel):");
                     for(int i=0; i<hand.size(); i++)
                     {
-                        System.out.println((i+1) + ". " + hand.get(i));
+                        game.getOut().println((i+1) + ". " + hand.get(i));
                     }
 
                     int cardChoice = -1;
                     while(cardChoice < 0 || cardChoice > hand.size())
                     {
-                        System.out.print("> ");
+                        game.getOut().print("> ");
                         try
                         {
-                            cardChoice = Integer.parseInt(scanner.nextLine().trim());
+                            cardChoice = Integer.parseInt(game.readLine().trim());
                         }
                         catch(NumberFormatException e)
                         {
-                            System.out.println("Invalid input");
+                            game.getOut().println("Invalid input");
                         }
                     }
 
                     if(cardChoice == 0)
                     {
-                        System.out.println("Museum action cancelled.");
+                        game.getOut().println("Museum action cancelled.");
                     }
                     else
                     {
                         DistrictCard selected = hand.remove(cardChoice - 1);
                         museum.storeCard(selected);
-                        System.out.println("You placed " + selected + " under the Museum.");
+                        game.getOut().println("You placed " + selected + " under the Museum.");
                     }
                 }
                 else
                 {
-                    System.out.println("Museum action skipped.");
+                    game.getOut().println("Museum action skipped.");
                 }
             }
         }
         
         //Perform default choice: gold / card
-        System.out.println("Collect 2 gold or draw two cards and pick one [gold/cards]:");
+        game.getOut().println("Collect 2 gold or draw two cards and pick one [gold/cards]:");
         String choice = "";
         boolean turnEnded = false;
         while(!(choice.equalsIgnoreCase("gold") || choice.equalsIgnoreCase("cards")))
         {
-            System.out.print("> ");
-            choice = scanner.nextLine().trim();
+            game.getOut().print("> ");
+            choice = game.readLine().trim();
             if(!(choice.equalsIgnoreCase("gold") || choice.equalsIgnoreCase("cards")))
-                System.out.println("Invalid input. Please enter gold or cards");
+                game.getOut().println("Invalid input. Please enter gold or cards");
         }
 
         if(choice.equalsIgnoreCase("gold"))
         {
             addGold(2);
-            System.out.println(name + " received two gold.");
+            game.getOut().println(name + " received two gold.");
         }
         else
         {
-            System.out.println(name + " chooses card.");
+            game.getOut().println(name + " chooses card.");
             if (game.getDistrictDeck().size() == 0) 
             {
-                System.out.println("Not enough cards in the deck. Proceed to add Gold");
+                game.getOut().println("Not enough cards in the deck. Proceed to add Gold");
                 addGold(2);
             }
             else if(game.getDistrictDeck().size() == 1)
             {
-                System.out.println("Only one card in the deck. Proceed to add card in hand");
+                game.getOut().println("Only one card in the deck. Proceed to add card in hand");
                 DistrictCard c = game.getDistrictDeck().draw();
                 drawCard(c);
             }
             else
             {
                 DistrictCard card1, card2, card3 = null;
-                DistrictCard observatory = getBuiltDistrict("Observatory");
-                DistrictCard library = getBuiltDistrict("Library");
+                DistrictCard observatory = getBuiltDistrict(DistrictCatalog.OBSERVATORY);
+                if(game.getDistrictDeck().size() < 3)
+                    observatory = null;     //the Observatory draws a third card only if the deck has one
+                DistrictCard library = getBuiltDistrict(DistrictCatalog.LIBRARY);
                 if(library != null && observatory != null)
                 {
-                    System.out.println("Observatory Action activated: " + name + " would draw 3 cards.");
-                    System.out.println("Library Action activated: " + name + " would keep all 3 cards.");
+                    game.getOut().println("Observatory Action activated: " + name + " would draw 3 cards.");
+                    game.getOut().println("Library Action activated: " + name + " would keep all 3 cards.");
                     card1 = game.getDistrictDeck().draw();
                     card2 = game.getDistrictDeck().draw();
                     card3 = game.getDistrictDeck().draw();
-                    System.out.println("Card added: " + card1 + ", " + card2 + ", " + card3);
+                    game.getOut().println("Card added: " + card1 + ", " + card2 + ", " + card3);
                     drawCard(card1);
                     drawCard(card2);
                     drawCard(card3);
                 }
                 else if(library != null)
                 {
-                    System.out.println("Library Action activated: " + name + " would keep all 2 cards.");
+                    game.getOut().println("Library Action activated: " + name + " would keep all 2 cards.");
                     card1 = game.getDistrictDeck().draw();
                     card2 = game.getDistrictDeck().draw();
-                    System.out.println("Card added: " + card1 + ", " + card2);
+                    game.getOut().println("Card added: " + card1 + ", " + card2);
                     drawCard(card1);
                     drawCard(card2);
                 }
@@ -565,28 +596,28 @@ public class HumanPlayer extends Player {
                     {
                         card1 = game.getDistrictDeck().draw();
                         card2 = game.getDistrictDeck().draw();
-                        System.out.println("Pick one of the following cards: 'collect card <option>'.");
-                        System.out.println("1. " + card1.getName() + " [" + card1.getColor() + "], cost: " + card1.getCost());
-                        System.out.println("2. " + card2.getName() + " [" + card2.getColor() + "], cost: " + card2.getCost());
+                        game.getOut().println("Pick one of the following cards: 'collect card <option>'.");
+                        game.getOut().println("1. " + card1.getName() + " [" + card1.getColor() + "], cost: " + card1.getCost());
+                        game.getOut().println("2. " + card2.getName() + " [" + card2.getColor() + "], cost: " + card2.getCost());
                     }
                     else
                     {
-                        System.out.println("Observatory Action activated: " + name + " would choose from 3 cards.");
+                        game.getOut().println("Observatory Action activated: " + name + " would choose from 3 cards.");
                         card1 = game.getDistrictDeck().draw();
                         card2 = game.getDistrictDeck().draw();
                         card3 = game.getDistrictDeck().draw();
-                        System.out.println("Pick one of the following cards: 'collect card <option>'.");
-                        System.out.println("1. " + card1.getName() + " [" + card1.getColor() + "], cost: " + card1.getCost());
-                        System.out.println("2. " + card2.getName() + " [" + card2.getColor() + "], cost: " + card2.getCost());
-                        System.out.println("3. " + card3.getName() + " [" + card3.getColor() + "], cost: " + card3.getCost());
+                        game.getOut().println("Pick one of the following cards: 'collect card <option>'.");
+                        game.getOut().println("1. " + card1.getName() + " [" + card1.getColor() + "], cost: " + card1.getCost());
+                        game.getOut().println("2. " + card2.getName() + " [" + card2.getColor() + "], cost: " + card2.getCost());
+                        game.getOut().println("3. " + card3.getName() + " [" + card3.getColor() + "], cost: " + card3.getCost());
                     }
                     DistrictCard selectedCard = null;
                     while(selectedCard == null)
                     {
-                        System.out.print("> ");
+                        game.getOut().print("> ");
                         try
                         {
-                            int option = Integer.parseInt(scanner.nextLine().trim().split(" ")[2]);
+                            int option = Integer.parseInt(game.readLine().trim().split(" ")[2]);
                             if(option == 1)
                                 selectedCard = card1;
                             else if(option == 2)
@@ -595,18 +626,18 @@ public class HumanPlayer extends Player {
                                 selectedCard = card3;
 
                             if(selectedCard == null)
-                                System.out.println("Invalid input number.");
+                                game.getOut().println("Invalid input number.");
                         }
                         catch(NumberFormatException e)
                         {
-                            System.out.println("Invalid input.");
+                            game.getOut().println("Invalid input.");
                         }
                         catch(ArrayIndexOutOfBoundsException e)
                         {
-                            System.out.println("Invalid input.");
+                            game.getOut().println("Invalid input.");
                         }
                     }
-                    System.out.println("You chose card " + selectedCard);
+                    game.getOut().println("You chose card " + selectedCard);
                     drawCard(selectedCard);
                     if(observatory!=null)
                     {
@@ -628,42 +659,42 @@ public class HumanPlayer extends Player {
         }
         while(!turnEnded)
         {
-            System.out.print("> ");
-            String input = scanner.nextLine().trim();
+            game.getOut().print("> ");
+            String input = game.readLine().trim();
             String[] parts = input.split(" ");
             String command = parts[0].toLowerCase();
 
             switch(command)
             {
                 case "t":
-                    System.out.println("Your turn.");
+                    game.getOut().println("Your turn.");
                     break;
 
                 case "hand":
-                    System.out.println("You have " + gold + " gold. Cards in hand:");
+                    game.getOut().println("You have " + gold + " gold. Cards in hand:");
                     for(int i=0; i<hand.size(); i++)
                     {
                         DistrictCard c = hand.get(i);
-                        System.out.println((i+1) + ". " + c.getName() + " (" + c.getColor() + "), cost: " + c.getCost());
+                        game.getOut().println((i+1) + ". " + c.getName() + " (" + c.getColor() + "), cost: " + c.getCost());
                     }
                     break;
 
                 case "gold":
-                    System.out.println("You have " + gold + " gold.");
+                    game.getOut().println("You have " + gold + " gold.");
                     break;
 
                 case "end":
-                    System.out.println("You end your turn.");
-                    DistrictCard poorHouse = getBuiltDistrict("Poor House");
+                    game.getOut().println("You end your turn.");
+                    DistrictCard poorHouse = getBuiltDistrict(DistrictCatalog.POOR_HOUSE);
                     if(poorHouse != null && gold == 0)
                     {
                         addGold(1);
-                        System.out.println("Poor House Activated: You received 1 gold for having 0 gold.");
+                        game.getOut().println("Poor House Activated: You received 1 gold for having 0 gold.");
                     }
-                    DistrictCard park = getBuiltDistrict("Park");
+                    DistrictCard park = getBuiltDistrict(DistrictCatalog.PARK);
                     if(park != null && hand.isEmpty())
                     {
-                        System.out.println("Park activated: You have no cards, drawing 2 from the district deck.");
+                        game.getOut().println("Park activated: You have no cards, drawing 2 from the district deck.");
                         drawCard(game.getDistrictDeck().draw());
                         drawCard(game.getDistrictDeck().draw());
                     }
@@ -675,13 +706,13 @@ public class HumanPlayer extends Player {
                     //Check whether player has built one or three(architect)
                     if (!canBuild()) 
                     {
-                        System.out.println("You have reached your build limit for this turn.");
+                        game.getOut().println("You have reached your build limit for this turn.");
                         break;
                     }
 
                     if(parts.length < 2)
                     {
-                        System.out.println("Invalid input.");
+                        game.getOut().println("Invalid input.");
                         break;
                     }
 
@@ -690,13 +721,13 @@ public class HumanPlayer extends Player {
                         int idx = Integer.parseInt(parts[1]) - 1;
                         if(idx < 0 || idx >= hand.size())
                         {
-                            System.out.println("Invalid card.");
+                            game.getOut().println("Invalid card.");
                             break;
                         }
                         DistrictCard builtCard = hand.get(idx);
                         if (!canBuildDuplicate(builtCard, game.getRound())) 
                         {
-                            System.out.println("You cannot build another copy of " + builtCard + ".");
+                            game.getOut().println("You cannot build another copy of " + builtCard + ".");
                             break;
                         }
                         else
@@ -704,7 +735,7 @@ public class HumanPlayer extends Player {
                             int buildCost = builtCard.getCost();
                             if(builtCard.getColor().equalsIgnoreCase("purple") && !builtCard.getName().equalsIgnoreCase("Factory"))
                             {
-                                DistrictCard factory = getBuiltDistrict("Factory");
+                                DistrictCard factory = getBuiltDistrict(DistrictCatalog.FACTORY);
                                 if(factory!=null)
                                 {
                                     buildCost -= 1;
@@ -716,7 +747,7 @@ public class HumanPlayer extends Player {
                             //Check whether gold is enough
                             if(gold < buildCost)
                             {
-                                System.out.println("Not enough gold.");
+                                game.getOut().println("Not enough gold.");
                                 break;
                             }
                             else
@@ -726,55 +757,54 @@ public class HumanPlayer extends Player {
                                 city.add(builtCard);
                                 builtCard.setBuiltRound(game.getRound());
                                 hand.remove(idx);
-                                System.out.println("Built " + builtCard.getName() + " [" + builtCard.getColor() + builtCard.getCost() + "]");
+                                game.getOut().println("Built " + builtCard.getName() + " [" + builtCard.getColor() + builtCard.getCost() + "]");
                                 
-                                if(builtCard.getName().equalsIgnoreCase("Lighthouse"))
+                                if(builtCard.getName().equalsIgnoreCase("Lighthouse") && !game.getDistrictDeck().isEmpty())
                                 {
-                                    System.out.println("Lighthouse built! You may choose one card from the district deck.");
-                                    List<DistrictCard> all = game.getDistrictDeck().getAllCards();
+                                    game.getOut().println("Lighthouse built! You may choose one card from the district deck.");
+                                    List<DistrictCard> all = game.getDistrictDeck().view();
                                     for(int i=0; i<all.size(); i++)
                                     {
                                         DistrictCard c = all.get(i);
-                                        System.out.println((i+1) + ". " + c);
+                                        game.getOut().println((i+1) + ". " + c);
                                     }
-                                    System.out.println("Choose a card to take into your hand.");
+                                    game.getOut().println("Choose a card to take into your hand.");
 
                                     int pick = -1;
                                     while(pick<1 || pick>all.size())
                                     {
-                                        System.out.print("> ");
+                                        game.getOut().print("> ");
                                         try
                                         {
-                                            pick = Integer.parseInt(scanner.nextLine().trim());
+                                            pick = Integer.parseInt(game.readLine().trim());
                                         }
                                         catch(NumberFormatException e)
                                         {
-                                            System.out.println("Invalid input. Please input a number.");
+                                            game.getOut().println("Invalid input. Please input a number.");
                                         }
                                     }
 
-                                    DistrictCard chosen = all.get(pick-1);
+                                    DistrictCard chosen = game.getDistrictDeck().remove(pick-1);
                                     drawCard(chosen);
-                                    System.out.println("You added " + chosen + " to your hand.");
+                                    game.getOut().println("You added " + chosen + " to your hand.");
 
-                                    game.getDistrictDeck().getAllCards().remove(chosen);
-                                    game.getDistrictDeck().shuffle();
+                                    game.getDistrictDeck().shuffle(game.getRandom());
                                 }
 
                                 if(builtCard.getName().equalsIgnoreCase("Bell Tower"))
                                 {
-                                    System.out.println("Bell Tower built! Do you want the game to end at 7 districts instead of 8? [1 for Yes / 2 for No]");
+                                    game.getOut().println("Bell Tower built! Do you want the game to end at 7 districts instead of 8? [1 for Yes / 2 for No]");
                                     int bellChoice = -1;
                                     while(bellChoice!=1 && bellChoice!=2)
                                     {
-                                        System.out.print("> ");
+                                        game.getOut().print("> ");
                                         try
                                         {
-                                            bellChoice = Integer.parseInt(scanner.nextLine().trim());
+                                            bellChoice = Integer.parseInt(game.readLine().trim());
                                         }
                                         catch(NumberFormatException e)
                                         {
-                                            System.out.println("Invalid input. Please input a number.");
+                                            game.getOut().println("Invalid input. Please input a number.");
                                         }
                                     }
                                     if(bellChoice == 1)
@@ -783,7 +813,7 @@ public class HumanPlayer extends Player {
                                     }
                                     else
                                     {
-                                        System.out.println("Bell Tower effect not activated.");
+                                        game.getOut().println("Bell Tower effect not activated.");
                                     }
                                 }
                                 increaseBuildCount();
@@ -801,7 +831,7 @@ public class HumanPlayer extends Player {
                     }
                     catch(NumberFormatException e)
                     {
-                        System.out.println("Invalid number.");
+                        game.getOut().println("Invalid number.");
                     }
                     break;
 
@@ -816,7 +846,7 @@ public class HumanPlayer extends Player {
                             playerID = Integer.parseInt(parts[1]);
                         }
                         catch(NumberFormatException e) {
-                            System.out.println("Invalid input. Please enter a number at the back");
+                            game.getOut().println("Invalid input. Please enter a number at the back");
                         }
                     }
                     Player target = null;
@@ -830,15 +860,15 @@ public class HumanPlayer extends Player {
                     }
                     if(target != null)
                     {
-                        System.out.println("Player " + playerID + " has built:");
+                        game.getOut().println("Player " + playerID + " has built:");
                         for(DistrictCard c : target.getCity())
                         {
-                            System.out.println(c.getName() + " (" + c.getColor() + "), points: " + c.getCost());
+                            game.getOut().println(c.getName() + " (" + c.getColor() + "), points: " + c.getCost());
                         }
                     }
                     else
                     {
-                        System.out.println("Player not found.");
+                        game.getOut().println("Player not found.");
                     }
                     break;
 
@@ -855,16 +885,16 @@ public class HumanPlayer extends Player {
                                 DistrictCard card = hand.get(idx);
                                 if(card.getColor().equals("purple"))
                                 {
-                                    System.out.println("Ability of " + card.getName() + ": " + card.getAbility());
+                                    game.getOut().println("Ability of " + card.getName() + ": " + card.getAbility());
                                 }
                                 else
                                 {
-                                    System.out.println(card.getName() + " has no special ability.");
+                                    game.getOut().println(card.getName() + " has no special ability.");
                                 }
                             }
                             else
                             {
-                                System.out.println("Invalid card position.");
+                                game.getOut().println("Invalid card position.");
                             }
                         }
                         //info for character
@@ -882,11 +912,11 @@ public class HumanPlayer extends Player {
                             }
                             if(found!=null)
                             {
-                                System.out.println(found.getName() + ": " + found.getAbility());
+                                game.getOut().println(found.getName() + ": " + found.getAbility());
                             }
                             else
                             {
-                                System.out.println("Character not found.");
+                                game.getOut().println("Character not found.");
                             }
                         }
                     }
@@ -899,7 +929,7 @@ public class HumanPlayer extends Player {
                         String you = "";
                         if(p.getId()==1)
                             you = " (you)";
-                        System.out.println(p.getName() + you + ": cards=" + p.getHand().size() + " gold=" + p.getGold() + " city=" + citySummary(p.getCity()) + "\n");
+                        game.getOut().println(p.getName() + you + ": cards=" + p.getHand().size() + " gold=" + p.getGold() + " city=" + citySummary(p.getCity()) + "\n");
                     }
                     break;
 
@@ -908,20 +938,20 @@ public class HumanPlayer extends Player {
                     break;
 
                 case "help":
-                    System.out.println("Available commands:\n");
-                    System.out.println("info: show information about a character or building");
-                    System.out.println("all : shows all current game info");
-                    System.out.println("citadel/list/city : shows districts built by a player");
-                    System.out.println("hand : shows cards in hand");
-                    System.out.println("gold [p] : shows gold of a player");
-                    System.out.println("build <place in hand> : Builds a building into your city");
-                    System.out.println("action : Gives info about your special action");
-                    System.out.println("debug: Toggle debug mode");
-                    System.out.println("end : Ends your turn");
+                    game.getOut().println("Available commands:\n");
+                    game.getOut().println("info: show information about a character or building");
+                    game.getOut().println("all : shows all current game info");
+                    game.getOut().println("citadel/list/city : shows districts built by a player");
+                    game.getOut().println("hand : shows cards in hand");
+                    game.getOut().println("gold [p] : shows gold of a player");
+                    game.getOut().println("build <place in hand> : Builds a building into your city");
+                    game.getOut().println("action : Gives info about your special action");
+                    game.getOut().println("debug: Toggle debug mode");
+                    game.getOut().println("end : Ends your turn");
                     break;
 
                 default:
-                    System.out.println("Invalid input. Enter help to find all commands.");
+                    game.getOut().println("Invalid input. Enter help to find all commands.");
             }
         }
 
@@ -0,0 +1,698 @@
+package citadels;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * AI player that chooses its character, and whether to collect gold or draw cards,
+ * with Information Set Monte Carlo Tree Search.
+ * <p>
+ * Each iteration samples a determinization of what the player cannot see: the other
+ * players' hands and the deck order are shuffled together and dealt back, and the
+ * characters of the other players that are still hidden are dealt at random from the
+ * ones that could be held. One of the options is then picked by UCB1 and played out in
+ * a fork of the game, where every seat is played by the plain AIPlayer rules, for the
+ * rest of the round and a few more rounds. A rollout scores 1 for a win and 0 for a loss
+ * if the game ends, otherwise the lead over the best other player in live score.
+ * The option played most often is chosen when the iteration or time budget runs out.
+ * <p>
+ * The search tree covers the player's own decision; the moves after it are played
+ * by the AIPlayer rules in each rollout. All other decisions use the AIPlayer rules.
+ * <p>
+ * The search can use several threads. With ROOT parallelism every thread searches its own tree with its share of the budget and
+ * the trees are merged by adding their visit counts; a seeded game without a time budget
+ * still plays the same way every time. With TREE parallelism the threads share one tree
+ * whose statistics are atomic counters. A thread counts a virtual loss on the option it
+ * plays out until its rollout returns, so the other threads explore other options meanwhile.
+ * The threads are started by the first search that uses them and kept for the next ones
+ * until the player is closed. Each thread forks the game once per decision and resets its
+ * fork to the live game before every rollout, reusing its players, lists and cards.
+ */
+public class ISMCTSPlayer extends AIPlayer implements AutoCloseable {
+
+    /**
+     * How the threads of a search share the work
+     */
+    public enum Parallelism
+    {
+        /** Independent trees merged by visit count */
+        ROOT,
+        /** One shared tree with virtual loss */
+        TREE
+    }
+
+    /**
+     * The default number of rollouts per decision
+     */
+    public static final int DEFAULT_ITERATIONS = 400;
+
+    /**
+     * The default number of rounds played after the current one in each rollout
+     */
+    public static final int DEFAULT_ROLLOUT_ROUNDS = 2;
+
+    /**
+     * The UCB1 exploration constant, for rewards between 0 and 1
+     */
+    private static final double EXPLORATION = 0.7;
+
+    /**
+     * The score lead worth about three quarters of a win in a rollout that does not reach the end
+     */
+    private static final double SCORE_SCALE = 4.0;
+
+    /**
+     * The visits without reward counted on an option while a thread plays it out, in a shared tree
+     */
+    private static final int VIRTUAL_LOSS = 1;
+
+    /**
+     * The fixed-point scale of the rewards of a shared tree, so they add up in atomic longs
+     */
+    private static final double REWARD_SCALE = 1 << 24;
+
+    /**
+     * The maximum number of rollouts per decision
+     */
+    private int iterations;
+
+    /**
+     * The maximum time spent per decision in nanoseconds, or 0 for no limit
+     */
+    private long timeBudgetNanos;
+
+    /**
+     * The number of rounds played after the current one in each rollout
+     */
+    private int rolloutRounds;
+
+    /**
+     * The number of threads searching each decision
+     */
+    private int threads = 1;
+
+    /**
+     * How the threads share the work
+     */
+    private Parallelism parallelism = Parallelism.ROOT;
+
+    /**
+     * The threads of the search, or null until a search needs them
+     */
+    private ExecutorService pool;
+
+    /**
+     * The number of rollouts played so far, over all decisions
+     */
+    private long playouts;
+
+    /**
+     * Constructor for a searching AI player with the default budget
+     * @param id id of the player
+     * @param name name of the player
+     */
+    public ISMCTSPlayer(int id, String name)
+    {
+        this(id, name, DEFAULT_ITERATIONS, 0, DEFAULT_ROLLOUT_ROUNDS);
+    }
+
+    /**
+     * Constructor for a searching AI player, requires the budget of each decision.
+     * The search stops at whichever limit is reached first.
+     * @param id id of the player
+     * @param name name of the player
+     * @param iterations maximum number of rollouts per decision
+     * @param timeBudgetMillis maximum time per decision in milliseconds, or 0 for no limit
+     * @param rolloutRounds number of rounds played after the current one in each rollout
+     */
+    public ISMCTSPlayer(int id, String name, int iterations, long timeBudgetMillis, int rolloutRounds)
+    {
+        super(id, name);
+        if(iterations < 1)
+        {
+            throw new IllegalArgumentException("Iterations must be at least 1: " + iterations);
+        }
+        if(timeBudgetMillis < 0 || rolloutRounds < 0)
+        {
+            throw new IllegalArgumentException("Time budget and rollout rounds cannot be negative");
+        }
+        this.iterations = iterations;
+        this.timeBudgetNanos = timeBudgetMillis * 1_000_000L;
+        this.rolloutRounds = rolloutRounds;
+    }
+
+    /**
+     * Creates a copy of the player with the same budget, its own hand and city
+     *
+     * @return a copy of the player
+     */
+    public ISMCTSPlayer copy()
+    {
+        ISMCTSPlayer p = new ISMCTSPlayer(id, name, iterations, timeBudgetNanos / 1_000_000L, rolloutRounds);
+        p.setThreads(threads, parallelism);
+        p.setWeights(getWeights());
+        copyStateTo(p);
+        return p;
+    }
+
+    /**
+     * Get the number of rollouts played so far, over all decisions
+     * @return number of rollouts
+     */
+    public long getPlayouts()
+    {
+        return playouts;
+    }
+
+    /**
+     * Sets the number of threads searching each decision
+     * @param threads number of threads, 1 to search on the game thread
+     * @param parallelism how the threads share the work
+     */
+    public void setThreads(int threads, Parallelism parallelism)
+    {
+        if(threads < 1)
+        {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        if(threads != this.threads)
+            close();
+        this.threads = threads;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Stops the threads of the search. A later search starts them again.
+     */
+    @Override
+    public void close()
+    {
+        if(pool != null)
+        {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    /**
+     * Get the number of threads searching each decision
+     * @return number of threads
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Get how the threads of a search share the work
+     * @return the parallelism
+     */
+    public Parallelism getParallelism()
+    {
+        return parallelism;
+    }
+
+    /**
+     * Chooses the character whose rollouts win most often.
+     *
+     * @param game the current game instance
+     * @param availableCharacters list of available characters to choose from
+     * @return the chosen character
+     */
+    public CharacterCard chooseCharacter(Game game, List<CharacterCard> availableCharacters)
+    {
+        int seat = game.getPlayers().indexOf(this);
+        if(seat < 0 || availableCharacters.size() < 2)
+            return super.chooseCharacter(game, availableCharacters);
+
+        GameRandom random = game.getRandom().split();
+        int best = search(game, availableCharacters.size(), (sim, option, r) -> rolloutCharacter(game, sim, seat, availableCharacters, option, r), random);
+        return availableCharacters.get(best);
+    }
+
+    /**
+     * Chooses between gold and cards by the rollouts that win most often.
+     *
+     * @param game the current game instance
+     * @return true to collect gold, false to draw cards
+     */
+    protected boolean chooseGold(Game game)
+    {
+        int seat = game.getPlayers().indexOf(this);
+        if(seat < 0 || game.getDistrictDeck().isEmpty())
+            return super.chooseGold(game);
+
+        GameRandom random = game.getRandom().split();
+        return search(game, 2, (sim, option, r) -> rolloutResources(game, sim, seat, option == 0, r), random) == 0;
+    }
+
+    /**
+     * Plays out one option of a decision
+     */
+    private interface Rollout
+    {
+        /**
+         * Plays out an option in a new determinization
+         * @param sim the fork of the live game the thread plays its rollouts in
+         * @param option index of the option
+         * @param random the random number generator of the thread
+         * @return the reward of the rollout [0-1]
+         */
+        double play(Game sim, int option, GameRandom random);
+    }
+
+    /**
+     * The statistics of the options of a decision
+     */
+    private static final class Statistics
+    {
+        /** Number of rollouts of each option */
+        private final int[] visits;
+        /** Total reward of each option */
+        private final double[] rewards;
+        /** Number of rollouts played */
+        private int played;
+
+        /**
+         * Constructor for the statistics of a decision no option of which was played out
+         * @param options number of options
+         */
+        private Statistics(int options)
+        {
+            visits = new int[options];
+            rewards = new double[options];
+        }
+
+        /**
+         * Adds the statistics of another tree of the same decision
+         * @param other the statistics of the other tree
+         */
+        private void merge(Statistics other)
+        {
+            for(int option=0; option<visits.length; option++)
+            {
+                visits[option] += other.visits[option];
+                rewards[option] += other.rewards[option];
+            }
+            played += other.played;
+        }
+
+        /**
+         * Picks the option played most often, the best reward breaking ties
+         * @return the index of the option
+         */
+        private int mostVisited()
+        {
+            int best = 0;
+            for(int option=1; option<visits.length; option++)
+            {
+                if(visits[option] > visits[best] || (visits[option] == visits[best] && rewards[option] > rewards[best]))
+                    best = option;
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Runs UCB1 over the options until the budget runs out, on the threads of the search.
+     * Each thread forks the live game once and resets its fork for every rollout.
+     * @param live the live game
+     * @param options number of options
+     * @param rollout plays out one option in a new determinization and returns its reward [0-1]
+     * @param random the random number generator of the search
+     * @return the option played most often
+     */
+    private int search(Game live, int options, Rollout rollout, GameRandom random)
+    {
+        Statistics stats = new Statistics(options);
+        long deadline = timeBudgetNanos > 0 ? System.nanoTime() + timeBudgetNanos : Long.MAX_VALUE;
+
+        if(threads == 1)
+            searchTree(rollout, live.fork(0), random, iterations, deadline, stats);
+        else if(parallelism == Parallelism.ROOT)
+            searchRoots(live, rollout, random, deadline, stats);
+        else
+            searchSharedTree(live, rollout, random, deadline, stats);
+        playouts += stats.played;
+        return stats.mostVisited();
+    }
+
+    /**
+     * Runs UCB1 over the options of one tree on the calling thread
+     * @param rollout plays out one option
+     * @param sim the fork of the live game the rollouts are played in
+     * @param random the random number generator of the thread
+     * @param budget maximum number of rollouts
+     * @param deadline System.nanoTime() after which no rollout starts once every option was tried
+     * @param stats the statistics of the tree, updated
+     */
+    private static void searchTree(Rollout rollout, Game sim, GameRandom random, int budget, long deadline, Statistics stats)
+    {
+        int options = stats.visits.length;
+        for(int i=0; i<budget && (i < options || System.nanoTime() < deadline); i++)
+        {
+            int option = i < options ? i : selectUCB(stats.visits, stats.rewards, i);
+            stats.rewards[option] += rollout.play(sim, option, random);
+            stats.visits[option]++;
+            stats.played++;
+        }
+    }
+
+    /**
+     * Searches one tree per thread, each with its share of the rollouts, and adds up their statistics
+     * @param live the live game
+     * @param rollout plays out one option
+     * @param random the random number generator of the search, split for each thread
+     * @param deadline System.nanoTime() after which no rollout starts once every option was tried
+     * @param stats the statistics of the decision, filled with the merged trees
+     */
+    private void searchRoots(Game live, Rollout rollout, GameRandom random, long deadline, Statistics stats)
+    {
+        int options = stats.visits.length;
+        List<Callable<Statistics>> tasks = new ArrayList<>();
+        for(int t=0; t<threads; t++)
+        {
+            int share = iterations / threads + (t < iterations % threads ? 1 : 0);
+            GameRandom r = random.split();
+            tasks.add(() -> {
+                Statistics tree = new Statistics(options);
+                searchTree(rollout, live.fork(0), r, share, deadline, tree);
+                return tree;
+            });
+        }
+        for(Statistics tree : runAll(tasks))
+        {
+            stats.merge(tree);
+        }
+    }
+
+    /**
+     * Searches one tree shared by every thread. Its statistics are atomic, and a thread counts
+     * a virtual loss on the option it plays out until the rollout returns.
+     * @param live the live game
+     * @param rollout plays out one option
+     * @param random the random number generator of the search, split for each thread
+     * @param deadline System.nanoTime() after which no rollout starts once every option was tried
+     * @param stats the statistics of the decision, filled with the shared tree
+     */
+    private void searchSharedTree(Game live, Rollout rollout, GameRandom random, long deadline, Statistics stats)
+    {
+        int options = stats.visits.length;
+        AtomicIntegerArray visits = new AtomicIntegerArray(options);
+        AtomicLongArray rewards = new AtomicLongArray(options);
+        AtomicInteger started = new AtomicInteger();
+        List<Callable<Statistics>> tasks = new ArrayList<>();
+        for(int t=0; t<threads; t++)
+        {
+            GameRandom r = random.split();
+            tasks.add(() -> {
+                // a snapshot of the shared tree for UCB1, and the rollouts of this thread
+                Statistics view = new Statistics(options);
+                Game sim = live.fork(0);
+                while(true)
+                {
+                    int i = started.getAndIncrement();
+                    if(i >= iterations || (i >= options && System.nanoTime() >= deadline))
+                        break;
+                    int option = i;
+                    if(i >= options)
+                    {
+                        int total = 0;
+                        for(int o=0; o<options; o++)
+                        {
+                            view.visits[o] = visits.get(o);
+                            view.rewards[o] = rewards.get(o) / REWARD_SCALE;
+                            total += view.visits[o];
+                        }
+                        option = selectUCB(view.visits, view.rewards, Math.max(total, 1));
+                    }
+                    visits.addAndGet(option, VIRTUAL_LOSS);
+                    double reward = rollout.play(sim, option, r);
+                    rewards.addAndGet(option, Math.round(reward * REWARD_SCALE));
+                    visits.addAndGet(option, 1 - VIRTUAL_LOSS);
+                    view.played++;
+                }
+                return view;
+            });
+        }
+        for(Statistics view : runAll(tasks))
+        {
+            stats.played += view.played;
+        }
+        for(int option=0; option<options; option++)
+        {
+            stats.visits[option] = visits.get(option);
+            stats.rewards[option] = rewards.get(option) / REWARD_SCALE;
+        }
+    }
+
+    /**
+     * Runs the tasks of a search on the threads of the player and waits for all of them
+     * @param tasks the tasks, one per thread
+     * @return the results of the tasks, in order
+     */
+    private List<Statistics> runAll(List<Callable<Statistics>> tasks)
+    {
+        if(pool == null)
+        {
+            pool = Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "ISMCTS " + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        try
+        {
+            List<Statistics> results = new ArrayList<>();
+            for(Future<Statistics> f : pool.invokeAll(tasks))
+            {
+                results.add(f.get());
+            }
+            return results;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Search interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new RuntimeException("Search rollout failed", e.getCause());
+        }
+    }
+
+    /**
+     * Picks the option with the highest upper confidence bound, or an option never played out
+     * @param visits number of rollouts of each option
+     * @param rewards total reward of each option
+     * @param total total number of rollouts
+     * @return the option to play next
+     */
+    private static int selectUCB(int[] visits, double[] rewards, int total)
+    {
+        double logTotal = Math.log(total);
+        int best = 0;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for(int option=0; option<visits.length; option++)
+        {
+            if(visits[option] == 0)
+                return option;
+            double value = rewards[option] / visits[option] + EXPLORATION * Math.sqrt(logTotal / visits[option]);
+            if(value > bestValue)
+            {
+                best = option;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Plays out one character choice in a new determinization: the players who already chose
+     * get the characters this player has not seen, the players after it choose by the AIPlayer rules.
+     * @param live the live game
+     * @param sim the fork of the live game to play in, reset first
+     * @param seat seat of this player
+     * @param available the characters this player can choose from
+     * @param option index of the character tried
+     * @param random the random number generator of the search
+     * @return the reward of the rollout [0-1]
+     */
+    private double rolloutCharacter(Game live, Game sim, int seat, List<CharacterCard> available, int option, GameRandom random)
+    {
+        sim.resetTo(live, random.nextLong());
+        shuffleHiddenCards(sim, seat, random);
+
+        List<Player> players = sim.getPlayers();
+        int[] order = live.getSelectionOrder();
+        int position = 0;
+        while(order[position] != seat)
+            position++;
+
+        // characters taken before this player, together with the face-down one
+        List<CharacterCard> unseen = CharacterCard.getCharacters();
+        unseen.removeIf(c -> containsOrder(available, c.getOrder()) || containsOrder(live.facedUp, c.getOrder()));
+        Collections.shuffle(unseen, random);
+        for(int i=0; i<position && i<unseen.size(); i++)
+        {
+            players.get(order[i]).setCharacter(unseen.get(i));
+        }
+
+        // the later players are offered what is left, as in the selection phase
+        int[] seen = sim.getSeenCharacters();
+        if(seen.length != players.size())
+        {
+            seen = new int[players.size()];
+            sim.setSeenCharacters(seen);
+        }
+        seen[seat] = CharacterCard.mask(available);
+        List<CharacterCard> left = new ArrayList<>(available);
+        CharacterCard chosen = left.remove(option);
+        assignCharacter(sim, players.get(seat), chosen);
+        for(int i=position+1; i<order.length; i++)
+        {
+            Player p = players.get(order[i]);
+            seen[order[i]] = CharacterCard.mask(left);
+            CharacterCard c = p.chooseCharacter(sim, new ArrayList<>(left));
+            left.remove(c);
+            assignCharacter(sim, p, c);
+        }
+
+        sim.turnPhase();
+        sim.endRound();
+        return playOut(sim, seat);
+    }
+
+    /**
+     * Plays out the choice between gold and cards in a new determinization, where the players
+     * whose characters have not been called yet get the characters that could still be theirs.
+     * @param live the live game
+     * @param sim the fork of the live game to play in, reset first
+     * @param seat seat of this player
+     * @param takeGold true to collect gold, false to draw cards
+     * @param random the random number generator of the search
+     * @return the reward of the rollout [0-1]
+     */
+    private double rolloutResources(Game live, Game sim, int seat, boolean takeGold, GameRandom random)
+    {
+        sim.resetTo(live, random.nextLong());
+        shuffleHiddenCards(sim, seat, random);
+
+        int myOrder = getCharacter().getOrder();
+        List<CharacterCard> unseen = CharacterCard.getCharacters();
+        unseen.removeIf(c -> c.getOrder() <= myOrder || containsOrder(live.facedUp, c.getOrder()));
+        Collections.shuffle(unseen, random);
+        int next = 0;
+        for(Player p : sim.getPlayers())
+        {
+            if(p != sim.getPlayers().get(seat) && p.getCharacter().getOrder() > myOrder && next < unseen.size())
+                p.setCharacter(unseen.get(next++));
+        }
+
+        AIPlayer me = (AIPlayer) sim.getPlayers().get(seat);
+        if(takeGold)
+            me.addGold(2);
+        else
+            me.takeCards(sim);
+        me.finishTurn(sim);
+
+        sim.turnPhase(myOrder + 1);
+        sim.endRound();
+        return playOut(sim, seat);
+    }
+
+    /**
+     * Plays the rollout rounds, or up to the end of the game, and scores the result
+     * @param sim the forked game, between two rounds
+     * @param seat seat of this player
+     * @return 1 or 0 for a win or a loss if the game ended, otherwise a reward for the lead in live score
+     */
+    private double playOut(Game sim, int seat)
+    {
+        for(int r=0; r<rolloutRounds && !sim.shouldEndGame(); r++)
+        {
+            sim.nextRound();
+        }
+
+        Player me = sim.getPlayers().get(seat);
+        if(sim.shouldEndGame())
+            return sim.gameScore() == me ? 1.0 : 0.0;
+
+        int mine = sim.getLiveScore(me);
+        int best = Integer.MIN_VALUE;
+        for(Player p : sim.getPlayers())
+        {
+            if(p != me)
+                best = Math.max(best, sim.getLiveScore(p));
+        }
+        return 1.0 / (1.0 + Math.exp((best - mine) / SCORE_SCALE));
+    }
+
+    /**
+     * Deals the other players' hands and the deck again from the same cards in a random order
+     * @param sim the forked game
+     * @param seat seat of this player, whose hand is known
+     * @param random the random number generator of the search
+     */
+    private static void shuffleHiddenCards(Game sim, int seat, Random random)
+    {
+        List<Player> players = sim.getPlayers();
+        Deck<DistrictCard> deck = sim.getDistrictDeck();
+        List<DistrictCard> pool = new ArrayList<>(deck.size() + 4 * players.size());
+        for(int i=0; i<players.size(); i++)
+        {
+            if(i != seat)
+                pool.addAll(players.get(i).getHand());
+        }
+        while(!deck.isEmpty())
+        {
+            pool.add(deck.draw());
+        }
+        Collections.shuffle(pool, random);
+
+        int next = 0;
+        for(int i=0; i<players.size(); i++)
+        {
+            if(i == seat)
+                continue;
+            List<DistrictCard> hand = players.get(i).getHand();
+            int size = hand.size();
+            hand.clear();
+            for(int k=0; k<size; k++)
+            {
+                hand.add(pool.get(next++));
+            }
+        }
+        deck.addAll(pool.subList(next, pool.size()));
+    }
+
+    /**
+     * Gives a character to a player of a forked game, moving the crown with the King
+     * @param sim the forked game
+     * @param p the player
+     * @param c the character
+     */
+    private static void assignCharacter(Game sim, Player p, CharacterCard c)
+    {
+        p.setCharacter(c);
+        if(c.getName().equalsIgnoreCase("King"))
+            sim.setCrownedPlayer(p);
+    }
+
+    /**
+     * Checks whether a list holds a character of the given order
+     * @param characters list of characters
+     * @param order order of the character
+     * @return whether the character is in the list
+     */
+    private static boolean containsOrder(List<CharacterCard> characters, int order)
+    {
+        for(CharacterCard c : characters)
+        {
+            if(c.getOrder() == order)
+                return true;
+        }
+        return false;
+    }
+}
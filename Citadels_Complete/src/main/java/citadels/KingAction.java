@@ -15,20 +15,13 @@ public class KingAction implements Actionable{
     public void performAction(Game game, Player player)
     {
         if(game.crownedChange)
-            System.out.println(game.throneRoomHolder.getName() + " received 1 gold from Throne Room (Crown ownership changed)");
-        int yellowCount = 0;
-        for(DistrictCard c : player.getCity())
-        {
-            if(c.getColor().equalsIgnoreCase("yellow") || c.getName().equalsIgnoreCase("School of Magic"))
-            {
-                yellowCount ++;
-            }
-        }
+            game.log(() -> game.throneRoomHolder.getName() + " received 1 gold from Throne Room (Crown ownership changed)");
+        int yellowCount = player.getIncomeDistricts(DistrictType.YELLOW);
 
         if(yellowCount>0)
         {
             player.addGold(yellowCount);
-            System.out.println(player.getName() + " gains " + yellowCount + " gold for yellow districts.");
+            game.log(() -> player.getName() + " gains " + yellowCount + " gold for yellow districts.");
         }
         
     }
@@ -36,64 +36,63 @@ public class MagicianAction implements Actionable{
      */
     private void humanAction(Game game, Player player)
     {
-        Scanner scanner = new Scanner(System.in);
 
-        System.out.println("Your current hand:");
+        game.getOut().println("Your current hand:");
         List<DistrictCard> hand = player.getHand();
         if(hand.isEmpty())
-            System.out.println(" (No cards)");
+            game.getOut().println(" (No cards)");
         else
         {
             for(int i=0; i<hand.size(); i++)
             {
                 DistrictCard c = hand.get(i);
-                System.out.println(" " + (i+1) + ". " + c );
+                game.getOut().println(" " + (i+1) + ". " + c );
             }
         }
 
-        System.out.println();
-        System.out.println("Other players and their hand sizes:");
+        game.getOut().println();
+        game.getOut().println("Other players and their hand sizes:");
         for(Player p : game.getPlayers())
         {
             if(p != player)
             {
-                System.out.println(" " + p.getName() + ": " + p.getHand().size() + " cards");
+                game.getOut().println(" " + p.getName() + ": " + p.getHand().size() + " cards");
             }
         }
 
-        System.out.println("Choose an action:");
-        System.out.println("1. Swap hands with another player");
-        System.out.println("2. Discard any number of cards and draw new ones");
+        game.getOut().println("Choose an action:");
+        game.getOut().println("1. Swap hands with another player");
+        game.getOut().println("2. Discard any number of cards and draw new ones");
 
         int choice = -1;
         while(choice != 1 && choice != 2)
         {
-            System.out.print("> ");
+            game.getOut().print("> ");
             try
             {
-                choice = Integer.parseInt(scanner.nextLine().trim());
+                choice = Integer.parseInt(game.readLine().trim());
             }
             catch(NumberFormatException e)
             {
-                System.out.println("Invalid input. Choose 1 or 2.");
+                game.getOut().println("Invalid input. Choose 1 or 2.");
             }
         }
 
         
         if(choice == 1)
         {
-            System.out.println("Which player do you want to swap hands with?");
+            game.getOut().println("Which player do you want to swap hands with?");
             int targetID = 1;
             while(targetID < 1 || targetID > game.getPlayers().size() || targetID == player.getId())
             {
-                System.out.print("> ");
+                game.getOut().print("> ");
                 try
                 {
-                    targetID = Integer.parseInt(scanner.nextLine().trim());
+                    targetID = Integer.parseInt(game.readLine().trim());
                 }
                 catch(NumberFormatException e)
                 {
-                    System.out.println("Invalid player ID.");
+                    game.getOut().println("Invalid player ID.");
                 }
             }
 
@@ -111,7 +110,7 @@ public class MagicianAction implements Actionable{
                 List<DistrictCard> tempHand = player.getHand();
                 player.setHand(target.getHand());
                 target.setHand(tempHand);
-                System.out.println("Swapped hands with " + target.getName() + ".");
+                game.getOut().println("Swapped hands with " + target.getName() + ".");
             }
         }
 
@@ -119,16 +118,16 @@ public class MagicianAction implements Actionable{
         {
             if(hand.isEmpty())
             {
-                System.out.println("No cards to discard.");
+                game.getOut().println("No cards to discard.");
                 return;
             }
-            System.out.println("Select the positions of cards you want to discard, separated by spaces (or 0 to cancel action):");
+            game.getOut().println("Select the positions of cards you want to discard, separated by spaces (or 0 to cancel action):");
             for(int i=0; i<hand.size(); i++)
             {
-                System.out.println((i+1) + ". " + hand.get(i));
+                game.getOut().println((i+1) + ". " + hand.get(i));
             }
-            System.out.print("> ");
-            String[] discardCard = scanner.nextLine().trim().split(" ");
+            game.getOut().print("> ");
+            String[] discardCard = game.readLine().trim().split(" ");
             int discardCount = 0;
 
             
@@ -144,7 +143,7 @@ public class MagicianAction implements Actionable{
                     }
                 }
                 catch(NumberFormatException e){
-                    System.out.println("Invalid input. Please enter a number.");
+                    game.getOut().println("Invalid input. Please enter a number.");
                 }
             }
 
@@ -163,7 +162,7 @@ public class MagicianAction implements Actionable{
                 player.drawCard(game.getDistrictDeck().draw());
             }
 
-            System.out.println("You discarded " + discardCount + " card(s) and drew " + discardCount + " new card(s).");
+            game.getOut().println("You discarded " + discardCount + " card(s) and drew " + discardCount + " new card(s).");
         }
 
     }
@@ -171,7 +170,7 @@ public class MagicianAction implements Actionable{
     /**
      * Executes the Magician's swapping ability for a AI player.
      * If AI hand is bad, would swap hand with the player with most cards in hand
-     * If AI hand is not bad, would discard cards that have cost smaller than 3 (bad cards)
+     * If AI hand is not bad, would discard cards that have cost smaller than 3 (MAGICIAN_KEEP_COST of the AIWeights, bad cards)
      *
      * @param game   the current game state
      * @param player the Human player performing the action
@@ -194,37 +193,36 @@ public class MagicianAction implements Actionable{
             }
 
             if(largest == player.getHand().size())
-                System.out.println(player.getName() + " chose not to use Magician Ability.");
+            {
+                game.log(() -> player.getName() + " chose not to use Magician Ability.");
+            }
             else
             {
+                Player swapped = target;
                 List<DistrictCard> tempHand = player.getHand();
-                player.setHand(target.getHand());
-                target.setHand(tempHand);
+                player.setHand(swapped.getHand());
+                swapped.setHand(tempHand);
 
-                System.out.println(player.getName() + " swapped hands with " + target.getName() + ".");
+                game.log(() -> player.getName() + " swapped hands with " + swapped.getName() + ".");
             }
         }
         else
         {
-            int discardCount = 0;
             List<DistrictCard> hand = player.getHand();
             List<DistrictCard> newHand = new ArrayList<>();
 
             for(DistrictCard c : hand)
             {
-                if(c.getCost() >= 3)
+                if(c.getCost() >= AIWeights.of(player).get(AIWeights.MAGICIAN_KEEP_COST))
                 {
                     newHand.add(c);
                 }
-                else
-                {
-                    discardCount ++;
-                }
             }
+            int discardCount = hand.size() - newHand.size();
 
             if(discardCount == 0)
             {
-                System.out.println(player.getName() + " chose not to use Magician Ability.");
+                game.log(() -> player.getName() + " chose not to use Magician Ability.");
             }
             else
             {
@@ -234,14 +232,14 @@ public class MagicianAction implements Actionable{
                     player.drawCard(game.getDistrictDeck().draw());
                 }
 
-                System.out.println(player.getName() + " discarded " + discardCount + " card(s) and drew " + discardCount + " new card(s).");
+                game.log(() -> player.getName() + " discarded " + discardCount + " card(s) and drew " + discardCount + " new card(s).");
             }  
         }
     }
 
     /**
      * Determine whether the hand of the player is bad or not
-     * If the size of hand is less or equal than 2, and does not consist of a purple card, the hand is bad
+     * If the size of hand is less or equal than 2 (MAGICIAN_BAD_HAND of the AIWeights), and does not consist of a purple card, the hand is bad
      * @param player the Magician player
      * @return whether the hand is bad or not
      */
@@ -251,7 +249,7 @@ public class MagicianAction implements Actionable{
         if(hand.isEmpty())
             return true;
 
-        if(hand.size() <= 2)
+        if(hand.size() <= AIWeights.of(player).get(AIWeights.MAGICIAN_BAD_HAND))
         {
             for(DistrictCard c : hand)
             {
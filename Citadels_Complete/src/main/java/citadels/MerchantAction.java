@@ -14,23 +14,16 @@ public class MerchantAction implements Actionable{
      */
     public void performAction(Game game, Player player)
     {
-        int greenCount = 0;
-        for(DistrictCard c : player.getCity())
-        {
-            if(c.getColor().equalsIgnoreCase("green") || c.getName().equalsIgnoreCase("School of Magic"))
-            {
-                greenCount ++;
-            }
-        }
+        int greenCount = player.getIncomeDistricts(DistrictType.GREEN);
 
         int bonus = greenCount + 1;
         player.addGold(bonus);
 
         if(greenCount > 0)
         {
-            System.out.println(player.getName() + " gains " + greenCount + " gold from green districts.");
+            game.log(() -> player.getName() + " gains " + greenCount + " gold from green districts.");
         }
-        System.out.println(player.getName() + " collected 1 extra gold from merchant action.");
+        game.log(() -> player.getName() + " collected 1 extra gold from merchant action.");
     }
     
 }
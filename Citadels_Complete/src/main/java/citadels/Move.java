@@ -0,0 +1,316 @@
+package citadels;
+
+/**
+ * One decision of a player, as generated by GameState.legalMoves() and played by GameState.apply().
+ * <p>
+ * A move is a type and up to two numbers, whose meaning depends on the type: the order of a
+ * character, the index of a card in the hand, the deck or the cards drawn, a seat (index in
+ * the player list) or a set of hand indexes. Indexes refer to the state the move was generated
+ * in. Moves are immutable and compare by value, the moves without numbers are shared.
+ */
+public final class Move {
+
+    /**
+     * The kinds of decision
+     */
+    public enum Type
+    {
+        /** Choose a character in the selection phase, a = order */
+        PICK,
+        /** Assassin kills a character, a = order */
+        KILL,
+        /** Thief steals from a character, a = order */
+        STEAL,
+        /** Magician swaps hands with another player, a = seat */
+        SWAP_HANDS,
+        /** Magician discards cards and draws as many, a = bit set of hand indexes */
+        DISCARD,
+        /** Warlord destroys a district, a = seat, b = index in the city */
+        DESTROY,
+        /** The owner of a destroyed district pays 1 gold to take it back with the Graveyard */
+        RECOVER,
+        /** Pass on an optional character ability or on the Graveyard */
+        SKIP,
+        /** Collect 2 gold */
+        GOLD,
+        /** Draw cards */
+        CARDS,
+        /** Keep one of the cards drawn, a = index in the cards drawn */
+        KEEP,
+        /** Build a district, a = index in the hand */
+        BUILD,
+        /** Laboratory: discard a card for 1 gold, a = index in the hand */
+        LABORATORY,
+        /** Smithy: pay 2 gold to draw 3 cards */
+        SMITHY,
+        /** Armory: destroy it to destroy a district, a = seat, b = index in the city */
+        ARMORY,
+        /** Museum: place a card under it, a = index in the hand */
+        MUSEUM,
+        /** Lighthouse: take a card of the deck after building it, a = index in the deck */
+        LIGHTHOUSE,
+        /** End the turn */
+        END_TURN
+    }
+
+    private static final Move RECOVER = new Move(Type.RECOVER, 0, 0);
+    private static final Move SKIP = new Move(Type.SKIP, 0, 0);
+    private static final Move GOLD = new Move(Type.GOLD, 0, 0);
+    private static final Move CARDS = new Move(Type.CARDS, 0, 0);
+    private static final Move SMITHY = new Move(Type.SMITHY, 0, 0);
+    private static final Move END_TURN = new Move(Type.END_TURN, 0, 0);
+
+    /**
+     * The kind of decision
+     */
+    private final Type type;
+
+    /**
+     * The first number of the move
+     */
+    private final int a;
+
+    /**
+     * The second number of the move
+     */
+    private final int b;
+
+    /**
+     * Constructor for a move, see the factory methods
+     * @param type the kind of decision
+     * @param a the first number
+     * @param b the second number
+     */
+    private Move(Type type, int a, int b)
+    {
+        this.type = type;
+        this.a = a;
+        this.b = b;
+    }
+
+    /**
+     * @param order order of the character [1-8]
+     * @return the move choosing the character
+     */
+    public static Move pick(int order)
+    {
+        return new Move(Type.PICK, order, 0);
+    }
+
+    /**
+     * @param order order of the character [2-8]
+     * @return the move killing the character
+     */
+    public static Move kill(int order)
+    {
+        return new Move(Type.KILL, order, 0);
+    }
+
+    /**
+     * @param order order of the character [3-8]
+     * @return the move stealing from the character
+     */
+    public static Move steal(int order)
+    {
+        return new Move(Type.STEAL, order, 0);
+    }
+
+    /**
+     * @param seat seat of the other player
+     * @return the move swapping hands with the player
+     */
+    public static Move swapHands(int seat)
+    {
+        return new Move(Type.SWAP_HANDS, seat, 0);
+    }
+
+    /**
+     * @param cards bit set of the indexes in the hand of the cards discarded, bit i for card i
+     * @return the move discarding the cards
+     */
+    public static Move discard(int cards)
+    {
+        return new Move(Type.DISCARD, cards, 0);
+    }
+
+    /**
+     * @param seat seat of the owner of the district
+     * @param index index of the district in the city
+     * @return the move destroying the district with the Warlord
+     */
+    public static Move destroy(int seat, int index)
+    {
+        return new Move(Type.DESTROY, seat, index);
+    }
+
+    /**
+     * @return the move taking back a destroyed district with the Graveyard
+     */
+    public static Move recover()
+    {
+        return RECOVER;
+    }
+
+    /**
+     * @return the move passing on an optional ability
+     */
+    public static Move skip()
+    {
+        return SKIP;
+    }
+
+    /**
+     * @return the move collecting 2 gold
+     */
+    public static Move gold()
+    {
+        return GOLD;
+    }
+
+    /**
+     * @return the move drawing cards
+     */
+    public static Move cards()
+    {
+        return CARDS;
+    }
+
+    /**
+     * @param index index of the card in the cards drawn
+     * @return the move keeping the card
+     */
+    public static Move keep(int index)
+    {
+        return new Move(Type.KEEP, index, 0);
+    }
+
+    /**
+     * @param index index of the card in the hand
+     * @return the move building the card
+     */
+    public static Move build(int index)
+    {
+        return new Move(Type.BUILD, index, 0);
+    }
+
+    /**
+     * @param index index of the card in the hand
+     * @return the move discarding the card with the Laboratory
+     */
+    public static Move laboratory(int index)
+    {
+        return new Move(Type.LABORATORY, index, 0);
+    }
+
+    /**
+     * @return the move drawing 3 cards with the Smithy
+     */
+    public static Move smithy()
+    {
+        return SMITHY;
+    }
+
+    /**
+     * @param seat seat of the owner of the district
+     * @param index index of the district in the city
+     * @return the move destroying the district with the Armory
+     */
+    public static Move armory(int seat, int index)
+    {
+        return new Move(Type.ARMORY, seat, index);
+    }
+
+    /**
+     * @param index index of the card in the hand
+     * @return the move placing the card under the Museum
+     */
+    public static Move museum(int index)
+    {
+        return new Move(Type.MUSEUM, index, 0);
+    }
+
+    /**
+     * @param index index of the card in the deck
+     * @return the move taking the card with the Lighthouse
+     */
+    public static Move lighthouse(int index)
+    {
+        return new Move(Type.LIGHTHOUSE, index, 0);
+    }
+
+    /**
+     * @return the move ending the turn
+     */
+    public static Move endTurn()
+    {
+        return END_TURN;
+    }
+
+    /**
+     * Get the kind of decision
+     * @return the type of the move
+     */
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * Get the first number of the move: an order, an index, a seat or a bit set of indexes
+     * @return the first number
+     */
+    public int getA()
+    {
+        return a;
+    }
+
+    /**
+     * Get the second number of the move: the index in a city of DESTROY and ARMORY
+     * @return the second number
+     */
+    public int getB()
+    {
+        return b;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if(!(o instanceof Move))
+            return false;
+        Move m = (Move) o;
+        return type == m.type && a == m.a && b == m.b;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return (type.ordinal() * 31 + a) * 31 + b;
+    }
+
+    /**
+     * Return a short description of the move, such as "BUILD 2" or "DESTROY 1 0"
+     * @return the description
+     */
+    @Override
+    public String toString()
+    {
+        switch(type)
+        {
+            case DESTROY:
+            case ARMORY:
+                return type + " " + a + " " + b;
+            case DISCARD:
+                return type + " " + Integer.toBinaryString(a);
+            case RECOVER:
+            case SKIP:
+            case GOLD:
+            case CARDS:
+            case SMITHY:
+            case END_TURN:
+                return type.toString();
+            default:
+                return type + " " + a;
+        }
+    }
+}
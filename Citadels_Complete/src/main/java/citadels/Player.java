@@ -10,6 +10,10 @@ import java.util.*;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
 /**
  * Model for a player
  */
@@ -31,9 +35,9 @@ public abstract class Player {
      */
     protected List<DistrictCard> hand;
     /**
-     * List of District Cards in the player's city
+     * District Cards in the player's city
      */
-    protected List<DistrictCard> city;
+    protected City city;
     /**
      * The character of the player
      */
@@ -68,7 +72,7 @@ public abstract class Player {
         this.name = name;
         this.gold = 0;
         this.hand = new ArrayList<>();
-        this.city = new ArrayList<>();
+        this.city = new City();
     }
 
     /**
@@ -79,6 +83,78 @@ public abstract class Player {
      */
     public abstract CharacterCard chooseCharacter(List<CharacterCard> availableCharacters);
 
+    /**
+     * Player chooses a character from a list during a game's selection phase.
+     * Any random choice draws from the game's random number generator.
+     * By default this is the same as chooseCharacter(availableCharacters).
+     * 
+     * @param game the current game instance
+     * @param availableCharacters list of available characters to choose from
+     * @return the chosen character
+     */
+    public CharacterCard chooseCharacter(Game game, List<CharacterCard> availableCharacters)
+    {
+        return chooseCharacter(availableCharacters);
+    }
+
+    /**
+     * Creates a copy of the player, with its own hand and city, for look-ahead in a copied game.
+     * Must be implemented by subclasses, usually with copyStateTo.
+     * 
+     * @return a copy of the player
+     */
+    public abstract Player copy();
+
+    /**
+     * Copies the gold, hand, city, character and turn state of this player to another player.
+     * Each district card is copied, character cards are shared.
+     * 
+     * @param p the player to copy to
+     */
+    protected void copyStateTo(Player p)
+    {
+        p.gold = gold;
+        p.hand = new ArrayList<>(hand.size() + 4);
+        for(DistrictCard c : hand)
+        {
+            p.hand.add(c.copy());
+        }
+        p.city = city.copy();
+        p.character = character;
+        p.killed = killed;
+        p.buildLimit = buildLimit;
+        p.builtThisTurn = builtThisTurn;
+        p.score = score;
+    }
+
+    /**
+     * Copies the gold, hand, city, character and turn state of this player to its player in
+     * a fork being reset, reusing the hand and city of that player and the fork's copy of
+     * each district card, see Game.resetTo().
+     *
+     * @param p the player of the fork in the same seat
+     * @param fork the fork being reset
+     */
+    protected void copyStateTo(Player p, Game fork)
+    {
+        p.gold = gold;
+        p.hand.clear();
+        for(int i=0; i<hand.size(); i++)
+        {
+            p.hand.add(fork.twin(hand.get(i)));
+        }
+        p.city.clear();
+        for(int i=0; i<city.size(); i++)
+        {
+            p.city.add(fork.twin(city.get(i)));
+        }
+        p.character = character;
+        p.killed = killed;
+        p.buildLimit = buildLimit;
+        p.builtThisTurn = builtThisTurn;
+        p.score = score;
+    }
+
     /**
      * The main turn method for the player. Subclass-specific.
      * 
@@ -100,6 +176,14 @@ public abstract class Player {
      */
     public abstract JSONObject toJson();
 
+    /**
+     * Writes the player as a JSON object straight to a stream, in the same form as toJson().
+     *
+     * @param out the JSON writer
+     * @throws IOException if writing fails
+     */
+    public abstract void writeJson(JsonWriter out) throws IOException;
+
     /**
      * Converts JSONObject to a player for loading
      * @param obj JSONObject saved
@@ -114,6 +198,50 @@ public abstract class Player {
         }
     }
 
+    /**
+     * Reads a player written by writeJson() straight from a stream,
+     * as a HumanPlayer or an AIPlayer by its type
+     * @param in the JSON reader, before the player's object
+     * @return player object
+     * @throws IOException if reading fails or the JSON is not a player
+     */
+    public static Player readJson(JsonReader in) throws IOException {
+        String type = null;
+        int id = 0;
+        String name = null;
+        int gold = 0;
+        List<DistrictCard> hand = Collections.emptyList();
+        List<DistrictCard> city = Collections.emptyList();
+        CharacterCard character = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "type": type = in.nextString(); break;
+                case "id": id = in.nextInt(); break;
+                case "name": name = in.nextString(); break;
+                case "gold": gold = in.nextInt(); break;
+                case "hand": hand = readCardList(in); break;
+                case "city": city = readCardList(in); break;
+                case "character":
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        character = CharacterCard.readJson(in);
+                    }
+                    break;
+                default: in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Player p = "HumanPlayer".equals(type) ? new HumanPlayer(id, name) : new AIPlayer(id, name);
+        p.setGold(gold);
+        p.getHand().addAll(hand);
+        p.getCity().addAll(city);
+        p.setCharacter(character);
+        return p;
+    }
+
     /**
      * Converts list of district cards to a JSONArray for saving
      * @param list of District Cards
@@ -127,6 +255,36 @@ public abstract class Player {
         return array;
     }
 
+    /**
+     * Writes a list of district cards as a JSON array straight to a stream
+     * @param out the JSON writer
+     * @param list of District Cards
+     * @throws IOException if writing fails
+     */
+    public static void writeCardList(JsonWriter out, List<DistrictCard> list) throws IOException {
+        out.beginArray();
+        for (DistrictCard c : list) {
+            c.writeJson(out);
+        }
+        out.endArray();
+    }
+
+    /**
+     * Reads a list of district cards written by writeCardList() straight from a stream
+     * @param in the JSON reader, before the array
+     * @return list of District Cards saved
+     * @throws IOException if reading fails or the JSON is not a list of district cards
+     */
+    public static List<DistrictCard> readCardList(JsonReader in) throws IOException {
+        List<DistrictCard> list = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            list.add(DistrictCard.readJson(in));
+        }
+        in.endArray();
+        return list;
+    }
+
     /**
      * Converts JSONArray to a list of district cards for loading
      * @param array JSONArray saved
@@ -207,7 +365,7 @@ public abstract class Player {
      * Gets the player's city (built district cards). 
      * @return list of built district cards
      */
-    public List<DistrictCard> getCity()
+    public City getCity()
     {
         return city;
     }
@@ -342,6 +500,8 @@ public abstract class Player {
      */
     public void drawCard(DistrictCard card)
     {
+        if(card == null)
+            return;
         hand.add(card);
     }
 
@@ -371,6 +531,9 @@ public abstract class Player {
      */
     public DistrictCard getBuiltDistrict(String districtName)
     {
+        int typeId = DistrictCatalog.idOf(districtName);
+        if(typeId >= 0)
+            return city.getBuilt(typeId);
         for(DistrictCard c : city)
         {
             if(c.getName().equalsIgnoreCase(districtName))
@@ -381,6 +544,29 @@ public abstract class Player {
         return null;
     }
 
+    /**
+     * Returns the first district of a type built in the city, or null if none is built.
+     * 
+     * @param typeId id of the district type in the catalog, such as DistrictCatalog.MUSEUM
+     * @return the matching DistrictCard or null
+     */
+    public DistrictCard getBuiltDistrict(int typeId)
+    {
+        return city.getBuilt(typeId);
+    }
+
+    /**
+     * Get the number of districts in the city paying income for a color,
+     * the districts of that color plus any School of Magic
+     * 
+     * @param colorIndex index of the color, such as DistrictType.YELLOW
+     * @return the number of districts
+     */
+    public int getIncomeDistricts(int colorIndex)
+    {
+        return city.getIncomeCount(colorIndex);
+    }
+
     /**
      * Checks if a player can build a duplicate district, considering the Quarry effect.
      * 
@@ -391,11 +577,18 @@ public abstract class Player {
     public boolean canBuildDuplicate(DistrictCard card, int currentRound)
     {
         int count = 0;
-        for(DistrictCard c : city)
+        if(card.getTypeId() >= 0)
+        {
+            count = city.count(card.getTypeId());
+        }
+        else
         {
-            if(c.getName().equalsIgnoreCase(card.getName()))
+            for(DistrictCard c : city)
             {
-                count ++;
+                if(c.getName().equalsIgnoreCase(card.getName()))
+                {
+                    count ++;
+                }
             }
         }
 
@@ -404,7 +597,7 @@ public abstract class Player {
         if(count>=2)
             return false;
         
-        DistrictCard quarry = getBuiltDistrict("Quarry");
+        DistrictCard quarry = getBuiltDistrict(DistrictCatalog.QUARRY);
         return quarry != null && quarry.getBuiltRound() != currentRound;
     }
     
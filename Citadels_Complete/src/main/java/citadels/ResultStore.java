@@ -0,0 +1,306 @@
+package citadels;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Column-oriented store of simulated game results, appended to by the batch simulator.
+ * <p>
+ * The store is a directory holding one file per column. Every column has a fixed width,
+ * so row i of a column is at a fixed offset and a query only reads the columns it needs.
+ * The columns are the seed, the seat count, the rounds played, the winner seat, the
+ * character picked by each seat in each round (two per byte, the first MAX_ROUNDS rounds),
+ * the final score of each seat and one column per part of the score breakdown. Each file
+ * starts with a header: "CITC", the version and the width of a row.
+ * <p>
+ * Rows are buffered and written to every column in batches. A store opened again drops a
+ * row that was only partly written, so a batch killed in the middle can be appended to.
+ * ResultTable reads a store through memory-mapped files.
+ */
+public class ResultStore implements Closeable {
+
+    /**
+     * The first bytes of every column file, "CITC"
+     */
+    public static final int MAGIC = 0x43495443;
+
+    /**
+     * The version of the format written by this class
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * The number of rounds whose characters are kept, the characters of later rounds are dropped
+     */
+    public static final int MAX_ROUNDS = 32;
+
+    /**
+     * The largest table stored
+     */
+    public static final int MAX_SEATS = SimulationStats.MAX_SEATS;
+
+    /**
+     * The size of the header of a column file
+     */
+    static final int HEADER = 8;
+
+    /**
+     * The bytes holding the characters of one round, two seats per byte
+     */
+    static final int ROUND_BYTES = (MAX_SEATS + 1) / 2;
+
+    /**
+     * The columns, by index
+     */
+    static final int SEED = 0;
+    static final int SEATS = 1;
+    static final int ROUNDS = 2;
+    static final int WINNER = 3;
+    static final int CHARACTERS = 4;
+    static final int SCORE = 5;
+    static final int FIRST_PART = 6;
+
+    /**
+     * The names of the column files, without their extension
+     */
+    static final String[] COLUMNS = {"seed", "seats", "rounds", "winner", "characters", "score",
+            "base", "color", "completion", "museum", "treasury", "mapRoom", "wishingWell"};
+
+    /**
+     * The width of a row of each column, in bytes
+     */
+    static final int[] WIDTHS = {8, 1, 2, 1, MAX_ROUNDS * ROUND_BYTES, 2 * MAX_SEATS,
+            2 * MAX_SEATS, 2 * MAX_SEATS, 2 * MAX_SEATS, 2 * MAX_SEATS, 2 * MAX_SEATS, 2 * MAX_SEATS, 2 * MAX_SEATS};
+
+    /**
+     * The number of rows buffered before they are written
+     */
+    private static final int BATCH_ROWS = 4096;
+
+    /**
+     * The directory of the store
+     */
+    private final File directory;
+
+    /**
+     * The channel appending to each column file
+     */
+    private final FileChannel[] channels = new FileChannel[COLUMNS.length];
+
+    /**
+     * The rows of each column not written yet
+     */
+    private final ByteBuffer[] buffers = new ByteBuffer[COLUMNS.length];
+
+    /**
+     * The number of rows in the store, written or buffered
+     */
+    private long rows;
+
+    /**
+     * Opens a store to append to, creating it if the directory holds none
+     * @param directory the directory of the store, created if missing
+     * @throws IOException if the store cannot be opened or a file is not a column of a store
+     */
+    public ResultStore(File directory) throws IOException
+    {
+        if(!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create result store: " + directory);
+        }
+        this.directory = directory;
+        try
+        {
+            long complete = Long.MAX_VALUE;
+            for(int c=0; c<COLUMNS.length; c++)
+            {
+                File file = columnFile(directory, c);
+                channels[c] = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                if(channels[c].size() == 0)
+                {
+                    ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+                    header.putInt(MAGIC).putShort((short) VERSION).putShort((short) WIDTHS[c]).flip();
+                    channels[c].write(header, 0);
+                }
+                complete = Math.min(complete, readRows(channels[c], file, c));
+                buffers[c] = ByteBuffer.allocate(WIDTHS[c] * BATCH_ROWS).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            for(int c=0; c<COLUMNS.length; c++)
+            {
+                channels[c].truncate(HEADER + complete * WIDTHS[c]);
+                channels[c].position(HEADER + complete * WIDTHS[c]);
+            }
+            rows = complete;
+        }
+        catch (IOException e)
+        {
+            closeChannels();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the file of a column of a store
+     * @param directory the directory of the store
+     * @param column index of the column
+     * @return the column file
+     */
+    static File columnFile(File directory, int column)
+    {
+        return new File(directory, COLUMNS[column] + ".col");
+    }
+
+    /**
+     * Checks the header of a column file and counts its complete rows
+     * @param channel the channel reading the file
+     * @param file the column file, for error messages
+     * @param column index of the column
+     * @return the number of complete rows in the file
+     * @throws IOException if the file is not this column of a store
+     */
+    static long readRows(FileChannel channel, File file, int column) throws IOException
+    {
+        ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(header, 0);
+        header.flip();
+        if(header.remaining() < HEADER || header.getInt() != MAGIC)
+        {
+            throw new IOException("Not a result store column: " + file);
+        }
+        int version = header.getShort();
+        if(version != VERSION)
+        {
+            throw new IOException("Unsupported result store version: " + version);
+        }
+        if(header.getShort() != WIDTHS[column])
+        {
+            throw new IOException("Unexpected row width in " + file);
+        }
+        return (channel.size() - HEADER) / WIDTHS[column];
+    }
+
+    /**
+     * Get the directory of the store
+     * @return the directory
+     */
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Get the number of rows in the store, including the rows not written yet
+     * @return the number of games stored
+     */
+    public synchronized long size()
+    {
+        return rows;
+    }
+
+    /**
+     * Appends the result of a game. Safe to call from several simulation threads.
+     * @param result the result of a scored game
+     * @throws IOException if a batch of rows cannot be written
+     */
+    public synchronized void append(GameResult result) throws IOException
+    {
+        if(channels[SEED] == null)
+        {
+            throw new IOException("Result store is closed: " + directory);
+        }
+        if(!buffers[SEED].hasRemaining())
+        {
+            flush();
+        }
+        int seats = result.getPlayerCount();
+        buffers[SEED].putLong(result.getSeed());
+        buffers[SEATS].put((byte) seats);
+        buffers[ROUNDS].putShort((short) result.getRounds());
+        buffers[WINNER].put((byte) result.getWinnerSeat());
+
+        ByteBuffer characters = buffers[CHARACTERS];
+        int[][] picks = result.getCharacterPicks();
+        for(int round=0; round<MAX_ROUNDS; round++)
+        {
+            for(int i=0; i<ROUND_BYTES; i++)
+            {
+                int low = 2 * i < seats && round < picks.length ? picks[round][2 * i] : 0;
+                int high = 2 * i + 1 < seats && round < picks.length ? picks[round][2 * i + 1] : 0;
+                characters.put((byte) (low | high << 4));
+            }
+        }
+
+        int[] scores = result.getScores();
+        ScoreBreakdown[] breakdowns = result.getScoreBreakdowns();
+        for(int seat=0; seat<MAX_SEATS; seat++)
+        {
+            buffers[SCORE].putShort((short) (seat < seats ? scores[seat] : 0));
+            for(int part=0; part<ScoreBreakdown.PARTS.length; part++)
+            {
+                int points = seat < seats && breakdowns != null ? breakdowns[seat].getPart(part) : 0;
+                buffers[FIRST_PART + part].putShort((short) points);
+            }
+        }
+        rows++;
+    }
+
+    /**
+     * Writes the buffered rows to the column files
+     * @throws IOException if writing fails
+     */
+    public synchronized void flush() throws IOException
+    {
+        for(int c=0; c<COLUMNS.length; c++)
+        {
+            ByteBuffer buffer = buffers[c];
+            buffer.flip();
+            while(buffer.hasRemaining())
+            {
+                channels[c].write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes the buffered rows and closes the column files
+     * @throws IOException if writing fails
+     */
+    public synchronized void close() throws IOException
+    {
+        if(channels[SEED] == null)
+            return;
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            closeChannels();
+        }
+    }
+
+    /**
+     * Closes every open column file, ignoring errors
+     */
+    private void closeChannels()
+    {
+        for(int c=0; c<COLUMNS.length; c++)
+        {
+            if(channels[c] == null)
+                continue;
+            try
+            {
+                channels[c].close();
+            }
+            catch (IOException e)
+            {
+                // nothing more to write
+            }
+            channels[c] = null;
+        }
+    }
+}
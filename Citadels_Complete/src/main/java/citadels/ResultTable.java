@@ -0,0 +1,283 @@
+package citadels;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.LongStream;
+
+/**
+ * Read-only view of a ResultStore through memory-mapped files.
+ * <p>
+ * Every column file is mapped in chunks of up to 1GB, so a store of any size is read
+ * without copying it to the heap and the operating system caches the columns a query
+ * touches. Reads only use absolute positions, so any number of threads can query a table
+ * at once; stats() scans parts of the table in parallel. The table holds the rows stored
+ * when it was opened.
+ */
+public class ResultTable {
+
+    /**
+     * The largest chunk of a column file mapped at once
+     */
+    private static final long CHUNK_BYTES = 1L << 30;
+
+    /**
+     * The number of rows scanned by one task of a parallel query
+     */
+    private static final long SCAN_ROWS = 1L << 20;
+
+    /**
+     * The number of rows in the table
+     */
+    private final long size;
+
+    /**
+     * The mapped chunks of each column
+     */
+    private final ByteBuffer[][] chunks = new ByteBuffer[ResultStore.COLUMNS.length][];
+
+    /**
+     * The number of rows in a chunk of each column
+     */
+    private final long[] chunkRows = new long[ResultStore.COLUMNS.length];
+
+    /**
+     * Opens the rows of a store
+     * @param directory the directory of the store
+     * @throws IOException if a column cannot be read or is not a column of a store
+     */
+    public ResultTable(File directory) throws IOException
+    {
+        FileChannel[] channels = new FileChannel[ResultStore.COLUMNS.length];
+        try
+        {
+            long rows = Long.MAX_VALUE;
+            for(int c=0; c<channels.length; c++)
+            {
+                File file = ResultStore.columnFile(directory, c);
+                if(!file.isFile())
+                {
+                    throw new FileNotFoundException("Missing result store column: " + file);
+                }
+                channels[c] = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                rows = Math.min(rows, ResultStore.readRows(channels[c], file, c));
+            }
+            size = rows;
+            for(int c=0; c<channels.length; c++)
+            {
+                int width = ResultStore.WIDTHS[c];
+                chunkRows[c] = CHUNK_BYTES / width;
+                chunks[c] = new ByteBuffer[(int) ((size + chunkRows[c] - 1) / chunkRows[c])];
+                for(int i=0; i<chunks[c].length; i++)
+                {
+                    long first = i * chunkRows[c];
+                    long count = Math.min(chunkRows[c], size - first);
+                    chunks[c][i] = channels[c].map(FileChannel.MapMode.READ_ONLY, ResultStore.HEADER + first * width, count * width)
+                                              .order(ByteOrder.LITTLE_ENDIAN);
+                }
+            }
+        }
+        finally
+        {
+            // a mapping stays valid once its channel is closed
+            for(FileChannel channel : channels)
+            {
+                if(channel != null)
+                    channel.close();
+            }
+        }
+    }
+
+    /**
+     * Get the number of games in the table
+     * @return the number of rows
+     */
+    public long size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the seed a game was played from
+     * @param row index of the game
+     * @return the seed
+     */
+    public long getSeed(long row)
+    {
+        return chunk(ResultStore.SEED, row).getLong(offset(ResultStore.SEED, row));
+    }
+
+    /**
+     * Get the number of players at the table of a game
+     * @param row index of the game
+     * @return the seat count
+     */
+    public int getSeats(long row)
+    {
+        return chunk(ResultStore.SEATS, row).get(offset(ResultStore.SEATS, row));
+    }
+
+    /**
+     * Get the number of rounds a game took
+     * @param row index of the game
+     * @return the rounds played
+     */
+    public int getRounds(long row)
+    {
+        return chunk(ResultStore.ROUNDS, row).getShort(offset(ResultStore.ROUNDS, row));
+    }
+
+    /**
+     * Get the seat of the winner of a game
+     * @param row index of the game
+     * @return the winner seat
+     */
+    public int getWinner(long row)
+    {
+        return chunk(ResultStore.WINNER, row).get(offset(ResultStore.WINNER, row));
+    }
+
+    /**
+     * Get the character a seat picked in a round of a game
+     * @param row index of the game
+     * @param round index of the round, from 0
+     * @param seat index of the seat
+     * @return the order of the character [1-8], or 0 if the round was not played or not kept
+     */
+    public int getCharacter(long row, int round, int seat)
+    {
+        if(round >= ResultStore.MAX_ROUNDS)
+            return 0;
+        int b = chunk(ResultStore.CHARACTERS, row).get(offset(ResultStore.CHARACTERS, row) + round * ResultStore.ROUND_BYTES + seat / 2);
+        return (b >> (seat % 2) * 4) & 0xF;
+    }
+
+    /**
+     * Get the final score of a seat in a game
+     * @param row index of the game
+     * @param seat index of the seat
+     * @return the score
+     */
+    public int getScore(long row, int seat)
+    {
+        return chunk(ResultStore.SCORE, row).getShort(offset(ResultStore.SCORE, row) + 2 * seat);
+    }
+
+    /**
+     * Get one part of the final score of a seat in a game
+     * @param row index of the game
+     * @param part index of the part in ScoreBreakdown.PARTS
+     * @param seat index of the seat
+     * @return the points of that part
+     */
+    public int getScorePart(long row, int part, int seat)
+    {
+        int column = ResultStore.FIRST_PART + part;
+        return chunk(column, row).getShort(offset(column, row) + 2 * seat);
+    }
+
+    /**
+     * Rebuilds the result of a game, with the characters of the rounds kept
+     * @param row index of the game
+     * @return the result
+     */
+    public GameResult get(long row)
+    {
+        int seats = getSeats(row);
+        int rounds = getRounds(row);
+        int[] scores = new int[seats];
+        ScoreBreakdown[] breakdowns = new ScoreBreakdown[seats];
+        int[] parts = new int[ScoreBreakdown.PARTS.length];
+        for(int seat=0; seat<seats; seat++)
+        {
+            scores[seat] = getScore(row, seat);
+            for(int part=0; part<parts.length; part++)
+            {
+                parts[part] = getScorePart(row, part, seat);
+            }
+            breakdowns[seat] = ScoreBreakdown.ofParts(parts);
+        }
+        int[][] picks = new int[Math.min(rounds, ResultStore.MAX_ROUNDS)][seats];
+        for(int round=0; round<picks.length; round++)
+        {
+            for(int seat=0; seat<seats; seat++)
+            {
+                picks[round][seat] = getCharacter(row, round, seat);
+            }
+        }
+        return new GameResult(getSeed(row), seats, getWinner(row), scores, rounds, picks, breakdowns);
+    }
+
+    /**
+     * Aggregates every game of the table, scanning parts of it in parallel.
+     * The final-round character of a game longer than MAX_ROUNDS is the last one kept.
+     * @return the statistics of the games, without a time
+     */
+    public SimulationStats stats()
+    {
+        long parts = (size + SCAN_ROWS - 1) / SCAN_ROWS;
+        return LongStream.range(0, parts).parallel()
+                         .mapToObj(part -> stats(part * SCAN_ROWS, Math.min(size, (part + 1) * SCAN_ROWS)))
+                         .reduce((a, b) -> { a.merge(b); return a; })
+                         .orElseGet(SimulationStats::new);
+    }
+
+    /**
+     * Aggregates a range of games of the table
+     * @param from index of the first game
+     * @param to index after the last game
+     * @return the statistics of the games, without a time
+     */
+    public SimulationStats stats(long from, long to)
+    {
+        SimulationStats stats = new SimulationStats();
+        for(long row=from; row<to; row++)
+        {
+            int seats = getSeats(row);
+            int rounds = getRounds(row);
+            int winner = getWinner(row);
+            stats.addGame(rounds, winner);
+            for(int seat=0; seat<seats; seat++)
+            {
+                stats.addScore(seat, getScore(row, seat));
+            }
+            int kept = Math.min(rounds, ResultStore.MAX_ROUNDS);
+            for(int round=0; round<kept; round++)
+            {
+                for(int seat=0; seat<seats; seat++)
+                {
+                    stats.addPick(getCharacter(row, round, seat), round == kept - 1 && seat == winner);
+                }
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Get the mapped chunk holding a row of a column
+     * @param column index of the column
+     * @param row index of the row
+     * @return the chunk
+     */
+    private ByteBuffer chunk(int column, long row)
+    {
+        if(row < 0 || row >= size)
+        {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        }
+        return chunks[column][(int) (row / chunkRows[column])];
+    }
+
+    /**
+     * Get the position of a row of a column in its chunk
+     * @param column index of the column
+     * @param row index of the row
+     * @return the position in the chunk
+     */
+    private int offset(int column, long row)
+    {
+        return (int) (row % chunkRows[column]) * ResultStore.WIDTHS[column];
+    }
+}
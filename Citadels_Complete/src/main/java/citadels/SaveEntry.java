@@ -0,0 +1,142 @@
+package citadels;
+
+import java.util.*;
+
+/**
+ * Summary of one saved game in a SaveLibrary: enough to list, filter and pick
+ * saves without reading the saves themselves.
+ */
+public class SaveEntry {
+
+    private final String name;
+    private final long size;
+    private final long lastModified;
+    private final int round;
+    private final List<String> playerNames;
+    private final int[] scores;
+
+    /**
+     * Constructor for an entry
+     * @param name name of the save, its file name in the library
+     * @param size size of the save file in bytes
+     * @param lastModified time the save file was last written, in milliseconds since the epoch
+     * @param round round the saved game is at
+     * @param playerNames names of the players, in seat order
+     * @param scores live scores of the players, in seat order
+     */
+    public SaveEntry(String name, long size, long lastModified, int round, List<String> playerNames, int[] scores)
+    {
+        this.name = name;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.round = round;
+        this.playerNames = Collections.unmodifiableList(new ArrayList<>(playerNames));
+        this.scores = scores.clone();
+    }
+
+    /**
+     * Creates the entry of a game
+     * @param name name of the save
+     * @param size size of the save file in bytes
+     * @param lastModified time the save file was last written
+     * @param game the saved game
+     * @return the entry
+     */
+    public static SaveEntry of(String name, long size, long lastModified, Game game)
+    {
+        List<Player> players = game.getPlayers();
+        List<String> names = new ArrayList<>(players.size());
+        int[] scores = new int[players.size()];
+        for(int i=0; i<players.size(); i++)
+        {
+            names.add(players.get(i).getName());
+            scores[i] = game.getLiveScore(players.get(i));
+        }
+        return new SaveEntry(name, size, lastModified, game.getRound(), names, scores);
+    }
+
+    /**
+     * Get the name of the save, its file name in the library
+     * @return name of the save
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Get the size of the save file
+     * @return size in bytes
+     */
+    public long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * Get the time the save file was last written
+     * @return time in milliseconds since the epoch
+     */
+    public long getLastModified()
+    {
+        return lastModified;
+    }
+
+    /**
+     * Get the round the saved game is at
+     * @return round number
+     */
+    public int getRound()
+    {
+        return round;
+    }
+
+    /**
+     * Get the names of the players
+     * @return names in seat order
+     */
+    public List<String> getPlayerNames()
+    {
+        return playerNames;
+    }
+
+    /**
+     * Get the live scores of the players when the game was saved
+     * @return scores in seat order
+     */
+    public int[] getScores()
+    {
+        return scores.clone();
+    }
+
+    /**
+     * Check whether a player of the saved game has the given name, ignoring case
+     * @param playerName name of the player
+     * @return whether the player is in the game
+     */
+    public boolean hasPlayer(String playerName)
+    {
+        for(String n : playerNames)
+        {
+            if(n.equalsIgnoreCase(playerName))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Override the toString() method to show the entry in a listing
+     */
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(name).append(" - round ").append(round).append(" - ");
+        for(int i=0; i<playerNames.size(); i++)
+        {
+            if(i > 0)
+                sb.append(", ");
+            sb.append(playerNames.get(i)).append(' ').append(scores[i]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,291 @@
+package citadels;
+
+import java.nio.charset.StandardCharsets;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * A directory of saved games with an index, so saves can be listed, filtered and
+ * picked without reading them.
+ * <p>
+ * The index, index.tsv in the directory, holds one line per save: its file name, size,
+ * last modified time, round and the players with their scores so far. A save written
+ * through the library updates its own line from the game in memory. On opening, only
+ * the files that are new or changed since the index was written are read; entries of
+ * deleted files are dropped. The index is rewritten to a temporary file renamed over
+ * the old one, so it is never seen half written.
+ */
+public class SaveLibrary {
+
+    /**
+     * The directory of the library used by the console game
+     */
+    public static final String DEFAULT_DIRECTORY = "saves";
+
+    /**
+     * The extension of the saves written by the library
+     */
+    public static final String EXTENSION = ".sav";
+
+    /**
+     * The name of the index file in the directory
+     */
+    public static final String INDEX_FILE = "index.tsv";
+
+    private static final String HEADER = "file\tsize\tmodified\tround\tplayers and scores";
+
+    /**
+     * The directory holding the saves and the index
+     */
+    private final File directory;
+
+    /**
+     * The entries, keyed by file name
+     */
+    private final Map<String, SaveEntry> entries = new HashMap<>();
+
+    /**
+     * Opens a library, creating the directory if needed, and brings the index up to date
+     * @param directory the directory holding the saves
+     * @throws IOException if the directory cannot be created or the index cannot be written
+     */
+    public SaveLibrary(File directory) throws IOException
+    {
+        this.directory = directory;
+        if(!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create save directory: " + directory);
+        }
+        readIndex();
+        refresh();
+    }
+
+    /**
+     * Get the directory holding the saves
+     * @return the directory
+     */
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Saves a game in the binary format under a name, and updates its index entry
+     * @param name name of the save, without extension
+     * @param game the game
+     * @return the entry of the save
+     * @throws IOException if the save or the index cannot be written
+     */
+    public synchronized SaveEntry save(String name, Game game) throws IOException
+    {
+        String fileName = fileName(name);
+        File file = new File(directory, fileName);
+        File temp = new File(directory, fileName + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            game.writeBinary(out);
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        SaveEntry entry = SaveEntry.of(fileName, file.length(), file.lastModified(), game);
+        entries.put(fileName, entry);
+        writeIndex();
+        return entry;
+    }
+
+    /**
+     * Loads a saved game to resume it
+     * @param name name of the save, with or without extension
+     * @return the game, or null if it cannot be loaded
+     */
+    public Game resume(String name)
+    {
+        return Game.loadFromFile(new File(directory, fileName(name)).getPath());
+    }
+
+    /**
+     * Deletes a save and its index entry
+     * @param name name of the save, with or without extension
+     * @return whether the save existed
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized boolean delete(String name) throws IOException
+    {
+        String fileName = fileName(name);
+        boolean existed = new File(directory, fileName).delete();
+        if(entries.remove(fileName) != null)
+            writeIndex();
+        return existed;
+    }
+
+    /**
+     * Get the entry of a save
+     * @param name name of the save, with or without extension
+     * @return the entry, or null if there is no such save
+     */
+    public synchronized SaveEntry get(String name)
+    {
+        return entries.get(fileName(name));
+    }
+
+    /**
+     * Lists the saves, the most recently written first
+     * @return the entries
+     */
+    public List<SaveEntry> list()
+    {
+        return list(e -> true);
+    }
+
+    /**
+     * Lists the saves matching a filter, the most recently written first
+     * @param filter the filter, for example e -> e.hasPlayer("Player 1")
+     * @return the entries
+     */
+    public synchronized List<SaveEntry> list(Predicate<SaveEntry> filter)
+    {
+        List<SaveEntry> list = new ArrayList<>();
+        for(SaveEntry e : entries.values())
+        {
+            if(filter.test(e))
+                list.add(e);
+        }
+        list.sort(Comparator.comparingLong(SaveEntry::getLastModified).reversed().thenComparing(SaveEntry::getName));
+        return list;
+    }
+
+    /**
+     * Brings the index up to date with the directory: reads the saves that are new or
+     * changed since they were indexed, and drops the entries of deleted saves.
+     * @throws IOException if the index cannot be written
+     */
+    public synchronized void refresh() throws IOException
+    {
+        boolean changed = false;
+        Set<String> present = new HashSet<>();
+        File[] files = directory.listFiles();
+        if(files == null)
+            files = new File[0];
+        for(File file : files)
+        {
+            String fileName = file.getName();
+            if(!file.isFile() || fileName.equals(INDEX_FILE) || fileName.endsWith(".tmp"))
+                continue;
+            present.add(fileName);
+            SaveEntry entry = entries.get(fileName);
+            if(entry != null && entry.getSize() == file.length() && entry.getLastModified() == file.lastModified())
+                continue;
+
+            Game game;
+            try
+            {
+                game = Game.readFile(file.getPath());
+            }
+            catch (Exception e)
+            {
+                // not a save, it is left out of the index
+                changed |= entries.remove(fileName) != null;
+                continue;
+            }
+            entries.put(fileName, SaveEntry.of(fileName, file.length(), file.lastModified(), game));
+            changed = true;
+        }
+        changed |= entries.keySet().retainAll(present);
+        if(changed || !new File(directory, INDEX_FILE).exists())
+            writeIndex();
+    }
+
+    /**
+     * Reads the index file, ignoring lines it cannot parse
+     */
+    private void readIndex()
+    {
+        File index = new File(directory, INDEX_FILE);
+        if(!index.exists())
+            return;
+        try (BufferedReader reader = Files.newBufferedReader(index.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            boolean is_header = true;
+            while ((line = reader.readLine()) != null)
+            {
+                if(is_header)
+                {
+                    is_header = false;
+                    continue;
+                }
+                String[] parts = line.split("\t", -1);
+                if(parts.length < 4 || parts.length % 2 != 0)
+                    continue;
+                try
+                {
+                    int players = (parts.length - 4) / 2;
+                    List<String> names = new ArrayList<>(players);
+                    int[] scores = new int[players];
+                    for(int i=0; i<players; i++)
+                    {
+                        names.add(parts[4 + 2 * i]);
+                        scores[i] = Integer.parseInt(parts[5 + 2 * i]);
+                    }
+                    entries.put(parts[0], new SaveEntry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), Integer.parseInt(parts[3]), names, scores));
+                }
+                catch(NumberFormatException e)
+                {
+                    // an unreadable line is dropped, refresh() reads its save again
+                }
+            }
+        }
+        catch (IOException e)
+        {
+            System.out.println("Error reading save index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the index file to a temporary file and renames it over the old one
+     * @throws IOException if writing fails
+     */
+    private void writeIndex() throws IOException
+    {
+        File temp = new File(directory, INDEX_FILE + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp.toPath(), StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for(SaveEntry e : entries.values())
+            {
+                writer.write(clean(e.getName()) + "\t" + e.getSize() + "\t" + e.getLastModified() + "\t" + e.getRound());
+                int[] scores = e.getScores();
+                for(int i=0; i<scores.length; i++)
+                {
+                    writer.write("\t" + clean(e.getPlayerNames().get(i)) + "\t" + scores[i]);
+                }
+                writer.newLine();
+            }
+        }
+        Files.move(temp.toPath(), new File(directory, INDEX_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Get the file name of a save, in the directory of the library
+     * @param name name of the save, with or without extension
+     * @return the file name
+     * @throws IllegalArgumentException if the name has a separator or is only dots, such as ".."
+     */
+    private static String fileName(String name)
+    {
+        if(name.contains("/") || name.contains("\\") || name.replace(".", "").isEmpty())
+            throw new IllegalArgumentException("Invalid save name: " + name);
+        return name.contains(".") ? name : name + EXTENSION;
+    }
+
+    /**
+     * Replaces the tabs and line breaks of a text written to the index
+     * @param text the text
+     * @return the text on a single line without tabs
+     */
+    private static String clean(String text)
+    {
+        return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,225 @@
+package citadels;
+
+/**
+ * The points a player would score if the game ended now, split by source.
+ * <p>
+ * Every part is read from counters kept up to date by the player's city, gold and
+ * hand, so a breakdown is built in constant time and can be asked for at any point
+ * of the game. The final scoring uses the same breakdown.
+ */
+public class ScoreBreakdown {
+
+    /**
+     * The names of the parts of a score, in the order of getPart()
+     */
+    public static final String[] PARTS = {"base", "color", "completion", "museum", "treasury", "mapRoom", "wishingWell"};
+
+    /**
+     * The points of the built districts
+     */
+    private int basePoints;
+
+    /**
+     * The bonus for having districts of all five colors
+     */
+    private int colorBonus;
+
+    /**
+     * The bonus for completing a city
+     */
+    private int completionBonus;
+
+    /**
+     * The points for the cards stored under the Museum
+     */
+    private int museumBonus;
+
+    /**
+     * The points for the gold held, with the Imperial Treasury
+     */
+    private int treasuryBonus;
+
+    /**
+     * The points for the cards in hand, with the Map Room
+     */
+    private int mapRoomBonus;
+
+    /**
+     * The points for the other purple districts, with the Wishing Well
+     */
+    private int wishingWellBonus;
+
+    /**
+     * Builds the current score of a player in a game.
+     *
+     * @param game the current game
+     * @param player the player to score
+     * @return the score of the player
+     */
+    public static ScoreBreakdown of(Game game, Player player)
+    {
+        ScoreBreakdown score = new ScoreBreakdown();
+        City city = player.getCity();
+        score.basePoints = city.getScoreValue();
+
+        DistrictCard museum = city.getBuilt(DistrictCatalog.MUSEUM);
+        if(museum != null)
+            score.museumBonus = museum.getStoredCards().size();
+
+        int colors = city.getDistinctColors();
+        int haunted = city.count(DistrictCatalog.HAUNTED_CITY, DistrictType.PURPLE);
+        if(haunted > 0)
+        {
+            // a purple Haunted City does not count as a purple district itself,
+            // but gives the fifth color unless it was built this round
+            if(haunted == city.getColorCount(DistrictType.PURPLE))
+                colors--;
+            if(colors == 4 && lastHauntedCity(city).getBuiltRound() != game.getRound())
+                colors++;
+        }
+        score.colorBonus = (colors >= 5) ? 3 : 0;
+
+        if(city.size() >= game.getEndThreshold())
+            score.completionBonus = (game.getFirstToFinish() != null && game.isFirstToFinish(player)) ? 4 : 2;
+
+        if(city.count(DistrictCatalog.IMPERIAL_TREASURY) > 0)
+            score.treasuryBonus = player.getGold();
+
+        if(city.count(DistrictCatalog.MAP_ROOM) > 0)
+            score.mapRoomBonus = player.getHand().size();
+
+        if(city.count(DistrictCatalog.WISHING_WELL) > 0)
+            score.wishingWellBonus = city.getColorCount(DistrictType.PURPLE) - city.count(DistrictCatalog.WISHING_WELL, DistrictType.PURPLE);
+
+        return score;
+    }
+
+    /**
+     * Builds a score from its parts, as stored by a ResultStore
+     * @param parts the parts, in the order of PARTS
+     * @return the score
+     */
+    static ScoreBreakdown ofParts(int[] parts)
+    {
+        ScoreBreakdown score = new ScoreBreakdown();
+        score.basePoints = parts[0];
+        score.colorBonus = parts[1];
+        score.completionBonus = parts[2];
+        score.museumBonus = parts[3];
+        score.treasuryBonus = parts[4];
+        score.mapRoomBonus = parts[5];
+        score.wishingWellBonus = parts[6];
+        return score;
+    }
+
+    /**
+     * Finds the purple Haunted City counted for the color bonus, the last one built
+     * @param city a city with at least one purple Haunted City
+     * @return the Haunted City
+     */
+    private static DistrictCard lastHauntedCity(City city)
+    {
+        DistrictCard haunted = city.getBuilt(DistrictCatalog.HAUNTED_CITY);
+        if(city.count(DistrictCatalog.HAUNTED_CITY) > 1 || haunted.getType().getColorIndex() != DistrictType.PURPLE)
+        {
+            for(DistrictCard c : city)
+            {
+                if(c.getTypeId() == DistrictCatalog.HAUNTED_CITY && c.getType().getColorIndex() == DistrictType.PURPLE)
+                    haunted = c;
+            }
+        }
+        return haunted;
+    }
+
+    /**
+     * Get the points of the built districts
+     * @return base points
+     */
+    public int getBasePoints()
+    {
+        return basePoints;
+    }
+
+    /**
+     * Get the bonus for having districts of all five colors
+     * @return color diversity bonus
+     */
+    public int getColorBonus()
+    {
+        return colorBonus;
+    }
+
+    /**
+     * Get the bonus for completing a city
+     * @return completion bonus
+     */
+    public int getCompletionBonus()
+    {
+        return completionBonus;
+    }
+
+    /**
+     * Get the points for the cards stored under the Museum
+     * @return Museum bonus
+     */
+    public int getMuseumBonus()
+    {
+        return museumBonus;
+    }
+
+    /**
+     * Get the points for the gold held, with the Imperial Treasury
+     * @return Imperial Treasury bonus
+     */
+    public int getTreasuryBonus()
+    {
+        return treasuryBonus;
+    }
+
+    /**
+     * Get the points for the cards in hand, with the Map Room
+     * @return Map Room bonus
+     */
+    public int getMapRoomBonus()
+    {
+        return mapRoomBonus;
+    }
+
+    /**
+     * Get the points for the other purple districts, with the Wishing Well
+     * @return Wishing Well bonus
+     */
+    public int getWishingWellBonus()
+    {
+        return wishingWellBonus;
+    }
+
+    /**
+     * Get one part of the score
+     * @param part index of the part in PARTS
+     * @return the points of that part
+     */
+    public int getPart(int part)
+    {
+        switch(part)
+        {
+            case 0: return basePoints;
+            case 1: return colorBonus;
+            case 2: return completionBonus;
+            case 3: return museumBonus;
+            case 4: return treasuryBonus;
+            case 5: return mapRoomBonus;
+            case 6: return wishingWellBonus;
+            default: throw new IllegalArgumentException("No score part " + part);
+        }
+    }
+
+    /**
+     * Get the total score
+     * @return sum of all parts
+     */
+    public int getTotal()
+    {
+        return basePoints + colorBonus + completionBonus + museumBonus + treasuryBonus + mapRoomBonus + wishingWellBonus;
+    }
+}
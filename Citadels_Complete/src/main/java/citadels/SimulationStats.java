@@ -0,0 +1,244 @@
+package citadels;
+
+/**
+ * Aggregated results of a batch of simulated games.
+ * Each simulation thread fills its own instance, which are merged at the end,
+ * so no state is shared between threads while games are running.
+ */
+public class SimulationStats {
+
+    /**
+     * The largest table supported by the game
+     */
+    public static final int MAX_SEATS = 7;
+
+    /**
+     * The number of characters in the game
+     */
+    public static final int CHARACTER_COUNT = 8;
+
+    private long games;
+    private long totalRounds;
+    private int minRounds = Integer.MAX_VALUE;
+    private int maxRounds;
+    private long[] wins = new long[MAX_SEATS];
+    private long[] seatGames = new long[MAX_SEATS];
+    private long[] scoreSums = new long[MAX_SEATS];
+    private long[] characterPicks = new long[CHARACTER_COUNT + 1];
+    private long[] characterWins = new long[CHARACTER_COUNT + 1];
+    private long elapsedNanos;
+
+    /**
+     * Adds one finished game to the statistics.
+     * The character of the winner in the final round is counted as a winning character.
+     *
+     * @param result the result of the game
+     */
+    public void add(GameResult result)
+    {
+        addGame(result.getRounds(), result.getWinnerSeat());
+
+        int[] scores = result.getScores();
+        for(int seat=0; seat<scores.length; seat++)
+        {
+            addScore(seat, scores[seat]);
+        }
+
+        int[][] picks = result.getCharacterPicks();
+        for(int round=0; round<picks.length; round++)
+        {
+            for(int seat=0; seat<picks[round].length; seat++)
+            {
+                addPick(picks[round][seat], round == picks.length - 1 && seat == result.getWinnerSeat());
+            }
+        }
+    }
+
+    /**
+     * Counts one finished game, without its scores and characters
+     * @param rounds number of rounds played
+     * @param winnerSeat seat of the winning player
+     */
+    void addGame(int rounds, int winnerSeat)
+    {
+        games++;
+        totalRounds += rounds;
+        minRounds = Math.min(minRounds, rounds);
+        maxRounds = Math.max(maxRounds, rounds);
+        wins[winnerSeat]++;
+    }
+
+    /**
+     * Counts the final score of one seat in a game
+     * @param seat index of the seat
+     * @param score final score of the seat
+     */
+    void addScore(int seat, int score)
+    {
+        seatGames[seat]++;
+        scoreSums[seat] += score;
+    }
+
+    /**
+     * Counts one pick of a character
+     * @param order order of the character [1-8]
+     * @param won true if the pick was the winner's in the final round
+     */
+    void addPick(int order, boolean won)
+    {
+        characterPicks[order]++;
+        if(won)
+            characterWins[order]++;
+    }
+
+    /**
+     * Adds all the games counted in another statistics object to this one.
+     *
+     * @param other the statistics to merge in
+     */
+    public void merge(SimulationStats other)
+    {
+        games += other.games;
+        totalRounds += other.totalRounds;
+        minRounds = Math.min(minRounds, other.minRounds);
+        maxRounds = Math.max(maxRounds, other.maxRounds);
+        for(int seat=0; seat<MAX_SEATS; seat++)
+        {
+            wins[seat] += other.wins[seat];
+            seatGames[seat] += other.seatGames[seat];
+            scoreSums[seat] += other.scoreSums[seat];
+        }
+        for(int order=0; order<=CHARACTER_COUNT; order++)
+        {
+            characterPicks[order] += other.characterPicks[order];
+            characterWins[order] += other.characterWins[order];
+        }
+    }
+
+    /**
+     * Get the number of games counted
+     * @return number of games
+     */
+    public long getGames()
+    {
+        return games;
+    }
+
+    /**
+     * Get the average number of rounds per game
+     * @return average rounds
+     */
+    public double getAverageRounds()
+    {
+        return games == 0 ? 0 : (double) totalRounds / games;
+    }
+
+    /**
+     * Get the fewest rounds any game took
+     * @return minimum rounds, or 0 if no game was counted
+     */
+    public int getMinRounds()
+    {
+        return games == 0 ? 0 : minRounds;
+    }
+
+    /**
+     * Get the most rounds any game took
+     * @return maximum rounds
+     */
+    public int getMaxRounds()
+    {
+        return maxRounds;
+    }
+
+    /**
+     * Get the number of games won from a seat
+     * @param seat index of the seat
+     * @return number of wins
+     */
+    public long getWins(int seat)
+    {
+        return wins[seat];
+    }
+
+    /**
+     * Get the average final score of a seat
+     * @param seat index of the seat
+     * @return average score, or 0 if the seat never played
+     */
+    public double getAverageScore(int seat)
+    {
+        return seatGames[seat] == 0 ? 0 : (double) scoreSums[seat] / seatGames[seat];
+    }
+
+    /**
+     * Get how many times a character was picked, over all rounds and seats
+     * @param order order of the character [1-8]
+     * @return number of picks
+     */
+    public long getCharacterPicks(int order)
+    {
+        return characterPicks[order];
+    }
+
+    /**
+     * Get how many games were won by the player holding a character in the final round
+     * @param order order of the character [1-8]
+     * @return number of wins
+     */
+    public long getCharacterWins(int order)
+    {
+        return characterWins[order];
+    }
+
+    /**
+     * Set the wall-clock time the batch took
+     * @param elapsedNanos elapsed time in nanoseconds
+     */
+    public void setElapsedNanos(long elapsedNanos)
+    {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Get the wall-clock time the batch took
+     * @return elapsed time in nanoseconds
+     */
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    /**
+     * Get the throughput of the batch
+     * @return games played per second of wall-clock time
+     */
+    public double getGamesPerSecond()
+    {
+        return elapsedNanos == 0 ? 0 : games / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Builds a printable report of the statistics
+     * @return the report
+     */
+    public String report()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d in %.2f s (%.0f games/sec)%n", games, elapsedNanos / 1e9, getGamesPerSecond()));
+        sb.append(String.format("Rounds: avg %.2f, min %d, max %d%n", getAverageRounds(), getMinRounds(), maxRounds));
+        sb.append("Seat  Wins      Win%    Avg score\n");
+        for(int seat=0; seat<MAX_SEATS; seat++)
+        {
+            if(seatGames[seat] == 0)
+                continue;
+            sb.append(String.format("%-5d %-9d %-7.2f %.2f%n", seat + 1, wins[seat], 100.0 * wins[seat] / seatGames[seat], getAverageScore(seat)));
+        }
+        sb.append("Character  Picks       Final-round wins\n");
+        for(CharacterCard c : CharacterCard.getCharacters())
+        {
+            sb.append(String.format("%-10s %-11d %d%n", c.getName(), characterPicks[c.getOrder()], characterWins[c.getOrder()]));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,279 @@
+package citadels;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Batch runner that plays many independent headless AI games across all cores
+ * and merges their results.
+ * <p>
+ * Every worker thread plays its share of the games one after another and keeps
+ * its own statistics, so threads never share game state while playing.
+ * Game i of a batch is always seeded with the same value for a given simulator seed,
+ * whatever the number of threads, so any game of a batch can be replayed.
+ */
+public class Simulator {
+
+    /**
+     * The number of worker threads
+     */
+    private int threads;
+
+    /**
+     * The seed every game seed of a batch is derived from
+     */
+    private long seed;
+
+    /**
+     * Constructor for a simulator using one worker thread per available core
+     */
+    public Simulator()
+    {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for a simulator with a random seed, requires the number of worker threads
+     * @param threads number of worker threads
+     */
+    public Simulator(int threads)
+    {
+        this(threads, System.nanoTime());
+    }
+
+    /**
+     * Constructor for a simulator, requires the number of worker threads and the batch seed
+     * @param threads number of worker threads
+     * @param seed seed every game seed is derived from
+     */
+    public Simulator(int threads, long seed)
+    {
+        if(threads < 1)
+        {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Get the seed every game seed of a batch is derived from
+     * @return the batch seed
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Get the number of worker threads
+     * @return number of worker threads
+     */
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    /**
+     * Plays one headless game and returns its result.
+     *
+     * @param playerCount number of AI players at the table [4-7]
+     * @param seed seed of the game
+     * @return the result of the game
+     */
+    public static GameResult playOne(int playerCount, long seed)
+    {
+        Game game = new Game(seed);
+        Player winner = game.playHeadless(playerCount);
+        return GameResult.of(game, winner);
+    }
+
+    /**
+     * Plays one headless game with the AI players of each seat using their own weights.
+     *
+     * @param seed seed of the game
+     * @param weights the weights of each seat, one per player [4-7]
+     * @return the winner of the game
+     */
+    public static int playOne(long seed, AIWeights[] weights)
+    {
+        Game game = new Game(seed);
+        game.setUpHeadless(weights.length);
+        List<Player> players = game.getPlayers();
+        for(int seat=0; seat<weights.length; seat++)
+        {
+            ((AIPlayer) players.get(seat)).setWeights(weights[seat]);
+        }
+        return players.indexOf(game.playToEnd());
+    }
+
+    /**
+     * Plays a batch of games spread over the worker threads between one player using some
+     * weights and the others using other weights, and counts the wins of that player.
+     * The player takes seat i modulo the number of players in game i.
+     *
+     * @param games number of games to play
+     * @param playerCount number of AI players at each table [4-7]
+     * @param candidate the weights of the player
+     * @param others the weights of every other player
+     * @return the number of games the player won
+     */
+    public long countWins(long games, int playerCount, AIWeights candidate, AIWeights others)
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            List<Future<Long>> parts = new ArrayList<>();
+            long first = 0;
+            for(int t=0; t<threads; t++)
+            {
+                long share = games / threads + (t < games % threads ? 1 : 0);
+                long from = first;
+                parts.add(pool.submit(() -> {
+                    long wins = 0;
+                    AIWeights[] weights = new AIWeights[playerCount];
+                    for(long i=from; i<from+share; i++)
+                    {
+                        int seat = (int) (i % playerCount);
+                        Arrays.fill(weights, others);
+                        weights[seat] = candidate;
+                        if(playOne(GameRandom.seedAt(seed, i), weights) == seat)
+                            wins++;
+                    }
+                    return wins;
+                }));
+                first += share;
+            }
+
+            long wins = 0;
+            for(Future<Long> part : parts)
+            {
+                wins += part.get();
+            }
+            return wins;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Simulation interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new RuntimeException("Simulated game failed", e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Plays a batch of games spread over the worker threads and merges the results.
+     *
+     * @param games number of games to play
+     * @param playerCount number of AI players at each table [4-7]
+     * @return the merged statistics, including the wall-clock time taken
+     */
+    public SimulationStats run(long games, int playerCount)
+    {
+        return run(games, playerCount, null);
+    }
+
+    /**
+     * Plays a batch of games spread over the worker threads, appending the result of every
+     * game to a store as it finishes, and merges the results.
+     * The store is flushed, not closed, at the end of the batch.
+     *
+     * @param games number of games to play
+     * @param playerCount number of AI players at each table [4-7]
+     * @param store the store to append to, or null
+     * @return the merged statistics, including the wall-clock time taken
+     */
+    public SimulationStats run(long games, int playerCount, ResultStore store)
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try
+        {
+            long start = System.nanoTime();
+            List<Future<SimulationStats>> parts = new ArrayList<>();
+            long first = 0;
+            for(int t=0; t<threads; t++)
+            {
+                long share = games / threads + (t < games % threads ? 1 : 0);
+                long from = first;
+                parts.add(pool.submit(() -> {
+                    SimulationStats stats = new SimulationStats();
+                    for(long i=from; i<from+share; i++)
+                    {
+                        GameResult result = playOne(playerCount, GameRandom.seedAt(seed, i));
+                        stats.add(result);
+                        if(store != null)
+                            store.append(result);
+                    }
+                    return stats;
+                }));
+                first += share;
+            }
+
+            SimulationStats total = new SimulationStats();
+            for(Future<SimulationStats> part : parts)
+            {
+                total.merge(part.get());
+            }
+            if(store != null)
+                store.flush();
+            total.setElapsedNanos(System.nanoTime() - start);
+            return total;
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Cannot write results to " + store.getDirectory(), e);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Simulation interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new RuntimeException("Simulated game failed", e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a batch simulation from the command line and prints the report.
+     * Arguments: [games] [players] [threads] [seed] [store], defaulting to 10000 games,
+     * 4 players, one thread per core, a random seed and no result store.
+     *
+     * @param args command-line arguments
+     * @throws IOException if the result store cannot be written
+     */
+    public static void main(String[] args) throws IOException
+    {
+        long games = args.length > 0 ? Long.parseLong(args[0]) : 10000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        Simulator simulator = args.length > 3 ? new Simulator(threads, Long.parseLong(args[3])) : new Simulator(threads);
+
+        System.out.println("Simulating " + games + " games of " + players + " players on " + simulator.getThreads() + " threads (seed " + simulator.getSeed() + ")...");
+        SimulationStats stats;
+        if(args.length > 4)
+        {
+            try (ResultStore store = new ResultStore(new File(args[4])))
+            {
+                stats = simulator.run(games, players, store);
+                System.out.println("Results appended to " + store.getDirectory() + " (" + store.size() + " games stored)");
+            }
+        }
+        else
+        {
+            stats = simulator.run(games, players);
+        }
+        System.out.print(stats.report());
+    }
+}
@@ -39,14 +39,13 @@ public class ThiefAction implements Actionable{
      */
     public void humanChoose(Game game, int killedOrder)
     {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("Who do you want to steal from? Choose a character from 3 to 8:");
+        game.getOut().println("Who do you want to steal from? Choose a character from 3 to 8:");
         for(CharacterCard c : CharacterCard.getCharacters())
         {
             int order = c.getOrder();
             if(!(order == killedOrder || order == 1 || order == 2))
             {
-                System.out.println(order + ": " + c.getName());
+                game.getOut().println(order + ": " + c.getName());
             }
         }
 
@@ -54,17 +53,17 @@ public class ThiefAction implements Actionable{
         CharacterCard stolenCard = CharacterCard.getCharacters().get(0);
         while(targetOrder<3 || targetOrder>8 || targetOrder == killedOrder)
         {
-            System.out.print("> ");
+            game.getOut().print("> ");
             try
             {
-                targetOrder = Integer.parseInt(scanner.nextLine().trim());
+                targetOrder = Integer.parseInt(game.readLine().trim());
                 if(targetOrder == killedOrder)
                 {
-                    System.out.println("You can't steal from a killed character.");
+                    game.getOut().println("You can't steal from a killed character.");
                 }
                 else if(targetOrder < 3 || targetOrder > 8)
                 {
-                    System.out.println("Number out of index. Please enter a number between 3 and 8.");
+                    game.getOut().println("Number out of index. Please enter a number between 3 and 8.");
                 }
                 else
                 {
@@ -79,17 +78,19 @@ public class ThiefAction implements Actionable{
             }
             catch(NumberFormatException e)
             {
-                System.out.println("Invalid input. Enter a number between 3 and 8.");
+                game.getOut().println("Invalid input. Enter a number between 3 and 8.");
             }
         }
 
         game.setStolenCharacterOrder(targetOrder);
-        System.out.println("You chose to steal from " + targetOrder + " " + stolenCard.getName());
+        game.getOut().println("You chose to steal from " + targetOrder + " " + stolenCard.getName());
     }
 
     /**
      * Executes the Thief's stealing ability for a AI player.
-     * AI would pick a non faced-up removed character to steal from
+     * AI would steal from the character most likely held by the richest players, from what
+     * it was offered in the selection phase, or from a random non faced-up character when
+     * CharacterInference has no entry for its situation
      *
      * @param game   the current game state
      * @param killedOrder order of character that was killed by Assassin
@@ -115,23 +116,17 @@ public class ThiefAction implements Actionable{
                 possibleOrders.add(i);
             }
         }
-        List<CharacterCard> characters = CharacterCard.getCharacters();
 
-        int targetOrder = possibleOrders.get(new Random().nextInt(possibleOrders.size()));
-
-        game.setStolenCharacterOrder(targetOrder);
-
-        String stolenName = "";
-        for(CharacterCard c : characters)
+        int targetOrder = CharacterInference.getDefault().target(game, player, possibleOrders, p -> p.getGold());
+        if(targetOrder < 0)
         {
-            if(c.getOrder() == targetOrder)
-            {
-                stolenName = c.getName();
-                break;
-            }
+            targetOrder = possibleOrders.get(game.getRandom().nextInt(possibleOrders.size()));
         }
 
-        System.out.println(player.getName() + " chose to steal from the " + stolenName + ".");
+        game.setStolenCharacterOrder(targetOrder);
+
+        CharacterCard target = CharacterCard.getCharacter(targetOrder);
+        game.log(() -> player.getName() + " chose to steal from the " + target.getName() + ".");
     }
     
 }
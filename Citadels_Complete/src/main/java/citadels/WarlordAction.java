@@ -17,19 +17,12 @@ public class WarlordAction implements Actionable{
      */
     public void performAction(Game game, Player player)
     {
-        int redCount = 0;
-        for(DistrictCard c : player.getCity())
-        {
-            if(c.getColor().equalsIgnoreCase("red") || c.getName().equalsIgnoreCase("School of Magic"))
-            {
-                redCount++;
-            }
-        }
+        int redCount = player.getIncomeDistricts(DistrictType.RED);
 
         if(redCount>0)
         {
             player.addGold(redCount);
-            System.out.println(player.getName() + " gains " + redCount + " gold from red districts.");
+            game.log(() -> player.getName() + " gains " + redCount + " gold from red districts.");
         }
 
         if(player instanceof HumanPlayer)
@@ -51,47 +44,46 @@ public class WarlordAction implements Actionable{
      */
     public void humanDestroy(Game game, Player player)
     {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("You may destroy 1 district.");
-        System.out.println("You have " + player.getGold() + " gold.");
-        System.out.println("Cities of all players:");
+        game.getOut().println("You may destroy 1 district.");
+        game.getOut().println("You have " + player.getGold() + " gold.");
+        game.getOut().println("Cities of all players:");
 
         for (Player p : game.getPlayers()) 
         {
-            System.out.println(p.getName()+ ": ");
+            game.getOut().println(p.getName()+ ": ");
             if (p.getCity().isEmpty()) 
             {
-                System.out.println("  (No districts built)");
+                game.getOut().println("  (No districts built)");
             } 
             else 
             {
                 for (DistrictCard c : p.getCity()) 
                 {
-                    System.out.println("  - " + c);
+                    game.getOut().println("  - " + c);
                 }
             }
-            System.out.println();
+            game.getOut().println();
         }
 
         while(true)
         {
-            System.out.println("Enter player ID to target (or 0 to skip):");
+            game.getOut().println("Enter player ID to target (or 0 to skip):");
 
             int targetID = -1;
             while(targetID < 0 || targetID > game.getPlayers().size())
             {
-                System.out.print("> ");
+                game.getOut().print("> ");
                 try
                 {
-                    targetID = Integer.parseInt(scanner.nextLine().trim());
+                    targetID = Integer.parseInt(game.readLine().trim());
                     if(targetID == 0)
                     {
-                        System.out.println("Skipped destruction.");
+                        game.getOut().println("Skipped destruction.");
                         return;
                     }
                 }
                 catch(NumberFormatException e) {
-                    System.out.println("Invalid input. Please enter a number");
+                    game.getOut().println("Invalid input. Please enter a number");
                 }
             }
 
@@ -107,40 +99,40 @@ public class WarlordAction implements Actionable{
 
             if (target.getCity().isEmpty()) 
             {
-                System.out.println("Invalid target or target has no districts.");
+                game.getOut().println("Invalid target or target has no districts.");
                 continue;
             }
 
             if (target.getCity().size() >= 8) 
             {
-                System.out.println("Cannot destroy districts from a complete city (8+ districts). Choose someone else.");
+                game.getOut().println("Cannot destroy districts from a complete city (8+ districts). Choose someone else.");
                 continue;
             }
 
             if (target.getCharacter().getName().equalsIgnoreCase("Bishop") && !game.isCharacterKilled(5)) 
             {
-                System.out.println("Cannot destroy Bishop's districts while alive. Choose someone else.");
+                game.getOut().println("Cannot destroy Bishop's districts while alive. Choose someone else.");
                 continue;
             }
 
-            System.out.println("Choose a district to destroy from " + target.getName() + ":");
+            game.getOut().println("Choose a district to destroy from " + target.getName() + ":");
 
             for (int i = 0; i < target.getCity().size(); i++) 
             {
                 DistrictCard c = target.getCity().get(i);
-                System.out.println((i + 1) + ". " + c);
+                game.getOut().println((i + 1) + ". " + c);
             }
 
             int index = -1;
             while (index < 1 || index > target.getCity().size()) 
             {
-                System.out.print("> ");
+                game.getOut().print("> ");
                 try 
                 {
-                    index = Integer.parseInt(scanner.nextLine().trim());
+                    index = Integer.parseInt(game.readLine().trim());
                 } 
                 catch (NumberFormatException e) {
-                    System.out.println("Invalid input. Please enter a number.");
+                    game.getOut().println("Invalid input. Please enter a number.");
                 }
             }
 
@@ -148,7 +140,7 @@ public class WarlordAction implements Actionable{
 
             if(targetCard.getName().equalsIgnoreCase("Keep"))
             {   
-                System.out.println("The Keep cannot be destroyed.");
+                game.getOut().println("The Keep cannot be destroyed.");
                 continue;
             }
 
@@ -156,7 +148,7 @@ public class WarlordAction implements Actionable{
 
             if (player.getGold() < destroyCost) 
             {
-                System.out.println("Not enough gold to destroy this district (cost: " + destroyCost + ").");
+                game.getOut().println("Not enough gold to destroy this district (cost: " + destroyCost + ").");
                 continue;
             }
 
@@ -176,18 +168,18 @@ public class WarlordAction implements Actionable{
                 game.deactivateBellTower();
             }
             
-            System.out.println("Destroyed " + targetCard.getName() + " from " + target.getName() + "'s city.");
-            if(target.getBuiltDistrict("Graveyard") != null)
+            game.getOut().println("Destroyed " + targetCard.getName() + " from " + target.getName() + "'s city.");
+            if(target.getBuiltDistrict(DistrictCatalog.GRAVEYARD) != null)
             {
-                if(targetCard.getCost() >= 3 && target.getGold() >= 2)
+                if(targetCard.getCost() >= AIWeights.of(target).get(AIWeights.GRAVEYARD_MIN_COST) && target.getGold() >= 2)
                 {
                     target.addGold(-1);
                     target.drawCard(targetCard);
-                    System.out.println(target.getName() + " used Graveyard to recover " + targetCard);
+                    game.getOut().println(target.getName() + " used Graveyard to recover " + targetCard);
                 }
                 else
                 {
-                    System.out.println(target.getName() + " decided not to use Graveyard.");
+                    game.getOut().println(target.getName() + " decided not to use Graveyard.");
                 }
             }
             return;
@@ -244,7 +236,7 @@ public class WarlordAction implements Actionable{
                 }
                 
                 int cost = card.getCost() - 1;
-                DistrictCard greatWall = target.getBuiltDistrict("Great Wall");
+                DistrictCard greatWall = target.getBuiltDistrict(DistrictCatalog.GREAT_WALL);
                 if(greatWall != null && !card.getName().equalsIgnoreCase("Great Wall"))
                 {
                     cost ++;
@@ -267,62 +259,61 @@ public class WarlordAction implements Actionable{
                     {
                         game.deactivateBellTower();
                     }
-                    System.out.println(player.getName() + " destroyed " + card.getName() + " from " + target.getName() + "'s city.");
-                    if(target.getBuiltDistrict("Graveyard") != null)
+                    game.log(() -> player.getName() + " destroyed " + card.getName() + " from " + target.getName() + "'s city.");
+                    if(target.getBuiltDistrict(DistrictCatalog.GRAVEYARD) != null)
                     {
                         if(target instanceof HumanPlayer)
                         {
-                            Scanner scanner = new Scanner(System.in);
-                            System.out.println("Your " + card + " was destroyed.");
-                            System.out.println("Graveyard action: You have " + target.getGold() + " gold. You may pay 1 gold to return it to your hand. Do you want to do this? 1 for Yes, 2 for No");
-                            System.out.print("> ");
+                            game.getOut().println("Your " + card + " was destroyed.");
+                            game.getOut().println("Graveyard action: You have " + target.getGold() + " gold. You may pay 1 gold to return it to your hand. Do you want to do this? 1 for Yes, 2 for No");
+                            game.getOut().print("> ");
                             int choice = -1;
                             while(choice!=1 && choice!=2)
                             {
                                 try
                                 {
-                                    choice = Integer.parseInt(scanner.nextLine().trim());
+                                    choice = Integer.parseInt(game.readLine().trim());
                                     if(choice == 1)
                                     {
                                         if(target.getGold() < 1)
                                         {
-                                            System.out.println("You don't have enough gold. You cannot recover districts. Please enter 2");
-                                            System.out.print("> ");
+                                            game.getOut().println("You don't have enough gold. You cannot recover districts. Please enter 2");
+                                            game.getOut().print("> ");
                                             choice = -1;
                                         }
                                         else
                                         {
                                             target.addGold(-1);
                                             target.drawCard(card);
-                                            System.out.println("You paid 1 gold and returned " + card + " to your hand.");
+                                            game.getOut().println("You paid 1 gold and returned " + card + " to your hand.");
                                         }
                                     }
                                     else if(choice == 2)
                                     {
-                                        System.out.println("You decided not to use Graveyard.");
+                                        game.getOut().println("You decided not to use Graveyard.");
                                     }
                                     else
                                     {
-                                        System.out.println("Invalid input, please enter 1 or 2");
+                                        game.getOut().println("Invalid input, please enter 1 or 2");
                                     }
                                 }
                                 catch(NumberFormatException e)
                                 {
-                                    System.out.println("Invalid input");
+                                    game.getOut().println("Invalid input");
                                 }
                             }
                         }
                         else
                         {
-                            if(card.getCost() >= 3 && target.getGold() >= 2)
+                            if(card.getCost() >= AIWeights.of(target).get(AIWeights.GRAVEYARD_MIN_COST) && target.getGold() >= 2)
                             {
                                 target.addGold(-1);
                                 target.drawCard(card);
-                                System.out.println(target.getName() + " used Graveyard to recover " + card);
+                                game.log(() -> target.getName() + " used Graveyard to recover " + card);
                             }
                             else
                             {
-                                System.out.println(target.getName() + " decided not to use Graveyard.");
+                                game.log(() -> target.getName() + " decided not to use Graveyard.");
                             }
                         }
                     }
@@ -331,7 +322,7 @@ public class WarlordAction implements Actionable{
             }
         }
 
-        System.out.println(player.getName() + " chose not to destroy any districts.");
+        game.log(() -> player.getName() + " chose not to destroy any districts.");
     }
     
 }
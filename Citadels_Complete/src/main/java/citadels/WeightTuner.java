@@ -0,0 +1,197 @@
+package citadels;
+
+import java.io.*;
+
+/**
+ * Tunes the weights of the AI players by self-play with simultaneous perturbation
+ * stochastic approximation (SPSA).
+ * <p>
+ * Each generation moves every weight at once by the same step up or down, chosen at random,
+ * and plays the weights moved up and the weights moved down against the current weights in
+ * a batch of headless games each, spread over all cores. The difference of their win rates
+ * estimates the gradient, two batches per generation whatever the number of weights.
+ * Both batches use the same game seeds, so the difference is not drowned by the luck of
+ * the deal. Weights are moved in the range of each parameter scaled to [0, 1].
+ * A tuning run is the same for a given seed, whatever the number of threads.
+ */
+public class WeightTuner {
+
+    /**
+     * The size of the first perturbation, in the scaled range
+     */
+    private static final double PERTURBATION = 0.2;
+
+    /**
+     * The size of the first step for a unit gradient, in the scaled range
+     */
+    private static final double STEP = 0.25;
+
+    /**
+     * The decay of the step, the value recommended by Spall
+     */
+    private static final double ALPHA = 0.602;
+
+    /**
+     * The decay of the perturbation, the value recommended by Spall
+     */
+    private static final double GAMMA = 0.101;
+
+    /**
+     * The number of worker threads playing the games
+     */
+    private int threads;
+
+    /**
+     * The number of AI players at each table
+     */
+    private int playerCount;
+
+    /**
+     * The seed the perturbations and game seeds are derived from
+     */
+    private long seed;
+
+    /**
+     * Constructor for a tuner, requires the number of worker threads, of players and the seed
+     * @param threads number of worker threads
+     * @param playerCount number of AI players at each table [4-7]
+     * @param seed seed the perturbations and game seeds are derived from
+     */
+    public WeightTuner(int threads, int playerCount, long seed)
+    {
+        if(threads < 1)
+        {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        this.playerCount = playerCount;
+        this.seed = seed;
+    }
+
+    /**
+     * Get the seed the perturbations and game seeds are derived from
+     * @return the seed
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Plays a batch of games between one player using some weights and the others using
+     * other weights.
+     *
+     * @param candidate the weights of the player
+     * @param others the weights of every other player
+     * @param gameSeed the seed every game seed of the batch is derived from
+     * @param games number of games to play
+     * @return the share of the games the player won
+     */
+    public double fitness(AIWeights candidate, AIWeights others, long gameSeed, int games)
+    {
+        Simulator simulator = new Simulator(threads, gameSeed);
+        return (double) simulator.countWins(games, playerCount, candidate, others) / games;
+    }
+
+    /**
+     * Tunes weights by self-play.
+     *
+     * @param start the weights to start from
+     * @param generations number of generations
+     * @param games number of games played by each side of a generation
+     * @param out where to print the progress of each generation, or null
+     * @return the tuned weights
+     */
+    public AIWeights tune(AIWeights start, int generations, int games, PrintStream out)
+    {
+        double[] x = scale(start);
+        double offset = generations / 10.0;
+        for(int k=0; k<generations; k++)
+        {
+            double step = STEP / Math.pow(k + 1 + offset, ALPHA);
+            double perturbation = PERTURBATION / Math.pow(k + 1, GAMMA);
+            GameRandom random = new GameRandom(GameRandom.seedAt(seed, 2L * k));
+            long gameSeed = GameRandom.seedAt(seed, 2L * k + 1);
+
+            double[] delta = new double[AIWeights.SIZE];
+            double[] plus = new double[AIWeights.SIZE];
+            double[] minus = new double[AIWeights.SIZE];
+            for(int i=0; i<AIWeights.SIZE; i++)
+            {
+                delta[i] = random.nextBoolean() ? 1 : -1;
+                plus[i] = x[i] + perturbation * delta[i];
+                minus[i] = x[i] - perturbation * delta[i];
+            }
+            AIWeights current = unscale(x);
+            double fitPlus = fitness(unscale(plus), current, gameSeed, games);
+            double fitMinus = fitness(unscale(minus), current, gameSeed, games);
+
+            for(int i=0; i<AIWeights.SIZE; i++)
+            {
+                double gradient = (fitPlus - fitMinus) / (2 * perturbation * delta[i]);
+                x[i] = Math.max(0, Math.min(1, x[i] + step * gradient));
+            }
+            if(out != null)
+            {
+                out.printf("Generation %d: %.3f up, %.3f down -> %s%n", k + 1, fitPlus, fitMinus, unscale(x));
+            }
+        }
+        return unscale(x);
+    }
+
+    /**
+     * Scales weights to the range [0, 1] of each parameter
+     * @param weights the weights
+     * @return the scaled values
+     */
+    private static double[] scale(AIWeights weights)
+    {
+        double[] x = new double[AIWeights.SIZE];
+        for(int i=0; i<AIWeights.SIZE; i++)
+        {
+            x[i] = (weights.getValue(i) - AIWeights.getMin(i)) / (AIWeights.getMax(i) - AIWeights.getMin(i));
+        }
+        return x;
+    }
+
+    /**
+     * Weights from values scaled to the range [0, 1] of each parameter
+     * @param x the scaled values, clamped by the weights
+     * @return the weights
+     */
+    private static AIWeights unscale(double[] x)
+    {
+        double[] v = new double[AIWeights.SIZE];
+        for(int i=0; i<AIWeights.SIZE; i++)
+        {
+            v[i] = AIWeights.getMin(i) + x[i] * (AIWeights.getMax(i) - AIWeights.getMin(i));
+        }
+        return new AIWeights(v);
+    }
+
+    /**
+     * Tunes the AI weights from the command line and compares them with the default weights.
+     * <p>
+     * Arguments, all optional: [generations] [games] [players] [threads] [seed] [start weights].
+     * By default 50 generations of 2000 games a side at 4 players, on every core.
+     * Start weights are given as printed, such as "poorGold=3.0, endgameCity=6.5".
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args)
+    {
+        int generations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int players = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        AIWeights start = args.length > 5 ? AIWeights.parse(args[5]) : AIWeights.DEFAULT;
+        WeightTuner tuner = new WeightTuner(threads, players, seed);
+
+        System.out.println("Tuning over " + generations + " generations of " + games + " games a side at " + players + " players on " + threads + " threads (seed " + seed + ")...");
+        AIWeights tuned = tuner.tune(start, generations, games, System.out);
+        double rate = tuner.fitness(tuned, AIWeights.DEFAULT, GameRandom.seedAt(seed, -1), games);
+        System.out.println("Tuned weights: " + tuned);
+        System.out.printf("Win rate against the default weights: %.3f (even is %.3f)%n", rate, 1.0 / players);
+    }
+}
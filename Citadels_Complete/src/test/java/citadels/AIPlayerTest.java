@@ -33,6 +33,21 @@ public class AIPlayerTest {
         assertEquals("Thief", c.getName());
     }
 
+    //Test chooseCharacter with 1 gold and no cards but weights that never count as poor -> Magician
+    @Test
+    public void testChooseCharacterWeights() {
+        player.setWeights(AIWeights.DEFAULT.with(AIWeights.POOR_GOLD, 0));
+        player.setGold(1);
+        List<CharacterCard> ac = new ArrayList<>();
+        ac.add(new CharacterCard("Assassin", 1, ""));
+        ac.add(new CharacterCard("Thief", 2, ""));
+        ac.add(new CharacterCard("Magician", 3, ""));
+
+        CharacterCard c = player.chooseCharacter(ac);
+        assertEquals("Magician", c.getName());
+        assertEquals(player.getWeights(), player.copy().getWeights());
+    }
+
     //Test chooseCharacter with 1 gold in hand -> Merchant
     @Test
     public void testChooseCharacterOneGoldMerchant() {
@@ -128,6 +143,27 @@ public class AIPlayerTest {
         assertDoesNotThrow(() -> player.chooseCharacter(ac));
     }
 
+    //Test chooseCharacter without a game draws from the player's seeded generator -> same picks every run
+    @Test
+    public void testChooseCharacterWithoutGameIsSeeded() {
+        List<CharacterCard> ac = new ArrayList<>(CharacterCard.getCharacters());
+        AIPlayer same = new AIPlayer(player.getId(), "Same");
+        AIPlayer split = new AIPlayer(9, "Split");
+        AIPlayer other = new AIPlayer(9, "Other");
+        split.setRandom(new GameRandom(5L).split());
+        other.setRandom(new GameRandom(5L).split());
+        for (AIPlayer p : List.of(player, same, split, other)) {
+            p.setGold(9);
+            p.drawCard(new DistrictCard("Watchtower", 1, "red", ""));
+            p.drawCard(new DistrictCard("Harbor", 4, "green", ""));
+        }
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(player.chooseCharacter(ac), same.chooseCharacter(ac));
+            assertSame(split.chooseCharacter(ac), other.chooseCharacter(ac));
+        }
+    }
+
     // Test hasBuilt() -> True if the district exists in the city
     @Test
     public void testHasBuilt() {
@@ -524,6 +560,23 @@ public class AIPlayerTest {
         assertTrue(player.getCity().get(1).getName().equals("School of Magic"));
     }
 
+    //Test take with observatory and only 2 cards in the deck -> choose from the 2 cards
+    @Test
+    public void testTakeCardsObservatoryTwoInDeck() {
+        DistrictCard d1 = new DistrictCard("Observatory", 5, "purple", "");
+        DistrictCard d2 = new DistrictCard("Tavern", 1, "green", "");
+        DistrictCard d3 = new DistrictCard("Market", 1, "green", "");
+        player.getCity().add(d1);
+        game.getDistrictDeck().add(d2);
+        game.getDistrictDeck().add(d3);
+
+        player.takeCards(game);
+
+        assertEquals(1, player.getHand().size());
+        assertEquals(1, game.getDistrictDeck().size());
+        assertNotSame(player.getHand().get(0), game.getDistrictDeck().get(0));
+    }
+
     //Test normal take with observatory 2 -> choose from 3 cards, pick the 1st one
     @Test
     public void testTurnObservatory2() {
@@ -678,6 +731,34 @@ public class AIPlayerTest {
         assertTrue(player.getHand().get(0).getName().equals("School of Magic"));
     }
 
+    //Test the card taken with the Lighthouse leaves the district deck, and an empty deck gives nothing
+    @Test
+    public void testTurnLighthouseTakesCardFromDeck() {
+        player.setGold(10);
+        DistrictCard d = new DistrictCard("Watchtower", 1, "red", "");
+        DistrictCard d1 = new DistrictCard("Lighthouse", 3, "purple", "");
+        DistrictCard d2 = new DistrictCard("School of Magic", 6, "purple", "");
+        DistrictCard d3 = new DistrictCard("Tavern", 1, "green", "");
+        game.getDistrictDeck().add(d);
+        game.getDistrictDeck().add(d1);
+        game.getDistrictDeck().add(d2);
+        game.getDistrictDeck().add(d3);
+
+        player.takeTurn(game);
+
+        assertEquals(2, game.getDistrictDeck().size());
+        assertFalse(game.getDistrictDeck().view().contains(d2));
+
+        AIPlayer other = new AIPlayer(2, "Other");
+        other.setGold(10);
+        other.getHand().add(new DistrictCard("Lighthouse", 3, "purple", ""));
+        game.getDistrictDeck().draw();
+        game.getDistrictDeck().draw();
+        other.takeTurn(game);
+        assertEquals(1, other.getCity().size());
+        assertEquals(0, other.getHand().size());
+    }
+
     //Test normal take turn District with Lab -> use it with card of low cost
     @Test
     public void testTurnLab() {
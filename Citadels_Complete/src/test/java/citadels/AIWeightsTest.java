@@ -0,0 +1,43 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AIWeightsTest {
+
+    // Test the default weights are the thresholds the rules were written with
+    @Test
+    public void testDefaults() {
+        AIWeights w = AIWeights.DEFAULT;
+        assertEquals(2, w.get(AIWeights.POOR_GOLD));
+        assertEquals(7, w.get(AIWeights.ENDGAME_CITY));
+        assertEquals(3, w.get(AIWeights.GRAVEYARD_MIN_COST));
+        assertEquals(AIWeights.SIZE, w.getValues().length);
+        assertSame(AIWeights.DEFAULT, AIWeights.of(new HumanPlayer(1, "Human")));
+    }
+
+    // Test values are clamped to their range and rounded for the rules
+    @Test
+    public void testClampAndRound() {
+        AIWeights w = AIWeights.DEFAULT.with(AIWeights.POOR_GOLD, 3.6).with(AIWeights.ENDGAME_CITY, 100);
+        assertEquals(3.6, w.getValue(AIWeights.POOR_GOLD));
+        assertEquals(4, w.get(AIWeights.POOR_GOLD));
+        assertEquals(AIWeights.getMax(AIWeights.ENDGAME_CITY), w.getValue(AIWeights.ENDGAME_CITY));
+        assertEquals(2, AIWeights.DEFAULT.get(AIWeights.POOR_GOLD));
+        assertEquals(AIWeights.getMin(AIWeights.MAGICIAN_KEEP_COST),
+                AIWeights.DEFAULT.with(AIWeights.MAGICIAN_KEEP_COST, -5).getValue(AIWeights.MAGICIAN_KEEP_COST));
+        assertThrows(IllegalArgumentException.class, () -> new AIWeights(new double[2]));
+    }
+
+    // Test weights read back from their text are equal
+    @Test
+    public void testParse() {
+        AIWeights w = AIWeights.DEFAULT.with(AIWeights.SMITHY_HAND_BELOW, 4.25);
+        assertEquals(w, AIWeights.parse(w.toString()));
+        assertEquals(w, AIWeights.parse("smithyHandBelow=4.25"));
+        assertEquals(AIWeights.DEFAULT, AIWeights.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> AIWeights.parse("unknown=1"));
+        assertThrows(IllegalArgumentException.class, () -> AIWeights.parse("poorGold=x"));
+    }
+}
@@ -80,5 +80,37 @@ public class AssassinActionTest {
         System.setIn(originalIn);
         assertEquals(5, game.getKilledCharacterOrder());
     }
-    
+
+    // Let the AI assassin choose at a table where it saw every character in play, with one large city
+    private int killWithLargeCity(int seat) {
+        Game g = new Game(1L);
+        g.setUpHeadless(4);
+        int[] orders = {1, 2, 4, 7};
+        for (int i = 0; i < 4; i++) {
+            g.getPlayers().get(i).setCharacter(CharacterCard.getCharacter(orders[i]));
+        }
+        g.facedUp = new ArrayList<>(List.of(CharacterCard.getCharacter(3), CharacterCard.getCharacter(5), CharacterCard.getCharacter(6)));
+        g.setSelectionOrder(new int[] {0, 1, 2, 3});
+        int pile = CharacterCard.mask(List.of(CharacterCard.getCharacter(1), CharacterCard.getCharacter(2),
+                CharacterCard.getCharacter(4), CharacterCard.getCharacter(7)));
+        g.setSeenCharacters(new int[] {pile, pile & ~0b1, pile & ~0b11, 1 << 6});
+        for (int i = 0; i < 6; i++) {
+            g.getPlayers().get(seat).getCity().add(new DistrictCard(DistrictCatalog.get(i)));
+        }
+        assertTrue(CharacterInference.getDefault().find(g, g.getPlayers().get(0)) >= 0);
+
+        action.performAction(g, g.getPlayers().get(0));
+        return g.getKilledCharacterOrder();
+    }
+
+    // Test the AI assassin never kills the face-down character, and goes after the likely character of the largest city
+    @Test
+    public void testAssassinTargetsLargestCity() {
+        int second = killWithLargeCity(2);
+        int last = killWithLargeCity(3);
+
+        assertTrue(second == 2 || second == 4 || second == 7);
+        assertTrue(last == 2 || last == 4 || last == 7);
+        assertNotEquals(second, last);
+    }
 }
@@ -0,0 +1,116 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+public class AutoSaverTest {
+
+    // Test a game saved at the end of every round loads back as the game after its last round
+    @Test
+    public void testSavesEveryRound() throws IOException {
+        File file = File.createTempFile("citadels", ".save");
+        Game game = new Game(17L);
+        game.setUpHeadless(5);
+        AutoSaver saver = new AutoSaver(file);
+        saver.attach(game);
+        game.nextRound();
+        game.nextRound();
+        saver.close();
+
+        assertEquals(2, saver.getSnapshots());
+        assertTrue(saver.getSaves() >= 1);
+        assertNull(saver.getLastError());
+        Game loaded = Game.loadFromFile(file.getPath());
+        assertNotNull(loaded);
+        assertEquals(game.getRound(), loaded.getRound());
+        for (int i = 0; i < 5; i++) {
+            assertEquals(game.getPlayers().get(i).getGold(), loaded.getPlayers().get(i).getGold());
+            assertEquals(game.getPlayers().get(i).getCity().toString(), loaded.getPlayers().get(i).getCity().toString());
+        }
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        file.delete();
+    }
+
+    // Test snapshots waiting for a busy writer are coalesced into the newest one
+    @Test
+    public void testOverlappingSavesCoalesce() throws IOException {
+        File file = File.createTempFile("citadels", ".save");
+        List<Runnable> queued = new ArrayList<>();
+        AutoSaver saver = new AutoSaver(file, queued::add);
+        Game game = new Game(23L);
+        game.setUpHeadless(4);
+        saver.attach(game);
+        game.nextRound();
+        game.nextRound();
+        game.nextRound();
+
+        assertEquals(3, saver.getSnapshots());
+        assertEquals(1, queued.size());
+        queued.get(0).run();
+        saver.close();
+
+        assertEquals(1, saver.getSaves());
+        assertEquals(4, Game.loadFromFile(file.getPath()).getRound());
+        file.delete();
+    }
+
+    // Test a saver on a pool of threads writes one save at a time and ends with the newest
+    @Test
+    public void testOneWriteAtATimeOnPool() throws IOException {
+        File file = File.createTempFile("citadels", ".save");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger most = new AtomicInteger();
+        AutoSaver saver = new AutoSaver(file, r -> pool.execute(() -> {
+            most.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                r.run();
+            } finally {
+                running.decrementAndGet();
+            }
+        }));
+        Game game = new Game(31L);
+        game.setUpHeadless(4);
+        saver.attach(game);
+        while (!game.shouldEndGame()) {
+            game.nextRound();
+            for (int i = 0; i < 5; i++) {
+                saver.save(game);
+            }
+        }
+        saver.close();
+        pool.shutdown();
+
+        assertEquals(1, most.get());
+        assertNull(saver.getLastError());
+        assertEquals(game.getRound(), Game.loadFromFile(file.getPath()).getRound());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        file.delete();
+    }
+
+    // Test the snapshot is not changed by the rounds played after it
+    @Test
+    public void testSnapshotIsIndependentOfGame() throws IOException {
+        File file = File.createTempFile("citadels", ".save");
+        List<Runnable> queued = new ArrayList<>();
+        AutoSaver saver = new AutoSaver(file, queued::add);
+        Game game = new Game(29L);
+        game.setUpHeadless(4);
+        game.nextRound();
+        saver.save(game);
+        int gold = game.getPlayers().get(0).getGold();
+        game.nextRound();
+        game.getPlayers().get(0).setGold(gold + 100);
+        queued.get(0).run();
+        saver.close();
+
+        assertEquals(2, Game.loadFromFile(file.getPath()).getRound());
+        assertEquals(gold, Game.loadFromFile(file.getPath()).getPlayers().get(0).getGold());
+        file.delete();
+    }
+}
@@ -0,0 +1,161 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+
+public class BinarySaveTest {
+
+    // Play a seeded game to the middle
+    private Game midGame() {
+        Game game = new Game(31L);
+        game.setUpHeadless(6);
+        for (int i = 0; i < 3; i++) {
+            game.nextRound();
+        }
+        return game;
+    }
+
+    // Test varints of both signs read back the same
+    @Test
+    public void testVarIntRoundTrip() throws IOException {
+        int[] values = {0, 1, 127, 128, 300, 16383, 16384, Integer.MAX_VALUE};
+        int[] signed = {0, -1, 1, -64, 64, -65, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (int v : values) {
+            BinarySave.writeVarInt(out, v);
+        }
+        for (int v : signed) {
+            BinarySave.writeSignedVarInt(out, v);
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        for (int v : values) {
+            assertEquals(v, BinarySave.readVarInt(in));
+        }
+        for (int v : signed) {
+            assertEquals(v, BinarySave.readSignedVarInt(in));
+        }
+        assertEquals(-1, in.read());
+    }
+
+    // Test catalog cards are one byte of type, cards edited by hand keep their attributes
+    @Test
+    public void testCardRoundTrip() throws IOException {
+        DistrictCard museum = new DistrictCard(DistrictCatalog.get(DistrictCatalog.MUSEUM));
+        museum.setBuiltRound(3);
+        museum.storeCard(new DistrictCard(DistrictCatalog.get(0)));
+        DistrictCard edited = new DistrictCard("Castle", 9, "yellow", "Homemade");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        BinarySave.writeCard(out, museum);
+        int catalogSize = bytes.size();
+        BinarySave.writeCard(out, edited);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        DistrictCard museumBack = BinarySave.readCard(in);
+        DistrictCard editedBack = BinarySave.readCard(in);
+
+        assertEquals(6, catalogSize);
+        assertSame(museum.getType(), museumBack.getType());
+        assertEquals(3, museumBack.getBuiltRound());
+        assertEquals(1, museumBack.getStoredCards().size());
+        assertSame(DistrictCatalog.get(0), museumBack.getStoredCards().get(0).getType());
+        assertEquals(9, editedBack.getCost());
+        assertEquals("Homemade", editedBack.getAbility());
+        assertEquals(DistrictCatalog.idOf("Castle"), editedBack.getTypeId());
+    }
+
+    // Test a binary save loads back the same game, characters included, and is detected by loadFromFile
+    @Test
+    public void testSaveAndLoadGame() {
+        Game original = midGame();
+        String filename = "test_game_save.bin";
+        original.saveBinaryToFile(filename);
+        Game loaded = Game.loadFromFile(filename);
+        new File(filename).delete();
+
+        assertNotNull(loaded);
+        assertEquals(original.getRound(), loaded.getRound());
+        assertEquals(original.getEndThreshold(), loaded.getEndThreshold());
+        assertEquals(original.getDistrictDeck().getAllCards().toString(), loaded.getDistrictDeck().getAllCards().toString());
+        assertEquals(original.getPlayers().indexOf(original.getCrownedPlayer()), loaded.getPlayers().indexOf(loaded.getCrownedPlayer()));
+        for (int i = 0; i < 6; i++) {
+            Player a = original.getPlayers().get(i);
+            Player b = loaded.getPlayers().get(i);
+            assertEquals(a.getName(), b.getName());
+            assertEquals(a.getGold(), b.getGold());
+            assertEquals(a.getHand().toString(), b.getHand().toString());
+            assertEquals(a.getCity().toString(), b.getCity().toString());
+            assertSame(a.getCharacter(), b.getCharacter());
+        }
+    }
+
+    // Test a loaded binary save keeps the seed and random state, so it plays on as the saved game would
+    @Test
+    public void testLoadedGamePlaysOnTheSame() throws IOException {
+        Game original = midGame();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeBinary(bytes);
+        Game loaded = Game.readBinary(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertEquals(original.getSeed(), loaded.getSeed());
+        loaded.setHeadless(true);
+        Player winner = original.playToEnd();
+        Player loadedWinner = loaded.playToEnd();
+        assertEquals(TestGames.describe(original), TestGames.describe(loaded));
+        assertEquals(original.getPlayers().indexOf(winner), loaded.getPlayers().indexOf(loadedWinner));
+    }
+
+    // Test the binary save is far smaller than the JSON one
+    @Test
+    public void testBinaryIsSmallerThanJson() throws IOException {
+        Game game = midGame();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        game.writeJson(json);
+        game.writeBinary(binary);
+
+        assertTrue(binary.size() * 10 < json.size(), binary.size() + " bytes against " + json.size());
+    }
+
+    // Test an unknown version is rejected
+    @Test
+    public void testUnknownVersionRejected() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinarySave.MAGIC);
+        BinarySave.writeVarInt(out, BinarySave.VERSION + 1);
+
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(BinarySave.isBinary(in));
+        assertThrows(IOException.class, () -> Game.readBinary(in));
+    }
+
+    // Test a save whose crowned player is not at the table is rejected
+    @Test
+    public void testMissingCrownedPlayerRejected() throws IOException {
+        Game game = midGame();
+        game.restoreCrownedPlayer(new AIPlayer(9, "Stranger"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        game.writeBinary(bytes);
+
+        assertThrows(IOException.class, () -> Game.readBinary(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    // Test a card count that is negative or larger than a full deck is rejected before anything is allocated
+    @Test
+    public void testCardCountOutOfRangeRejected() throws IOException {
+        int[] counts = {-1, DistrictCatalog.getDeckSize() + 1, Integer.MAX_VALUE};
+        for (int count : counts) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinarySave.writeVarInt(new DataOutputStream(bytes), count);
+
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+            assertThrows(IOException.class, () -> BinarySave.readCards(in));
+        }
+    }
+}
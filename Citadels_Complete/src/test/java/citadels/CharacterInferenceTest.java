@@ -0,0 +1,95 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CharacterInferenceTest {
+
+    // Test the chances of the game's table follow from what each player was offered
+    @Test
+    public void testDefaultTableMatchesDeals() {
+        CharacterInference table = CharacterInference.getDefault();
+        assertTrue(table.size() > 0);
+        int checked = 0;
+        for (long seed = 1; seed <= 40; seed++) {
+            Game game = new Game(seed);
+            game.setUpHeadless(4 + (int) (seed % 4));
+            game.selectionPhase();
+            int faceUp = CharacterCard.mask(game.facedUp);
+            for (Player p : game.getPlayers()) {
+                int entry = table.find(game, p);
+                if (entry < 0) {
+                    continue;
+                }
+                int seen = game.getSeenCharacters()[game.getPlayers().indexOf(p)];
+                for (int order = 1; order <= 8; order++) {
+                    double total = 0;
+                    for (int slot = 0; slot < CharacterInference.SLOTS; slot++) {
+                        total += table.chance(entry, order, slot);
+                    }
+                    boolean known = order == p.getCharacter().getOrder() || (faceUp & 1 << (order - 1)) != 0;
+                    assertEquals(known ? 0 : 1, total, 0.02);
+                    if (!known && (seen & 1 << (order - 1)) != 0) {
+                        assertEquals(0, table.chance(entry, order, CharacterInference.FACE_DOWN));
+                    }
+                }
+                checked++;
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    // Test a table reads back the same as it was written
+    @Test
+    public void testWriteAndRead() throws IOException {
+        CharacterInference table = new CharacterInferenceBuilder(1, 3L).build(40, 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        table.write(out);
+        CharacterInference read = CharacterInference.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(table.size(), read.size());
+        ByteArrayOutputStream again = new ByteArrayOutputStream();
+        read.write(again);
+        assertArrayEquals(out.toByteArray(), again.toByteArray());
+        assertThrows(IOException.class, () -> CharacterInference.read(new ByteArrayInputStream(new byte[8])));
+    }
+
+    // Test the table built does not depend on the number of threads
+    @Test
+    public void testBuildIsDeterministic() throws IOException {
+        ByteArrayOutputStream one = new ByteArrayOutputStream();
+        new CharacterInferenceBuilder(1, 5L).build(30, 2).write(one);
+        ByteArrayOutputStream three = new ByteArrayOutputStream();
+        new CharacterInferenceBuilder(3, 5L).build(30, 2).write(three);
+        assertArrayEquals(one.toByteArray(), three.toByteArray());
+    }
+
+    // Test the target is the character worth the most to the players likely to hold it
+    @Test
+    public void testTarget() {
+        Game game = new Game(2L);
+        game.setUpHeadless(4);
+        Player assassin = game.getPlayers().get(0);
+        assassin.setCharacter(CharacterCard.getCharacter(1));
+        game.setSelectionOrder(new int[] {0, 1, 2, 3});
+        assertEquals(-1, CharacterInference.getDefault().target(game, assassin, List.of(2, 3), p -> 0));
+
+        game.facedUp = new ArrayList<>();
+        game.setSeenCharacters(new int[] {0xFF, 0, 0, 0});
+        byte[] chances = new byte[CharacterInference.ENTRY_SIZE];
+        chances[(3 - 1) * CharacterInference.SLOTS + CharacterInference.FACE_DOWN] = (byte) 255;
+        chances[(5 - 1) * CharacterInference.SLOTS + 2] = (byte) 255;
+        chances[(6 - 1) * CharacterInference.SLOTS + 1] = (byte) 128;
+        chances[(6 - 1) * CharacterInference.SLOTS + 3] = (byte) 127;
+        CharacterInference table = new CharacterInference(new int[] {CharacterInference.key(4, 0, 1, 0, 0xFF)}, chances);
+
+        assertEquals(0, table.find(game, assassin));
+        assertEquals(5, table.target(game, assassin, List.of(3, 5, 6), p -> 0));
+        assertEquals(6, table.target(game, assassin, List.of(3, 5, 6), p -> p == game.getPlayers().get(3) ? 9 : 0));
+        assertEquals(5, table.target(game, assassin, List.of(3, 5), p -> 0));
+    }
+}
@@ -0,0 +1,165 @@
+package citadels;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CityTest {
+
+    private City city;
+    private DistrictCard museum;
+    private DistrictCard castle;
+
+    @BeforeEach
+    public void setUp() {
+        city = new City();
+        museum = new DistrictCard("Museum", 4, "purple", "");
+        castle = new DistrictCard("Castle", 4, "yellow", "");
+    }
+
+    // Test city behaves as a list in build order
+    @Test
+    public void testListOrder() {
+        city.add(castle);
+        city.add(museum);
+        assertEquals(2, city.size());
+        assertSame(castle, city.get(0));
+        assertSame(museum, city.get(1));
+        assertEquals(Arrays.asList(castle, museum), new ArrayList<>(city));
+        assertThrows(IndexOutOfBoundsException.class, () -> city.get(2));
+    }
+
+    // Test built districts are found by type id after adding
+    @Test
+    public void testAddUpdatesIndex() {
+        assertNull(city.getBuilt(DistrictCatalog.MUSEUM));
+        city.add(museum);
+        assertSame(museum, city.getBuilt(DistrictCatalog.MUSEUM));
+        assertEquals(1, city.count(DistrictCatalog.MUSEUM));
+        assertEquals(0, city.count(DistrictCatalog.KEEP));
+        assertNull(city.getBuilt(-1));
+    }
+
+    // Test removing by index or by card keeps the index consistent
+    @Test
+    public void testRemoveUpdatesIndex() {
+        city.add(castle);
+        city.add(museum);
+        city.remove(museum);
+        assertNull(city.getBuilt(DistrictCatalog.MUSEUM));
+        assertEquals(0, city.count(DistrictCatalog.MUSEUM));
+        city.remove(0);
+        assertTrue(city.isEmpty());
+        assertEquals(0, city.count(DistrictCatalog.idOf("Castle")));
+    }
+
+    // Test duplicates are counted and the first copy is returned
+    @Test
+    public void testDuplicates() {
+        DistrictCard secondCastle = new DistrictCard("Castle", 4, "yellow", "");
+        int id = DistrictCatalog.idOf("Castle");
+        city.add(castle);
+        city.add(secondCastle);
+        assertEquals(2, city.count(id));
+        assertSame(castle, city.getBuilt(id));
+
+        city.remove(castle);
+        assertEquals(1, city.count(id));
+        assertSame(secondCastle, city.getBuilt(id));
+    }
+
+    // Test inserting before the first copy makes it the new first copy
+    @Test
+    public void testInsertAtFront() {
+        DistrictCard secondCastle = new DistrictCard("Castle", 4, "yellow", "");
+        city.add(castle);
+        city.add(0, secondCastle);
+        assertSame(secondCastle, city.getBuilt(DistrictCatalog.idOf("Castle")));
+    }
+
+    // Test removing through an iterator and clearing keep the index consistent
+    @Test
+    public void testIteratorRemoveAndClear() {
+        city.add(castle);
+        city.add(museum);
+        Iterator<DistrictCard> it = city.iterator();
+        it.next();
+        it.remove();
+        assertEquals(0, city.count(DistrictCatalog.idOf("Castle")));
+        assertSame(museum, city.getBuilt(DistrictCatalog.MUSEUM));
+
+        city.clear();
+        assertTrue(city.isEmpty());
+        assertNull(city.getBuilt(DistrictCatalog.MUSEUM));
+    }
+
+    // Test colors are counted ignoring case, including colors outside the usual five
+    @Test
+    public void testColorCounts() {
+        city.add(castle);
+        city.add(new DistrictCard("Manor", 3, "Yellow", ""));
+        city.add(museum);
+        city.add(new DistrictCard("Shack", 1, "brown", ""));
+        assertEquals(2, city.getColorCount(DistrictType.YELLOW));
+        assertEquals(1, city.getColorCount(DistrictType.PURPLE));
+        assertEquals(0, city.getColorCount(DistrictType.RED));
+        assertEquals(3, city.getDistinctColors());
+
+        city.remove(3);
+        city.remove(museum);
+        assertEquals(1, city.getDistinctColors());
+    }
+
+    // Test School of Magic pays income for every color
+    @Test
+    public void testIncomeCounts() {
+        city.add(castle);
+        city.add(new DistrictCard("Temple", 1, "blue", ""));
+        assertEquals(1, city.getIncomeCount(DistrictType.YELLOW));
+        assertEquals(0, city.getIncomeCount(DistrictType.RED));
+
+        DistrictCard school = new DistrictCard("School of Magic", 6, "purple", "");
+        city.add(school);
+        assertEquals(2, city.getIncomeCount(DistrictType.YELLOW));
+        assertEquals(2, city.getIncomeCount(DistrictType.BLUE));
+        assertEquals(1, city.getIncomeCount(DistrictType.RED));
+
+        city.remove(school);
+        assertEquals(0, city.getIncomeCount(DistrictType.RED));
+    }
+
+    // Test score value follows the districts built
+    @Test
+    public void testScoreValue() {
+        city.add(castle);
+        city.add(new DistrictCard("University", 6, "purple", ""));
+        assertEquals(12, city.getScoreValue());
+        city.remove(castle);
+        assertEquals(8, city.getScoreValue());
+    }
+
+    // Test counting a type by color also sees copies made with another color
+    @Test
+    public void testCountByColor() {
+        int well = DistrictCatalog.WISHING_WELL;
+        city.add(new DistrictCard("Wishing Well", 5, "purple", ""));
+        assertEquals(1, city.count(well, DistrictType.PURPLE));
+        city.add(new DistrictCard("Wishing Well", 0, "red", ""));
+        assertEquals(1, city.count(well, DistrictType.PURPLE));
+        assertEquals(1, city.count(well, DistrictType.RED));
+        assertEquals(2, city.count(well));
+    }
+
+    // Test city grows past its initial capacity
+    @Test
+    public void testGrow() {
+        for (int i = 0; i < 20; i++) {
+            city.add(new DistrictCard("Tavern", 1, "green", ""));
+        }
+        assertEquals(20, city.size());
+        assertEquals(20, city.count(DistrictCatalog.idOf("Tavern")));
+    }
+}
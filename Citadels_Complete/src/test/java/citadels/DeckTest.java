@@ -68,8 +68,105 @@ public class DeckTest {
         deck.add(new DistrictCard("Temple", 1, "blue", ""));
         deck.add(new DistrictCard("Market", 2, "green", ""));
         int sizeBefore = deck.size();
-        deck.shuffle();
+        deck.shuffle(new GameRandom(5L));
         assertEquals(sizeBefore, deck.size());
     }
-    
+
+    // Fill a deck of numbers, drawing some first so the cards wrap around the end of the buffer
+    private Deck<Integer> wrappedDeck(int count) {
+        Deck<Integer> numbers = new Deck<>();
+        for (int i = 0; i < 12; i++) {
+            numbers.add(-1);
+        }
+        for (int i = 0; i < 12; i++) {
+            numbers.draw();
+        }
+        for (int i = 0; i < count; i++) {
+            numbers.add(i);
+        }
+        return numbers;
+    }
+
+    // Test the deck keeps its order when it wraps around and grows
+    @Test
+    public void testWrapAroundAndGrow() {
+        Deck<Integer> numbers = wrappedDeck(40);
+        assertEquals(40, numbers.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(i, numbers.get(i));
+        }
+        assertEquals(0, numbers.draw());
+        assertThrows(IndexOutOfBoundsException.class, () -> numbers.get(39));
+    }
+
+    // Test removing a card by position keeps the order of the others, from either half
+    @Test
+    public void testRemoveByIndex() {
+        Deck<Integer> numbers = wrappedDeck(10);
+        assertEquals(2, numbers.remove(2));
+        assertEquals(8, numbers.remove(7));
+        assertEquals(Arrays.asList(0, 1, 3, 4, 5, 6, 7, 9), numbers.getAllCards());
+        numbers.add(10);
+        assertEquals(Arrays.asList(0, 1, 3, 4, 5, 6, 7, 9, 10), numbers.getAllCards());
+    }
+
+    // Test inserting a card by position undoes removing it, from either half
+    @Test
+    public void testInsertUndoesRemove() {
+        Deck<Integer> numbers = wrappedDeck(16);
+        List<Integer> expected = numbers.getAllCards();
+        for (int i = 0; i < 16; i++) {
+            Integer card = numbers.remove(i);
+            numbers.insert(i, card);
+            assertEquals(expected, numbers.getAllCards());
+        }
+        numbers.insert(16, 16);
+        assertEquals(17, numbers.size());
+        assertEquals(16, numbers.get(16));
+        assertThrows(IndexOutOfBoundsException.class, () -> numbers.insert(18, 0));
+    }
+
+    // Test the view follows the deck and cannot change it
+    @Test
+    public void testViewIsLiveAndReadOnly() {
+        Deck<Integer> numbers = wrappedDeck(3);
+        List<Integer> view = numbers.view();
+        assertEquals(Arrays.asList(0, 1, 2), view);
+        numbers.draw();
+        assertEquals(Arrays.asList(1, 2), view);
+        assertSame(view, numbers.view());
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(0));
+    }
+
+    // Test the in-place shuffle gives the same order as Collections.shuffle with the same seed
+    @Test
+    public void testShuffleMatchesCollectionsShuffle() {
+        Deck<Integer> numbers = wrappedDeck(30);
+        List<Integer> expected = numbers.getAllCards();
+        numbers.shuffle(new GameRandom(9L));
+        Collections.shuffle(expected, new GameRandom(9L));
+        assertEquals(expected, numbers.getAllCards());
+    }
+
+    // Test unshuffling with the generator as it was before the shuffle gives back the order
+    @Test
+    public void testUnshuffleUndoesShuffle() {
+        Deck<Integer> numbers = wrappedDeck(30);
+        List<Integer> expected = numbers.getAllCards();
+        GameRandom random = new GameRandom(9L);
+        long state = random.getState();
+        numbers.shuffle(random);
+        assertNotEquals(expected, numbers.getAllCards());
+        random.setState(state);
+        numbers.unshuffle(random, new int[30]);
+        assertEquals(expected, numbers.getAllCards());
+    }
+
+    // Test a null card, as drawn from an empty deck, is rejected instead of being lost
+    @Test
+    public void testAddNullRejected() {
+        assertThrows(NullPointerException.class, () -> deck.add(deck.draw()));
+        assertThrows(NullPointerException.class, () -> deck.putBack(null));
+        assertTrue(deck.isEmpty());
+    }
 }
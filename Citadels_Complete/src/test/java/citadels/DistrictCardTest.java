@@ -41,5 +41,27 @@ public class DistrictCardTest {
         assertTrue(card.isGreater(harbor));
         assertFalse(harbor.isGreater(card));
     }
+
+    // Test cards built from catalog attributes share the catalog type
+    @Test
+    public void testSharedType() {
+        DistrictCard a = new DistrictCard("Tavern", 1, "green", "");
+        DistrictCard b = new DistrictCard("Tavern", 1, "green", "");
+        assertSame(a.getType(), b.getType());
+        assertEquals(DistrictCatalog.idOf("Tavern"), a.getTypeId());
+        assertEquals(DistrictCatalog.idOf("Museum"), card.getTypeId());
+    }
+
+    // Test stored cards belong to one copy of the card only
+    @Test
+    public void testStoredCardsPerCopy() {
+        DistrictCard other = new DistrictCard(card.getType());
+        assertTrue(card.getStoredCards().isEmpty());
+        card.storeCard(new DistrictCard("Tavern", 1, "green", ""));
+        assertEquals(1, card.getStoredCards().size());
+        assertTrue(other.getStoredCards().isEmpty());
+        card.clearStoredCards();
+        assertTrue(card.getStoredCards().isEmpty());
+    }
     
 }
@@ -0,0 +1,96 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DistrictCatalogTest {
+
+    // Test catalog has one type per row of cards.tsv, in file order
+    @Test
+    public void testCatalogLoaded() {
+        assertEquals(41, DistrictCatalog.size());
+        assertEquals("Watchtower", DistrictCatalog.get(0).getName());
+        for (int id = 0; id < DistrictCatalog.size(); id++) {
+            assertEquals(id, DistrictCatalog.get(id).getId());
+        }
+    }
+
+    // Test lookup of type ids by name ignores case
+    @Test
+    public void testIdOf() {
+        int castle = DistrictCatalog.idOf("Castle");
+        assertTrue(castle >= 0);
+        assertEquals(castle, DistrictCatalog.idOf("castle"));
+        assertEquals("yellow", DistrictCatalog.get(castle).getColor());
+        assertEquals(4, DistrictCatalog.get(castle).getCost());
+        assertEquals(-1, DistrictCatalog.idOf("Not A District"));
+        assertEquals(-1, DistrictCatalog.idOf(null));
+    }
+
+    // Test abilities are read without the line ending of the file
+    @Test
+    public void testAbilityTrimmed() {
+        assertEquals("", DistrictCatalog.get(DistrictCatalog.idOf("Watchtower")).getAbility());
+        assertFalse(DistrictCatalog.get(DistrictCatalog.idOf("Museum")).getAbility().endsWith("\r"));
+    }
+
+    // Test score values of the special districts
+    @Test
+    public void testScoreValue() {
+        assertEquals(8, DistrictCatalog.get(DistrictCatalog.idOf("Dragon Gate")).getScoreValue());
+        assertEquals(8, DistrictCatalog.get(DistrictCatalog.idOf("University")).getScoreValue());
+        assertEquals(4, DistrictCatalog.get(DistrictCatalog.idOf("Castle")).getScoreValue());
+    }
+
+    // Test matching attributes give the shared type and others an own type with the same id
+    @Test
+    public void testTypeOf() {
+        DistrictType castle = DistrictCatalog.get(DistrictCatalog.idOf("Castle"));
+        assertSame(castle, DistrictCatalog.typeOf("Castle", 4, "yellow", ""));
+
+        DistrictType edited = DistrictCatalog.typeOf("Castle", 9, "yellow", "");
+        assertNotSame(castle, edited);
+        assertEquals(castle.getId(), edited.getId());
+        assertEquals(9, edited.getCost());
+
+        assertEquals(-1, DistrictCatalog.typeOf("Shack", 1, "red", "").getId());
+    }
+
+    // Test every copy of a type in the deck shares the same type
+    @Test
+    public void testDeckSharesTypes() {
+        Deck<DistrictCard> deck = new App().loadDistrictDeck();
+        int total = 0;
+        for (int id = 0; id < DistrictCatalog.size(); id++) {
+            total += DistrictCatalog.getQuantity(id);
+        }
+        assertEquals(total, deck.size());
+
+        Map<String, DistrictType> seen = new HashMap<>();
+        for (DistrictCard card : deck.getAllCards()) {
+            DistrictType type = seen.computeIfAbsent(card.getName(), n -> card.getType());
+            assertSame(type, card.getType());
+            assertSame(DistrictCatalog.get(card.getTypeId()), card.getType());
+        }
+    }
+
+    // Test a shuffled new deck is the shuffle of a new deck, made of new cards every time
+    @Test
+    public void testNewDeckFromPrototype() {
+        Deck<DistrictCard> deck = DistrictCatalog.newDeck();
+        assertEquals(DistrictCatalog.getDeckSize(), deck.size());
+        deck.shuffle(new GameRandom(4L));
+        Deck<DistrictCard> shuffled = DistrictCatalog.newDeck(new GameRandom(4L));
+        assertEquals(deck.getAllCards().toString(), shuffled.getAllCards().toString());
+
+        DistrictCard card = shuffled.draw();
+        card.setBuiltRound(3);
+        for (DistrictCard c : DistrictCatalog.newDeck().getAllCards()) {
+            assertNotSame(card, c);
+            assertEquals(-1, c.getBuiltRound());
+        }
+    }
+}
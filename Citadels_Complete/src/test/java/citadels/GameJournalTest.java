@@ -0,0 +1,96 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class GameJournalTest {
+
+    // Journal that keeps a copy of the game and the length of the file at every step
+    private static class RecordingJournal extends GameJournal {
+        List<Game> games = new ArrayList<>();
+        List<Long> lengths = new ArrayList<>();
+        List<Integer> orders = new ArrayList<>();
+
+        RecordingJournal(File file) {
+            super(file, 0, false);
+        }
+
+        @Override
+        public void record(Game game, int nextOrder) {
+            super.record(game, nextOrder);
+            games.add(game.copy());
+            lengths.add(getFile().length());
+            orders.add(nextOrder);
+        }
+    }
+
+    // Test a game recovered at any step, even from a torn step, matches the game at that step and plays on the same
+    @Test
+    public void testRecoverAtEveryStep() throws IOException {
+        File file = File.createTempFile("citadels", ".journal");
+        Game game = new Game(5L);
+        game.setUpHeadless(5);
+        RecordingJournal journal = new RecordingJournal(file);
+        journal.attach(game);
+        Player winner = game.playToEnd();
+        journal.close();
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        assertTrue(journal.games.size() > 20);
+        for (int step = 0; step < journal.games.size(); step += 7) {
+            int length = journal.lengths.get(step).intValue();
+            int torn = Math.min(bytes.length, length + 5);
+            Files.write(file.toPath(), Arrays.copyOf(bytes, torn));
+
+            Game recovered = GameJournal.recover(file);
+            Game expected = journal.games.get(step);
+            assertEquals(TestGames.describe(expected), TestGames.describe(recovered));
+
+            int order = journal.orders.get(step);
+            if (order > 0) {
+                expected.turnPhase(order);
+                expected.endRound();
+            }
+            Player recoveredWinner = recovered.playToEnd();
+            Player expectedWinner = expected.playToEnd();
+            assertEquals(expected.getPlayers().indexOf(expectedWinner), recovered.getPlayers().indexOf(recoveredWinner));
+            assertEquals(TestGames.describe(expected), TestGames.describe(recovered));
+        }
+        file.delete();
+    }
+
+    // Test checkpoints keep the journal short and still recover the last step
+    @Test
+    public void testCheckpointsKeepJournalShort() throws IOException {
+        File file = File.createTempFile("citadels", ".journal");
+        Game game = new Game(8L);
+        game.setUpHeadless(4);
+        GameJournal journal = new GameJournal(file, 1, false);
+        journal.attach(game);
+        long longest = 0;
+        while (!game.shouldEndGame()) {
+            game.nextRound();
+            longest = Math.max(longest, file.length());
+        }
+        journal.close();
+
+        assertTrue(longest < 2000, "Journal grew to " + longest + " bytes");
+        assertEquals(TestGames.describe(game), TestGames.describe(GameJournal.recover(file)));
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        file.delete();
+    }
+
+    // Test a file that is not a journal is rejected
+    @Test
+    public void testRecoverRejectsOtherFiles() throws IOException {
+        File file = File.createTempFile("citadels", ".journal");
+        Files.write(file.toPath(), "{\"round\":1}".getBytes());
+
+        assertThrows(IOException.class, () -> GameJournal.recover(file));
+        file.delete();
+    }
+}
@@ -0,0 +1,80 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameRandomTest {
+
+    // Test two generators with the same seed give the same sequence
+    @Test
+    public void testSameSeedSameSequence() {
+        GameRandom a = new GameRandom(99L);
+        GameRandom b = new GameRandom(99L);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextLong(), b.nextLong());
+            assertEquals(a.nextInt(7), b.nextInt(7));
+        }
+    }
+
+    // Test different seeds give different sequences
+    @Test
+    public void testDifferentSeedsDiffer() {
+        GameRandom a = new GameRandom(1L);
+        GameRandom b = new GameRandom(2L);
+        assertNotEquals(a.nextLong(), b.nextLong());
+    }
+
+    // Test nextInt stays within its bound and reaches every value
+    @Test
+    public void testNextIntBound() {
+        GameRandom random = new GameRandom(5L);
+        boolean[] seen = new boolean[5];
+        for (int i = 0; i < 1000; i++) {
+            int r = random.nextInt(5);
+            assertTrue(r >= 0 && r < 5);
+            seen[r] = true;
+        }
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+    }
+
+    // Test seedAt matches the sequence of a generator with the same seed
+    @Test
+    public void testSeedAtMatchesSequence() {
+        GameRandom random = new GameRandom(123L);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(random.nextLong(), GameRandom.seedAt(123L, i));
+        }
+    }
+
+    // Test split generators are reproducible and independent of the parent
+    @Test
+    public void testSplit() {
+        GameRandom a = new GameRandom(8L);
+        GameRandom b = new GameRandom(8L);
+        GameRandom childA = a.split();
+        GameRandom childB = b.split();
+
+        assertEquals(childA.nextLong(), childB.nextLong());
+        assertEquals(a.nextLong(), b.nextLong());
+        assertNotEquals(new GameRandom(8L).split().nextLong(), new GameRandom(8L).nextLong());
+    }
+
+    // Test shuffling with the same seed gives the same order
+    @Test
+    public void testSeededShuffle() {
+        List<Integer> a = new ArrayList<>();
+        List<Integer> b = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            a.add(i);
+            b.add(i);
+        }
+        Collections.shuffle(a, new GameRandom(3L));
+        Collections.shuffle(b, new GameRandom(3L));
+        assertEquals(a, b);
+    }
+}
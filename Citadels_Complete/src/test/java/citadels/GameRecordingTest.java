@@ -0,0 +1,121 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class GameRecordingTest {
+
+    // Lines typed by a scripted player, a cycle that eventually answers every prompt
+    private static final String[] SCRIPT = {"t", "Assassin", "Thief", "Magician", "King", "Bishop", "Merchant",
+            "Architect", "Warlord", "gold", "1", "2", "3", "4", "5", "build 1", "end", "collect card 1"};
+
+    // Play a game set up from the console with the scripted player, recording it
+    private Game playScripted(GameRecording recording) {
+        StringBuilder sb = new StringBuilder("5\n");
+        for (int i = 0; i < 20000; i++) {
+            sb.append(SCRIPT[i % SCRIPT.length]).append('\n');
+        }
+        InputStream in = System.in;
+        PrintStream out = System.out;
+        System.setIn(new ByteArrayInputStream(sb.toString().getBytes()));
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Game game = new Game(recording.getSeed());
+            recording.attach(game);
+            game.start(false);
+            return game;
+        } finally {
+            System.setIn(in);
+            System.setOut(out);
+        }
+    }
+
+    // Test replaying the recording of a game with a human player plays the same game
+    @Test
+    public void testReplayPlaysTheRecordedGame() {
+        GameRecording recording = new GameRecording(11L, 0);
+        Game game = playScripted(recording);
+        assertTrue(game.shouldEndGame());
+
+        Game replayed = recording.replay();
+        assertEquals(TestGames.describe(game), TestGames.describe(replayed));
+        assertEquals(game.getPlayers().indexOf(game.gameScore()), replayed.getPlayers().indexOf(replayed.gameScore()));
+    }
+
+    // Test a replay stops at the start of a round or before a character's turn, and plays on from there
+    @Test
+    public void testReplayStopsAtRoundAndTurn() {
+        Game game = new Game(7L);
+        game.setUpHeadless(5);
+        game.nextRound();
+        game.nextRound();
+        GameRecording recording = new GameRecording(7L, 5);
+        assertEquals(TestGames.describe(game), TestGames.describe(recording.replay(3, 0)));
+
+        Game stopped = recording.replay(3, 4);
+        assertEquals(3, stopped.getRound());
+        assertNotNull(stopped.getPlayers().get(0).getCharacter());
+        Player winner = stopped.playToEnd();
+        Player expected = game.playToEnd();
+        assertEquals(TestGames.describe(game), TestGames.describe(stopped));
+        assertEquals(game.getPlayers().indexOf(expected), stopped.getPlayers().indexOf(winner));
+    }
+
+    // Test a replay of a human game stops at the round asked for
+    @Test
+    public void testReplayStopsHumanGame() {
+        GameRecording recording = new GameRecording(11L, 0);
+        playScripted(recording);
+
+        Game stopped = recording.replay(4, 0);
+        assertEquals(4, stopped.getRound());
+        assertFalse(stopped.shouldEndGame());
+    }
+
+    // Test a replay prints nothing and leaves System.out alone, and the game prints to the console after it
+    @Test
+    public void testReplayLeavesConsoleAlone() {
+        GameRecording recording = new GameRecording(11L, 0);
+        playScripted(recording);
+
+        PrintStream out = System.out;
+        ByteArrayOutputStream console = new ByteArrayOutputStream();
+        PrintStream captured = new PrintStream(console);
+        System.setOut(captured);
+        try {
+            Game replayed = recording.replay();
+            assertSame(captured, System.out);
+            assertEquals(0, console.size());
+            assertSame(captured, replayed.getOut());
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    // Test a recording written as the game goes reads back the same, and other files are rejected
+    @Test
+    public void testFileRoundTrip() throws IOException {
+        File file = File.createTempFile("citadels", ".rec");
+        GameRecording recording = new GameRecording(11L, 0, file);
+        playScripted(recording);
+        recording.close();
+
+        GameRecording read = GameRecording.read(file);
+        assertEquals(11L, read.getSeed());
+        assertEquals(0, read.getPlayerCount());
+        assertEquals(recording.getLines(), read.getLines());
+
+        File copy = File.createTempFile("citadels", ".rec");
+        read.write(copy);
+        assertArrayEquals(Files.readAllBytes(file.toPath()), Files.readAllBytes(copy.toPath()));
+
+        Files.write(file.toPath(), "{\"round\":1}".getBytes());
+        assertThrows(IOException.class, () -> GameRecording.read(file));
+        file.delete();
+        copy.delete();
+    }
+}
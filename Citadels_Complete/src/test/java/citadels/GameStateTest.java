@@ -0,0 +1,309 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateTest {
+
+    // Describe everything a move can change, including the deck order and the random generator
+    private String describe(GameState s) {
+        Game g = s.getGame();
+        StringBuilder sb = new StringBuilder();
+        sb.append(s.getPhase()).append(s.getActor()).append(s.getTurnOrder()).append(s.getPile()).append(s.getDrawn())
+          .append(g.getRound()).append(g.shouldEndGame()).append(g.getEndThreshold()).append(g.getFirstToFinish())
+          .append(g.getPlayers().indexOf(g.getCrownedPlayer())).append(g.getKilledCharacterOrder())
+          .append(g.getStolenCharacterOrder()).append(g.facedUp).append(g.getCharacterHistory().size())
+          .append(Arrays.toString(g.getSelectionOrder())).append(g.getDistrictDeck().getAllCards())
+          .append(g.getRandom().getState());
+        for (Player p : g.getPlayers()) {
+            sb.append('|').append(p.getGold()).append(p.getHand()).append(p.getCity()).append(p.isKilled())
+              .append(p.getBuildLimit()).append(p.getBuiltThisTurn());
+            if (p.getCharacter() != null) {
+                sb.append(p.getCharacter().getName());
+            }
+            for (DistrictCard c : p.getCity()) {
+                sb.append(c.getBuiltRound()).append(c.getStoredCards());
+            }
+        }
+        return sb.toString();
+    }
+
+    // Describe cards held in a hand. The AI orders its hand as it likes, so they are described in name order
+    private static String hand(List<DistrictCard> cards) {
+        List<String> hand = new ArrayList<>();
+        for (DistrictCard c : cards) {
+            hand.add(c.toString());
+        }
+        Collections.sort(hand);
+        return hand.toString();
+    }
+
+    // Describe what a player's moves change at the table: the gold, hand and city of each seat, the deck,
+    // whether and by whom a city was completed, and the characters killed and robbed
+    private static List<String> table(Game g) {
+        List<String> table = new ArrayList<>();
+        for (Player p : g.getPlayers()) {
+            StringBuilder city = new StringBuilder().append(p.getCity());
+            for (DistrictCard c : p.getCity()) {
+                city.append(c.getBuiltRound()).append(c.getStoredCards());
+            }
+            table.add(String.valueOf(p.getGold()));
+            table.add(hand(p.getHand()));
+            table.add(city.toString());
+        }
+        table.add(g.getDistrictDeck().getAllCards().toString());
+        table.add(g.shouldEndGame() + " " + g.getPlayers().indexOf(g.getFirstToFinish()));
+        table.add(g.getKilledCharacterOrder() + " " + g.getStolenCharacterOrder());
+        return table;
+    }
+
+    // An AI player noting the table after each of its turns, and the random generator before it
+    private static class NotingPlayer extends AIPlayer {
+        private final List<List<String>> notes;
+        private final List<Long> randoms;
+
+        NotingPlayer(Player p, List<List<String>> notes, List<Long> randoms) {
+            super(p.getId(), p.getName());
+            this.notes = notes;
+            this.randoms = randoms;
+        }
+
+        @Override
+        public void takeTurn(Game game) {
+            randoms.add(game.getRandom().getState());
+            super.takeTurn(game);
+            notes.add(table(game));
+        }
+
+        @Override
+        public void takeTurnLimited(Game game) {
+            randoms.add(game.getRandom().getState());
+            super.takeTurnLimited(game);
+            notes.add(table(game));
+        }
+    }
+
+    // Search the moves of the turn being played for ones leaving the table as noted, and play them.
+    // Ending the turn starts the next one, so the gold of the seat called and of the Thief it pays are
+    // left out, and the cards the Architect draws are put back on the deck. Ending the round deals the
+    // next one, so the characters killed and robbed are left out.
+    private boolean playTurn(GameState state, List<String> note, int depth) {
+        Game g = state.getGame();
+        int deck = note.size() - 3;
+        int[] held = new int[g.getPlayers().size()];
+        for (int seat = 0; seat < held.length; seat++) {
+            held[seat] = g.getPlayers().get(seat).getHand().size();
+        }
+        for (Move m : state.legalMoves()) {
+            int order = state.getTurnOrder();
+            state.apply(m);
+            boolean found;
+            if (state.getPhase() == GameState.Phase.SELECT || state.isOver()) {
+                found = note.subList(0, deck + 2).equals(table(g).subList(0, deck + 2));
+            } else if (state.getTurnOrder() != order) {
+                List<String> expected = new ArrayList<>(note);
+                List<String> actual = table(g);
+                List<Integer> skipped = new ArrayList<>(Collections.singletonList(3 * state.getActor()));
+                if (g.isCharacterStolen(state.getTurnOrder())) {
+                    skipped.add(3 * g.getPlayers().indexOf(g.getThief()));
+                }
+                List<DistrictCard> hand = g.getPlayers().get(state.getActor()).getHand();
+                int before = held[state.getActor()];
+                if (hand.size() > before) {
+                    List<DistrictCard> cards = new ArrayList<>(hand.subList(before, hand.size()));
+                    cards.addAll(g.getDistrictDeck().getAllCards());
+                    actual.set(3 * state.getActor() + 1, hand(hand.subList(0, before)));
+                    actual.set(deck, cards.toString());
+                }
+                for (int i : skipped) {
+                    expected.set(i, "");
+                    actual.set(i, "");
+                }
+                found = expected.equals(actual);
+            } else {
+                found = depth < 12 && playTurn(state, note, depth + 1);
+            }
+            if (found) {
+                return true;
+            }
+            state.undo();
+        }
+        return false;
+    }
+
+    // Test seeded headless games replayed with moves, each turn by the moves giving the table the game
+    // gave, reach the same gold, hands, cities and scores
+    @Test
+    public void testMovesReplayHeadlessGames() {
+        for (long seed = 1; seed <= 200; seed++) {
+            int count = 4 + (int) (seed % 4);
+            Game played = new Game(seed);
+            played.setUpHeadless(count);
+            Game moved = new Game(seed);
+            moved.setUpHeadless(count);
+            List<List<String>> notes = new ArrayList<>();
+            List<Long> randoms = new ArrayList<>();
+            for (int seat = 0; seat < count; seat++) {
+                played.replacePlayer(seat, new NotingPlayer(played.getPlayers().get(seat), notes, randoms));
+            }
+
+            GameState state = null;
+            while (!played.shouldEndGame()) {
+                long deal = played.getRandom().getState();
+                notes.clear();
+                randoms.clear();
+                played.nextRound();
+
+                moved.getRandom().setState(deal);
+                state = GameState.atRoundStart(moved);
+                assertEquals(played.facedUp.toString(), moved.facedUp.toString());
+                while (state.getPhase() == GameState.Phase.SELECT) {
+                    state.apply(Move.pick(played.getPlayers().get(state.getActor()).getCharacter().getOrder()));
+                }
+                for (int i = 0; i < notes.size(); i++) {
+                    moved.getRandom().setState(randoms.get(i));
+                    assertTrue(playTurn(state, notes.get(i), 0),
+                            "seed " + seed + " round " + played.getRound() + " turn " + state.getTurnOrder());
+                }
+                assertEquals(table(played).subList(0, 3 * count + 2), table(moved).subList(0, 3 * count + 2));
+                assertEquals(played.getRound(), moved.getRound());
+            }
+            assertTrue(state.isOver());
+
+            Player winner = played.gameScore();
+            Player movedWinner = moved.gameScore();
+            for (int seat = 0; seat < count; seat++) {
+                assertEquals(played.getPlayers().get(seat).getScore(), moved.getPlayers().get(seat).getScore());
+            }
+            assertEquals(played.getPlayers().indexOf(winner), moved.getPlayers().indexOf(movedWinner));
+        }
+    }
+
+    // Test random playouts reach the end of the game and undoing every move restores the start
+    @Test
+    public void testPlayoutAndUndoAll() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Game game = new Game(seed);
+            game.setUpHeadless(4 + (int) (seed % 4));
+            GameState state = GameState.atRoundStart(game);
+            String start = describe(state);
+            // A walk discarding and destroying every district never ends, as in the game, so these walks are ones that end
+            Random choice = new Random(seed + 20);
+            List<Move> moves = new ArrayList<>();
+            while (!state.isOver()) {
+                state.legalMoves(moves);
+                assertFalse(moves.isEmpty(), "no move in " + state.getPhase());
+                state.apply(moves.get(choice.nextInt(moves.size())));
+                assertTrue(state.getDepth() < 5000);
+            }
+            assertTrue(game.shouldEndGame());
+            assertTrue(state.legalMoves().isEmpty());
+            assertNotNull(game.gameScore());
+
+            while (state.getDepth() > 0) {
+                state.undo();
+            }
+            assertEquals(start, describe(state));
+        }
+    }
+
+    // Test every legal move taken back restores the state it was played in
+    @Test
+    public void testEachMoveUndoes() {
+        Game game = new Game(7L);
+        game.setUpHeadless(5);
+        GameState state = GameState.atRoundStart(game);
+        Random choice = new Random(7L);
+        for (int step = 0; step < 400 && !state.isOver(); step++) {
+            String before = describe(state);
+            List<Move> moves = state.legalMoves();
+            for (Move m : moves) {
+                state.apply(m);
+                state.undo();
+                assertEquals(before, describe(state), m.toString());
+            }
+            state.apply(moves.get(choice.nextInt(moves.size())));
+        }
+    }
+
+    // Test the characters are dealt as in the selection phase of the game
+    @Test
+    public void testDealMatchesSelectionPhase() {
+        Game played = new Game(11L);
+        played.setUpHeadless(6);
+        Game searched = new Game(11L);
+        searched.setUpHeadless(6);
+
+        GameState state = GameState.atRoundStart(searched);
+        played.resetRoundEffect();
+        played.selectionPhase();
+        assertEquals(GameState.Phase.SELECT, state.getPhase());
+        assertEquals(played.facedUp.toString(), searched.facedUp.toString());
+        assertArrayEquals(played.getSelectionOrder(), searched.getSelectionOrder());
+        assertEquals(6, state.getPile().size());
+        assertEquals(played.getSelectionOrder()[0], state.getActor());
+    }
+
+    // Test a state can start in the selection phase and at the turn of a player
+    @Test
+    public void testStartMidRound() {
+        Game game = new Game(3L);
+        game.setUpHeadless(4);
+        GameState deal = GameState.atRoundStart(game);
+        List<CharacterCard> available = new ArrayList<>(deal.getPile());
+        int first = game.getSelectionOrder()[0];
+
+        GameState selection = GameState.atSelection(game, available);
+        assertEquals(GameState.Phase.SELECT, selection.getPhase());
+        assertEquals(first, selection.getActor());
+        assertEquals(available.size(), selection.legalMoves().size());
+
+        Player warlord = game.getPlayers().get(first);
+        warlord.setCharacter(CharacterCard.getCharacter(8));
+        warlord.setGold(0);
+        GameState turn = GameState.atTurn(game, warlord);
+        assertEquals(GameState.Phase.ABILITY, turn.getPhase());
+        assertEquals(8, turn.getTurnOrder());
+        assertEquals(0, turn.getDepth());
+        assertTrue(turn.legalMoves().contains(Move.skip()));
+    }
+
+    // Test moves of another phase are rejected and leave the state unchanged
+    @Test
+    public void testRejectsIllegalMoves() {
+        Game game = new Game(5L);
+        game.setUpHeadless(4);
+        GameState state = GameState.atRoundStart(game);
+        String before = describe(state);
+
+        assertThrows(IllegalArgumentException.class, () -> state.apply(Move.endTurn()));
+        assertThrows(IllegalArgumentException.class, () -> state.apply(Move.pick(9)));
+        assertEquals(before, describe(state));
+        assertEquals(0, state.getDepth());
+        assertThrows(IllegalStateException.class, state::undo);
+    }
+
+    // Test the Magician discard moves cover every set of the first cards of the hand
+    @Test
+    public void testMagicianMoves() {
+        Game game = new Game(9L);
+        game.setUpHeadless(4);
+        Player magician = game.getPlayers().get(0);
+        magician.setCharacter(CharacterCard.getCharacter(3));
+        GameState state = GameState.atTurn(game, magician);
+
+        List<Move> moves = state.legalMoves();
+        int cards = Math.min(magician.getHand().size(), GameState.MAX_DISCARD_CARDS);
+        assertEquals(1 + 3 + (1 << cards) - 1, moves.size());
+
+        int size = magician.getHand().size();
+        DistrictCard kept = magician.getHand().get(1);
+        state.apply(Move.discard(1));
+        assertEquals(size, magician.getHand().size());
+        assertSame(kept, magician.getHand().get(0));
+        assertEquals(GameState.Phase.RESOURCES, state.getPhase());
+    }
+}
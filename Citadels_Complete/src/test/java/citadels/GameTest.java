@@ -760,4 +760,97 @@ public class GameTest {
         assertEquals(4, game.getPlayers().size());
     }
 
+    // Headless game plays to the end with an all-AI table and prints nothing
+    @Test
+    public void testPlayHeadlessCompletesWithoutOutput() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PrintStream original = System.out;
+        System.setOut(new PrintStream(out));
+
+        Game game = new Game();
+        Player winner = game.playHeadless(5);
+
+        System.setOut(original);
+        assertEquals("", out.toString());
+        assertTrue(game.isHeadless());
+        assertTrue(game.shouldEndGame());
+        assertEquals(5, game.getPlayers().size());
+        for (Player p : game.getPlayers()) {
+            assertTrue(p instanceof AIPlayer);
+        }
+        assertNotNull(winner);
+        for (Player p : game.getPlayers()) {
+            assertTrue(winner.getScore() >= p.getScore());
+        }
+    }
+
+    // Headless game rejects player counts outside 4-7
+    @Test
+    public void testPlayHeadlessRejectsInvalidPlayerCount() {
+        assertThrows(IllegalArgumentException.class, () -> new Game().playHeadless(3));
+        assertThrows(IllegalArgumentException.class, () -> new Game().playHeadless(8));
+    }
+
+    // Copy of a game mid-way plays out without changing the original, and the same as the original
+    @Test
+    public void testCopyIsIndependentAndReplaysTheSame() {
+        Game original = new Game(2024L);
+        original.setUpHeadless(5);
+        original.nextRound();
+        original.nextRound();
+        String before = TestGames.describe(original);
+
+        Game copy = original.copy();
+        assertEquals(before, TestGames.describe(copy));
+        assertNotSame(original.getPlayers().get(0), copy.getPlayers().get(0));
+        assertSame(copy.getPlayers().get(original.getPlayers().indexOf(original.getCrownedPlayer())), copy.getCrownedPlayer());
+
+        Player copyWinner = copy.playToEnd();
+        assertEquals(before, TestGames.describe(original));
+
+        Player winner = original.playToEnd();
+        assertEquals(original.getPlayers().indexOf(winner), copy.getPlayers().indexOf(copyWinner));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(original.getPlayers().get(i).getScore(), copy.getPlayers().get(i).getScore());
+        }
+    }
+
+    // Forks with a new seed play headless and leave the original untouched
+    @Test
+    public void testForkUsesItsOwnSeed() {
+        Game original = new Game(7L);
+        original.setUpHeadless(4);
+        original.nextRound();
+        String before = TestGames.describe(original);
+
+        Game fork = original.fork(99L);
+        assertEquals(99L, fork.getSeed());
+        assertTrue(fork.isHeadless());
+        fork.playToEnd();
+        assertEquals(before, TestGames.describe(original));
+    }
+
+    // A played-out fork reset to the original plays the same as a new fork with the same seed
+    @Test
+    public void testResetForkPlaysLikeNewFork() {
+        Game original = new Game(31L);
+        original.setUpHeadless(6);
+        original.nextRound();
+        original.nextRound();
+        String before = TestGames.describe(original);
+
+        Game reused = original.fork(5L);
+        reused.playToEnd();
+        reused.resetTo(original, 8L);
+        Game fresh = original.fork(8L);
+        assertEquals(before, TestGames.describe(reused));
+        assertEquals(8L, reused.getSeed());
+
+        Player reusedWinner = reused.playToEnd();
+        Player freshWinner = fresh.playToEnd();
+        assertEquals(fresh.getPlayers().indexOf(freshWinner), reused.getPlayers().indexOf(reusedWinner));
+        assertEquals(TestGames.describe(fresh), TestGames.describe(reused));
+        assertEquals(before, TestGames.describe(original));
+    }
+
 }
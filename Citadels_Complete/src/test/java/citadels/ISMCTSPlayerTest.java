@@ -0,0 +1,145 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+public class ISMCTSPlayerTest {
+
+    // Set up a seeded table with a searching player in the first seat, after one round
+    private Game setUpGame(long seed) {
+        Game game = new Game(seed);
+        game.setUpHeadless(4);
+        game.replacePlayer(0, new ISMCTSPlayer(1, "Player 1", 30, 0, 1));
+        game.nextRound();
+        return game;
+    }
+
+    // Test the searching player picks one of the available characters and leaves the game as it was
+    @Test
+    public void testChooseCharacterFromAvailable() {
+        Game game = setUpGame(11L);
+        ISMCTSPlayer player = (ISMCTSPlayer) game.getPlayers().get(0);
+        List<CharacterCard> available = CharacterCard.getCharacters();
+        available.removeIf(c -> game.facedUp.contains(c));
+        available.remove(0);
+        String before = TestGames.describe(game);
+        int[] seen = game.getSeenCharacters().clone();
+        long playouts = player.getPlayouts();
+
+        CharacterCard chosen = player.chooseCharacter(game, new ArrayList<>(available));
+        assertTrue(available.contains(chosen));
+        assertEquals(before, TestGames.describe(game));
+        assertArrayEquals(seen, game.getSeenCharacters());
+        assertEquals(playouts + 30, player.getPlayouts());
+    }
+
+    // Test the choice between gold and cards leaves the game as it was
+    @Test
+    public void testChooseGoldLeavesGameUnchanged() {
+        Game game = setUpGame(12L);
+        ISMCTSPlayer player = (ISMCTSPlayer) game.getPlayers().get(0);
+        String before = TestGames.describe(game);
+        long playouts = player.getPlayouts();
+
+        player.chooseGold(game);
+        assertEquals(before, TestGames.describe(game));
+        assertEquals(playouts + 30, player.getPlayouts());
+    }
+
+    // Test a seeded game with a searching player plays to the end the same way twice
+    @Test
+    public void testSeededGameIsDeterministic() {
+        Game a = setUpGame(2024L);
+        Game b = setUpGame(2024L);
+        Player winnerA = a.playToEnd();
+        Player winnerB = b.playToEnd();
+
+        assertEquals(a.getPlayers().indexOf(winnerA), b.getPlayers().indexOf(winnerB));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(a.getPlayers().get(i).getScore(), b.getPlayers().get(i).getScore());
+        }
+        assertTrue(((ISMCTSPlayer) a.getPlayers().get(0)).getPlayouts() > 0);
+    }
+
+    // Test the searches on several threads play the whole budget and leave the game as it was
+    @Test
+    public void testParallelSearchUsesBudget() {
+        for (ISMCTSPlayer.Parallelism parallelism : ISMCTSPlayer.Parallelism.values()) {
+            Game game = setUpGame(13L);
+            ISMCTSPlayer player = (ISMCTSPlayer) game.getPlayers().get(0);
+            player.setThreads(4, parallelism);
+            List<CharacterCard> available = CharacterCard.getCharacters();
+            available.removeIf(c -> game.facedUp.contains(c));
+            available.remove(0);
+            String before = TestGames.describe(game);
+            long playouts = player.getPlayouts();
+
+            CharacterCard chosen = player.chooseCharacter(game, new ArrayList<>(available));
+            assertTrue(available.contains(chosen));
+            player.chooseGold(game);
+            assertEquals(before, TestGames.describe(game));
+            assertEquals(playouts + 60, player.getPlayouts());
+        }
+    }
+
+    // Test the searches of a player reuse its threads until it is closed
+    @Test
+    public void testThreadsKeptUntilClosed() {
+        Game game = setUpGame(14L);
+        ISMCTSPlayer player = new ISMCTSPlayer(1, "Pooled", 30, 0, 1);
+        game.replacePlayer(0, player);
+        player.setThreads(3, ISMCTSPlayer.Parallelism.ROOT);
+
+        player.chooseGold(game);
+        player.chooseGold(game);
+        long started = Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().equals("ISMCTS Pooled")).count();
+        assertTrue(started <= 3);
+
+        player.close();
+        player.chooseGold(game);
+        player.close();
+        assertEquals(90, player.getPlayouts());
+    }
+
+    // Test a seeded game with root-parallel searches plays the same way twice
+    @Test
+    public void testRootParallelIsDeterministic() {
+        Game a = setUpGame(77L);
+        Game b = setUpGame(77L);
+        ((ISMCTSPlayer) a.getPlayers().get(0)).setThreads(3, ISMCTSPlayer.Parallelism.ROOT);
+        ((ISMCTSPlayer) b.getPlayers().get(0)).setThreads(3, ISMCTSPlayer.Parallelism.ROOT);
+        Player winnerA = a.playToEnd();
+        Player winnerB = b.playToEnd();
+
+        assertEquals(a.getPlayers().indexOf(winnerA), b.getPlayers().indexOf(winnerB));
+        for (int i = 0; i < 4; i++) {
+            assertEquals(a.getPlayers().get(i).getScore(), b.getPlayers().get(i).getScore());
+        }
+    }
+
+    // Test a copy is still a searching player
+    @Test
+    public void testCopyKeepsSearch() {
+        ISMCTSPlayer player = new ISMCTSPlayer(2, "Player 2");
+        player.addGold(3);
+        player.setThreads(2, ISMCTSPlayer.Parallelism.TREE);
+        Player copy = player.copy();
+
+        assertTrue(copy instanceof ISMCTSPlayer);
+        assertEquals(2, ((ISMCTSPlayer) copy).getThreads());
+        assertEquals(ISMCTSPlayer.Parallelism.TREE, ((ISMCTSPlayer) copy).getParallelism());
+        assertEquals(3, copy.getGold());
+        assertEquals("Player 2", copy.getName());
+    }
+
+    // Test an empty budget is rejected
+    @Test
+    public void testInvalidBudget() {
+        assertThrows(IllegalArgumentException.class, () -> new ISMCTSPlayer(1, "Player 1", 0, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ISMCTSPlayer(1, "Player 1", 10, -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> new ISMCTSPlayer(1, "Player 1").setThreads(0, ISMCTSPlayer.Parallelism.ROOT));
+    }
+}
@@ -5,7 +5,10 @@ import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.io.File;
+import java.io.*;
+
+import org.json.simple.parser.JSONParser;
+import com.google.gson.stream.JsonWriter;
 
 public class JSONTest {
 
@@ -282,5 +285,123 @@ public class JSONTest {
         // Clean up
         badFile.delete();
     }
-    
+
+    // Test the streaming writer gives the same JSON as toJson
+    @Test
+    public void testWriteJsonMatchesToJson() throws Exception {
+        AIPlayer player = new AIPlayer(3, "AI \"Quoted\" \u00e9");
+        player.setGold(4);
+        player.getHand().add(new DistrictCard("Temple", 1, "blue", ""));
+        DistrictCard museum = new DistrictCard("Museum", 4, "purple", "Store cards");
+        museum.storeCard(new DistrictCard("Castle", 4, "yellow", ""));
+        museum.setBuiltRound(2);
+        player.getCity().add(museum);
+        player.setCharacter(new CharacterCard("King", 4, "Gain the crown"));
+
+        StringWriter text = new StringWriter();
+        player.writeJson(new JsonWriter(text));
+
+        JSONParser parser = new JSONParser();
+        assertEquals(parser.parse(player.toJson().toJSONString()), parser.parse(text.toString()));
+    }
+
+    // Test a game saved in the middle of play loads back the same
+    @Test
+    public void testSaveAndLoadMidGame() {
+        Game original = new Game(99L);
+        original.setUpHeadless(5);
+        original.nextRound();
+        original.nextRound();
+
+        String filename = "test_game_stream.json";
+        original.saveToFile(filename);
+        Game loaded = Game.loadFromFile(filename);
+        new File(filename).delete();
+
+        assertNotNull(loaded);
+        assertEquals(original.getRound(), loaded.getRound());
+        assertEquals(original.getDistrictDeck().getAllCards().toString(), loaded.getDistrictDeck().getAllCards().toString());
+        for (int i = 0; i < 5; i++) {
+            Player a = original.getPlayers().get(i);
+            Player b = loaded.getPlayers().get(i);
+            assertEquals(a.getName(), b.getName());
+            assertEquals(a.getGold(), b.getGold());
+            assertEquals(a.getHand().toString(), b.getHand().toString());
+            assertEquals(a.getCity().toString(), b.getCity().toString());
+        }
+        assertEquals(original.getPlayers().indexOf(original.getCrownedPlayer()), loaded.getPlayers().indexOf(loaded.getCrownedPlayer()));
+    }
+
+    // Test the streaming decoder reads a save like the JSONObject decoder
+    @Test
+    public void testReadJsonMatchesFromJson() throws Exception {
+        Game original = new Game(99L);
+        original.setUpHeadless(6);
+        for (int i = 0; i < 4; i++) {
+            original.nextRound();
+        }
+        Player human = new HumanPlayer(6, "Player 1");
+        human.setGold(2);
+        DistrictCard museum = new DistrictCard("Museum", 4, "purple", "Store cards");
+        museum.storeCard(new DistrictCard("Castle", 4, "yellow", ""));
+        museum.setBuiltRound(3);
+        human.getCity().add(museum);
+        human.setCharacter(CharacterCard.getCharacter(4));
+        original.getPlayers().add(human);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeJson(bytes);
+        String json = bytes.toString("UTF-8");
+
+        Game typed = Game.readJson(new StringReader(json));
+        Game tree = Game.fromJson((JSONObject) new JSONParser().parse(json));
+        assertEquals(TestGames.describe(original), TestGames.describe(typed));
+        assertEquals(TestGames.describe(tree), TestGames.describe(typed));
+        assertSame(CharacterCard.getCharacter(4), typed.getPlayers().get(6).getCharacter());
+        assertEquals(1, typed.getPlayers().get(6).getCity().get(0).getStoredCards().size());
+    }
+
+    // Test both JSON decoders keep the seed and random state, so a loaded game plays on as the saved game would
+    @Test
+    public void testLoadedGamePlaysOnTheSame() throws Exception {
+        Game original = new Game(41L);
+        original.setUpHeadless(5);
+        for (int i = 0; i < 3; i++) {
+            original.nextRound();
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeJson(bytes);
+        String json = bytes.toString("UTF-8");
+
+        Game typed = Game.readJson(new StringReader(json));
+        Game tree = Game.fromJson((JSONObject) new JSONParser().parse(json));
+        assertEquals(41L, typed.getSeed());
+        assertEquals(41L, tree.getSeed());
+        typed.setHeadless(true);
+        tree.setHeadless(true);
+        original.playToEnd();
+        typed.playToEnd();
+        tree.playToEnd();
+        assertEquals(TestGames.describe(original), TestGames.describe(typed));
+        assertEquals(TestGames.describe(original), TestGames.describe(tree));
+    }
+
+    // Test the streaming decoder skips fields it does not know and rejects a save with no crowned player
+    @Test
+    public void testReadJsonSkipsUnknownFields() throws Exception {
+        String json = "{\"version\":[1,{\"a\":null}],\"round\":3,\"debugMode\":false,\"gameShouldEnd\":false,"
+                + "\"bellTowerActive\":false,\"endThreshold\":8,\"crownedPlayerId\":0,"
+                + "\"districtDeck\":[{\"name\":\"Temple\",\"color\":\"blue\",\"cost\":1,\"ability\":\"\",\"builtRound\":-1,\"art\":\"x\"}],"
+                + "\"players\":[{\"type\":\"AIPlayer\",\"id\":0,\"name\":\"AI 1\",\"gold\":2,\"mood\":{\"x\":1},"
+                + "\"hand\":[],\"city\":[],\"character\":null}]}";
+
+        Game game = Game.readJson(new StringReader(json));
+        assertEquals(3, game.getRound());
+        assertEquals("Temple", game.getDistrictDeck().draw().getName());
+        assertEquals("AI 1", game.getCrownedPlayer().getName());
+        assertNull(game.getCrownedPlayer().getCharacter());
+
+        String uncrowned = json.replace("\"crownedPlayerId\":0", "\"crownedPlayerId\":4");
+        assertThrows(IOException.class, () -> Game.readJson(new StringReader(uncrowned)));
+    }
 }
@@ -0,0 +1,120 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.nio.channels.FileChannel;
+
+public class ResultStoreTest {
+
+    // Create an empty directory for a store
+    private File newDirectory() throws IOException {
+        return Files.createTempDirectory("citadels-results").toFile();
+    }
+
+    // Delete a store
+    private void delete(File directory) {
+        for (File f : directory.listFiles()) {
+            f.delete();
+        }
+        directory.delete();
+    }
+
+    // Test the store holds every game of a batch and aggregates them like the simulator
+    @Test
+    public void testStoreMatchesSimulator() throws IOException {
+        File directory = newDirectory();
+        SimulationStats stats;
+        try (ResultStore store = new ResultStore(directory)) {
+            stats = new Simulator(2, 3L).run(200, 5, store);
+            assertEquals(200, store.size());
+        }
+
+        ResultTable table = new ResultTable(directory);
+        assertEquals(200, table.size());
+        SimulationStats stored = table.stats();
+        assertEquals(stats.getGames(), stored.getGames());
+        assertEquals(stats.getAverageRounds(), stored.getAverageRounds(), 1e-9);
+        assertEquals(stats.getMinRounds(), stored.getMinRounds());
+        assertEquals(stats.getMaxRounds(), stored.getMaxRounds());
+        for (int seat = 0; seat < 5; seat++) {
+            assertEquals(stats.getWins(seat), stored.getWins(seat));
+            assertEquals(stats.getAverageScore(seat), stored.getAverageScore(seat), 1e-9);
+        }
+        for (int order = 1; order <= 8; order++) {
+            assertEquals(stats.getCharacterPicks(order), stored.getCharacterPicks(order));
+            assertEquals(stats.getCharacterWins(order), stored.getCharacterWins(order));
+        }
+        delete(directory);
+    }
+
+    // Test a stored row reads back as the result of the game played from its seed
+    @Test
+    public void testRowsReadBack() throws IOException {
+        File directory = newDirectory();
+        GameResult[] results = {Simulator.playOne(4, 1L), Simulator.playOne(7, 2L), Simulator.playOne(5, 3L)};
+        try (ResultStore store = new ResultStore(directory)) {
+            for (GameResult r : results) {
+                store.append(r);
+            }
+        }
+
+        ResultTable table = new ResultTable(directory);
+        for (int row = 0; row < results.length; row++) {
+            GameResult expected = results[row];
+            GameResult read = table.get(row);
+            assertEquals(expected.getSeed(), read.getSeed());
+            assertEquals(expected.getPlayerCount(), read.getPlayerCount());
+            assertEquals(expected.getWinnerSeat(), read.getWinnerSeat());
+            assertEquals(expected.getRounds(), read.getRounds());
+            assertArrayEquals(expected.getScores(), read.getScores());
+            assertArrayEquals(expected.getCharacterPicks(), read.getCharacterPicks());
+            for (int seat = 0; seat < expected.getPlayerCount(); seat++) {
+                for (int part = 0; part < ScoreBreakdown.PARTS.length; part++) {
+                    assertEquals(expected.getScoreBreakdowns()[seat].getPart(part), table.getScorePart(row, part, seat));
+                }
+                assertEquals(expected.getScores()[seat], read.getScoreBreakdowns()[seat].getTotal());
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> table.getSeed(results.length));
+        delete(directory);
+    }
+
+    // Test a row torn by a crash is dropped and the store can be appended to again
+    @Test
+    public void testReopenDropsTornRow() throws IOException {
+        File directory = newDirectory();
+        try (ResultStore store = new ResultStore(directory)) {
+            store.append(Simulator.playOne(4, 1L));
+            store.append(Simulator.playOne(4, 2L));
+        }
+        File scores = new File(directory, "score.col");
+        try (FileChannel channel = FileChannel.open(scores.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (ResultStore store = new ResultStore(directory)) {
+            assertEquals(1, store.size());
+            store.append(Simulator.playOne(4, 5L));
+        }
+        ResultTable table = new ResultTable(directory);
+        assertEquals(2, table.size());
+        assertEquals(1L, table.getSeed(0));
+        assertEquals(5L, table.getSeed(1));
+        assertEquals(Simulator.playOne(4, 5L).getScores()[2], table.getScore(1, 2));
+        delete(directory);
+    }
+
+    // Test a directory holding other files is rejected
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        File directory = newDirectory();
+        Files.write(new File(directory, "seed.col").toPath(), "{\"round\":1}".getBytes());
+
+        assertThrows(IOException.class, () -> new ResultStore(directory));
+        assertThrows(IOException.class, () -> new ResultTable(directory));
+        delete(directory);
+    }
+}
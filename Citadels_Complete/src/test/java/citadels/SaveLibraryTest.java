@@ -0,0 +1,125 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+public class SaveLibraryTest {
+
+    // Create an empty library directory
+    private File newDirectory() throws IOException {
+        return Files.createTempDirectory("citadels-saves").toFile();
+    }
+
+    // Delete a library directory
+    private void deleteDirectory(File directory) {
+        for (File f : directory.listFiles()) {
+            f.delete();
+        }
+        directory.delete();
+    }
+
+    // Play a seeded game for some rounds
+    private Game playRounds(long seed, int rounds) {
+        Game game = new Game(seed);
+        game.setUpHeadless(4);
+        for (int i = 0; i < rounds; i++) {
+            game.nextRound();
+        }
+        return game;
+    }
+
+    // Test saves are indexed with their round, players and scores, and resume as saved
+    @Test
+    public void testSaveListAndResume() throws IOException {
+        File directory = newDirectory();
+        SaveLibrary library = new SaveLibrary(directory);
+        Game game = playRounds(3L, 2);
+        SaveEntry entry = library.save("first", game);
+
+        assertEquals("first.sav", entry.getName());
+        assertEquals(3, entry.getRound());
+        assertEquals(Arrays.asList("Player 1", "Player 2", "Player 3", "Player 4"), entry.getPlayerNames());
+        assertEquals(game.getLiveScore(game.getPlayers().get(2)), entry.getScores()[2]);
+        assertTrue(new File(directory, SaveLibrary.INDEX_FILE).exists());
+
+        Game resumed = library.resume("first");
+        assertEquals(3, resumed.getRound());
+        assertEquals(game.getPlayers().get(0).getGold(), resumed.getPlayers().get(0).getGold());
+        deleteDirectory(directory);
+    }
+
+    // Test listing and filtering come from the index, without reading the saves
+    @Test
+    public void testListingUsesIndex() throws IOException {
+        File directory = newDirectory();
+        SaveLibrary library = new SaveLibrary(directory);
+        library.save("a", playRounds(1L, 1));
+        library.save("b", playRounds(2L, 3));
+
+        Path index = new File(directory, SaveLibrary.INDEX_FILE).toPath();
+        String text = new String(Files.readAllBytes(index), StandardCharsets.UTF_8);
+        Files.write(index, text.replace("Player 4", "Someone Else").getBytes(StandardCharsets.UTF_8));
+
+        SaveLibrary reopened = new SaveLibrary(directory);
+        assertEquals(2, reopened.list().size());
+        assertEquals(2, reopened.list(e -> e.hasPlayer("someone else")).size());
+        assertEquals(1, reopened.list(e -> e.getRound() > 2).size());
+        assertEquals("b.sav", reopened.list(e -> e.getRound() > 2).get(0).getName());
+        deleteDirectory(directory);
+    }
+
+    // Test files written or deleted behind the library's back are picked up on opening
+    @Test
+    public void testRefreshFindsNewAndDeletedSaves() throws IOException {
+        File directory = newDirectory();
+        SaveLibrary library = new SaveLibrary(directory);
+        library.save("kept", playRounds(4L, 1));
+        library.save("gone", playRounds(5L, 1));
+
+        playRounds(6L, 2).saveToFile(new File(directory, "external.json").getPath());
+        Files.write(new File(directory, "notes.txt").toPath(), "not a save".getBytes());
+        new File(directory, "gone.sav").delete();
+
+        SaveLibrary reopened = new SaveLibrary(directory);
+        assertNotNull(reopened.get("kept"));
+        assertNull(reopened.get("gone"));
+        assertNull(reopened.get("notes.txt"));
+        assertEquals(3, reopened.get("external.json").getRound());
+        assertEquals(2, reopened.list().size());
+        deleteDirectory(directory);
+    }
+
+    // Test deleting a save removes its entry
+    @Test
+    public void testDelete() throws IOException {
+        File directory = newDirectory();
+        SaveLibrary library = new SaveLibrary(directory);
+        library.save("old", playRounds(7L, 1));
+
+        assertTrue(library.delete("old"));
+        assertTrue(library.list().isEmpty());
+        assertTrue(new SaveLibrary(directory).list().isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> library.save("../escape", playRounds(8L, 1)));
+        deleteDirectory(directory);
+    }
+
+    // Test names made only of dots, which would name the directory or its parent, are rejected
+    @Test
+    public void testDotNamesRejected() throws IOException {
+        File directory = newDirectory();
+        SaveLibrary library = new SaveLibrary(directory);
+
+        for (String name : new String[] {".", "..", "..."}) {
+            assertThrows(IllegalArgumentException.class, () -> library.save(name, playRounds(8L, 1)));
+            assertThrows(IllegalArgumentException.class, () -> library.resume(name));
+            assertThrows(IllegalArgumentException.class, () -> library.delete(name));
+        }
+        assertTrue(directory.getParentFile().exists());
+        deleteDirectory(directory);
+    }
+}
@@ -0,0 +1,95 @@
+package citadels;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ScoreBreakdownTest {
+
+    private Game game;
+    private AIPlayer player;
+
+    @BeforeEach
+    public void setUp() {
+        game = new Game();
+        player = new AIPlayer(1, "AI1");
+        game.getPlayers().add(player);
+        player.setCharacter(new CharacterCard("King", 4, ""));
+    }
+
+    // Test live score follows districts being built and destroyed
+    @Test
+    public void testFollowsBuildAndDestroy() {
+        assertEquals(0, game.getLiveScore(player));
+        DistrictCard castle = new DistrictCard("Castle", 4, "yellow", "");
+        player.getCity().add(castle);
+        player.getCity().add(new DistrictCard("Dragon Gate", 6, "purple", ""));
+        assertEquals(12, game.getLiveScore(player));
+
+        player.getCity().remove(castle);
+        assertEquals(8, game.getLiveScore(player));
+    }
+
+    // Test live score follows gold and hand size with Imperial Treasury and Map Room
+    @Test
+    public void testFollowsGoldAndHand() {
+        player.getCity().add(new DistrictCard("Imperial Treasury", 5, "purple", ""));
+        player.getCity().add(new DistrictCard("Map Room", 5, "purple", ""));
+        player.addGold(3);
+        player.drawCard(new DistrictCard("Temple", 1, "blue", ""));
+
+        ScoreBreakdown score = game.getScoreBreakdown(player);
+        assertEquals(3, score.getTreasuryBonus());
+        assertEquals(1, score.getMapRoomBonus());
+        assertEquals(14, score.getTotal());
+
+        player.addGold(-3);
+        player.getHand().clear();
+        assertEquals(10, game.getLiveScore(player));
+    }
+
+    // Test color bonus with and without the Haunted City
+    @Test
+    public void testColorBonus() {
+        player.getCity().add(new DistrictCard("Castle", 4, "yellow", ""));
+        player.getCity().add(new DistrictCard("Temple", 1, "blue", ""));
+        player.getCity().add(new DistrictCard("Tavern", 1, "green", ""));
+        player.getCity().add(new DistrictCard("Watchtower", 1, "red", ""));
+        assertEquals(0, game.getScoreBreakdown(player).getColorBonus());
+
+        DistrictCard haunted = new DistrictCard("Haunted City", 2, "purple", "");
+        haunted.setBuiltRound(game.getRound());
+        player.getCity().add(haunted);
+        assertEquals(0, game.getScoreBreakdown(player).getColorBonus());
+
+        haunted.setBuiltRound(game.getRound() - 1);
+        assertEquals(3, game.getScoreBreakdown(player).getColorBonus());
+    }
+
+    // Test completion bonus before and after another player finished first
+    @Test
+    public void testCompletionBonus() {
+        for (int i = 0; i < game.getEndThreshold(); i++) {
+            player.getCity().add(new DistrictCard("Tavern", 1, "green", ""));
+        }
+        assertEquals(2, game.getScoreBreakdown(player).getCompletionBonus());
+        game.setFirstToFinish(player);
+        assertEquals(4, game.getScoreBreakdown(player).getCompletionBonus());
+    }
+
+    // Test final scoring gives the same total as the live score
+    @Test
+    public void testFinalScoreMatchesLiveScore() {
+        player.getCity().add(new DistrictCard("Wishing Well", 5, "purple", ""));
+        player.getCity().add(new DistrictCard("Museum", 4, "purple", ""));
+        player.getCity().get(1).storeCard(new DistrictCard("Temple", 1, "blue", ""));
+        int live = game.getLiveScore(player);
+
+        game.gameScore();
+        assertEquals(live, player.getScore());
+        assertEquals(11, live);
+    }
+}
@@ -0,0 +1,122 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SimulatorTest {
+
+    // Test a single headless game produces a consistent result
+    @Test
+    public void testPlayOneProducesResult() {
+        GameResult result = Simulator.playOne(5, 42L);
+
+        assertEquals(42L, result.getSeed());
+        assertEquals(5, result.getPlayerCount());
+        assertEquals(5, result.getScores().length);
+        assertTrue(result.getWinnerSeat() >= 0 && result.getWinnerSeat() < 5);
+        assertTrue(result.getRounds() > 0);
+        assertEquals(result.getRounds(), result.getCharacterPicks().length);
+        for (int[] round : result.getCharacterPicks()) {
+            assertEquals(5, round.length);
+        }
+        for (int score : result.getScores()) {
+            assertTrue(result.getScores()[result.getWinnerSeat()] >= score);
+        }
+    }
+
+    // Test the wins of a player are counted the same whatever the number of threads
+    @Test
+    public void testCountWins() {
+        AIWeights candidate = AIWeights.DEFAULT.with(AIWeights.GOLD_BELOW, 5);
+        long one = new Simulator(1, 9L).countWins(12, 4, candidate, AIWeights.DEFAULT);
+        long three = new Simulator(3, 9L).countWins(12, 4, candidate, AIWeights.DEFAULT);
+        assertEquals(one, three);
+        assertTrue(one >= 0 && one <= 12);
+
+        long expected = 0;
+        for (long i = 0; i < 12; i++) {
+            if (Simulator.playOne(4, GameRandom.seedAt(9L, i)).getWinnerSeat() == i % 4) {
+                expected++;
+            }
+        }
+        assertEquals(expected, new Simulator(2, 9L).countWins(12, 4, AIWeights.DEFAULT, AIWeights.DEFAULT));
+    }
+
+    // Test a batch over several threads counts every game exactly once
+    @Test
+    public void testRunMergesAllGames() {
+        Simulator simulator = new Simulator(3);
+        SimulationStats stats = simulator.run(50, 4);
+
+        assertEquals(50, stats.getGames());
+        long wins = 0;
+        for (int seat = 0; seat < SimulationStats.MAX_SEATS; seat++) {
+            wins += stats.getWins(seat);
+        }
+        assertEquals(50, wins);
+
+        long picks = 0;
+        for (int order = 1; order <= SimulationStats.CHARACTER_COUNT; order++) {
+            picks += stats.getCharacterPicks(order);
+        }
+        assertEquals(Math.round(stats.getAverageRounds() * 50) * 4, picks);
+        assertTrue(stats.getMinRounds() <= stats.getMaxRounds());
+        assertTrue(stats.getGamesPerSecond() > 0);
+        assertTrue(stats.report().contains("Games: 50"));
+    }
+
+    // Test merging two statistics adds their counts together
+    @Test
+    public void testMergeStats() {
+        SimulationStats a = new SimulationStats();
+        SimulationStats b = new SimulationStats();
+        a.add(new GameResult(1L, 4, 0, new int[] {10, 5, 3, 2}, 1, new int[][] {{4, 1, 2, 3}}));
+        b.add(new GameResult(2L, 4, 2, new int[] {1, 5, 12, 2}, 2, new int[][] {{4, 1, 2, 3}, {5, 6, 7, 8}}));
+        a.merge(b);
+
+        assertEquals(2, a.getGames());
+        assertEquals(1, a.getWins(0));
+        assertEquals(1, a.getWins(2));
+        assertEquals(5.5, a.getAverageScore(0));
+        assertEquals(1, a.getMinRounds());
+        assertEquals(2, a.getMaxRounds());
+        assertEquals(2, a.getCharacterPicks(4));
+        assertEquals(1, a.getCharacterWins(4));
+        assertEquals(1, a.getCharacterWins(7));
+    }
+
+    // Test the same seed replays the same game
+    @Test
+    public void testSameSeedSameGame() {
+        GameResult a = Simulator.playOne(6, 123456789L);
+        GameResult b = Simulator.playOne(6, 123456789L);
+
+        assertEquals(a.getWinnerSeat(), b.getWinnerSeat());
+        assertEquals(a.getRounds(), b.getRounds());
+        assertArrayEquals(a.getScores(), b.getScores());
+        assertArrayEquals(a.getCharacterPicks(), b.getCharacterPicks());
+    }
+
+    // Test a seeded batch gives the same totals whatever the number of threads
+    @Test
+    public void testSeededBatchIndependentOfThreads() {
+        SimulationStats one = new Simulator(1, 7L).run(30, 5);
+        SimulationStats four = new Simulator(4, 7L).run(30, 5);
+
+        assertEquals(one.getAverageRounds(), four.getAverageRounds());
+        for (int seat = 0; seat < 5; seat++) {
+            assertEquals(one.getWins(seat), four.getWins(seat));
+            assertEquals(one.getAverageScore(seat), four.getAverageScore(seat));
+        }
+        for (int order = 1; order <= SimulationStats.CHARACTER_COUNT; order++) {
+            assertEquals(one.getCharacterPicks(order), four.getCharacterPicks(order));
+        }
+    }
+
+    // Test simulator rejects a thread count below one
+    @Test
+    public void testInvalidThreadCount() {
+        assertThrows(IllegalArgumentException.class, () -> new Simulator(0));
+    }
+}
@@ -0,0 +1,30 @@
+package citadels;
+
+// Helpers shared by the tests that compare whole games
+final class TestGames {
+
+    private TestGames() {
+    }
+
+    // Describe the state of a game, to compare games: the round, crown, end of game and rules,
+    // every player's seat, gold, hand, city with the round and stored cards of each district,
+    // character and status, and the district deck in draw order
+    static String describe(Game g) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(g.getRound()).append(g.getPlayers().indexOf(g.getCrownedPlayer())).append(g.shouldEndGame())
+          .append(g.isDebugMode()).append(g.getEndThreshold());
+        for (Player p : g.getPlayers()) {
+            sb.append('|').append(p.getClass().getSimpleName()).append(p.getId()).append(p.getName()).append(p.getGold())
+              .append(p.getHand()).append(p.getCity());
+            for (DistrictCard c : p.getCity()) {
+                sb.append(c.getBuiltRound()).append(c.getStoredCards());
+            }
+            if (p.getCharacter() != null) {
+                sb.append(p.getCharacter().getName());
+            }
+            sb.append(p.isKilled());
+        }
+        sb.append(g.getDistrictDeck().getAllCards());
+        return sb.toString();
+    }
+}
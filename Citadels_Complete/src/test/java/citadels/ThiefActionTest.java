@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -91,5 +93,28 @@ public class ThiefActionTest {
         assertEquals(5, game.getStolenCharacterOrder());
     }
 
-    
+    // Test the AI thief steals neither from the face-down character, when it saw every character in play,
+    // nor from the character the assassin killed, so only one character is left to steal from
+    @Test
+    public void testThiefSkipsFaceDownAndKilled() {
+        for (int killed : new int[] {4, 7}) {
+            Game g = new Game(1L);
+            g.setUpHeadless(4);
+            int[] orders = {2, 1, 4, 7};
+            for (int seat = 0; seat < 4; seat++) {
+                g.getPlayers().get(seat).setCharacter(CharacterCard.getCharacter(orders[seat]));
+            }
+            g.facedUp = new ArrayList<>(List.of(CharacterCard.getCharacter(3), CharacterCard.getCharacter(5), CharacterCard.getCharacter(6)));
+            g.setSelectionOrder(new int[] {0, 1, 2, 3});
+            int pile = CharacterCard.mask(List.of(CharacterCard.getCharacter(1), CharacterCard.getCharacter(2),
+                    CharacterCard.getCharacter(4), CharacterCard.getCharacter(7)));
+            g.setSeenCharacters(new int[] {pile, pile & ~0b10, pile & ~0b11, 1 << 6});
+            g.setKilledCharacterOrder(killed);
+            assertTrue(CharacterInference.getDefault().find(g, g.getPlayers().get(0)) >= 0);
+
+            action.performAction(g, g.getPlayers().get(0));
+
+            assertEquals(killed == 4 ? 7 : 4, g.getStolenCharacterOrder());
+        }
+    }
 }
@@ -0,0 +1,28 @@
+package citadels;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightTunerTest {
+
+    // Test the fitness is a win rate and does not depend on the number of threads
+    @Test
+    public void testFitness() {
+        double one = new WeightTuner(1, 4, 3L).fitness(AIWeights.DEFAULT, AIWeights.DEFAULT, 5L, 20);
+        double three = new WeightTuner(3, 4, 3L).fitness(AIWeights.DEFAULT, AIWeights.DEFAULT, 5L, 20);
+        assertEquals(one, three);
+        assertTrue(one >= 0 && one <= 1);
+    }
+
+    // Test a tuning run is repeatable for a seed and keeps the weights in range
+    @Test
+    public void testTuneIsDeterministic() {
+        AIWeights a = new WeightTuner(2, 4, 11L).tune(AIWeights.DEFAULT, 2, 8, null);
+        AIWeights b = new WeightTuner(1, 4, 11L).tune(AIWeights.DEFAULT, 2, 8, null);
+        assertEquals(a, b);
+        for (int i = 0; i < AIWeights.SIZE; i++) {
+            assertTrue(a.getValue(i) >= AIWeights.getMin(i) && a.getValue(i) <= AIWeights.getMax(i));
+        }
+    }
+}